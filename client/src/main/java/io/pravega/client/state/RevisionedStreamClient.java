@@ -42,6 +42,19 @@ public interface RevisionedStreamClient<T> {
      */
     Iterator<Entry<Revision, T>> readFrom(Revision start);
 
+    /**
+     * Same as {@link #readFrom(Revision)}, except that if there is nothing in the stream after start, this blocks
+     * for up to timeoutMillis waiting for a value to be written. If nothing is written in that time, the iterator
+     * returned is empty.
+     * 
+     * @param start The location the iterator should start at.
+     * @param timeoutMillis The maximum amount of time to wait for a value to be written.
+     * @return An iterator over Revision, value pairs.
+     */
+    default Iterator<Entry<Revision, T>> readFrom(Revision start, long timeoutMillis) {
+        return readFrom(start);
+    }
+
     /**
      * If the supplied revision is the latest revision in the stream write the provided value and return the new revision.
      * If the supplied revision is not the latest, nothing will occur and null will be returned.
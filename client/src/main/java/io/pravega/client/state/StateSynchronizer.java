@@ -54,6 +54,16 @@ public interface StateSynchronizer<StateT extends Revisioned> {
      */
     void fetchUpdates();
 
+    /**
+     * Same as {@link #fetchUpdates()}, except that if there are no new updates this blocks until one is written
+     * (or the timeout elapses) rather than returning immediately. This allows a process to wait for changes made
+     * by other processes without repeatedly polling.
+     *
+     * @param timeoutMillis The maximum amount of time to wait for a new update.
+     * @return True if the local state was updated, false otherwise.
+     */
+    boolean waitForUpdates(long timeoutMillis);
+
     /**
      * Creates a new update for the latest state object and applies it atomically.
      * 
@@ -103,4 +113,13 @@ public interface StateSynchronizer<StateT extends Revisioned> {
      * @param compactor An generator of InitialUpdates given a state.
      */
     void compact(Function<StateT, InitialUpdate<StateT>> compactor);
+
+    /**
+     * Provide a function that generates compacted version of localState, which will be used to compact the state
+     * automatically once {@link SynchronizerConfig#getAutoCompactionThresholdBytes()} is exceeded. The same caveats
+     * as for {@link #compact(Function)} apply.
+     *
+     * @param compactor An generator of InitialUpdates given a state.
+     */
+    void setCompactor(Function<StateT, InitialUpdate<StateT>> compactor);
 }
\ No newline at end of file
@@ -27,5 +27,10 @@ import lombok.Data;
 @Builder
 public class SynchronizerConfig implements Serializable {
 
-    
+    /**
+     * Once the updates written since the last {@link InitialUpdate} take up at least this many bytes, the state is
+     * compacted automatically using the compactor passed to {@link StateSynchronizer#setCompactor}. Zero (the default)
+     * disables automatic compaction.
+     */
+    private final long autoCompactionThresholdBytes;
 }
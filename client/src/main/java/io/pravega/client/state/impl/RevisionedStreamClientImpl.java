@@ -27,8 +27,10 @@ import io.pravega.client.stream.impl.segment.SegmentInputStream;
 import io.pravega.client.stream.impl.segment.SegmentOutputStream;
 import io.pravega.client.stream.impl.segment.SegmentSealedException;
 
+import com.google.common.collect.Iterators;
 import java.nio.ByteBuffer;
 import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
@@ -45,12 +47,16 @@ import lombok.extern.slf4j.Slf4j;
 public class RevisionedStreamClientImpl<T> implements RevisionedStreamClient<T> {
 
     private final Segment segment;
-    @GuardedBy("lock")
+    @GuardedBy("readLock")
     private final SegmentInputStream in;
     @GuardedBy("lock")
     private final SegmentOutputStream out;
     private final Serializer<T> serializer;
     private final Object lock = new Object();
+    /**
+     * Separate from lock, so that a reader waiting for new data does not hold up writers.
+     */
+    private final Object readLock = new Object();
 
     @Override
     public Revision writeConditionally(Revision latestRevision, T value) {
@@ -98,17 +104,46 @@ public class RevisionedStreamClientImpl<T> implements RevisionedStreamClient<T>
 
     @Override
     public Iterator<Entry<Revision, T>> readFrom(Revision start) {
-        synchronized (lock) {
+        synchronized (readLock) {
             long startOffset = start.asImpl().getOffsetInSegment();
             long endOffset = in.fetchCurrentStreamLength();
             log.trace("Creating iterator from {} until {}", startOffset, endOffset);
             return new StreamIterator(startOffset, endOffset);
         }
     }
+
+    @Override
+    public Iterator<Entry<Revision, T>> readFrom(Revision start, long timeoutMillis) {
+        ByteBuffer data;
+        long offset;
+        synchronized (readLock) {
+            long startOffset = start.asImpl().getOffsetInSegment();
+            long endOffset = in.fetchCurrentStreamLength();
+            if (endOffset > startOffset || timeoutMillis <= 0) {
+                log.trace("Creating iterator from {} until {}", startOffset, endOffset);
+                return new StreamIterator(startOffset, endOffset);
+            }
+            log.trace("Waiting up to {}ms for an entry at {}", timeoutMillis, startOffset);
+            in.setOffset(startOffset);
+            try {
+                data = in.read(timeoutMillis);
+            } catch (EndOfSegmentException e) {
+                data = null;
+            }
+            if (data == null) {
+                return Collections.emptyIterator();
+            }
+            offset = in.getOffset();
+            endOffset = Math.max(offset, in.fetchCurrentStreamLength());
+            Entry<Revision, T> first = new AbstractMap.SimpleImmutableEntry<>(new RevisionImpl(segment, offset, 0),
+                                                                              serializer.deserialize(data));
+            return Iterators.concat(Iterators.singletonIterator(first), new StreamIterator(offset, endOffset));
+        }
+    }
     
     @Override
     public Revision fetchRevision() {
-        synchronized (lock) {
+        synchronized (readLock) {
             long streamLength = in.fetchCurrentStreamLength();
             return new RevisionImpl(segment, streamLength, 0);
         }
@@ -132,7 +167,7 @@ public class RevisionedStreamClientImpl<T> implements RevisionedStreamClient<T>
         public Entry<Revision, T> next() {
             Revision revision;
             ByteBuffer data;
-            synchronized (lock) {
+            synchronized (readLock) {
                 if (!hasNext()) {
                     throw new NoSuchElementException();
                 }
@@ -18,18 +18,26 @@ package io.pravega.client.state.impl;
 import io.pravega.client.state.Revision;
 import io.pravega.client.state.Revisioned;
 import io.pravega.client.state.RevisionedStreamClient;
+import io.pravega.client.state.SynchronizerConfig;
 import io.pravega.client.state.Update;
 import io.pravega.client.state.InitialUpdate;
 import io.pravega.client.state.StateSynchronizer;
 import io.pravega.client.stream.Segment;
+import io.pravega.common.concurrent.FutureHelpers;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Function;
 
 import javax.annotation.concurrent.GuardedBy;
 
+import com.google.common.base.Preconditions;
+
+import lombok.Data;
 import lombok.Synchronized;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
@@ -39,8 +47,20 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
         implements StateSynchronizer<StateT> {
 
     private final RevisionedStreamClient<UpdateOrInit<StateT>> client;
+    private final SynchronizerConfig config;
     @GuardedBy("$lock")
     private StateT currentState;
+    /**
+     * The offset in the segment of the most recent InitialUpdate. Used to decide when to compact automatically.
+     */
+    @GuardedBy("$lock")
+    private long lastInitOffset = 0;
+    private volatile Function<StateT, InitialUpdate<StateT>> compactor;
+    private final Object pendingWritesLock = new Object();
+    @GuardedBy("pendingWritesLock")
+    private final List<PendingWrite<StateT>> pendingWrites = new ArrayList<>();
+    @GuardedBy("pendingWritesLock")
+    private boolean writeInProgress = false;
     private Segment segment;
     private RevisionImpl initialRevision;
 
@@ -51,9 +71,22 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
      * @param client  The revisioned stream client this state synchronizer builds upon."
      */
     public StateSynchronizerImpl(Segment segment, RevisionedStreamClient<UpdateOrInit<StateT>> client) {
+        this(segment, client, SynchronizerConfig.builder().build());
+    }
+
+    /**
+     * Creates a new instance of StateSynchronizer class.
+     *
+     * @param segment The segment.
+     * @param client  The revisioned stream client this state synchronizer builds upon.
+     * @param config  The configuration for this state synchronizer.
+     */
+    public StateSynchronizerImpl(Segment segment, RevisionedStreamClient<UpdateOrInit<StateT>> client, SynchronizerConfig config) {
+        Preconditions.checkNotNull(config);
         this.segment = segment;
         this.initialRevision = new RevisionImpl(segment, 0, 0);
         this.client = client;
+        this.config = config;
     }
 
     @Override
@@ -71,19 +104,45 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
     public void fetchUpdates() {
         Revision revision = getRevision();
         log.trace("Fetching updates after {} ", revision);
-        val iter = client.readFrom(revision);
+        applyEntries(client.readFrom(revision));
+        compactIfNeeded();
+    }
+
+    @Override
+    public boolean waitForUpdates(long timeoutMillis) {
+        Revision revision = getRevision();
+        log.trace("Waiting up to {}ms for updates after {} ", timeoutMillis, revision);
+        applyEntries(client.readFrom(revision, timeoutMillis));
+        boolean updated = getRevision().compareTo(revision) > 0;
+        compactIfNeeded();
+        return updated;
+    }
+
+    private void fetchUpdatesWithoutCompacting() {
+        applyEntries(client.readFrom(getRevision()));
+    }
+
+    private void applyEntries(Iterator<Entry<Revision, UpdateOrInit<StateT>>> iter) {
+        // Updates which precede an InitialUpdate are already reflected in it, so they are held back until it is
+        // known that no newer InitialUpdate follows them rather than being applied only to be thrown away.
+        val pendingUpdates = new ArrayList<Entry<Revision, UpdateOrInit<StateT>>>();
         while (iter.hasNext()) {
             Entry<Revision, UpdateOrInit<StateT>> entry = iter.next();
             log.trace("Found entry {} ", entry.getValue());
             if (entry.getValue().isInit()) {
                 InitialUpdate<StateT> init = entry.getValue().getInit();
                 if (isNewer(entry.getKey())) {
+                    pendingUpdates.clear();
                     updateCurrentState(init.create(segment.getScopedStreamName(), entry.getKey()));
                 }
+                recordInit(entry.getKey());
             } else {
-                applyUpdates(entry.getKey().asImpl(), entry.getValue().getUpdates());
+                pendingUpdates.add(entry);
             }
         }
+        for (Entry<Revision, UpdateOrInit<StateT>> entry : pendingUpdates) {
+            applyUpdates(entry.getKey().asImpl(), entry.getValue().getUpdates());
+        }
     }
 
     private void applyUpdates(Revision readRevision, List<? extends Update<StateT>> updates) {
@@ -105,18 +164,60 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
             List<? extends Update<StateT>> update = updateGenerator.apply(state);
             return (update == null || update.isEmpty()) ? null : new UpdateOrInit<>(update);
         });
+        compactIfNeeded();
     }
 
     @Override
     public void updateStateUnconditionally(Update<StateT> update) {
-        log.trace("Unconditionally Writing {} ", update);
-        client.writeUnconditionally(new UpdateOrInit<>(Collections.singletonList(update)));
+        updateStateUnconditionally(Collections.singletonList(update));
     }
 
+    /**
+     * Unconditional updates made concurrently are written to the stream together. The caller that finds no write
+     * in progress writes out its own updates along with any that are queued up while it is writing, so that each
+     * write to the stream carries the updates of all the callers that were waiting on it. The updates passed in by
+     * a single call are always kept together.
+     */
     @Override
     public void updateStateUnconditionally(List<? extends Update<StateT>> update) {
         log.trace("Unconditionally Writing {} ", update);
-        client.writeUnconditionally(new UpdateOrInit<>(update));
+        PendingWrite<StateT> write = new PendingWrite<>(update, new CompletableFuture<>());
+        boolean shouldWrite;
+        synchronized (pendingWritesLock) {
+            pendingWrites.add(write);
+            shouldWrite = !writeInProgress;
+            writeInProgress = true;
+        }
+        if (shouldWrite) {
+            writePendingUpdates();
+        }
+        FutureHelpers.getAndHandleExceptions(write.getWritten(),
+                e -> e instanceof RuntimeException ? (RuntimeException) e : new RuntimeException(e));
+    }
+
+    private void writePendingUpdates() {
+        while (true) {
+            List<PendingWrite<StateT>> toWrite;
+            synchronized (pendingWritesLock) {
+                if (pendingWrites.isEmpty()) {
+                    writeInProgress = false;
+                    return;
+                }
+                toWrite = new ArrayList<>(pendingWrites);
+                pendingWrites.clear();
+            }
+            List<Update<StateT>> updates = new ArrayList<>();
+            for (PendingWrite<StateT> write : toWrite) {
+                updates.addAll(write.getUpdates());
+            }
+            log.trace("Unconditionally writing {} updates from {} callers", updates.size(), toWrite.size());
+            try {
+                client.writeUnconditionally(new UpdateOrInit<>(updates));
+                toWrite.forEach(write -> write.getWritten().complete(null));
+            } catch (Throwable e) {
+                toWrite.forEach(write -> write.getWritten().completeExceptionally(e));
+            }
+        }
     }
 
     @Override
@@ -125,23 +226,59 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
         if (result == null) {
             fetchUpdates();
         } else {
+            recordInit(result);
             updateCurrentState(initial.create(segment.getScopedStreamName(), result));
         }
     }
 
     @Override
     public void compact(Function<StateT, InitialUpdate<StateT>> compactor) {
-        conditionallyWrite(state -> {
+        Revision result = conditionallyWrite(state -> {
             InitialUpdate<StateT> init = compactor.apply(state);
             return init == null ? null : new UpdateOrInit<>(init);
         });
+        if (result != null) {
+            recordInit(result);
+        }
+    }
+
+    @Override
+    public void setCompactor(Function<StateT, InitialUpdate<StateT>> compactor) {
+        this.compactor = compactor;
     }
 
-    private void conditionallyWrite(Function<StateT, UpdateOrInit<StateT>> generator) {
+    private void compactIfNeeded() {
+        Function<StateT, InitialUpdate<StateT>> compactor = this.compactor;
+        if (compactor == null || !needsCompaction(getState())) {
+            return;
+        }
+        log.debug("Automatically compacting state in {}", segment);
+        // Another process may have compacted the state in the meantime, so this is checked again on every attempt.
+        compact(state -> needsCompaction(state) ? compactor.apply(state) : null);
+    }
+
+    @Synchronized
+    private boolean needsCompaction(StateT state) {
+        long threshold = config.getAutoCompactionThresholdBytes();
+        return threshold > 0 && state != null
+                && state.getRevision().asImpl().getOffsetInSegment() - lastInitOffset >= threshold;
+    }
+
+    @Synchronized
+    private void recordInit(Revision revision) {
+        lastInitOffset = Math.max(lastInitOffset, revision.asImpl().getOffsetInSegment());
+    }
+
+    /**
+     * Writes the value returned by the generator, retrying with the latest state until the write succeeds.
+     *
+     * @return The revision that was written, or null if the generator returned null.
+     */
+    private Revision conditionallyWrite(Function<StateT, UpdateOrInit<StateT>> generator) {
         while (true) {
             StateT state = getState();
             if (state == null) {
-                fetchUpdates();
+                fetchUpdatesWithoutCompacting();
                 state = getState();
                 if (state == null) {
                     throw new IllegalStateException("Write was called before the state was initialized.");
@@ -151,17 +288,17 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
             Revision revision = state.getRevision();
             UpdateOrInit<StateT> toWrite = generator.apply(state);
             if (toWrite == null) {
-                break;
+                return null;
             }
             Revision newRevision = client.writeConditionally(revision, toWrite);
             log.trace("Conditionally write returned {} ", newRevision);
             if (newRevision == null) {
-                fetchUpdates();
+                fetchUpdatesWithoutCompacting();
             } else {
                 if (!toWrite.isInit()) {
                     applyUpdates(newRevision, toWrite.getUpdates());
                 }
-                break;
+                return newRevision;
             }
         }
     }
@@ -179,4 +316,9 @@ public class StateSynchronizerImpl<StateT extends Revisioned>
         }
     }
 
+    @Data
+    private static class PendingWrite<StateT extends Revisioned> {
+        private final List<? extends Update<StateT>> updates;
+        private final CompletableFuture<Void> written;
+    }
 }
@@ -16,6 +16,8 @@
 package io.pravega.client.stream;
 
 import io.pravega.client.stream.impl.segment.NoSuchEventException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * A reader for a stream.
@@ -41,6 +43,21 @@ public interface EventStreamReader<T> extends AutoCloseable {
      */
     EventRead<T> readNextEvent(long timeout) throws ReinitializationRequiredException;
 
+    /**
+     * Same as {@link #readNextEvent(long)}, except that rather than blocking the calling thread, this returns a
+     * future which is completed with the next event once one arrives (or with an empty EventRead once timeout
+     * elapses). While waiting no thread is held; the read is resumed on the provided executor as soon as data arrives.
+     * 
+     * Only one read should be outstanding at a time: the future should complete before this method or
+     * {@link #readNextEvent(long)} is called again.
+     *
+     * @param timeout An upper bound on how long to wait before completing the future with an empty EventRead.
+     * @param executor The executor on which to perform the read.
+     * @return A future for the next event in the stream. It fails with {@link ReinitializationRequiredException}
+     *         in the same circumstances as {@link #readNextEvent(long)} throws it.
+     */
+    CompletableFuture<EventRead<T>> readNextEventAsync(long timeout, ScheduledExecutorService executor);
+
     /**
      * Gets the configuration that this reader was created with.
      *
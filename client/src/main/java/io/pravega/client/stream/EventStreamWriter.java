@@ -15,6 +15,7 @@
  */
 package io.pravega.client.stream;
 
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -64,6 +65,21 @@ public interface EventStreamWriter<Type> extends AutoCloseable {
      */
     AckFuture writeEvent(String routingKey, Type event);
 
+    /**
+     * Write a batch of events to the stream. This is equivalent to calling {@link #writeEvent(String, Object)}
+     * for each of the events in order, but is considerably cheaper when writing many small events, as the
+     * events are serialized into a single buffer, the writer's locks are only taken once, and the whole batch is
+     * handed to the connection in a single send.
+     *
+     * @param routingKey A free form string that is used to route messages to readers. All of the events are written
+     *        with this routing key, so they will be read in the order they are provided.
+     * @param events The events to be written to the stream (Null events are disallowed)
+     * @return A future that will complete when all of the events have been durably stored on the configured number
+     *         of replicas, and are available for readers to see. The same notes regarding failures as for
+     *         {@link #writeEvent(String, Object)} apply.
+     */
+    AckFuture writeEvents(String routingKey, List<Type> events);
+
     /**
      * Start a new transaction on this stream.
      * 
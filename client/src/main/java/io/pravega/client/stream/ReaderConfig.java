@@ -26,4 +26,15 @@ public class ReaderConfig implements Serializable {
 
     private static final long serialVersionUID = 1L;
 
+    /**
+     * The maximum number of read requests that may be outstanding for each segment being read. Values greater than 1
+     * allow a reader that is catching up to pipeline reads at consecutive offsets instead of waiting a full round
+     * trip after each one.
+     */
+    private final int readAheadWindow;
+
+    public static final class ReaderConfigBuilder {
+        private int readAheadWindow = 1;
+    }
+
 }
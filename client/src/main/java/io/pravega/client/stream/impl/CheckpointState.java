@@ -17,6 +17,7 @@ package io.pravega.client.stream.impl;
 
 import io.pravega.client.stream.Segment;
 import com.google.common.base.Preconditions;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -29,7 +30,8 @@ import javax.annotation.concurrent.GuardedBy;
 
 import lombok.Synchronized;
 
-public class CheckpointState {
+public class CheckpointState implements Serializable {
+    private static final long serialVersionUID = 1L;
     @GuardedBy("$lock")
     private final List<String> checkpoints = new ArrayList<>();
     /**
@@ -120,6 +122,18 @@ public class CheckpointState {
         }
     }
 
+    /**
+     * @return A deep copy of this object, which shares no mutable state with it.
+     */
+    @Synchronized
+    CheckpointState copy() {
+        CheckpointState result = new CheckpointState();
+        result.checkpoints.addAll(checkpoints);
+        uncheckpointedHosts.forEach((cp, hosts) -> result.uncheckpointedHosts.put(cp, new ArrayList<>(hosts)));
+        checkpointPositions.forEach((cp, positions) -> result.checkpointPositions.put(cp, new HashMap<>(positions)));
+        return result;
+    }
+
     @Override
     @Synchronized
     public String toString() {
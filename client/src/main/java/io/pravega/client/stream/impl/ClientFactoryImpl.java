@@ -71,7 +71,7 @@ public class ClientFactoryImpl implements ClientFactory {
         Preconditions.checkNotNull(controller);
         this.scope = scope;
         this.controller = controller;
-        this.connectionFactory = new ConnectionFactoryImpl(false);
+        this.connectionFactory = new ConnectionFactoryImpl(false, ConnectionFactoryImpl.DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT);
         this.inFactory = new SegmentInputStreamFactoryImpl(controller, connectionFactory);
         this.outFactory = new SegmentOutputStreamFactoryImpl(controller, connectionFactory);
     }
@@ -130,12 +130,15 @@ public class ClientFactoryImpl implements ClientFactory {
     @VisibleForTesting
     public <T> EventStreamReader<T> createReader(String readerId, String readerGroup, Serializer<T> s, ReaderConfig config,
                                           Supplier<Long> nanoTime, Supplier<Long> milliTime) {
-        SynchronizerConfig synchronizerConfig = SynchronizerConfig.builder().build();
+        SynchronizerConfig synchronizerConfig = SynchronizerConfig.builder()
+                .autoCompactionThresholdBytes(ReaderGroupStateManager.COMPACTION_THRESHOLD_BYTES)
+                .build();
         StateSynchronizer<ReaderGroupState> sync = createStateSynchronizer(
                 NameUtils.getStreamForReaderGroup(readerGroup),
                 new JavaSerializer<>(),
                 new JavaSerializer<>(),
                 synchronizerConfig);
+        sync.setCompactor(ReaderGroupState.CompactReaderGroupState::new);
         ReaderGroupStateManager stateManager = new ReaderGroupStateManager(readerId, sync, controller, nanoTime);
         stateManager.initializeReader();
         return new EventStreamReaderImpl<T>(inFactory, s, stateManager, new Orderer(), milliTime, config);
@@ -161,7 +164,7 @@ public class ClientFactoryImpl implements ClientFactory {
             throw new InvalidStreamException("Segment does not exist: " + segment);
         }
         val serializer = new UpdateOrInitSerializer<>(updateSerializer, initialSerializer);
-        return new StateSynchronizerImpl<StateT>(segment, createRevisionedStreamClient(streamName, serializer, config));
+        return new StateSynchronizerImpl<StateT>(segment, createRevisionedStreamClient(streamName, serializer, config), config);
     }
 
     @Override
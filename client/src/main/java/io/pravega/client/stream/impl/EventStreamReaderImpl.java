@@ -19,8 +19,10 @@ import io.pravega.client.stream.impl.segment.EndOfSegmentException;
 import io.pravega.client.stream.impl.segment.NoSuchEventException;
 import io.pravega.client.stream.impl.segment.SegmentInputStream;
 import io.pravega.client.stream.impl.segment.SegmentInputStreamFactory;
+import io.pravega.common.ExceptionHelpers;
 import io.pravega.common.Exceptions;
 import io.pravega.common.Timer;
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.shared.protocol.netty.WireCommands;
 import io.pravega.client.stream.EventPointer;
 import io.pravega.client.stream.EventRead;
@@ -33,14 +35,21 @@ import io.pravega.client.stream.Serializer;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import java.nio.ByteBuffer;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
+import lombok.RequiredArgsConstructor;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
@@ -108,15 +117,141 @@ public class EventStreamReaderImpl<Type> implements EventStreamReader<Type> {
             if (buffer == null) {
                return createEmptyEvent(null);
             } 
-            lastRead = Sequence.create(segment.getSegmentNumber(), offset);
-            int length = buffer.remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
-            return new EventReadImpl<>(lastRead,
-                    deserializer.deserialize(buffer),
-                    getPosition(),
-                    new EventPointerImpl(segment, offset, length),
-                    null);
+            return createEvent(segment, offset, buffer);
         }
     }
+
+    @Override
+    public CompletableFuture<EventRead<Type>> readNextEventAsync(long timeout, ScheduledExecutorService executor) {
+        Preconditions.checkNotNull(executor);
+        AsyncRead read = new AsyncRead(timeout, executor);
+        executor.execute(() -> attemptRead(read));
+        return read.result;
+    }
+
+    /**
+     * The state of a single call to readNextEventAsync.
+     */
+    @RequiredArgsConstructor
+    private final class AsyncRead {
+        private final CompletableFuture<EventRead<Type>> result = new CompletableFuture<>();
+        private final Timer timer = new Timer();
+        private final long timeout;
+        private final ScheduledExecutorService executor;
+        /**
+         * When the reader group state was last updated, or null if it has not been updated yet by this read.
+         */
+        @GuardedBy("readers")
+        private Timer lastGroupStateUpdate;
+        /**
+         * The future that triggers the next attempt. Listeners registered on segments complete whichever one is
+         * current at the time.
+         */
+        private final AtomicReference<CompletableFuture<Void>> wakeUp = new AtomicReference<>();
+        /**
+         * The futures returned by fillBufferAsync that already have a listener, so that retrying does not register
+         * another one on the same outstanding read.
+         */
+        @GuardedBy("readers")
+        private final Set<CompletableFuture<Void>> awaitedFills = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Makes a single non-blocking attempt to read the next event, completing the result if successful. Only segments
+     * that have an entire event buffered are read from. Otherwise waits for any of the segments to buffer more data
+     * (or for up to a TIME_UNIT, so that group state is still updated regularly) and tries again, without holding up
+     * a thread in the meantime.
+     * 
+     * The reader group state is updated on the first attempt and then at most once per TIME_UNIT (as is the case for
+     * {@link #readNextEvent(long)}), rather than on every attempt. Reaching the end of a segment does not wait for
+     * the controller to return its successors; the next attempt is chained on that instead.
+     */
+    private void attemptRead(AsyncRead read) {
+        CompletableFuture<Void> retry;
+        try {
+            synchronized (readers) {
+                Preconditions.checkState(!closed, "Reader is closed");
+                if (read.lastGroupStateUpdate == null
+                        || read.lastGroupStateUpdate.getElapsedMillis() >= ReaderGroupStateManager.TIME_UNIT.toMillis()) {
+                    read.lastGroupStateUpdate = new Timer();
+                    String checkpoint = updateGroupStateIfNeeded();
+                    if (checkpoint != null) {
+                        read.result.complete(createEmptyEvent(checkpoint));
+                        return;
+                    }
+                }
+                SegmentInputStream segmentReader = orderer.nextSegment(readers);
+                if (segmentReader != null && !segmentReader.fillBufferAsync().isDone()) {
+                    segmentReader = readers.stream().filter(r -> r.fillBufferAsync().isDone()).findFirst().orElse(null);
+                }
+                if (segmentReader != null) {
+                    Segment segment = segmentReader.getSegmentId();
+                    long offset = segmentReader.getOffset();
+                    try {
+                        ByteBuffer buffer = segmentReader.read(0);
+                        if (buffer != null) {
+                            read.result.complete(createEvent(segment, offset, buffer));
+                            return;
+                        }
+                    } catch (EndOfSegmentException e) {
+                        log.info("{} encountered end of segment {} ", this, segment);
+                        readers.remove(segmentReader);
+                        // The successors may be available as soon as the group state has been updated.
+                        read.lastGroupStateUpdate = null;
+                        groupState.handleEndOfSegmentAsync(segment, read.executor)
+                                  .whenCompleteAsync((r, ex) -> retryRead(read, ex), read.executor);
+                        return;
+                    }
+                }
+                long remaining = read.timeout - read.timer.getElapsedMillis();
+                if (remaining <= 0) {
+                    read.result.complete(createEmptyEvent(null));
+                    return;
+                }
+                retry = FutureHelpers.delayedFuture(
+                        Duration.ofMillis(Math.min(remaining, ReaderGroupStateManager.TIME_UNIT.toMillis())), read.executor);
+                read.wakeUp.set(retry);
+                for (SegmentInputStream reader : readers) {
+                    CompletableFuture<Void> fill = reader.fillBufferAsync();
+                    if (read.awaitedFills.add(fill)) {
+                        fill.whenComplete((r, e) -> read.wakeUp.get().complete(null));
+                    }
+                }
+                read.awaitedFills.removeIf(CompletableFuture::isDone);
+            }
+        } catch (Throwable e) {
+            read.result.completeExceptionally(e);
+            return;
+        }
+        retry.whenCompleteAsync((r, e) -> retryRead(read, null), read.executor);
+    }
+
+    /**
+     * Makes another attempt to read, unless the step it was waiting on failed. If the reader needs to be reinitialized
+     * it is closed, as is done by {@link #readNextEvent(long)}.
+     */
+    private void retryRead(AsyncRead read, Throwable failure) {
+        if (failure == null) {
+            attemptRead(read);
+            return;
+        }
+        Throwable cause = ExceptionHelpers.getRealException(failure);
+        if (cause instanceof ReinitializationRequiredException) {
+            close();
+        }
+        read.result.completeExceptionally(cause);
+    }
+
+    @GuardedBy("readers")
+    private EventRead<Type> createEvent(Segment segment, long offset, ByteBuffer buffer) {
+        lastRead = Sequence.create(segment.getSegmentNumber(), offset);
+        int length = buffer.remaining() + WireCommands.TYPE_PLUS_LENGTH_SIZE;
+        return new EventReadImpl<>(lastRead,
+                deserializer.deserialize(buffer),
+                getPosition(),
+                new EventPointerImpl(segment, offset, length),
+                null);
+    }
     
     private EventRead<Type> createEmptyEvent(String checkpoint) {
         return new EventReadImpl<>(lastRead, null, getPosition(), null, checkpoint);
@@ -177,7 +312,7 @@ public class EventStreamReaderImpl<Type> implements EventStreamReader<Type> {
         if (!newSegments.isEmpty()) {
             log.info("{} acquiring segments {}", this, newSegments);
             for (Entry<Segment, Long> newSegment : newSegments.entrySet()) {
-                SegmentInputStream in = inputStreamFactory.createInputStreamForSegment(newSegment.getKey());
+                SegmentInputStream in = inputStreamFactory.createInputStreamForSegment(newSegment.getKey(), config);
                 in.setOffset(newSegment.getValue());
                 readers.add(in);
             }
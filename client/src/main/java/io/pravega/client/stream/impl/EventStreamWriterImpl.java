@@ -17,6 +17,7 @@ package io.pravega.client.stream.impl;
 
 import io.pravega.client.stream.Transaction;
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.client.stream.AckFuture;
 import io.pravega.client.stream.EventStreamWriter;
 import io.pravega.client.stream.EventWriterConfig;
@@ -32,12 +33,15 @@ import io.pravega.client.stream.impl.segment.SegmentSealedException;
 import com.google.common.base.Preconditions;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import javax.annotation.concurrent.GuardedBy;
 
 import lombok.ToString;
@@ -49,20 +53,25 @@ import static io.pravega.common.concurrent.FutureHelpers.getAndHandleExceptions;
  * This class takes in events, finds out which segment they belong to and then calls write on the appropriate segment.
  * It deals with segments that are sealed by re-sending the unacked events to the new correct segment.
  * 
+ * Writes from multiple threads only share the read side of segmentsLock, so writes to different segments proceed
+ * concurrently and only contend on the SegmentOutputStream of their segment. Changes to the set of segments (upon
+ * a segment being sealed or missing) take the write side, so no event can be written while unacked events are being
+ * re-sent to the new segments.
+ * 
  * @param <Type> The type of event that is sent
  */
 @Slf4j
 @ToString(of = { "stream", "closed" })
 public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
 
-    private final Object lock = new Object();
+    private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
     private final Stream stream;
     private final Serializer<Type> serializer;
     private final SegmentOutputStreamFactory outputStreamFactory;
     private final Controller controller;
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final EventWriterConfig config;
-    @GuardedBy("lock")
+    @GuardedBy("segmentsLock")
     private final SegmentSelector selector;
 
     EventStreamWriterImpl(Stream stream, Controller controller, SegmentOutputStreamFactory outputStreamFactory,
@@ -92,50 +101,128 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
         return writeEventInternal(routingKey, event);
     }
     
+    @Override
+    public AckFuture writeEvents(String routingKey, List<Type> events) {
+        Preconditions.checkNotNull(routingKey);
+        Preconditions.checkNotNull(events);
+        Exceptions.checkNotClosed(closed.get(), this);
+        CompletableFuture<Boolean> result;
+        if (events.isEmpty()) {
+            result = CompletableFuture.completedFuture(true);
+        } else {
+            // Serialize the whole batch into one buffer; each event is written as a slice of it and has its own future.
+            List<ByteBuffer> serialized = new ArrayList<>(events.size());
+            int totalSize = 0;
+            for (Type event : events) {
+                Preconditions.checkNotNull(event);
+                ByteBuffer data = serializer.serialize(event);
+                totalSize += data.remaining();
+                serialized.add(data);
+            }
+            ByteBuffer batch = ByteBuffer.allocate(totalSize);
+            List<PendingEvent> pendingEvents = new ArrayList<>(events.size());
+            List<CompletableFuture<Boolean>> eventFutures = new ArrayList<>(events.size());
+            for (ByteBuffer data : serialized) {
+                ByteBuffer slice = batch.slice();
+                slice.limit(data.remaining());
+                batch.put(data);
+                CompletableFuture<Boolean> eventFuture = new CompletableFuture<>();
+                eventFutures.add(eventFuture);
+                pendingEvents.add(new PendingEvent(routingKey, slice, eventFuture));
+            }
+            write(routingKey, pendingEvents);
+            result = FutureHelpers.allOf(eventFutures).thenApply(v -> true);
+        }
+        return new AckFutureImpl(result, () -> {
+            if (!closed.get()) {
+                flushInternal();
+            }
+        });
+    }
+    
     private AckFuture writeEventInternal(String routingKey, Type event) {
         Preconditions.checkNotNull(event);
         Exceptions.checkNotClosed(closed.get(), this);
         ByteBuffer data = serializer.serialize(event);
         CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
-        synchronized (lock) {
-            SegmentOutputStream segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
-            while (segmentWriter == null) {
-                log.info("Don't have a writer for segment: {}", selector.getSegmentForEvent(routingKey));
-                handleMissingLog();
-                segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
+        PendingEvent pendingEvent = new PendingEvent(routingKey, data, result);
+        write(routingKey, Collections.singletonList(pendingEvent));
+        return new AckFutureImpl(result, () -> {
+            if (!closed.get()) {
+                flushInternal();
             }
+        });
+    }
+
+    /**
+     * Writes the given events, which all have the same routing key, to the segment that key currently maps to.
+     */
+    private void write(String routingKey, List<PendingEvent> pendingEvents) {
+        boolean written = false;
+        while (!written) {
+            SegmentOutputStream segmentWriter = null;
+            boolean sealed = false;
+            segmentsLock.readLock().lock();
             try {
-                segmentWriter.write(new PendingEvent(routingKey, data, result));
+                segmentWriter = selector.getSegmentOutputStreamForKey(routingKey);
+                if (segmentWriter != null) {
+                    if (pendingEvents.size() == 1) {
+                        segmentWriter.write(pendingEvents.get(0));
+                    } else {
+                        segmentWriter.writeAll(pendingEvents);
+                    }
+                }
             } catch (SegmentSealedException e) {
                 log.info("Segment was sealed: {}", segmentWriter);
-                handleLogSealed(Segment.fromScopedName(segmentWriter.getSegmentName()));
+                sealed = true;
+            } finally {
+                segmentsLock.readLock().unlock();
             }
-        }
-        return new AckFutureImpl(result, () -> {
-            if (!closed.get()) {
-                flushInternal();
+
+            if (segmentWriter == null) {
+                log.info("Don't have a writer for segment: {}", selector.getSegmentForEvent(routingKey));
+                handleMissingLog(routingKey);
+            } else {
+                if (sealed) {
+                    handleLogSealed(segmentWriter);
+                }
+                written = true;
             }
-        });
+        }
     }
     
-    @GuardedBy("lock")
-    private void handleMissingLog() {
-        List<PendingEvent> toResend = selector.refreshSegmentEventWriters();
-        resend(toResend);
+    private void handleMissingLog(String routingKey) {
+        segmentsLock.writeLock().lock();
+        try {
+            if (selector.getSegmentOutputStreamForKey(routingKey) == null) {
+                List<PendingEvent> toResend = selector.refreshSegmentEventWriters();
+                resend(toResend);
+            }
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
     }
 
     /**
      * If a log sealed is encountered, we need to 1. Find the new segments to write to. 2. For each outstanding
      * message find which new segment it should go to and send it there. This can happen recursively if segments turn
-     * over very quickly.
+     * over very quickly. If another thread has already replaced the sealed segment, there is nothing left to do.
+     * This must not be invoked while holding the read side of segmentsLock.
      */
-    @GuardedBy("lock")
-    private void handleLogSealed(Segment segment) {
-        List<PendingEvent> toResend = selector.refreshSegmentEventWritersUponSealed(segment);
-        resend(toResend);
+    private void handleLogSealed(SegmentOutputStream sealedWriter) {
+        segmentsLock.writeLock().lock();
+        try {
+            if (selector.getWriters().contains(sealedWriter)) {
+                List<PendingEvent> toResend = selector.refreshSegmentEventWritersUponSealed(
+                        Segment.fromScopedName(sealedWriter.getSegmentName()));
+                resend(toResend);
+            }
+        } finally {
+            segmentsLock.writeLock().unlock();
+        }
     }
 
-    @GuardedBy("lock")
+    @GuardedBy("segmentsLock.writeLock()")
     private void resend(List<PendingEvent> toResend) {
         while (!toResend.isEmpty()) {
             List<PendingEvent> unsent = new ArrayList<>();
@@ -310,23 +397,26 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
     
     private void flushInternal() {
         boolean success = false;
-        String sealedSegment = null;
         while (!success) {
             success = true;
-            synchronized (lock) {
+            SegmentOutputStream sealedWriter = null;
+            segmentsLock.readLock().lock();
+            try {
                 for (SegmentOutputStream writer : selector.getWriters()) {
                     try {
                         writer.flush();
                     } catch (SegmentSealedException e) {
                         log.info("Segment was sealed during flush: {}", writer);
                         success = false;
-                        sealedSegment = writer.getSegmentName();
+                        sealedWriter = writer;
                         break;
                     }
                 }
-                if (!success) {
-                    handleLogSealed(Segment.fromScopedName(sealedSegment));
-                }
+            } finally {
+                segmentsLock.readLock().unlock();
+            }
+            if (!success) {
+                handleLogSealed(sealedWriter);
             }
         }
     }
@@ -336,25 +426,28 @@ public class EventStreamWriterImpl<Type> implements EventStreamWriter<Type> {
         if (closed.getAndSet(true)) {
             return;
         }
-        synchronized (lock) {
+        segmentsLock.writeLock().lock();
+        try {
             boolean success = false;
-            String sealedSegment = null;
             while (!success) {
                 success = true;
+                SegmentOutputStream sealedWriter = null;
                 for (SegmentOutputStream writer : selector.getWriters()) {
                     try {
                         writer.close();
                     } catch (SegmentSealedException e) {
                         log.info("Segment was sealed during close: {}", writer);
                         success = false;
-                        sealedSegment = writer.getSegmentName();
+                        sealedWriter = writer;
                         break;
                     }
                 }
                 if (!success) {
-                    handleLogSealed(Segment.fromScopedName(sealedSegment));
+                    handleLogSealed(sealedWriter);
                 }
             }
+        } finally {
+            segmentsLock.writeLock().unlock();
         }
     }
 
@@ -51,7 +51,7 @@ public class JavaSerializer<T extends Serializable> implements Serializer<T>, Se
     @SuppressWarnings("unchecked")
     public T deserialize(ByteBuffer serializedValue) {
         ByteArrayInputStream bin = new ByteArrayInputStream(serializedValue.array(),
-                serializedValue.position(),
+                serializedValue.arrayOffset() + serializedValue.position(),
                 serializedValue.remaining());
         ObjectInputStream oin;
         try {
@@ -52,7 +52,7 @@ class ReaderGroupState implements Revisioned {
     @GuardedBy("$lock")
     private Revision revision;
     @GuardedBy("$lock")
-    private final CheckpointState checkpointState = new CheckpointState();
+    private final CheckpointState checkpointState;
     @GuardedBy("$lock")
     private final Map<String, Long> distanceToTail = new HashMap<>();
     @GuardedBy("$lock")
@@ -70,8 +70,22 @@ class ReaderGroupState implements Revisioned {
         this.scopedSynchronizerStream = scopedSynchronizerStream;
         this.revision = revision;
         this.config = config;
+        this.checkpointState = new CheckpointState();
         this.unassignedSegments = new LinkedHashMap<>(segmentsToOffsets);
     }
+
+    private ReaderGroupState(String scopedSynchronizerStream, Revision revision, CompactReaderGroupState compact) {
+        Exceptions.checkNotNullOrEmpty(scopedSynchronizerStream, "scopedSynchronizerStream");
+        Preconditions.checkNotNull(revision);
+        this.scopedSynchronizerStream = scopedSynchronizerStream;
+        this.revision = revision;
+        this.config = compact.config;
+        this.checkpointState = compact.checkpointState.copy();
+        this.distanceToTail.putAll(compact.distanceToTail);
+        compact.futureSegments.forEach((segment, predecessors) -> this.futureSegments.put(segment, new HashSet<>(predecessors)));
+        compact.assignedSegments.forEach((reader, segments) -> this.assignedSegments.put(reader, new HashMap<>(segments)));
+        this.unassignedSegments = new LinkedHashMap<>(compact.unassignedSegments);
+    }
     
     /**
      * @return A map from Reader to a relative measure of how much data they have to process. The
@@ -225,6 +239,38 @@ class ReaderGroupState implements Revisioned {
         }
     }
     
+    /**
+     * Captures the full state of a reader group, so that it can replace all of the updates that led up to it.
+     */
+    static class CompactReaderGroupState implements InitialUpdate<ReaderGroupState>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final ReaderGroupConfig config;
+        private final CheckpointState checkpointState;
+        private final Map<String, Long> distanceToTail;
+        private final Map<Segment, Set<Integer>> futureSegments;
+        private final Map<String, Map<Segment, Long>> assignedSegments;
+        private final Map<Segment, Long> unassignedSegments;
+
+        CompactReaderGroupState(ReaderGroupState state) {
+            synchronized (state.$lock) {
+                config = state.config;
+                checkpointState = state.checkpointState.copy();
+                distanceToTail = new HashMap<>(state.distanceToTail);
+                futureSegments = new HashMap<>();
+                state.futureSegments.forEach((segment, predecessors) -> futureSegments.put(segment, new HashSet<>(predecessors)));
+                assignedSegments = new HashMap<>();
+                state.assignedSegments.forEach((reader, segments) -> assignedSegments.put(reader, new HashMap<>(segments)));
+                unassignedSegments = new LinkedHashMap<>(state.unassignedSegments);
+            }
+        }
+
+        @Override
+        public ReaderGroupState create(String scopedStreamName, Revision revision) {
+            return new ReaderGroupState(scopedStreamName, revision, this);
+        }
+    }
+
     /**
      * Abstract class from which all state updates extend.
      */
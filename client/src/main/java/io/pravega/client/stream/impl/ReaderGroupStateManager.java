@@ -23,6 +23,7 @@ import io.pravega.common.hash.HashHelper;
 import io.pravega.client.state.StateSynchronizer;
 import io.pravega.client.stream.ReaderGroupConfig;
 import io.pravega.client.stream.ReinitializationRequiredException;
+import io.pravega.client.stream.StreamSegmentsWithPredecessors;
 import io.pravega.client.stream.impl.ReaderGroupState.AcquireSegment;
 import io.pravega.client.stream.impl.ReaderGroupState.AddReader;
 import io.pravega.client.stream.impl.ReaderGroupState.CheckpointReader;
@@ -40,6 +41,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
@@ -72,6 +76,10 @@ public class ReaderGroupStateManager {
     static final Duration TIME_UNIT = Duration.ofMillis(1000);
     static final Duration FETCH_STATE_INTERVAL = Duration.ofMillis(3000);
     static final Duration UPDATE_WINDOW = Duration.ofMillis(30000);
+    /**
+     * The amount of updates (in bytes) after which the reader group state is compacted.
+     */
+    static final long COMPACTION_THRESHOLD_BYTES = 1024 * 1024;
     private final Object decisionLock = new Object();
     private final HashHelper hashHelper;
     @Getter
@@ -155,6 +163,28 @@ public class ReaderGroupStateManager {
      */
     void handleEndOfSegment(Segment segmentCompleted) throws ReinitializationRequiredException {
         val successors = getAndHandleExceptions(controller.getSuccessors(segmentCompleted), RuntimeException::new);
+        completeSegment(segmentCompleted, successors);
+    }
+
+    /**
+     * Same as {@link #handleEndOfSegment(Segment)}, but does not wait for the controller to return the successors.
+     * The reader group state is updated on the given executor once they are available.
+     *
+     * @return A future that completes when the reader group state has been updated. It fails with a
+     *         {@link ReinitializationRequiredException} (wrapped in a {@link CompletionException}) if the reader
+     *         needs to be reinitialized.
+     */
+    CompletableFuture<Void> handleEndOfSegmentAsync(Segment segmentCompleted, Executor executor) {
+        return controller.getSuccessors(segmentCompleted).thenAcceptAsync(successors -> {
+            try {
+                completeSegment(segmentCompleted, successors);
+            } catch (ReinitializationRequiredException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    private void completeSegment(Segment segmentCompleted, StreamSegmentsWithPredecessors successors) throws ReinitializationRequiredException {
         AtomicBoolean reinitRequired = new AtomicBoolean(false);
         sync.updateState(state -> {
             if (!state.isReaderOnline(readerId)) {
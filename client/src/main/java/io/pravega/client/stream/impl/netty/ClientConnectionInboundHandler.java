@@ -134,7 +134,7 @@ public class ClientConnectionInboundHandler extends ChannelInboundHandlerAdapter
         promise.addListener(new GenericFutureListener<Future<? super Void>>() {
             @Override
             public void operationComplete(Future<? super Void> future) throws Exception {
-                callback.complete(new ConnectionFailedException(future.cause()));
+                callback.complete(future.isSuccess() ? null : new ConnectionFailedException(future.cause()));
             }
         });
     }
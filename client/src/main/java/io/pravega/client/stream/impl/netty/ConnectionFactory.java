@@ -15,6 +15,8 @@
  */
 package io.pravega.client.stream.impl.netty;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.concurrent.CompletableFuture;
 
 import io.pravega.shared.protocol.netty.PravegaNodeUri;
@@ -35,6 +37,35 @@ public interface ConnectionFactory extends AutoCloseable {
      */
     CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri endpoint, ReplyProcessor rp);
 
+    /**
+     * Establishes a connection that will only be used for requests pertaining to the given segment. Implementations may
+     * multiplex such connections (for the same or different segments) over a shared, pooled connection, in which case
+     * the replies to the requests sent over the returned connection will be routed to the given Reply Processor.
+     * Closing the returned connection only affects its own requests.
+     *
+     * @param endpoint The Pravega Node URI.
+     * @param segment  The fully qualified name of the segment.
+     * @param rp       Reply Processor instance.
+     * @return An instance of client connection.
+     */
+    default CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri endpoint, String segment, ReplyProcessor rp) {
+        return establishConnection(endpoint, Collections.singletonList(segment), rp);
+    }
+
+    /**
+     * Establishes a connection that will only be used for requests pertaining to the given segments (such as batched
+     * requests). This behaves just like {@link #establishConnection(PravegaNodeUri, String, ReplyProcessor)}, except
+     * that its requests may pertain to any of the given segments.
+     *
+     * @param endpoint The Pravega Node URI.
+     * @param segments The fully qualified names of the segments.
+     * @param rp       Reply Processor instance.
+     * @return An instance of client connection.
+     */
+    default CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri endpoint, Collection<String> segments, ReplyProcessor rp) {
+        return establishConnection(endpoint, rp);
+    }
+
     @Override
     void close();
 
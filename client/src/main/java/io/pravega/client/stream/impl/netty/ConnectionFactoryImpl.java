@@ -17,8 +17,15 @@ package io.pravega.client.stream.impl.netty;
 
 
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.concurrent.GuardedBy;
 import javax.net.ssl.SSLException;
 import io.pravega.common.Exceptions;
 import io.pravega.shared.protocol.netty.AppendBatchSizeTracker;
@@ -31,6 +38,7 @@ import com.google.common.base.Preconditions;
 
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
@@ -51,18 +59,41 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public final class ConnectionFactoryImpl implements ConnectionFactory {
 
+    /**
+     * The default number of pooled TCP connections to each server (see {@link #ConnectionFactoryImpl(boolean, int)}).
+     */
+    public static final int DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT = 4;
+
     private final boolean ssl;
+    private final int maxConnectionsPerEndpoint;
     private EventLoopGroup group;
     private boolean nio = false;
     private final AtomicBoolean closed = new AtomicBoolean(false);
+    @GuardedBy("pool")
+    private final HashMap<PravegaNodeUri, List<MultiplexedConnection>> pool = new HashMap<>();
 
     /**
-     * Actual implementation of ConnectionFactory interface.
+     * Actual implementation of ConnectionFactory interface. Each connection established by this factory uses its own
+     * TCP connection.
      *
      * @param ssl Whether connection should use SSL or not.
      */
     public ConnectionFactoryImpl(boolean ssl) {
+        this(ssl, 0);
+    }
+
+    /**
+     * Actual implementation of ConnectionFactory interface.
+     *
+     * @param ssl                       Whether connection should use SSL or not.
+     * @param maxConnectionsPerEndpoint The maximum number of pooled TCP connections to each server over which connections
+     *                                  for individual segments are multiplexed. If 0, every connection uses its own TCP
+     *                                  connection.
+     */
+    public ConnectionFactoryImpl(boolean ssl, int maxConnectionsPerEndpoint) {
+        Preconditions.checkArgument(maxConnectionsPerEndpoint >= 0, "maxConnectionsPerEndpoint must be a non-negative number.");
         this.ssl = ssl;
+        this.maxConnectionsPerEndpoint = maxConnectionsPerEndpoint;
         try {
             this.group = new EpollEventLoopGroup();
         } catch (ExceptionInInitializerError | NoClassDefFoundError e) {
@@ -76,6 +107,84 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
     public CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri location, ReplyProcessor rp) {
         Preconditions.checkNotNull(location);
         Exceptions.checkNotClosed(closed.get(), this);
+        AppendBatchSizeTracker batchSizeTracker = new AppendBatchSizeTrackerImpl();
+        ClientConnectionInboundHandler handler = new ClientConnectionInboundHandler(location.getEndpoint(), rp, batchSizeTracker);
+        return connect(location, new CommandEncoder(batchSizeTracker), handler).thenApply(v -> handler);
+    }
+
+    @Override
+    public CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri location, String segment, ReplyProcessor rp) {
+        Preconditions.checkNotNull(segment);
+        return establishConnection(location, Collections.singletonList(segment), rp);
+    }
+
+    @Override
+    public CompletableFuture<ClientConnection> establishConnection(PravegaNodeUri location, Collection<String> segments, ReplyProcessor rp) {
+        if (maxConnectionsPerEndpoint == 0) {
+            return establishConnection(location, rp);
+        }
+        Preconditions.checkNotNull(location);
+        Preconditions.checkArgument(segments != null && !segments.isEmpty(), "segments");
+        Exceptions.checkNotClosed(closed.get(), this);
+        MultiplexedConnection connection = null;
+        MultiplexedConnection.Session session = null;
+        boolean newConnection = false;
+        synchronized (pool) {
+            List<MultiplexedConnection> connections = pool.computeIfAbsent(location, uri -> new ArrayList<>());
+            if (connections.size() < maxConnectionsPerEndpoint) {
+                connection = new MultiplexedConnection(location.getEndpoint(), c -> removeFromPool(location, c));
+                connections.add(connection);
+                newConnection = true;
+                session = connection.createSession(segments, rp);
+            } else {
+                // Use the least loaded connection (which may already have sessions for these segments).
+                List<MultiplexedConnection> candidates = new ArrayList<>(connections);
+                candidates.sort(Comparator.comparingInt(MultiplexedConnection::getSessionCount));
+                for (MultiplexedConnection candidate : candidates) {
+                    session = candidate.createSession(segments, rp);
+                    if (session != null) {
+                        connection = candidate;
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (session == null) {
+            // Every pooled connection was closed concurrently with this request.
+            return establishConnection(location, rp);
+        }
+
+        if (newConnection) {
+            MultiplexedConnection c = connection;
+            connect(location, CommandEncoder.perWriter(c::getBatchSizeTracker), c)
+                    .whenComplete((v, ex) -> {
+                        if (ex == null) {
+                            c.getConnected().complete(null);
+                        } else {
+                            log.warn("Unable to establish pooled connection to {}.", location, ex);
+                            c.getConnected().completeExceptionally(ex);
+                            c.close();
+                        }
+                    });
+        }
+        MultiplexedConnection.Session result = session;
+        return connection.getConnected().thenApply(v -> result);
+    }
+
+    private void removeFromPool(PravegaNodeUri location, MultiplexedConnection connection) {
+        synchronized (pool) {
+            List<MultiplexedConnection> connections = pool.get(location);
+            if (connections != null) {
+                connections.remove(connection);
+                if (connections.isEmpty()) {
+                    pool.remove(location);
+                }
+            }
+        }
+    }
+
+    private CompletableFuture<Void> connect(PravegaNodeUri location, CommandEncoder encoder, ChannelHandler handler) {
         final SslContext sslCtx;
         if (ssl) {
             try {
@@ -89,8 +198,6 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
         } else {
             sslCtx = null;
         }
-        AppendBatchSizeTracker batchSizeTracker = new AppendBatchSizeTrackerImpl();
-        ClientConnectionInboundHandler handler = new ClientConnectionInboundHandler(location.getEndpoint(), rp, batchSizeTracker);
         Bootstrap b = new Bootstrap();
         b.group(group)
          .channel(nio ? NioSocketChannel.class : EpollSocketChannel.class)
@@ -104,7 +211,7 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
                  }
                  // p.addLast(new LoggingHandler(LogLevel.INFO));
                  p.addLast(new ExceptionLoggingHandler(location.getEndpoint()),
-                         new CommandEncoder(batchSizeTracker),
+                         encoder,
                          new LengthFieldBasedFrameDecoder(WireCommands.MAX_WIRECOMMAND_SIZE, 4, 4),
                          new CommandDecoder(),
                          handler);
@@ -112,13 +219,13 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
          });
 
         // Start the client.
-        CompletableFuture<ClientConnection> result = new CompletableFuture<>();
+        CompletableFuture<Void> result = new CompletableFuture<>();
         try {
             b.connect(location.getEndpoint(), location.getPort()).addListener(new ChannelFutureListener() {
                 @Override
                 public void operationComplete(ChannelFuture future) {
                     if (future.isSuccess()) {
-                        result.complete(handler);
+                        result.complete(null);
                     } else {
                         result.completeExceptionally(future.cause());
                     }
@@ -142,4 +249,4 @@ public final class ConnectionFactoryImpl implements ConnectionFactory {
     protected void finalize() {
         close();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,741 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.client.stream.impl.netty;
+
+import com.google.common.base.Preconditions;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import io.netty.util.concurrent.ScheduledFuture;
+import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.segment.StreamSegmentNameUtils;
+import io.pravega.shared.protocol.netty.Append;
+import io.pravega.shared.protocol.netty.AppendBatchSizeTracker;
+import io.pravega.shared.protocol.netty.ConnectionFailedException;
+import io.pravega.shared.protocol.netty.Reply;
+import io.pravega.shared.protocol.netty.ReplyProcessor;
+import io.pravega.shared.protocol.netty.WireCommand;
+import io.pravega.shared.protocol.netty.WireCommandType;
+import io.pravega.shared.protocol.netty.WireCommands;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import javax.annotation.concurrent.GuardedBy;
+import lombok.Data;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A connection to a server which is shared by multiple sessions.
+ *
+ * Replies are routed to the session which sent the request they refer to, based on the request id and the Segment in
+ * the reply, or based on the writer id for acknowledgements of appends. As such, any number of sessions (and requests)
+ * may use the same Segment at once. Replies to requests which are no longer outstanding (for instance, because the
+ * session that issued them was closed) are dropped.
+ * Flushes are coalesced: however many sessions write to the connection from other threads, the channel is flushed at
+ * most once per pass of its event loop.
+ */
+@Slf4j
+class MultiplexedConnection extends ChannelInboundHandlerAdapter {
+    private final String connectionName;
+    private final Consumer<MultiplexedConnection> onClose;
+    @Getter
+    private final CompletableFuture<Void> connected = new CompletableFuture<>();
+    private final AtomicReference<Channel> channel = new AtomicReference<>();
+    private final AtomicReference<ScheduledFuture<?>> keepAliveFuture = new AtomicReference<>();
+    private final AtomicBoolean recentMessage = new AtomicBoolean(false);
+    private final AtomicBoolean flushPending = new AtomicBoolean(false);
+    private final AppendBatchSizeTracker defaultBatchSizeTracker = new AppendBatchSizeTrackerImpl();
+    private final ReplyRouter router = new ReplyRouter();
+    private final ConcurrentHashMap<UUID, Session> sessionsByWriter = new ConcurrentHashMap<>();
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final LinkedHashSet<Session> sessions = new LinkedHashSet<>();
+    @GuardedBy("lock")
+    private final HashMap<RequestKey, ArrayDeque<PendingRequest>> pendingRequests = new HashMap<>();
+    @GuardedBy("lock")
+    private boolean closed;
+
+    /**
+     * Creates a new instance of the MultiplexedConnection class.
+     *
+     * @param connectionName The name of the connection (for logging purposes).
+     * @param onClose        A callback to invoke when the connection is closed (by either side), or fails to connect.
+     */
+    MultiplexedConnection(String connectionName, Consumer<MultiplexedConnection> onClose) {
+        Preconditions.checkNotNull(onClose);
+        this.connectionName = connectionName;
+        this.onClose = onClose;
+    }
+
+    //region Sessions
+
+    /**
+     * Creates a new session for the given Segment on this connection.
+     *
+     * @param segment   The Segment the session is for.
+     * @param processor The ReplyProcessor for the session.
+     * @return The new session, or null if this connection is closed.
+     */
+    Session createSession(String segment, ReplyProcessor processor) {
+        return createSession(Collections.singletonList(segment), processor);
+    }
+
+    /**
+     * Creates a new session for the given Segments on this connection. Replies to the requests sent through the
+     * session will be routed to it, regardless of how many other sessions use the same Segments.
+     *
+     * @param segments  The Segments the session is for.
+     * @param processor The ReplyProcessor for the session.
+     * @return The new session, or null if this connection is closed.
+     */
+    Session createSession(Collection<String> segments, ReplyProcessor processor) {
+        Preconditions.checkArgument(segments != null && !segments.isEmpty(), "segments");
+        Preconditions.checkNotNull(processor);
+        synchronized (lock) {
+            if (closed) {
+                return null;
+            }
+            Session session = new Session(new ArrayList<>(segments), processor);
+            sessions.add(session);
+            return session;
+        }
+    }
+
+    /**
+     * Gets the number of open sessions on this connection.
+     */
+    int getSessionCount() {
+        synchronized (lock) {
+            return sessions.size();
+        }
+    }
+
+    /**
+     * Returns true if this connection has been closed (or failed to connect).
+     */
+    boolean isClosed() {
+        synchronized (lock) {
+            return closed;
+        }
+    }
+
+    /**
+     * Gets the AppendBatchSizeTracker to use for appends from the given writer. Each writer has its own, since batch sizes
+     * are computed based on the number of appends that writer has in flight.
+     */
+    AppendBatchSizeTracker getBatchSizeTracker(UUID writerId) {
+        Session session = sessionsByWriter.get(writerId);
+        return session == null ? defaultBatchSizeTracker : session.batchSizeTracker;
+    }
+
+    /**
+     * Closes the connection, failing all of its sessions. This should be invoked if the connection could not be
+     * established.
+     */
+    void close() {
+        Channel ch = channel.get();
+        if (ch != null) {
+            ch.close();
+        } else {
+            closeAllSessions();
+        }
+    }
+
+    private void removeSession(Session session) {
+        synchronized (lock) {
+            sessions.remove(session);
+            pendingRequests.values().forEach(queue -> queue.removeIf(request -> request.session == session));
+            pendingRequests.values().removeIf(ArrayDeque::isEmpty);
+        }
+        sessionsByWriter.values().remove(session);
+    }
+
+    private void closeAllSessions() {
+        List<Session> toClose;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            toClose = new ArrayList<>(sessions);
+            sessions.clear();
+            pendingRequests.clear();
+        }
+        sessionsByWriter.clear();
+        connected.completeExceptionally(new ConnectionFailedException(connectionName + " Connection closed."));
+        onClose.accept(this);
+        for (Session session : toClose) {
+            if (session.closed.compareAndSet(false, true)) {
+                session.processor.connectionDropped();
+            }
+        }
+    }
+
+    private List<Session> getAllSessions() {
+        synchronized (lock) {
+            return new ArrayList<>(sessions);
+        }
+    }
+
+    //endregion
+
+    //region Requests
+
+    /**
+     * Registers the request (if any) that the given command makes, so that the replies to it can be routed back to the
+     * given session. This must be done before the command is written out, since the reply may arrive at any time after.
+     */
+    private void registerRequest(Session session, WireCommand cmd) {
+        List<PendingRequest> requests = getRequests(session, cmd);
+        if (requests.isEmpty()) {
+            return;
+        }
+        synchronized (lock) {
+            for (PendingRequest request : requests) {
+                for (RequestKey key : request.keys) {
+                    pendingRequests.computeIfAbsent(key, k -> new ArrayDeque<>()).add(request);
+                }
+            }
+        }
+    }
+
+    /**
+     * Unregisters the oldest request that the reply with the given key may be for, and returns the session that sent it.
+     *
+     * @param key          The key of the reply.
+     * @param expectedType The type of the request the reply is for, or null if it could be for any type (such as for
+     *                     errors). Since request ids are only unique per requester, different sessions may have requests
+     *                     with the same key outstanding.
+     * @return The session, or null if there is no such request outstanding.
+     */
+    private Session completeRequest(RequestKey key, WireCommandType expectedType) {
+        synchronized (lock) {
+            ArrayDeque<PendingRequest> queue = pendingRequests.get(key);
+            if (queue == null) {
+                return null;
+            }
+            PendingRequest request = queue.stream()
+                                          .filter(r -> expectedType == null || r.type == expectedType)
+                                          .findFirst().orElse(null);
+            if (request == null) {
+                return null;
+            }
+            // A request may be replied to under any of its keys, so it is no longer outstanding under any of them.
+            for (RequestKey k : request.keys) {
+                ArrayDeque<PendingRequest> q = pendingRequests.get(k);
+                if (q != null) {
+                    q.remove(request);
+                    if (q.isEmpty()) {
+                        pendingRequests.remove(k);
+                    }
+                }
+            }
+            return request.session;
+        }
+    }
+
+    /**
+     * Gets the requests made by the given command, along with the keys of the replies that may be sent for them.
+     */
+    private static List<PendingRequest> getRequests(Session session, WireCommand cmd) {
+        if (cmd instanceof WireCommands.SetupAppend) {
+            WireCommands.SetupAppend c = (WireCommands.SetupAppend) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getRequestId(), c.getSegment()));
+        } else if (cmd instanceof WireCommands.ReadSegment) {
+            // Reads have no request id: the server identifies them (and their failures) by offset.
+            WireCommands.ReadSegment c = (WireCommands.ReadSegment) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getOffset(), c.getSegment()));
+        } else if (cmd instanceof WireCommands.GetStreamSegmentInfo) {
+            WireCommands.GetStreamSegmentInfo c = (WireCommands.GetStreamSegmentInfo) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getRequestId(), c.getSegmentName()));
+        } else if (cmd instanceof WireCommands.CreateSegment) {
+            WireCommands.CreateSegment c = (WireCommands.CreateSegment) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getRequestId(), c.getSegment()));
+        } else if (cmd instanceof WireCommands.UpdateSegmentPolicy) {
+            WireCommands.UpdateSegmentPolicy c = (WireCommands.UpdateSegmentPolicy) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getRequestId(), c.getSegment()));
+        } else if (cmd instanceof WireCommands.SealSegment) {
+            WireCommands.SealSegment c = (WireCommands.SealSegment) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getRequestId(), c.getSegment()));
+        } else if (cmd instanceof WireCommands.DeleteSegment) {
+            WireCommands.DeleteSegment c = (WireCommands.DeleteSegment) cmd;
+            return Collections.singletonList(new PendingRequest(session, cmd.getType(), c.getRequestId(), c.getSegment()));
+        } else if (cmd instanceof WireCommands.GetTransactionInfo) {
+            WireCommands.GetTransactionInfo c = (WireCommands.GetTransactionInfo) cmd;
+            return Collections.singletonList(transactionRequest(session, cmd.getType(), c.getRequestId(), c.getSegment(), c.getTxid()));
+        } else if (cmd instanceof WireCommands.CreateTransaction) {
+            WireCommands.CreateTransaction c = (WireCommands.CreateTransaction) cmd;
+            return Collections.singletonList(transactionRequest(session, cmd.getType(), c.getRequestId(), c.getSegment(), c.getTxid()));
+        } else if (cmd instanceof WireCommands.CommitTransaction) {
+            WireCommands.CommitTransaction c = (WireCommands.CommitTransaction) cmd;
+            return Collections.singletonList(transactionRequest(session, cmd.getType(), c.getRequestId(), c.getSegment(), c.getTxid()));
+        } else if (cmd instanceof WireCommands.AbortTransaction) {
+            WireCommands.AbortTransaction c = (WireCommands.AbortTransaction) cmd;
+            return Collections.singletonList(transactionRequest(session, cmd.getType(), c.getRequestId(), c.getSegment(), c.getTxid()));
+        } else if (cmd instanceof WireCommands.CreateSegments) {
+            // Batched requests are replied to as if they had been sent individually, once for each Segment.
+            WireCommands.CreateSegments c = (WireCommands.CreateSegments) cmd;
+            return c.getSegments().stream()
+                    .map(s -> new PendingRequest(session, WireCommandType.CREATE_SEGMENT, c.getRequestId(), s))
+                    .collect(Collectors.toList());
+        } else if (cmd instanceof WireCommands.CommitTransactions) {
+            WireCommands.CommitTransactions c = (WireCommands.CommitTransactions) cmd;
+            return c.getSegments().stream()
+                    .map(s -> transactionRequest(session, WireCommandType.COMMIT_TRANSACTION, c.getRequestId(), s, c.getTxid()))
+                    .collect(Collectors.toList());
+        } else if (cmd instanceof WireCommands.AbortTransactions) {
+            WireCommands.AbortTransactions c = (WireCommands.AbortTransactions) cmd;
+            return c.getSegments().stream()
+                    .map(s -> transactionRequest(session, WireCommandType.ABORT_TRANSACTION, c.getRequestId(), s, c.getTxid()))
+                    .collect(Collectors.toList());
+        } else {
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Failures of transaction requests refer to the transaction's Segment rather than its parent Segment.
+     */
+    private static PendingRequest transactionRequest(Session session, WireCommandType type, long requestId, String segment, UUID txId) {
+        return new PendingRequest(session, type, requestId, segment, StreamSegmentNameUtils.getTransactionNameFromId(segment, txId));
+    }
+
+    //endregion
+
+    //region ChannelInboundHandler Implementation
+
+    @Override
+    public void channelRegistered(ChannelHandlerContext ctx) throws Exception {
+        super.channelRegistered(ctx);
+        Channel c = ctx.channel();
+        channel.set(c);
+        c.write(new WireCommands.Hello(WireCommands.WIRE_VERSION, WireCommands.OLDEST_COMPATABLE_VERSION), c.voidPromise());
+        ScheduledFuture<?> old = keepAliveFuture.getAndSet(c.eventLoop().scheduleWithFixedDelay(new KeepAliveTask(ctx), 20, 10, TimeUnit.SECONDS));
+        if (old != null) {
+            old.cancel(false);
+        }
+    }
+
+    @Override
+    public void channelUnregistered(ChannelHandlerContext ctx) throws Exception {
+        ScheduledFuture<?> future = keepAliveFuture.get();
+        if (future != null) {
+            future.cancel(false);
+        }
+        channel.set(null);
+        closeAllSessions();
+        super.channelUnregistered(ctx);
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        Reply cmd = (Reply) msg;
+        log.debug(connectionName + " processing reply: {}", cmd);
+        cmd.process(router);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception {
+        ConnectionFailedException ex = new ConnectionFailedException(cause);
+        for (Session session : getAllSessions()) {
+            session.processor.processingFailure(ex);
+        }
+    }
+
+    //endregion
+
+    //region Writing
+
+    private Channel getChannel() throws ConnectionFailedException {
+        Channel ch = channel.get();
+        if (ch == null) {
+            throw new ConnectionFailedException(connectionName + " Connection not yet established.");
+        }
+        return ch;
+    }
+
+    private ChannelFuture write(Object msg) throws ConnectionFailedException {
+        Channel ch = getChannel();
+        return write(ch, msg, ch.newPromise());
+    }
+
+    private ChannelFuture write(Channel ch, Object msg, ChannelPromise promise) {
+        recentMessage.set(true);
+        if (ch.eventLoop().inEventLoop()) {
+            // Callers may wait on the result, so we cannot defer the flush to a later pass of the event loop.
+            return ch.writeAndFlush(msg, promise);
+        }
+        ChannelFuture result = ch.write(msg, promise);
+        scheduleFlush(ch);
+        return result;
+    }
+
+    /**
+     * Flushes the channel once all the writes that have been issued so far have been processed by its event loop.
+     * Writes from other threads are executed by the event loop in the order they were issued, so the flush is guaranteed
+     * to come after them.
+     */
+    private void scheduleFlush(Channel ch) {
+        if (flushPending.compareAndSet(false, true)) {
+            ch.eventLoop().execute(() -> {
+                flushPending.set(false);
+                ch.flush();
+            });
+        }
+    }
+
+    //endregion
+
+    //region Session
+
+    /**
+     * A ClientConnection for one or more Segments, multiplexed over a MultiplexedConnection.
+     */
+    final class Session implements ClientConnection {
+        @Getter
+        private final List<String> segments;
+        private final ReplyProcessor processor;
+        private final AppendBatchSizeTracker batchSizeTracker = new AppendBatchSizeTrackerImpl();
+        private final Set<String> appendSegments = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean closed = new AtomicBoolean(false);
+
+        private Session(List<String> segments, ReplyProcessor processor) {
+            this.segments = segments;
+            this.processor = processor;
+        }
+
+        @Override
+        public void send(WireCommand cmd) throws ConnectionFailedException {
+            checkNotClosed();
+            prepareToSend(cmd);
+            FutureHelpers.getAndHandleExceptions(write(cmd), ConnectionFailedException::new);
+        }
+
+        @Override
+        public void send(Append append) throws ConnectionFailedException {
+            checkNotClosed();
+            batchSizeTracker.recordAppend(append.getEventNumber(), append.getData().readableBytes());
+            FutureHelpers.getAndHandleExceptions(write(append), ConnectionFailedException::new);
+        }
+
+        @Override
+        public void sendAsync(WireCommand cmd) {
+            Channel ch = channel.get();
+            if (closed.get() || ch == null) {
+                log.debug("{} Dropping {} for closed session {}.", connectionName, cmd, segments);
+                return;
+            }
+            prepareToSend(cmd);
+            write(ch, cmd, ch.voidPromise());
+        }
+
+        @Override
+        public void sendAsync(List<Append> appends, CompletedCallback callback) {
+            Channel ch = channel.get();
+            if (closed.get() || ch == null) {
+                callback.complete(new ConnectionFailedException(connectionName + " Session closed."));
+                return;
+            }
+            ChannelPromise promise = ch.newPromise();
+            for (Append append : appends) {
+                batchSizeTracker.recordAppend(append.getEventNumber(), append.getData().readableBytes());
+                write(ch, append, promise);
+            }
+            promise.addListener(future -> callback.complete(future.isSuccess() ? null : new ConnectionFailedException(future.cause())));
+        }
+
+        /**
+         * Closes this session. The underlying connection stays open for the other sessions that use it, but this
+         * session's ReplyProcessor is notified that its connection dropped, just like it would be for a dedicated one.
+         */
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                removeSession(this);
+                Channel ch = channel.get();
+                if (ch != null) {
+                    ch.eventLoop().execute(processor::connectionDropped);
+                } else {
+                    processor.connectionDropped();
+                }
+            }
+        }
+
+        private void prepareToSend(WireCommand cmd) {
+            if (cmd instanceof WireCommands.SetupAppend) {
+                WireCommands.SetupAppend setupAppend = (WireCommands.SetupAppend) cmd;
+                sessionsByWriter.put(setupAppend.getConnectionId(), this);
+                appendSegments.add(setupAppend.getSegment());
+            }
+            registerRequest(this, cmd);
+        }
+
+        private void checkNotClosed() throws ConnectionFailedException {
+            if (closed.get()) {
+                throw new ConnectionFailedException(connectionName + " Session closed.");
+            }
+        }
+
+        private void process(Consumer<ReplyProcessor> action) {
+            if (closed.get()) {
+                return;
+            }
+            try {
+                action.accept(processor);
+            } catch (Exception e) {
+                processor.processingFailure(e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return connectionName + segments;
+        }
+    }
+
+    //endregion
+
+    //region ReplyRouter
+
+    /**
+     * Routes each reply to the session it belongs to.
+     */
+    private final class ReplyRouter implements ReplyProcessor {
+
+        private void toRequest(WireCommandType requestType, long requestId, String segment, Object reply, Consumer<ReplyProcessor> action) {
+            Session session = completeRequest(new RequestKey(requestId, segment), requestType);
+            if (session == null) {
+                log.debug("{} Dropping reply {} for request which is not outstanding.", connectionName, reply);
+            } else {
+                session.process(action);
+            }
+        }
+
+        /**
+         * Routes a failure to the session whose request it refers to. Failures of appends refer to the event number
+         * rather than to a request, so if there is no such request, the failure goes to all the sessions which write
+         * to the Segment.
+         */
+        private void toRequestOrWriters(long requestId, String segment, Object reply, Consumer<ReplyProcessor> action) {
+            Session session = completeRequest(new RequestKey(requestId, segment), null);
+            if (session != null) {
+                session.process(action);
+                return;
+            }
+            List<Session> writers = getAllSessions().stream()
+                                                    .filter(s -> s.appendSegments.contains(segment))
+                                                    .collect(Collectors.toList());
+            if (writers.isEmpty()) {
+                log.debug("{} Dropping reply {} for request which is not outstanding.", connectionName, reply);
+            }
+            writers.forEach(s -> s.process(action));
+        }
+
+        private void toWriter(UUID writerId, Object reply, Consumer<ReplyProcessor> action) {
+            Session session = sessionsByWriter.get(writerId);
+            if (session == null) {
+                log.debug("{} Dropping reply {} for writer without session.", connectionName, reply);
+            } else {
+                session.process(action);
+            }
+        }
+
+        private void toAll(Consumer<ReplyProcessor> action) {
+            for (Session session : getAllSessions()) {
+                session.process(action);
+            }
+        }
+
+        @Override
+        public void hello(WireCommands.Hello hello) {
+            toAll(p -> p.hello(hello));
+        }
+
+        @Override
+        public void wrongHost(WireCommands.WrongHost wrongHost) {
+            toRequestOrWriters(wrongHost.getRequestId(), wrongHost.getSegment(), wrongHost, p -> p.wrongHost(wrongHost));
+        }
+
+        @Override
+        public void segmentAlreadyExists(WireCommands.SegmentAlreadyExists segmentAlreadyExists) {
+            toRequestOrWriters(segmentAlreadyExists.getRequestId(), segmentAlreadyExists.getSegment(), segmentAlreadyExists, p -> p.segmentAlreadyExists(segmentAlreadyExists));
+        }
+
+        @Override
+        public void segmentIsSealed(WireCommands.SegmentIsSealed segmentIsSealed) {
+            toRequestOrWriters(segmentIsSealed.getRequestId(), segmentIsSealed.getSegment(), segmentIsSealed, p -> p.segmentIsSealed(segmentIsSealed));
+        }
+
+        @Override
+        public void noSuchSegment(WireCommands.NoSuchSegment noSuchSegment) {
+            toRequestOrWriters(noSuchSegment.getRequestId(), noSuchSegment.getSegment(), noSuchSegment, p -> p.noSuchSegment(noSuchSegment));
+        }
+
+        @Override
+        public void noSuchBatch(WireCommands.NoSuchTransaction noSuchBatch) {
+            toRequest(null, noSuchBatch.getRequestId(), noSuchBatch.getTxn(), noSuchBatch, p -> p.noSuchBatch(noSuchBatch));
+        }
+
+        @Override
+        public void appendSetup(WireCommands.AppendSetup appendSetup) {
+            toRequest(WireCommandType.SETUP_APPEND, appendSetup.getRequestId(), appendSetup.getSegment(), appendSetup, p -> p.appendSetup(appendSetup));
+        }
+
+        @Override
+        public void dataAppended(WireCommands.DataAppended dataAppended) {
+            Session session = sessionsByWriter.get(dataAppended.getConnectionId());
+            if (session != null) {
+                session.batchSizeTracker.recordAck(dataAppended.getEventNumber());
+            }
+            toWriter(dataAppended.getConnectionId(), dataAppended, p -> p.dataAppended(dataAppended));
+        }
+
+        @Override
+        public void conditionalCheckFailed(WireCommands.ConditionalCheckFailed dataNotAppended) {
+            toWriter(dataNotAppended.getConnectionId(), dataNotAppended, p -> p.conditionalCheckFailed(dataNotAppended));
+        }
+
+        @Override
+        public void segmentRead(WireCommands.SegmentRead segmentRead) {
+            toRequest(WireCommandType.READ_SEGMENT, segmentRead.getOffset(), segmentRead.getSegment(), segmentRead, p -> p.segmentRead(segmentRead));
+        }
+
+        @Override
+        public void streamSegmentInfo(WireCommands.StreamSegmentInfo streamInfo) {
+            toRequest(WireCommandType.GET_STREAM_SEGMENT_INFO, streamInfo.getRequestId(), streamInfo.getSegmentName(), streamInfo, p -> p.streamSegmentInfo(streamInfo));
+        }
+
+        @Override
+        public void transactionInfo(WireCommands.TransactionInfo transactionInfo) {
+            toRequest(WireCommandType.GET_TRANSACTION_INFO, transactionInfo.getRequestId(), transactionInfo.getSegment(), transactionInfo, p -> p.transactionInfo(transactionInfo));
+        }
+
+        @Override
+        public void segmentCreated(WireCommands.SegmentCreated segmentCreated) {
+            toRequest(WireCommandType.CREATE_SEGMENT, segmentCreated.getRequestId(), segmentCreated.getSegment(), segmentCreated, p -> p.segmentCreated(segmentCreated));
+        }
+
+        @Override
+        public void transactionCreated(WireCommands.TransactionCreated transactionCreated) {
+            toRequest(WireCommandType.CREATE_TRANSACTION, transactionCreated.getRequestId(), transactionCreated.getSegment(), transactionCreated, p -> p.transactionCreated(transactionCreated));
+        }
+
+        @Override
+        public void transactionCommitted(WireCommands.TransactionCommitted transactionCommitted) {
+            toRequest(WireCommandType.COMMIT_TRANSACTION, transactionCommitted.getRequestId(), transactionCommitted.getSegment(), transactionCommitted, p -> p.transactionCommitted(transactionCommitted));
+        }
+
+        @Override
+        public void transactionAborted(WireCommands.TransactionAborted transactionAborted) {
+            toRequest(WireCommandType.ABORT_TRANSACTION, transactionAborted.getRequestId(), transactionAborted.getSegment(), transactionAborted, p -> p.transactionAborted(transactionAborted));
+        }
+
+        @Override
+        public void segmentSealed(WireCommands.SegmentSealed segmentSealed) {
+            toRequest(WireCommandType.SEAL_SEGMENT, segmentSealed.getRequestId(), segmentSealed.getSegment(), segmentSealed, p -> p.segmentSealed(segmentSealed));
+        }
+
+        @Override
+        public void segmentDeleted(WireCommands.SegmentDeleted segmentDeleted) {
+            toRequest(WireCommandType.DELETE_SEGMENT, segmentDeleted.getRequestId(), segmentDeleted.getSegment(), segmentDeleted, p -> p.segmentDeleted(segmentDeleted));
+        }
+
+        @Override
+        public void keepAlive(WireCommands.KeepAlive keepAlive) {
+            toAll(p -> p.keepAlive(keepAlive));
+        }
+
+        @Override
+        public void connectionDropped() {
+            throw new IllegalStateException("Unexpected operation");
+        }
+
+        @Override
+        public void segmentPolicyUpdated(WireCommands.SegmentPolicyUpdated segmentPolicyUpdated) {
+            toRequest(WireCommandType.UPDATE_SEGMENT_POLICY, segmentPolicyUpdated.getRequestId(), segmentPolicyUpdated.getSegment(), segmentPolicyUpdated, p -> p.segmentPolicyUpdated(segmentPolicyUpdated));
+        }
+
+        @Override
+        public void processingFailure(Exception error) {
+            throw new IllegalStateException("Unexpected operation", error);
+        }
+    }
+
+    //endregion
+
+    //region PendingRequest
+
+    /**
+     * Identifies the replies to a request.
+     */
+    @Data
+    private static final class RequestKey {
+        private final long requestId;
+        private final String segment;
+    }
+
+    /**
+     * A request that has been sent by a session and not yet replied to.
+     */
+    private static final class PendingRequest {
+        private final Session session;
+        private final WireCommandType type;
+        private final List<RequestKey> keys;
+
+        PendingRequest(Session session, WireCommandType type, long requestId, String... segments) {
+            this.session = session;
+            this.type = type;
+            this.keys = Arrays.stream(segments).map(s -> new RequestKey(requestId, s)).collect(Collectors.toList());
+        }
+    }
+
+    //endregion
+
+    @RequiredArgsConstructor
+    private final class KeepAliveTask implements Runnable {
+        private final ChannelHandlerContext ctx;
+
+        @Override
+        public void run() {
+            try {
+                if (!recentMessage.getAndSet(false)) {
+                    write(new WireCommands.KeepAlive());
+                }
+            } catch (Exception e) {
+                log.warn("Keep alive failed, killing connection " + connectionName);
+                ctx.close();
+            }
+        }
+    }
+}
@@ -46,6 +46,14 @@ abstract class AsyncSegmentInputStream implements AutoCloseable {
          * @param timeout The maximum number of milliseconds to block
          */
         boolean await(long timeout);
+
+        /**
+         * Returns a future that completes once the read is done, either successfully or not. The result itself
+         * still needs to be obtained by calling {@link AsyncSegmentInputStream#getResult(ReadFuture)}.
+         * 
+         * @return A future that completes when the read does.
+         */
+        CompletableFuture<Void> whenDone();
     }
     
     /**
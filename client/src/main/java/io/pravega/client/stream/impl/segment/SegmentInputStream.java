@@ -19,6 +19,7 @@ import io.pravega.client.stream.EventStreamWriter;
 import io.pravega.client.stream.Segment;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Defines a InputStream for a single segment. 
@@ -88,6 +89,20 @@ public interface SegmentInputStream extends AutoCloseable {
      * Calling this multiple times is harmless.
      */
     public abstract void fillBuffer();
+
+    /**
+     * Same as {@link #fillBuffer()}, but also returns a future that completes once the next event is fully buffered
+     * (so that {@link #read()} will not block), or the end of the segment was reached. If the returned future is
+     * already completed, the next event can be read right away. The future may also complete when neither is the
+     * case (for instance, if a read had to be retried), so callers should call this again once it completes. As long as
+     * the same request is outstanding, the same future is returned.
+     *
+     * @return A future that completes when it is worth attempting to read again.
+     */
+    public default CompletableFuture<Void> fillBufferAsync() {
+        fillBuffer();
+        return CompletableFuture.completedFuture(null);
+    }
     
     /**
      * Closes this InputStream. No further methods may be called after close.
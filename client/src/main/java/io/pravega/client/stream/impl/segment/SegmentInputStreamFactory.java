@@ -18,6 +18,7 @@ package io.pravega.client.stream.impl.segment;
 import io.pravega.client.stream.EventPointer;
 import io.pravega.client.stream.Segment;
 import io.pravega.client.stream.EventStreamReader;
+import io.pravega.client.stream.ReaderConfig;
 
 /**
  * Creates {@link SegmentInputStream} for reading from existing segments.
@@ -51,4 +52,15 @@ public interface SegmentInputStreamFactory {
      * @return A segment input stream.
      */
     SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize);
+
+    /**
+     * Opens an existing segment for reading, using the settings from the given {@link ReaderConfig}.
+     *
+     * @param segment The segment to create an input for.
+     * @param config  The configuration of the reader the input is created for.
+     * @return A segment input stream.
+     */
+    default SegmentInputStream createInputStreamForSegment(Segment segment, ReaderConfig config) {
+        return createInputStreamForSegment(segment);
+    }
 }
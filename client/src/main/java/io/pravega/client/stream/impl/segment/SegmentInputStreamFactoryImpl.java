@@ -17,6 +17,7 @@ package io.pravega.client.stream.impl.segment;
 
 import java.util.concurrent.ExecutionException;
 
+import io.pravega.client.stream.ReaderConfig;
 import io.pravega.client.stream.Segment;
 import io.pravega.client.stream.impl.Controller;
 import io.pravega.client.stream.impl.netty.ConnectionFactory;
@@ -41,12 +42,21 @@ public class SegmentInputStreamFactoryImpl implements SegmentInputStreamFactory
 
     @Override
     public SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize) {
-    AsyncSegmentInputStreamImpl result = new AsyncSegmentInputStreamImpl(controller, cf, segment);
+        return createInputStreamForSegment(segment, bufferSize, 1);
+    }
+
+    @Override
+    public SegmentInputStream createInputStreamForSegment(Segment segment, ReaderConfig config) {
+        return createInputStreamForSegment(segment, SegmentInputStreamImpl.DEFAULT_BUFFER_SIZE, config.getReadAheadWindow());
+    }
+
+    private SegmentInputStream createInputStreamForSegment(Segment segment, int bufferSize, int readAheadWindow) {
+        AsyncSegmentInputStreamImpl result = new AsyncSegmentInputStreamImpl(controller, cf, segment);
         try {
             Exceptions.handleInterrupted(() -> result.getConnection().get());
         } catch (ExecutionException e) {
             log.warn("Initial connection attempt failure. Suppressing.", e);
         }
-        return new SegmentInputStreamImpl(result, 0, bufferSize);
+        return new SegmentInputStreamImpl(result, 0, bufferSize, readAheadWindow);
     }
 }
@@ -18,10 +18,11 @@ package io.pravega.client.stream.impl.segment;
 import io.pravega.client.stream.Segment;
 import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.shared.protocol.netty.InvalidMessageException;
-import io.pravega.common.util.CircularBuffer;
 import com.google.common.base.Preconditions;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
 
 import javax.annotation.concurrent.GuardedBy;
 
@@ -34,6 +35,19 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * Manages buffering and provides a synchronus to {@link AsyncSegmentInputStream}
  * 
+ * The data received from the {@link AsyncSegmentInputStream} is not copied into an intermediate buffer. Instead
+ * the received buffers are queued up and events are returned as slices of them whenever an event is fully contained
+ * in a single buffer. Only events that span multiple reads are copied into a newly allocated buffer.
+ * 
+ * At most bufferSize bytes are normally buffered. If the next event is larger than that, the buffer is allowed to grow
+ * until it holds the entire event, so that {@link #fillBufferAsync()} only completes once read() will not block.
+ * 
+ * Up to readAheadWindow read requests at consecutive offsets may be outstanding at any given time. Read-ahead only
+ * kicks in after a read returned all the data that was requested (i.e. the reader is catching up). If a read comes back
+ * short, the remaining requests are discarded (since they were issued at offsets that no longer line up) and reissued.
+ * Read-ahead stops once the server reports that the reader has reached the tail or the end of the segment, at which
+ * point the stream goes back to a single outstanding request.
+ * 
  * @see SegmentInputStream
  */
 @Slf4j
@@ -44,8 +58,12 @@ class SegmentInputStreamImpl implements SegmentInputStream {
 
     private final AsyncSegmentInputStream asyncInput;
     private final int readLength;
+    private final int bufferSize;
+    private final int readAheadWindow;
+    @GuardedBy("$lock")
+    private final ArrayDeque<ByteBuffer> buffers = new ArrayDeque<>();
     @GuardedBy("$lock")
-    private final CircularBuffer buffer;
+    private int bytesBuffered = 0;
     @GuardedBy("$lock")
     private final ByteBuffer headerReadingBuffer = ByteBuffer.allocate(WireCommands.TYPE_PLUS_LENGTH_SIZE);
     @GuardedBy("$lock")
@@ -53,16 +71,28 @@ class SegmentInputStreamImpl implements SegmentInputStream {
     @GuardedBy("$lock")
     private boolean receivedEndOfSegment = false;
     @GuardedBy("$lock")
-    private AsyncSegmentInputStream.ReadFuture outstandingRequest = null;
+    private final ArrayDeque<AsyncSegmentInputStream.ReadFuture> outstandingRequests = new ArrayDeque<>();
+    @GuardedBy("$lock")
+    private boolean readAheadActive = false;
+    @GuardedBy("$lock")
+    private AsyncSegmentInputStream.ReadFuture awaitedRequest;
+    @GuardedBy("$lock")
+    private CompletableFuture<Void> awaitedRequestDone;
 
     SegmentInputStreamImpl(AsyncSegmentInputStream asyncInput, long offset) {
         this(asyncInput, offset, DEFAULT_BUFFER_SIZE);
     }
 
     SegmentInputStreamImpl(AsyncSegmentInputStream asyncInput, long offset, int bufferSize) {
+        this(asyncInput, offset, bufferSize, 1);
+    }
+
+    SegmentInputStreamImpl(AsyncSegmentInputStream asyncInput, long offset, int bufferSize, int readAheadWindow) {
         Preconditions.checkArgument(offset >= 0);
+        Preconditions.checkArgument(readAheadWindow > 0, "readAheadWindow must be a positive number.");
         Preconditions.checkNotNull(asyncInput);
         this.asyncInput = asyncInput;
+        this.readAheadWindow = readAheadWindow;
         this.offset = offset;
         /*
          * The logic for determining the read length and buffer size are as follows.
@@ -75,7 +105,7 @@ class SegmentInputStreamImpl implements SegmentInputStream {
          * buffered for next event reads.
          */
         this.readLength = Math.min(DEFAULT_READ_LENGTH, bufferSize);
-        this.buffer = new CircularBuffer(Math.max(bufferSize, readLength + 1));
+        this.bufferSize = Math.max(bufferSize, readLength + 1);
 
         issueRequestIfNeeded();
     }
@@ -87,9 +117,10 @@ class SegmentInputStreamImpl implements SegmentInputStream {
         Preconditions.checkArgument(offset >= 0);
         if (offset != this.offset) {
             this.offset = offset;
-            buffer.clear();
+            clearBuffers();
             receivedEndOfSegment = false;
-            outstandingRequest = null;        
+            outstandingRequests.clear();
+            readAheadActive = false;
         }
     }
 
@@ -107,11 +138,11 @@ class SegmentInputStreamImpl implements SegmentInputStream {
     public ByteBuffer read(long timeout) throws EndOfSegmentException {
         log.trace("Read called at offset {}", offset);
         fillBuffer();
-        while (buffer.dataAvailable() < WireCommands.TYPE_PLUS_LENGTH_SIZE) {
-            if (buffer.dataAvailable() == 0 && receivedEndOfSegment) {
+        while (bytesBuffered < WireCommands.TYPE_PLUS_LENGTH_SIZE) {
+            if (bytesBuffered == 0 && receivedEndOfSegment) {
                 throw new EndOfSegmentException();
             }
-            if (outstandingRequest.await(timeout)) {
+            if (outstandingRequests.peekFirst().await(timeout)) {
                 handleRequest();
             } else {
                 return null;
@@ -121,7 +152,7 @@ class SegmentInputStreamImpl implements SegmentInputStream {
         boolean success = false;
         try {
             headerReadingBuffer.clear();
-            offset += buffer.read(headerReadingBuffer);
+            offset += copyFromBuffers(headerReadingBuffer);
             headerReadingBuffer.flip();
             int type = headerReadingBuffer.getInt();
             int length = headerReadingBuffer.getInt();
@@ -131,48 +162,132 @@ class SegmentInputStreamImpl implements SegmentInputStream {
             if (length < 0 || length > WireCommands.MAX_WIRECOMMAND_SIZE) {
                 throw new InvalidMessageException("Event of invalid length: " + length);
             }
-            ByteBuffer result = ByteBuffer.allocate(length);
-            offset += buffer.read(result);
-            while (result.hasRemaining()) {
-                handleRequest();
-                offset += buffer.read(result);
+            ByteBuffer result = sliceFromBuffers(length);
+            if (result == null) {
+                // The event spans multiple reads, so it needs to be assembled into its own buffer.
+                result = ByteBuffer.allocate(length);
+                offset += copyFromBuffers(result);
+                while (result.hasRemaining()) {
+                    handleRequest();
+                    offset += copyFromBuffers(result);
+                }
+                result.flip();
+            } else {
+                offset += length;
             }
             success = true;
-            result.flip();
             return result;
         } finally {
             if (!success) {
                 offset = originalOffset;
-                buffer.clear();
+                clearBuffers();
+                outstandingRequests.clear();
+                readAheadActive = false;
+            }
+        }
+    }
+
+    /**
+     * Returns a slice of the first buffered ByteBuffer containing the next length bytes, if they are all contained
+     * in it. The returned slice shares the data received from the AsyncSegmentInputStream.
+     *
+     * @return The slice, or null if the first buffer does not contain length bytes.
+     */
+    private ByteBuffer sliceFromBuffers(int length) {
+        ByteBuffer first = buffers.peekFirst();
+        if (first == null || first.remaining() < length) {
+            return null;
+        }
+        ByteBuffer result = first.slice();
+        result.limit(length);
+        first.position(first.position() + length);
+        bytesBuffered -= length;
+        if (!first.hasRemaining()) {
+            buffers.removeFirst();
+        }
+        return result;
+    }
+
+    /**
+     * Copies as many bytes as possible from the buffered ByteBuffers into the given one.
+     *
+     * @return The number of bytes copied.
+     */
+    private int copyFromBuffers(ByteBuffer toFill) {
+        int originalPosition = toFill.position();
+        while (toFill.hasRemaining() && !buffers.isEmpty()) {
+            ByteBuffer first = buffers.peekFirst();
+            int toCopy = Math.min(toFill.remaining(), first.remaining());
+            int limit = first.limit();
+            first.limit(first.position() + toCopy);
+            toFill.put(first);
+            first.limit(limit);
+            if (!first.hasRemaining()) {
+                buffers.removeFirst();
             }
         }
+        int copied = toFill.position() - originalPosition;
+        bytesBuffered -= copied;
+        return copied;
     }
 
+    private void clearBuffers() {
+        buffers.clear();
+        bytesBuffered = 0;
+    }
 
     private boolean dataWaitingToGoInBuffer() {
-        return outstandingRequest != null && outstandingRequest.isSuccess() && buffer.capacityAvailable() > 0;
+        AsyncSegmentInputStream.ReadFuture request = outstandingRequests.peekFirst();
+        return request != null && request.isSuccess() && bytesBuffered < getTargetBufferSize();
+    }
+
+    /**
+     * Gets the number of bytes to buffer. This is normally bufferSize, but if the next event is larger than that the
+     * buffer is allowed to grow until the whole event (and one more read) fits, so that fillBufferAsync() can wait for
+     * all of it to arrive before read() is called.
+     */
+    private long getTargetBufferSize() {
+        long nextEventSize = getNextEventSize();
+        return nextEventSize < 0 ? bufferSize : Math.max(bufferSize, nextEventSize + readLength);
     }
 
     private void handleRequest() {
-        WireCommands.SegmentRead segmentRead = asyncInput.getResult(outstandingRequest);
-        if (segmentRead.getData().hasRemaining()) {
-            buffer.fill(segmentRead.getData());
+        WireCommands.SegmentRead segmentRead = asyncInput.getResult(outstandingRequests.peekFirst());
+        outstandingRequests.removeFirst();
+        // This is a view over the received data, so it is not copied.
+        ByteBuffer data = segmentRead.getData().nioBuffer();
+        boolean fullRead = data.remaining() == readLength;
+        if (data.hasRemaining()) {
+            buffers.addLast(data);
+            bytesBuffered += data.remaining();
         }
         if (segmentRead.isEndOfSegment()) {
             receivedEndOfSegment = true;
         }
-        if (!segmentRead.getData().hasRemaining()) {
-            outstandingRequest = null;
-            issueRequestIfNeeded();
+        if (!fullRead || receivedEndOfSegment) {
+            // Any other outstanding requests were issued assuming this one would return readLength bytes.
+            outstandingRequests.clear();
+        }
+        if (segmentRead.isAtTail() || receivedEndOfSegment) {
+            // There is nothing more to read ahead of.
+            readAheadActive = false;
+        } else if (fullRead) {
+            readAheadActive = true;
         }
+        issueRequestIfNeeded();
     }
 
     /**
-     * @return If there is enough room for another request, and we aren't already waiting on one
+     * Issues as many requests as allowed by the read-ahead window, as long as there is enough room for the data
+     * they will return. Each request beyond the first one may extend the buffer by readLength.
      */
     private void issueRequestIfNeeded() {
-        if (!receivedEndOfSegment && outstandingRequest == null && buffer.capacityAvailable() > readLength) {
-            outstandingRequest = asyncInput.read(offset + buffer.dataAvailable(), readLength);
+        int window = readAheadActive ? readAheadWindow : 1;
+        while (!receivedEndOfSegment && outstandingRequests.size() < window
+                && getTargetBufferSize() + (long) (window - 1) * readLength - bytesBuffered
+                   - (long) outstandingRequests.size() * readLength > readLength) {
+            long requestOffset = offset + bytesBuffered + (long) outstandingRequests.size() * readLength;
+            outstandingRequests.addLast(asyncInput.read(requestOffset, readLength));
         }
     }
 
@@ -199,11 +314,66 @@ class SegmentInputStreamImpl implements SegmentInputStream {
         }
     }
     
+    @Override
+    @Synchronized
+    public CompletableFuture<Void> fillBufferAsync() {
+        fillBuffer();
+        AsyncSegmentInputStream.ReadFuture request = outstandingRequests.peekFirst();
+        if (isEventBuffered() || (bytesBuffered == 0 && receivedEndOfSegment) || request == null) {
+            // Either read() will not need to wait, or there is nothing left to wait for.
+            return CompletableFuture.completedFuture(null);
+        }
+        if (request != awaitedRequest || awaitedRequestDone.isDone()) {
+            // The request may have been retried, in which case the previous future has completed but this one has not.
+            awaitedRequest = request;
+            awaitedRequestDone = request.whenDone();
+        }
+        return awaitedRequestDone;
+    }
+
+    /**
+     * Returns true if the header and the contents of the next event are buffered, or if the header is invalid (in which
+     * case read() will fail right away).
+     */
+    private boolean isEventBuffered() {
+        if (bytesBuffered < WireCommands.TYPE_PLUS_LENGTH_SIZE) {
+            return false;
+        }
+        long nextEventSize = getNextEventSize();
+        return nextEventSize < 0 || nextEventSize <= bytesBuffered;
+    }
+
+    /**
+     * Gets the size of the next event, including its header, or -1 if its header is not buffered yet or is invalid.
+     */
+    private long getNextEventSize() {
+        if (bytesBuffered < WireCommands.TYPE_PLUS_LENGTH_SIZE) {
+            return -1;
+        }
+        ByteBuffer header = ByteBuffer.allocate(WireCommands.TYPE_PLUS_LENGTH_SIZE);
+        for (ByteBuffer buffer : buffers) {
+            ByteBuffer view = buffer.duplicate();
+            view.limit(view.position() + Math.min(view.remaining(), header.remaining()));
+            header.put(view);
+            if (!header.hasRemaining()) {
+                break;
+            }
+        }
+        header.flip();
+        int type = header.getInt();
+        int length = header.getInt();
+        if (type != WireCommandType.EVENT.getCode() || length < 0 || length > WireCommands.MAX_WIRECOMMAND_SIZE) {
+            return -1;
+        }
+        return (long) WireCommands.TYPE_PLUS_LENGTH_SIZE + length;
+    }
+    
     @Override
     @Synchronized
     public boolean canReadWithoutBlocking() {
-        boolean result = buffer.dataAvailable() > 0 || (outstandingRequest != null && outstandingRequest.isSuccess()
-                && asyncInput.getResult(outstandingRequest).getData().hasRemaining());
+        AsyncSegmentInputStream.ReadFuture request = outstandingRequests.peekFirst();
+        boolean result = bytesBuffered > 0 || (request != null && request.isSuccess()
+                && asyncInput.getResult(request).getData().isReadable());
         log.trace("canReadWithoutBlocking {}", result);
         return result;
     }
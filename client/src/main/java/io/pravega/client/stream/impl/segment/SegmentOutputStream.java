@@ -18,6 +18,7 @@ package io.pravega.client.stream.impl.segment;
 import io.pravega.client.stream.impl.PendingEvent;
 
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Defines an OutputStream for a segment.
@@ -44,6 +45,17 @@ public interface SegmentOutputStream extends AutoCloseable {
      */
     public abstract void write(PendingEvent event) throws SegmentSealedException;
 
+    /**
+     * Writes all of the provided events to the SegmentOutputStream, in order. This is equivalent to calling
+     * {@link #write(PendingEvent)} for each of them, but allows implementations to avoid the per-event overhead.
+     * The events are accepted together: if a SegmentSealedException is thrown, either all or none of them are
+     * included in {@link #getUnackedEvents()}.
+     * 
+     * @param events The events to be added to the segment.
+     * @throws SegmentSealedException If the segment is closed for modifications.
+     */
+    public abstract void writeAll(List<PendingEvent> events) throws SegmentSealedException;
+
     /**
      * Flushes and then closes the output stream.
      * Frees any resources associated with it.
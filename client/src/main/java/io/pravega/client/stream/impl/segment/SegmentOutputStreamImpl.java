@@ -345,6 +345,29 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
         }
     }
     
+    /**
+     * Same as {@link #write(PendingEvent)} for each of the events, except that the connection is only obtained once and
+     * all of the appends are handed to it at once, without waiting for them to be written out. All of the events are
+     * made inflight before any of them is sent, so if sending fails the connection is torn down and all of them are
+     * retransmitted once it is re-established (like any other inflight event).
+     */
+    @Override
+    @Synchronized
+    public void writeAll(List<PendingEvent> events) throws SegmentSealedException {
+        ClientConnection connection = getConnection();
+        List<Append> appends = new ArrayList<>(events.size());
+        for (PendingEvent event : events) {
+            long eventNumber = state.addToInflight(event);
+            appends.add(new Append(segmentName, connectionId, eventNumber, Unpooled.wrappedBuffer(event.getData()),
+                                   event.getExpectedOffset()));
+        }
+        connection.sendAsync(appends, e -> {
+            if (e != null && state.getConnection() == connection) {
+                state.failConnection(e);
+            }
+        });
+    }
+
     /**
      * Blocking call to establish a connection and wait for it to be setup. (Retries built in)
      */
@@ -363,7 +386,7 @@ class SegmentOutputStreamImpl implements SegmentOutputStream {
         if (state.getConnection() == null) {
             CompletableFuture<ClientConnection> newConnection = controller.getEndpointForSegment(segmentName)
                 .thenCompose((PravegaNodeUri uri) -> {
-                    return connectionFactory.establishConnection(uri, responseProcessor);
+                    return connectionFactory.establishConnection(uri, segmentName, responseProcessor);
                 });
             ClientConnection connection = getAndHandleExceptions(newConnection, ConnectionFailedException::new);
             state.newConnection(connection);
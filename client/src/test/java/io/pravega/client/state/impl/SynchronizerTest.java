@@ -32,15 +32,20 @@ import io.pravega.test.common.Async;
 
 import java.io.Serializable;
 import java.util.AbstractMap;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map.Entry;
+import java.util.Vector;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang.NotImplementedException;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import lombok.Cleanup;
 import lombok.Data;
@@ -90,6 +95,8 @@ public class SynchronizerTest {
         private BlockingUpdate init;
         private BlockingUpdate[] updates;
         private int visableLength = 0;
+        private final ReusableLatch writeLatch = new ReusableLatch(true);
+        private final List<UpdateOrInit<RevisionedImpl>> unconditionallyWritten = new Vector<>();
 
         @Override
         public Iterator<Entry<Revision, UpdateOrInit<RevisionedImpl>>> readFrom(
@@ -124,7 +131,8 @@ public class SynchronizerTest {
 
         @Override
         public void writeUnconditionally(UpdateOrInit<RevisionedImpl> value) {
-            throw new NotImplementedException();
+            unconditionallyWritten.add(value);
+            writeLatch.awaitUninterruptibly();
         }
 
         @Override
@@ -216,4 +224,102 @@ public class SynchronizerTest {
         assertEquals(6, callCount.get());
     }
 
+    @Test(timeout = 20000)
+    public void testAutoCompaction() {
+        String streamName = "streamName";
+        String scope = "scope";
+
+        MockSegmentStreamFactory ioFactory = new MockSegmentStreamFactory();
+        @Cleanup
+        MockClientFactory clientFactory = new MockClientFactory(scope, ioFactory);
+        SynchronizerConfig config = SynchronizerConfig.builder().autoCompactionThresholdBytes(1).build();
+        StateSynchronizer<RevisionedImpl> sync = clientFactory.createStateSynchronizer(streamName,
+                                                                                       new JavaSerializer<>(),
+                                                                                       new JavaSerializer<>(),
+                                                                                       config);
+        AtomicInteger compactCount = new AtomicInteger(0);
+        sync.initialize(new RegularUpdate());
+        sync.updateState(state -> Collections.singletonList(new RegularUpdate()));
+        assertEquals("No compactor was set", 0, compactCount.get());
+
+        sync.setCompactor(state -> {
+            compactCount.incrementAndGet();
+            return new RegularUpdate();
+        });
+        sync.updateState(state -> Collections.singletonList(new RegularUpdate()));
+        assertEquals(1, compactCount.get());
+        sync.updateState(state -> Collections.singletonList(new RegularUpdate()));
+        assertEquals(2, compactCount.get());
+        sync.fetchUpdates();
+        assertEquals("Nothing was written since the last compaction", 2, compactCount.get());
+
+        StateSynchronizer<RevisionedImpl> sync2 = clientFactory.createStateSynchronizer(streamName,
+                                                                                        new JavaSerializer<>(),
+                                                                                        new JavaSerializer<>(),
+                                                                                        SynchronizerConfig.builder().build());
+        sync2.fetchUpdates();
+        assertEquals(sync.getState().getRevision(), sync2.getState().getRevision());
+    }
+
+    @Test(timeout = 20000)
+    public void testWaitForUpdates() {
+        String streamName = "streamName";
+        String scope = "scope";
+
+        MockSegmentStreamFactory ioFactory = new MockSegmentStreamFactory();
+        @Cleanup
+        MockClientFactory clientFactory = new MockClientFactory(scope, ioFactory);
+        StateSynchronizer<RevisionedImpl> sync1 = clientFactory.createStateSynchronizer(streamName,
+                                                                                        new JavaSerializer<>(),
+                                                                                        new JavaSerializer<>(),
+                                                                                        SynchronizerConfig.builder().build());
+        StateSynchronizer<RevisionedImpl> sync2 = clientFactory.createStateSynchronizer(streamName,
+                                                                                        new JavaSerializer<>(),
+                                                                                        new JavaSerializer<>(),
+                                                                                        SynchronizerConfig.builder().build());
+        sync1.initialize(new RegularUpdate());
+        assertTrue(sync2.waitForUpdates(1000));
+        assertEquals(sync1.getState().getRevision(), sync2.getState().getRevision());
+        assertFalse(sync2.waitForUpdates(10));
+
+        sync1.updateState(state -> Collections.singletonList(new RegularUpdate()));
+        sync1.updateState(state -> Collections.singletonList(new RegularUpdate()));
+        assertTrue(sync2.waitForUpdates(1000));
+        assertEquals(sync1.getState().getRevision(), sync2.getState().getRevision());
+    }
+
+    @Test(timeout = 20000)
+    public void testBatchedUnconditionalUpdates() throws InterruptedException {
+        Segment segment = new Segment("scope", "streamName", 0);
+        MockRevisionedStreamClient client = new MockRevisionedStreamClient();
+        client.segment = segment;
+        StateSynchronizerImpl<RevisionedImpl> sync = new StateSynchronizerImpl<RevisionedImpl>(segment, client);
+        RegularUpdate first = new RegularUpdate();
+        RegularUpdate second = new RegularUpdate();
+        RegularUpdate third = new RegularUpdate();
+
+        // Block the first write so that the others queue up behind it.
+        client.writeLatch.reset();
+        Thread writer1 = new Thread(() -> sync.updateStateUnconditionally(first));
+        writer1.start();
+        while (client.unconditionallyWritten.isEmpty()) {
+            Thread.sleep(1);
+        }
+        Thread writer2 = new Thread(() -> sync.updateStateUnconditionally(Arrays.asList(second, second)));
+        Thread writer3 = new Thread(() -> sync.updateStateUnconditionally(third));
+        writer2.start();
+        writer3.start();
+        while (writer2.getState() != Thread.State.WAITING || writer3.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        client.writeLatch.release();
+        writer1.join();
+        writer2.join();
+        writer3.join();
+
+        assertEquals(2, client.unconditionallyWritten.size());
+        assertEquals(Collections.singletonList(first), client.unconditionallyWritten.get(0).getUpdates());
+        List<? extends Update<RevisionedImpl>> batched = client.unconditionallyWritten.get(1).getUpdates();
+        assertEquals(3, batched.size());
+    }
 }
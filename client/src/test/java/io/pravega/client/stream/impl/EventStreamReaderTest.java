@@ -24,14 +24,18 @@ import io.pravega.client.stream.impl.segment.SegmentInputStream;
 import io.pravega.client.stream.impl.segment.SegmentOutputStream;
 import io.pravega.client.stream.impl.segment.SegmentSealedException;
 import io.pravega.client.stream.mock.MockSegmentStreamFactory;
+import io.pravega.test.common.AssertExtensions;
 import com.google.common.collect.ImmutableMap;
 
 import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 
+import lombok.Cleanup;
 import org.junit.Assert;
 import org.junit.Test;
 import org.mockito.Mockito;
@@ -232,6 +236,43 @@ public class EventStreamReaderTest {
         assertNull(reader.readNextEvent(0).getEvent());
         reader.close();
     }
+
+    @Test(timeout = 10000)
+    public void testReadAsync() throws SegmentSealedException, ReinitializationRequiredException {
+        AtomicLong clock = new AtomicLong();
+        MockSegmentStreamFactory segmentStreamFactory = new MockSegmentStreamFactory();
+        Orderer orderer = new Orderer();
+        ReaderGroupStateManager groupState = Mockito.mock(ReaderGroupStateManager.class);
+        @Cleanup("shutdown")
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        EventStreamReaderImpl<byte[]> reader = new EventStreamReaderImpl<byte[]>(segmentStreamFactory,
+                new ByteArraySerializer(),
+                groupState,
+                orderer,
+                clock::get,
+                ReaderConfig.builder().build());
+        Segment segment = Segment.fromScopedName("Foo/Bar/0");
+        Mockito.when(groupState.acquireNewSegmentsIfNeeded(0L)).thenReturn(ImmutableMap.of(segment, 0L)).thenReturn(Collections.emptyMap());
+        SegmentOutputStream stream = segmentStreamFactory.createOutputStreamForSegment(segment);
+        ByteBuffer buffer1 = writeInt(stream, 1);
+        ByteBuffer buffer2 = writeInt(stream, 2);
+        Mockito.when(groupState.getCheckpoint()).thenReturn("Foo").thenReturn(null);
+        Mockito.when(groupState.handleEndOfSegmentAsync(Mockito.eq(segment), Mockito.any()))
+               .thenReturn(CompletableFuture.completedFuture(null));
+        EventRead<byte[]> eventRead = reader.readNextEventAsync(0, executor).join();
+        assertTrue(eventRead.isCheckpoint());
+        assertEquals("Foo", eventRead.getCheckpointName());
+        assertEquals(buffer1, ByteBuffer.wrap(reader.readNextEventAsync(0, executor).join().getEvent()));
+        assertEquals(buffer2, ByteBuffer.wrap(reader.readNextEventAsync(100, executor).join().getEvent()));
+        assertNull(reader.readNextEventAsync(100, executor).join().getEvent());
+        assertEquals(0, reader.getReaders().size());
+        Mockito.verify(groupState, Mockito.never()).handleEndOfSegment(segment);
+        Mockito.verify(groupState).handleEndOfSegmentAsync(Mockito.eq(segment), Mockito.any());
+        reader.close();
+        AssertExtensions.assertThrows("Read succeeded on a closed reader.",
+                reader.readNextEventAsync(0, executor),
+                e -> e instanceof IllegalStateException);
+    }
     
     @Test(timeout = 10000)
     public void testRestore() throws SegmentSealedException, ReinitializationRequiredException {
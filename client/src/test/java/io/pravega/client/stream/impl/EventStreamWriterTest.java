@@ -15,6 +15,7 @@
  */
 package io.pravega.client.stream.impl;
 
+import io.pravega.client.stream.AckFuture;
 import io.pravega.client.stream.EventStreamWriter;
 import io.pravega.client.stream.EventWriterConfig;
 import io.pravega.client.stream.Segment;
@@ -27,7 +28,9 @@ import io.pravega.client.stream.impl.segment.SegmentOutputStream;
 import io.pravega.client.stream.impl.segment.SegmentOutputStreamFactory;
 import io.pravega.client.stream.impl.segment.SegmentSealedException;
 import io.pravega.client.stream.mock.MockSegmentIoStreams;
+import io.pravega.common.Exceptions;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -36,6 +39,7 @@ import java.util.NavigableMap;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Cleanup;
 import lombok.RequiredArgsConstructor;
@@ -44,6 +48,8 @@ import org.junit.Test;
 import org.mockito.Mockito;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -129,7 +135,7 @@ public class EventStreamWriterTest {
 
     @NotThreadSafe
     @RequiredArgsConstructor
-    private static final class FakeSegmentOutputStream implements SegmentOutputStream {
+    private static class FakeSegmentOutputStream implements SegmentOutputStream {
         private final Segment segment;
         private final ArrayList<PendingEvent> writes = new ArrayList<>();
         private boolean sealed = false;
@@ -142,6 +148,14 @@ public class EventStreamWriterTest {
             }
         }
 
+        @Override
+        public void writeAll(List<PendingEvent> events) throws SegmentSealedException {
+            writes.addAll(events);
+            if (sealed) {
+                throw new SegmentSealedException();
+            }
+        }
+
         @Override
         public void close() throws SegmentSealedException {
             if (sealed) {
@@ -170,6 +184,67 @@ public class EventStreamWriterTest {
 
     }
 
+    @Test(timeout = 10000)
+    public void testConcurrentWritesToDifferentSegments() throws Exception {
+        String scope = "scope";
+        String streamName = "stream";
+        StreamImpl stream = new StreamImpl(scope, streamName);
+        Segment segment1 = new Segment(scope, streamName, 0);
+        Segment segment2 = new Segment(scope, streamName, 1);
+        NavigableMap<Double, Segment> segmentMap = new TreeMap<>();
+        segmentMap.put(0.5, segment1);
+        segmentMap.put(1.0, segment2);
+        StreamSegments streamSegments = new StreamSegments(segmentMap);
+        String routingKey1 = findRoutingKey(streamSegments, segment1);
+        String routingKey2 = findRoutingKey(streamSegments, segment2);
+        EventWriterConfig config = EventWriterConfig.builder().build();
+        SegmentOutputStreamFactory streamFactory = Mockito.mock(SegmentOutputStreamFactory.class);
+        Controller controller = Mockito.mock(Controller.class);
+        Mockito.when(controller.getCurrentSegments(scope, streamName))
+               .thenReturn(CompletableFuture.completedFuture(streamSegments));
+        CountDownLatch blockWrite = new CountDownLatch(1);
+        CountDownLatch writeStarted = new CountDownLatch(1);
+        FakeSegmentOutputStream outputStream1 = new FakeSegmentOutputStream(segment1) {
+            @Override
+            public void write(PendingEvent event) throws SegmentSealedException {
+                writeStarted.countDown();
+                Exceptions.handleInterrupted(blockWrite::await);
+                super.write(event);
+            }
+        };
+        FakeSegmentOutputStream outputStream2 = new FakeSegmentOutputStream(segment2);
+        Mockito.when(streamFactory.createOutputStreamForSegment(segment1)).thenReturn(outputStream1);
+        Mockito.when(streamFactory.createOutputStreamForSegment(segment2)).thenReturn(outputStream2);
+        JavaSerializer<String> serializer = new JavaSerializer<>();
+        @Cleanup
+        EventStreamWriter<String> writer = new EventStreamWriterImpl<>(stream,
+                                                                       controller,
+                                                                       streamFactory,
+                                                                       serializer,
+                                                                       config);
+
+        // A write to segment1 that does not complete must not prevent writes to segment2.
+        CompletableFuture<Void> blockedWrite = CompletableFuture.runAsync(() -> writer.writeEvent(routingKey1, "Foo"));
+        writeStarted.await();
+        writer.writeEvent(routingKey2, "Bar");
+        assertEquals(1, outputStream2.getUnackedEvents().size());
+        assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEvents().get(0).getData()));
+        assertTrue(outputStream1.getUnackedEvents().isEmpty());
+
+        blockWrite.countDown();
+        blockedWrite.get();
+        assertEquals(1, outputStream1.getUnackedEvents().size());
+        assertEquals("Foo", serializer.deserialize(outputStream1.getUnackedEvents().get(0).getData()));
+    }
+
+    private String findRoutingKey(StreamSegments streamSegments, Segment segment) {
+        int i = 0;
+        while (!streamSegments.getSegmentForKey("key" + i).equals(segment)) {
+            i++;
+        }
+        return "key" + i;
+    }
+
     @Test
     public void testEndOfSegment() {
         String scope = "scope";
@@ -210,6 +285,58 @@ public class EventStreamWriterTest {
         assertEquals("Bar", serializer.deserialize(outputStream2.getUnackedEvents().get(1).getData()));
     }
 
+    @Test
+    public void testWriteEvents() throws Exception {
+        String scope = "scope";
+        String streamName = "stream";
+        String routingKey = "RoutingKey";
+        StreamImpl stream = new StreamImpl(scope, streamName);
+        Segment segment1 = new Segment(scope, streamName, 0);
+        Segment segment2 = new Segment(scope, streamName, 1);
+        EventWriterConfig config = EventWriterConfig.builder().build();
+        SegmentOutputStreamFactory streamFactory = Mockito.mock(SegmentOutputStreamFactory.class);
+        Controller controller = Mockito.mock(Controller.class);
+        FakeSegmentOutputStream outputStream1 = new FakeSegmentOutputStream(segment1);
+        FakeSegmentOutputStream outputStream2 = new FakeSegmentOutputStream(segment2);
+        Mockito.when(streamFactory.createOutputStreamForSegment(segment1)).thenReturn(outputStream1);
+        Mockito.when(streamFactory.createOutputStreamForSegment(segment2)).thenReturn(outputStream2);
+
+        JavaSerializer<String> serializer = new JavaSerializer<>();
+        Mockito.when(controller.getCurrentSegments(scope, streamName)).thenReturn(getSegmentsFuture(segment1));
+        @Cleanup
+        EventStreamWriter<String> writer = new EventStreamWriterImpl<>(stream,
+                                                                       controller,
+                                                                       streamFactory,
+                                                                       serializer,
+                                                                       config);
+
+        AckFuture ack = writer.writeEvents(routingKey, Arrays.asList("Foo", "Bar", "Baz"));
+        List<PendingEvent> unacked = outputStream1.getUnackedEvents();
+        assertEquals(3, unacked.size());
+        assertEquals("Foo", serializer.deserialize(unacked.get(0).getData().duplicate()));
+        assertEquals("Baz", serializer.deserialize(unacked.get(2).getData().duplicate()));
+        // The events are serialized into a single buffer.
+        assertSame(unacked.get(0).getData().array(), unacked.get(2).getData().array());
+
+        // Each event has its own future, and the batch is acked once all of them are.
+        unacked.get(0).getAckFuture().complete(true);
+        unacked.get(2).getAckFuture().complete(true);
+        assertFalse(ack.isDone());
+        unacked.get(1).getAckFuture().complete(true);
+        ack.get();
+        assertTrue(writer.writeEvents(routingKey, Collections.emptyList()).isDone());
+
+        // Events that were written to a sealed segment are all re-sent to its successor, in order.
+        outputStream1.sealed = true;
+        Mockito.when(controller.getSuccessors(segment1)).thenReturn(getReplacement(segment1, segment2));
+        writer.writeEvents(routingKey, Arrays.asList("A", "B"));
+        unacked = outputStream2.getUnackedEvents();
+        assertEquals(5, unacked.size());
+        assertEquals("Foo", serializer.deserialize(unacked.get(0).getData()));
+        assertEquals("A", serializer.deserialize(unacked.get(3).getData()));
+        assertEquals("B", serializer.deserialize(unacked.get(4).getData()));
+    }
+
     @Test
     @Ignore
     public void testNoNextSegment() {
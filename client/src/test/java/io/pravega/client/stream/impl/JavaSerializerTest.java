@@ -18,6 +18,7 @@ package io.pravega.client.stream.impl;
 import static org.junit.Assert.assertEquals;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -42,6 +43,21 @@ public class JavaSerializerTest {
         assertEquals(one, result);
     }
 
+    @Test
+    public void testSlice() {
+        JavaSerializer<Foo> serializer = new JavaSerializer<>();
+        Foo one = new Foo(1);
+        ByteBuffer serialized = serializer.serialize(one);
+        ByteBuffer larger = ByteBuffer.allocate(serialized.remaining() + 10);
+        larger.position(5);
+        larger.put(serialized);
+        larger.position(5);
+        ByteBuffer slice = larger.slice();
+        slice.limit(larger.capacity() - 10);
+        Foo result = serializer.deserialize(slice);
+        assertEquals(one, result);
+    }
+
     @Test
     public void testSelf() {
         JavaSerializer<JavaSerializer<String>> serializer = new JavaSerializer<>();
@@ -150,7 +150,7 @@ public class ReaderGroupStateManagerTest {
         newSegments = readerState.acquireNewSegmentsIfNeeded(0);
         assertTrue(newSegments.isEmpty());
         
-        readerState.handleEndOfSegment(initialSegmentB);
+        readerState.handleEndOfSegmentAsync(initialSegmentB, Runnable::run).join();
         newSegments = readerState.acquireNewSegmentsIfNeeded(0);
         assertEquals(1, newSegments.size());
         assertEquals(Long.valueOf(0), newSegments.get(successor));
@@ -0,0 +1,191 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.client.stream.impl.netty;
+
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.pravega.common.segment.StreamSegmentNameUtils;
+import io.pravega.shared.protocol.netty.ConnectionFailedException;
+import io.pravega.shared.protocol.netty.ReplyProcessor;
+import io.pravega.shared.protocol.netty.WireCommands;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class MultiplexedConnectionTest {
+
+    private static final String SEGMENT1 = "scope/stream/0";
+    private static final String SEGMENT2 = "scope/stream/1";
+
+    @Test(timeout = 10000)
+    public void testRoutesRepliesByRequest() throws ConnectionFailedException {
+        MultiplexedConnection connection = new MultiplexedConnection("test", c -> { });
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        ReplyProcessor rp1 = mock(ReplyProcessor.class);
+        ReplyProcessor rp2 = mock(ReplyProcessor.class);
+        ClientConnection session1 = connection.createSession(SEGMENT1, rp1);
+        ClientConnection session2 = connection.createSession(SEGMENT1, rp2);
+        assertNotNull(session1);
+        assertNotNull("Any number of sessions may use a segment.", session2);
+        assertEquals(2, connection.getSessionCount());
+
+        // Request ids are only unique per requester, so both sessions may use the same one.
+        session1.send(new WireCommands.CreateSegment(1, SEGMENT1, WireCommands.CreateSegment.NO_SCALE, 0));
+        session1.send(new WireCommands.ReadSegment(SEGMENT1, 0, 100));
+        session2.send(new WireCommands.SealSegment(1, SEGMENT1));
+        WireCommands.SegmentSealed sealed = new WireCommands.SegmentSealed(1, SEGMENT1);
+        WireCommands.SegmentCreated created = new WireCommands.SegmentCreated(1, SEGMENT1);
+        WireCommands.SegmentRead read = new WireCommands.SegmentRead(SEGMENT1, 0, false, false, Unpooled.EMPTY_BUFFER);
+        channel.writeInbound(sealed, created, read);
+        verify(rp2).segmentSealed(sealed);
+        verify(rp1, never()).segmentSealed(any());
+        verify(rp1).segmentCreated(created);
+        verify(rp2, never()).segmentCreated(any());
+        verify(rp1).segmentRead(read);
+        verify(rp2, never()).segmentRead(any());
+
+        // Replies to requests which are not outstanding are dropped.
+        channel.writeInbound(read, new WireCommands.NoSuchSegment(2, SEGMENT1));
+        verify(rp1).segmentRead(read);
+        verify(rp1, never()).noSuchSegment(any());
+        verify(rp2, never()).noSuchSegment(any());
+
+        WireCommands.KeepAlive keepAlive = new WireCommands.KeepAlive();
+        channel.writeInbound(keepAlive);
+        verify(rp1).keepAlive(keepAlive);
+        verify(rp2).keepAlive(keepAlive);
+    }
+
+    @Test(timeout = 10000)
+    public void testMultiSegmentSession() throws ConnectionFailedException {
+        MultiplexedConnection connection = new MultiplexedConnection("test", c -> { });
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        ReplyProcessor rp1 = mock(ReplyProcessor.class);
+        ClientConnection session = connection.createSession(Arrays.asList(SEGMENT1, SEGMENT2), rp1);
+        assertNotNull(session);
+        assertNotNull(connection.createSession(SEGMENT2, mock(ReplyProcessor.class)));
+        assertEquals(2, connection.getSessionCount());
+
+        // Batched requests are replied to once for each segment.
+        session.send(new WireCommands.CreateSegments(1, Arrays.asList(SEGMENT1, SEGMENT2), WireCommands.CreateSegment.NO_SCALE, 0));
+        WireCommands.SegmentCreated created1 = new WireCommands.SegmentCreated(1, SEGMENT1);
+        WireCommands.SegmentCreated created2 = new WireCommands.SegmentCreated(1, SEGMENT2);
+        channel.writeInbound(created1, created2);
+        verify(rp1).segmentCreated(created1);
+        verify(rp1).segmentCreated(created2);
+
+        // Failures of transaction requests refer to the transaction's segment.
+        UUID txId = UUID.randomUUID();
+        session.send(new WireCommands.CommitTransactions(2, Arrays.asList(SEGMENT1, SEGMENT2), txId));
+        WireCommands.TransactionCommitted committed1 = new WireCommands.TransactionCommitted(2, SEGMENT1, txId);
+        WireCommands.NoSuchTransaction noSuchTxn2 = new WireCommands.NoSuchTransaction(2,
+                StreamSegmentNameUtils.getTransactionNameFromId(SEGMENT2, txId));
+        channel.writeInbound(committed1, noSuchTxn2);
+        verify(rp1).transactionCommitted(committed1);
+        verify(rp1).noSuchBatch(noSuchTxn2);
+
+        session.close();
+        channel.runPendingTasks();
+        verify(rp1).connectionDropped();
+        assertEquals(1, connection.getSessionCount());
+    }
+
+    @Test(timeout = 10000)
+    public void testRoutesAcksByWriter() throws ConnectionFailedException {
+        MultiplexedConnection connection = new MultiplexedConnection("test", c -> { });
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        ReplyProcessor rp1 = mock(ReplyProcessor.class);
+        ReplyProcessor rp2 = mock(ReplyProcessor.class);
+        ClientConnection session1 = connection.createSession(SEGMENT1, rp1);
+        ClientConnection session2 = connection.createSession(SEGMENT2, rp2);
+        UUID writer1 = UUID.randomUUID();
+        UUID writer2 = UUID.randomUUID();
+        session1.send(new WireCommands.SetupAppend(1, writer1, SEGMENT1));
+        session2.send(new WireCommands.SetupAppend(2, writer2, SEGMENT2));
+
+        assertTrue(channel.readOutbound() instanceof WireCommands.Hello);
+        assertEquals(new WireCommands.SetupAppend(1, writer1, SEGMENT1), channel.readOutbound());
+        assertEquals(new WireCommands.SetupAppend(2, writer2, SEGMENT2), channel.readOutbound());
+
+        WireCommands.DataAppended ack2 = new WireCommands.DataAppended(writer2, 5);
+        channel.writeInbound(ack2);
+        verify(rp2).dataAppended(ack2);
+        verify(rp1, never()).dataAppended(any());
+        assertTrue(connection.getBatchSizeTracker(writer1) != connection.getBatchSizeTracker(writer2));
+
+        // Failures of appends refer to event numbers, so they go to the writers of the segment.
+        WireCommands.AppendSetup setup2 = new WireCommands.AppendSetup(2, SEGMENT2, writer2, 0);
+        WireCommands.SegmentIsSealed sealed2 = new WireCommands.SegmentIsSealed(6, SEGMENT2);
+        channel.writeInbound(setup2, sealed2);
+        verify(rp2).appendSetup(setup2);
+        verify(rp2).segmentIsSealed(sealed2);
+        verify(rp1, never()).segmentIsSealed(any());
+    }
+
+    @Test(timeout = 10000)
+    public void testCloseSession() throws ConnectionFailedException {
+        AtomicBoolean connectionClosed = new AtomicBoolean();
+        MultiplexedConnection connection = new MultiplexedConnection("test", c -> connectionClosed.set(true));
+        EmbeddedChannel channel = new EmbeddedChannel(connection);
+        ReplyProcessor rp1 = mock(ReplyProcessor.class);
+        ReplyProcessor rp2 = mock(ReplyProcessor.class);
+        ClientConnection session1 = connection.createSession(SEGMENT1, rp1);
+        connection.createSession(SEGMENT2, rp2);
+        session1.send(new WireCommands.SealSegment(1, SEGMENT1));
+
+        // Closing a session only affects that session.
+        session1.close();
+        channel.runPendingTasks();
+        verify(rp1).connectionDropped();
+        verify(rp2, never()).connectionDropped();
+        assertFalse(connectionClosed.get());
+        assertTrue(channel.isOpen());
+        try {
+            session1.send(new WireCommands.KeepAlive());
+            fail("Closed session was usable.");
+        } catch (ConnectionFailedException e) {
+            // Expected.
+        }
+
+        // Late replies to its requests do not reach a new session for the same segment.
+        ReplyProcessor rp3 = mock(ReplyProcessor.class);
+        assertNotNull(connection.createSession(SEGMENT1, rp3));
+        channel.writeInbound(new WireCommands.SegmentSealed(1, SEGMENT1));
+        verify(rp1, never()).segmentSealed(any());
+        verify(rp3, never()).segmentSealed(any());
+
+        // Closing the channel drops all remaining sessions.
+        channel.close();
+        channel.runPendingTasks();
+        verify(rp2).connectionDropped();
+        verify(rp3).connectionDropped();
+        assertTrue(connectionClosed.get());
+        assertTrue(connection.isClosed());
+        assertNull(connection.createSession(SEGMENT2, mock(ReplyProcessor.class)));
+    }
+}
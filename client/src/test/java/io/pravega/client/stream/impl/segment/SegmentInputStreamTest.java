@@ -36,6 +36,7 @@ import org.junit.Test;
 import static io.pravega.test.common.Async.testBlocking;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -71,6 +72,11 @@ public class SegmentInputStreamTest {
                 FutureHelpers.await(readResults.get(num + attempt), timeout);
                 return readResults.get(num + attempt).isDone();
             }
+
+            @Override
+            public CompletableFuture<Void> whenDone() {
+                return readResults.get(num + attempt).handle((r, e) -> null);
+            }
         }
 
         @Override
@@ -134,6 +140,26 @@ public class SegmentInputStreamTest {
         assertEquals(ByteBuffer.wrap(data), read);
     }
 
+    @Test
+    public void testReadDoesNotCopy() throws EndOfSegmentException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        ByteBuffer event = createEventFromData(data);
+        ByteBuffer wireData = ByteBuffer.allocate(event.remaining() * 2);
+        wireData.put(event.slice());
+        wireData.put(event.slice());
+        wireData.flip();
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 2);
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false, wireData.slice()));
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0);
+        for (int i = 0; i < 2; i++) {
+            ByteBuffer read = stream.read();
+            assertEquals(ByteBuffer.wrap(data), read);
+            assertSame("Event was not sliced out of the received data.", wireData.array(), read.array());
+        }
+        assertEquals(wireData.capacity(), stream.getOffset());
+    }
+
     @Test
     public void testSmallerThanNeededRead() throws EndOfSegmentException {
         byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
@@ -175,6 +201,61 @@ public class SegmentInputStreamTest {
         assertEquals(ByteBuffer.wrap(data), read);
     }
 
+    @Test
+    public void testReadAhead() throws EndOfSegmentException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int numEntries = 10;
+        int readLength = 100;
+        ByteBuffer wireData = ByteBuffer.allocate((data.length + WireCommands.TYPE_PLUS_LENGTH_SIZE) * numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            wireData.put(createEventFromData(data));
+        }
+        wireData.flip();
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 10);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0, readLength, 3);
+        assertEquals("Read-ahead should not be used before a full read was received.", 0, fakeNetwork.readIndex.get());
+
+        // A full read enables read-ahead.
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false, ByteBufferUtils.slice(wireData, 0, readLength)));
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+        assertEquals("Unexpected number of outstanding reads with read-ahead.", 2, fakeNetwork.readIndex.get());
+
+        // A short read at the tail discards the outstanding read-ahead and stops it.
+        fakeNetwork.complete(1, new WireCommands.SegmentRead(segment.getScopedName(), readLength, true, false,
+                ByteBufferUtils.slice(wireData, readLength, wireData.capacity() - readLength)));
+        for (int i = 1; i < numEntries; i++) {
+            assertEquals(ByteBuffer.wrap(data), stream.read());
+        }
+        assertEquals(wireData.capacity(), stream.getOffset());
+        assertEquals("Unexpected reads issued after reaching the tail.", 2, fakeNetwork.readIndex.get());
+    }
+
+    @Test
+    public void testReadAheadAfterShortRead() throws EndOfSegmentException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        int numEntries = 10;
+        int readLength = 100;
+        int shortReadLength = 40;
+        ByteBuffer wireData = ByteBuffer.allocate((data.length + WireCommands.TYPE_PLUS_LENGTH_SIZE) * numEntries);
+        for (int i = 0; i < numEntries; i++) {
+            wireData.put(createEventFromData(data));
+        }
+        wireData.flip();
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 10);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0, readLength, 3);
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false, ByteBufferUtils.slice(wireData, 0, readLength)));
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+        assertEquals("Unexpected number of outstanding reads with read-ahead.", 2, fakeNetwork.readIndex.get());
+
+        // A short read that is not at the tail discards the outstanding requests, but read-ahead continues.
+        fakeNetwork.complete(1, new WireCommands.SegmentRead(segment.getScopedName(), readLength, false, false,
+                ByteBufferUtils.slice(wireData, readLength, shortReadLength)));
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+        assertEquals("Read-ahead should not stop after a short read that is not at the tail.", 3, fakeNetwork.readIndex.get());
+    }
+
     @Test
     public void testExceptionRecovery() throws EndOfSegmentException {
         byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
@@ -225,6 +306,68 @@ public class SegmentInputStreamTest {
         assertFalse(stream.canReadWithoutBlocking());
     }
     
+    @Test
+    public void testFillBufferAsync() throws EndOfSegmentException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 2);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0);
+        CompletableFuture<Void> dataAvailable = stream.fillBufferAsync();
+        assertFalse(dataAvailable.isDone());
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false, createEventFromData(data)));
+        assertTrue(dataAvailable.isDone());
+        assertTrue(stream.fillBufferAsync().isDone());
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+        assertFalse(stream.fillBufferAsync().isDone());
+    }
+    
+    @Test
+    public void testFillBufferAsyncPartialEvent() throws EndOfSegmentException {
+        byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
+        ByteBuffer wireData = createEventFromData(data);
+        int firstReadLength = WireCommands.TYPE_PLUS_LENGTH_SIZE + 3;
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 3);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0);
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false,
+                ByteBufferUtils.slice(wireData, 0, firstReadLength)));
+        CompletableFuture<Void> dataAvailable = stream.fillBufferAsync();
+        assertTrue(stream.canReadWithoutBlocking());
+        assertFalse(dataAvailable.isDone());
+        assertSame(dataAvailable, stream.fillBufferAsync());
+        fakeNetwork.complete(1, new WireCommands.SegmentRead(segment.getScopedName(), firstReadLength, false, false,
+                ByteBufferUtils.slice(wireData, firstReadLength, wireData.remaining() - firstReadLength)));
+        assertTrue(dataAvailable.isDone());
+        assertTrue(stream.fillBufferAsync().isDone());
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+    }
+
+    @Test
+    public void testFillBufferAsyncEventLargerThanBuffer() throws EndOfSegmentException {
+        byte[] data = new byte[40];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteBuffer wireData = createEventFromData(data);
+        int readLength = 20;
+        TestAsyncSegmentInputStream fakeNetwork = new TestAsyncSegmentInputStream(segment, 3);
+        @Cleanup
+        SegmentInputStreamImpl stream = new SegmentInputStreamImpl(fakeNetwork, 0, readLength);
+        fakeNetwork.complete(0, new WireCommands.SegmentRead(segment.getScopedName(), 0, false, false,
+                ByteBufferUtils.slice(wireData, 0, readLength)));
+        CompletableFuture<Void> dataAvailable = stream.fillBufferAsync();
+        assertFalse(dataAvailable.isDone());
+        fakeNetwork.complete(1, new WireCommands.SegmentRead(segment.getScopedName(), readLength, false, false,
+                ByteBufferUtils.slice(wireData, readLength, readLength)));
+        assertTrue(dataAvailable.isDone());
+        // The event does not fit in the buffer, but the future must not complete until all of it has been received.
+        assertFalse(stream.fillBufferAsync().isDone());
+        fakeNetwork.complete(2, new WireCommands.SegmentRead(segment.getScopedName(), 2 * readLength, false, false,
+                ByteBufferUtils.slice(wireData, 2 * readLength, wireData.remaining() - 2 * readLength)));
+        assertTrue(stream.fillBufferAsync().isDone());
+        assertEquals(ByteBuffer.wrap(data), stream.read());
+    }
+
     @Test
     public void testEndOfSegment() throws EndOfSegmentException {
         byte[] data = new byte[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9};
@@ -130,6 +130,44 @@ public class SegmentOutputStreamTest {
         verifyNoMoreInteractions(connection);
     }
 
+    @Test(timeout = 10000)
+    public void testWriteAll() throws ConnectionFailedException, SegmentSealedException {
+        UUID cid = UUID.randomUUID();
+        PravegaNodeUri uri = new PravegaNodeUri("endpoint", SERVICE_PORT);
+        MockConnectionFactoryImpl cf = new MockConnectionFactoryImpl(uri);
+        MockController controller = new MockController(uri.getEndpoint(), uri.getPort(), cf);
+        ClientConnection connection = mock(ClientConnection.class);
+        InOrder inOrder = inOrder(connection);
+        cf.provideConnection(uri, connection);
+        @SuppressWarnings("resource")
+        SegmentOutputStreamImpl output = new SegmentOutputStreamImpl(SEGMENT, controller, cf, cid);
+
+        output.setupConnection();
+        cf.getProcessor(uri).appendSetup(new WireCommands.AppendSetup(1, SEGMENT, cid, 0));
+        Mockito.doAnswer(invocation -> {
+            CompletedCallback callback = (CompletedCallback) invocation.getArgument(1);
+            callback.complete(new ConnectionFailedException("intentional"));
+            return null;
+        }).when(connection).sendAsync(Mockito.any(), Mockito.any());
+        output.writeAll(ImmutableList.of(new PendingEvent(null, getBuffer("test1"), new CompletableFuture<>()),
+                                         new PendingEvent(null, getBuffer("test2"), new CompletableFuture<>())));
+
+        Append append1 = new Append(SEGMENT, cid, 1, Unpooled.wrappedBuffer(getBuffer("test1")), null);
+        Append append2 = new Append(SEGMENT, cid, 2, Unpooled.wrappedBuffer(getBuffer("test2")), null);
+        inOrder.verify(connection).send(new WireCommands.SetupAppend(1, cid, SEGMENT));
+        inOrder.verify(connection).sendAsync(eq(ImmutableList.of(append1, append2)), any());
+        // The failed send tears down the connection, and the events are retransmitted once it is re-established.
+        inOrder.verify(connection).close();
+        answerSuccess(connection);
+        Async.testBlocking(() -> output.write(new PendingEvent(null, getBuffer("test3"), new CompletableFuture<>())),
+                           () -> cf.getProcessor(uri).appendSetup(new WireCommands.AppendSetup(1, SEGMENT, cid, 0)));
+        Append append3 = new Append(SEGMENT, cid, 3, Unpooled.wrappedBuffer(getBuffer("test3")), null);
+        inOrder.verify(connection).send(new WireCommands.SetupAppend(2, cid, SEGMENT));
+        inOrder.verify(connection).sendAsync(eq(ImmutableList.of(append1, append2)), any());
+        inOrder.verify(connection).send(append3);
+        verifyNoMoreInteractions(connection);
+    }
+
     private void answerSuccess(ClientConnection connection) {
         Mockito.doAnswer(new Answer<Void>() {
             @Override
@@ -26,6 +26,7 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 import javax.annotation.concurrent.GuardedBy;
 
 import lombok.RequiredArgsConstructor;
@@ -104,6 +105,14 @@ public class MockSegmentIoStreams implements SegmentOutputStream, SegmentInputSt
         }
     }
     
+    @Override
+    @Synchronized
+    public void writeAll(List<PendingEvent> events) throws SegmentSealedException {
+        for (PendingEvent event : events) {
+            write(event);
+        }
+    }
+    
     @Override
     public void close() {
         //Noting to do.
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.common.concurrent;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.Timer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A hashed timing wheel which can track a large number of timeouts using a single scheduled task.
+ *
+ * Timeouts are placed into buckets based on their deadline (rounded up to the next tick). A single task (only active
+ * while there are pending timeouts) advances the wheel once per tick and invokes the callbacks of all the timeouts that
+ * have expired. Scheduling and cancelling a timeout are O(1) operations, which makes this class suitable for cases where
+ * many short-lived timeouts are registered, most of which are cancelled before expiring.
+ *
+ * Timeouts are not precise: a callback is invoked at most one tick (plus scheduling delays) after its deadline.
+ */
+@Slf4j
+@ThreadSafe
+public class TimeoutWheel implements AutoCloseable {
+    //region Members
+
+    private final long tickNanos;
+    private final ScheduledExecutorService executor;
+    private final Timer timer;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final List<HashSet<Timeout>> buckets;
+    @GuardedBy("lock")
+    private long currentTick;
+    @GuardedBy("lock")
+    private int pendingCount;
+    @GuardedBy("lock")
+    private ScheduledFuture<?> tickTask;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the TimeoutWheel class.
+     *
+     * @param tickDuration The resolution of the wheel. Timeouts will fire at most this much later than requested.
+     * @param wheelSize    The number of buckets in the wheel. Timeouts longer than tickDuration * wheelSize are supported,
+     *                     but they will be inspected multiple times before expiring.
+     * @param executor     An Executor to run the wheel on. All timeout callbacks will be invoked on this executor.
+     */
+    public TimeoutWheel(Duration tickDuration, int wheelSize, ScheduledExecutorService executor) {
+        Preconditions.checkNotNull(tickDuration, "tickDuration");
+        Preconditions.checkArgument(tickDuration.toNanos() > 0, "tickDuration must be a positive duration.");
+        Preconditions.checkArgument(wheelSize > 0, "wheelSize must be a positive integer.");
+        Preconditions.checkNotNull(executor, "executor");
+
+        this.tickNanos = tickDuration.toNanos();
+        this.executor = executor;
+        this.timer = new Timer();
+        this.buckets = new ArrayList<>(wheelSize);
+        for (int i = 0; i < wheelSize; i++) {
+            this.buckets.add(new HashSet<>());
+        }
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            stopTicking();
+            this.buckets.forEach(HashSet::clear);
+            this.pendingCount = 0;
+        }
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Schedules the given callback to be invoked after the given timeout, unless cancelled before that.
+     *
+     * @param onTimeout The callback to invoke. This should be a short, non-blocking operation.
+     * @param timeout   The timeout.
+     * @return A Timeout which can be used to cancel the callback.
+     * @throws io.pravega.common.ObjectClosedException If the TimeoutWheel has been closed.
+     */
+    public Timeout schedule(Runnable onTimeout, Duration timeout) {
+        Preconditions.checkNotNull(onTimeout, "onTimeout");
+        Preconditions.checkNotNull(timeout, "timeout");
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            long elapsed = this.timer.getElapsedNanos();
+            if (this.tickTask == null) {
+                // The wheel was idle; bring it up to date so we do not needlessly catch up on ticks with no timeouts.
+                this.currentTick = elapsed / this.tickNanos;
+            }
+
+            long deadlineNanos = elapsed + Math.max(0, timeout.toNanos());
+            long deadlineTick = Math.max(this.currentTick + 1, (deadlineNanos + this.tickNanos - 1) / this.tickNanos);
+            Timeout result = new Timeout(onTimeout, deadlineTick);
+            getBucket(deadlineTick).add(result);
+            this.pendingCount++;
+            if (this.tickTask == null) {
+                this.tickTask = this.executor.scheduleAtFixedRate(this::tick, this.tickNanos, this.tickNanos, TimeUnit.NANOSECONDS);
+            }
+
+            return result;
+        }
+    }
+
+    /**
+     * Gets a value indicating the number of timeouts that are pending (neither expired nor cancelled).
+     */
+    public int getPendingCount() {
+        synchronized (this.lock) {
+            return this.pendingCount;
+        }
+    }
+
+    private void tick() {
+        List<Timeout> expired = new ArrayList<>();
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+
+            long nowTick = this.timer.getElapsedNanos() / this.tickNanos;
+
+            // If we fell behind by more than a full revolution, there is no point in visiting the same bucket twice.
+            long lastTick = Math.min(nowTick, this.currentTick + this.buckets.size());
+            for (long t = this.currentTick + 1; t <= lastTick; t++) {
+                getBucket(t).removeIf(timeout -> {
+                    if (timeout.deadlineTick <= nowTick) {
+                        expired.add(timeout);
+                        return true;
+                    }
+
+                    return false;
+                });
+            }
+
+            this.currentTick = Math.max(this.currentTick, nowTick);
+            this.pendingCount -= expired.size();
+            if (this.pendingCount == 0) {
+                stopTicking();
+            }
+        }
+
+        // Invoke callbacks outside of the lock; they may very well want to schedule or cancel other timeouts.
+        for (Timeout timeout : expired) {
+            try {
+                timeout.onTimeout.run();
+            } catch (Throwable ex) {
+                log.error("Timeout callback failed.", ex);
+            }
+        }
+    }
+
+    private boolean cancel(Timeout timeout) {
+        synchronized (this.lock) {
+            if (this.closed || !getBucket(timeout.deadlineTick).remove(timeout)) {
+                return false;
+            }
+
+            this.pendingCount--;
+            if (this.pendingCount == 0) {
+                stopTicking();
+            }
+
+            return true;
+        }
+    }
+
+    @GuardedBy("lock")
+    private void stopTicking() {
+        if (this.tickTask != null) {
+            this.tickTask.cancel(false);
+            this.tickTask = null;
+        }
+    }
+
+    @GuardedBy("lock")
+    private HashSet<Timeout> getBucket(long tick) {
+        return this.buckets.get((int) (tick % this.buckets.size()));
+    }
+
+    @Override
+    public String toString() {
+        synchronized (this.lock) {
+            return String.format("TimeoutWheel: Pending = %d, Closed = %s", this.pendingCount, this.closed);
+        }
+    }
+
+    //endregion
+
+    //region Timeout
+
+    /**
+     * A timeout registered with a TimeoutWheel.
+     */
+    public final class Timeout {
+        private final Runnable onTimeout;
+        private final long deadlineTick;
+
+        private Timeout(Runnable onTimeout, long deadlineTick) {
+            this.onTimeout = onTimeout;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancels this timeout, if it has not already expired.
+         *
+         * @return True if the timeout was cancelled (its callback will not be invoked), false if it had already expired,
+         * had already been cancelled, or the TimeoutWheel has been closed.
+         */
+        public boolean cancel() {
+            return TimeoutWheel.this.cancel(this);
+        }
+    }
+
+    //endregion
+}
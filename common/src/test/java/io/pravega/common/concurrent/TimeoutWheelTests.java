@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.common.concurrent;
+
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.Timer;
+import io.pravega.test.common.AssertExtensions;
+import io.pravega.test.common.ThreadPooledTestSuite;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.Cleanup;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the TimeoutWheel class.
+ */
+public class TimeoutWheelTests extends ThreadPooledTestSuite {
+    private static final Duration TICK = Duration.ofMillis(10);
+    private static final int WHEEL_SIZE = 8;
+    private static final int TIMEOUT_COUNT = 20;
+
+    @Override
+    protected int getThreadPoolSize() {
+        return 2;
+    }
+
+    /**
+     * Tests that timeouts fire no sooner than requested, including those which span multiple revolutions of the wheel.
+     */
+    @Test(timeout = 10000)
+    public void testTimeout() {
+        @Cleanup
+        val wheel = new TimeoutWheel(TICK, WHEEL_SIZE, executorService());
+        val timer = new Timer();
+        val results = new ArrayList<CompletableFuture<Long>>();
+        val timeouts = new ArrayList<Duration>();
+        for (int i = 0; i < TIMEOUT_COUNT; i++) {
+            // Some of these are longer than a full revolution (TICK * WHEEL_SIZE).
+            val timeout = TICK.multipliedBy(i * 2);
+            val result = new CompletableFuture<Long>();
+            wheel.schedule(() -> result.complete(timer.getElapsedNanos()), timeout);
+            results.add(result);
+            timeouts.add(timeout);
+        }
+
+        FutureHelpers.allOf(results).join();
+        for (int i = 0; i < results.size(); i++) {
+            AssertExtensions.assertGreaterThanOrEqual("Timeout fired too early.", timeouts.get(i).toNanos(), results.get(i).join());
+        }
+
+        Assert.assertEquals("Unexpected pending count after all timeouts fired.", 0, wheel.getPendingCount());
+    }
+
+    /**
+     * Tests that cancelled timeouts do not fire.
+     */
+    @Test(timeout = 10000)
+    public void testCancel() throws Exception {
+        @Cleanup
+        val wheel = new TimeoutWheel(TICK, WHEEL_SIZE, executorService());
+        val cancelledFired = new AtomicBoolean();
+        val cancelled = wheel.schedule(() -> cancelledFired.set(true), TICK.multipliedBy(2));
+        val notCancelled = new CompletableFuture<Void>();
+        val other = wheel.schedule(() -> notCancelled.complete(null), TICK.multipliedBy(5));
+        Assert.assertEquals("Unexpected pending count.", 2, wheel.getPendingCount());
+
+        Assert.assertTrue("Unexpected result from cancel().", cancelled.cancel());
+        Assert.assertFalse("Unexpected result from cancel() when already cancelled.", cancelled.cancel());
+        Assert.assertEquals("Unexpected pending count after cancel().", 1, wheel.getPendingCount());
+
+        notCancelled.get(5, TimeUnit.SECONDS);
+        Assert.assertFalse("Cancelled timeout fired.", cancelledFired.get());
+        Assert.assertFalse("Unexpected result from cancel() when already expired.", other.cancel());
+    }
+
+    /**
+     * Tests that closing the wheel drops all pending timeouts and prevents new ones from being scheduled.
+     */
+    @Test
+    public void testClose() throws Exception {
+        val wheel = new TimeoutWheel(TICK, WHEEL_SIZE, executorService());
+        val fired = new AtomicBoolean();
+        val timeout = wheel.schedule(() -> fired.set(true), TICK);
+        wheel.close();
+        Assert.assertEquals("Unexpected pending count after close().", 0, wheel.getPendingCount());
+        Assert.assertFalse("Unexpected result from cancel() after close().", timeout.cancel());
+        AssertExtensions.assertThrows(
+                "schedule() worked after close().",
+                () -> wheel.schedule(() -> fired.set(true), TICK),
+                ex -> ex instanceof ObjectClosedException);
+
+        Thread.sleep(TICK.multipliedBy(5).toMillis());
+        Assert.assertFalse("Timeout fired after close().", fired.get());
+    }
+}
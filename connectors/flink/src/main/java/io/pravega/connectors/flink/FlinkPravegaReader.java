@@ -141,8 +141,11 @@ public class FlinkPravegaReader<T> extends RichParallelSourceFunction<T> impleme
 
             @Override
             public T deserialize(final ByteBuffer serializedValue) {
+                // The buffer may be a slice of a larger one, so only its remaining bytes belong to the event.
+                byte[] data = new byte[serializedValue.remaining()];
+                serializedValue.get(data);
                 try {
-                    return deserializationSchema.deserialize(serializedValue.array());
+                    return deserializationSchema.deserialize(data);
                 } catch (IOException e) {
                     // Converting exception since the base method doesn't handle checked exceptions.
                     throw new RuntimeException(e);
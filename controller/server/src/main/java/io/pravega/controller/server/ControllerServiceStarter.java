@@ -166,7 +166,9 @@ public class ControllerServiceStarter extends AbstractIdleService {
                 monitor.startAsync();
             }
 
-            connectionFactory = new ConnectionFactoryImpl(false);
+            // Requests to Segment Stores are multiplexed over a small pool of connections per host, instead of each of
+            // them opening (and closing) its own connection.
+            connectionFactory = new ConnectionFactoryImpl(false, ConnectionFactoryImpl.DEFAULT_MAX_CONNECTIONS_PER_ENDPOINT);
             SegmentHelper segmentHelper = new SegmentHelper();
             streamMetadataTasks = new StreamMetadataTasks(streamStore, hostStore, taskMetadataStore,
                     segmentHelper, taskExecutor, host.getHostId(), connectionFactory);
@@ -16,6 +16,8 @@
 package io.pravega.controller.server;
 
 import io.pravega.common.ExceptionHelpers;
+import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.segment.StreamSegmentNameUtils;
 import io.pravega.common.cluster.Host;
 import io.pravega.shared.protocol.netty.ConnectionFailedException;
 import io.pravega.shared.protocol.netty.FailingReplyProcessor;
@@ -32,10 +34,20 @@ import io.pravega.client.stream.Segment;
 import io.pravega.client.stream.impl.ModelHelper;
 import io.pravega.client.stream.impl.netty.ClientConnection;
 import io.pravega.client.stream.impl.netty.ConnectionFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -96,10 +108,71 @@ public class SegmentHelper {
 
         WireCommands.CreateSegment request = new WireCommands.CreateSegment(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber), extracted.getLeft(), extracted.getRight());
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, Collections.singletonList(request.getSegment()), replyProcessor, result, clientCF,
+                ModelHelper.encode(uri));
         return result;
     }
 
+    /**
+     * Creates all the given segments, using a single (batched) request for all the segments that are owned by the same
+     * host.
+     *
+     * @param scope               stream scope
+     * @param stream              stream name
+     * @param segmentNumbers      numbers of the segments to create
+     * @param policy              scaling policy of the stream
+     * @param hostControllerStore host controller store
+     * @param clientCF            connection factory
+     * @return A CompletableFuture that will complete with true once all segments have been created (or already existed).
+     */
+    public CompletableFuture<Boolean> createSegments(final String scope,
+                                                     final String stream,
+                                                     final List<Integer> segmentNumbers,
+                                                     final ScalingPolicy policy,
+                                                     final HostControllerStore hostControllerStore,
+                                                     final ConnectionFactory clientCF) {
+        final Pair<Byte, Integer> extracted = extractFromPolicy(policy);
+        return sendBatchedRequests(scope, stream, segmentNumbers, hostControllerStore, (uri, segments) -> {
+            final CompletableFuture<Boolean> result = new CompletableFuture<>();
+            final Set<String> pending = ConcurrentHashMap.newKeySet();
+            pending.addAll(segments);
+            final WireCommandType type = WireCommandType.CREATE_SEGMENTS;
+            final FailingReplyProcessor replyProcessor = new FailingReplyProcessor() {
+
+                @Override
+                public void connectionDropped() {
+                    result.completeExceptionally(
+                            new WireCommandFailedException(type, WireCommandFailedException.Reason.ConnectionDropped));
+                }
+
+                @Override
+                public void wrongHost(WireCommands.WrongHost wrongHost) {
+                    result.completeExceptionally(new WireCommandFailedException(type, WireCommandFailedException.Reason.UnknownHost));
+                }
+
+                @Override
+                public void segmentAlreadyExists(WireCommands.SegmentAlreadyExists segmentAlreadyExists) {
+                    completeSegment(pending, segmentAlreadyExists.getSegment(), result, true);
+                }
+
+                @Override
+                public void segmentCreated(WireCommands.SegmentCreated segmentCreated) {
+                    completeSegment(pending, segmentCreated.getSegment(), result, true);
+                }
+
+                @Override
+                public void processingFailure(Exception error) {
+                    result.completeExceptionally(error);
+                }
+            };
+
+            WireCommands.CreateSegments request = new WireCommands.CreateSegments(idGenerator.get(), segments,
+                    extracted.getLeft(), extracted.getRight());
+            sendRequestAsync(request, segments, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+            return result;
+        }).thenApply(v -> true);
+    }
+
     public CompletableFuture<Boolean> deleteSegment(final String scope,
                                                     final String stream,
                                                     final int segmentNumber,
@@ -141,7 +214,8 @@ public class SegmentHelper {
 
         WireCommands.DeleteSegment request = new WireCommands.DeleteSegment(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber));
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, Collections.singletonList(request.getSegment()), replyProcessor, result, clientCF,
+                ModelHelper.encode(uri));
         return result;
     }
 
@@ -196,7 +270,8 @@ public class SegmentHelper {
 
         WireCommands.SealSegment request = new WireCommands.SealSegment(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber));
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, Collections.singletonList(request.getSegment()), replyProcessor, result, clientCF,
+                ModelHelper.encode(uri));
         return result;
     }
 
@@ -235,7 +310,8 @@ public class SegmentHelper {
 
         WireCommands.CreateTransaction request = new WireCommands.CreateTransaction(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber), txId);
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, Collections.singletonList(request.getSegment()), replyProcessor, result, clientCF,
+                ModelHelper.encode(uri));
         return result;
     }
 
@@ -282,10 +358,73 @@ public class SegmentHelper {
 
         WireCommands.CommitTransaction request = new WireCommands.CommitTransaction(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber), txId);
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, withTransactionNames(Collections.singletonList(request.getSegment()), txId),
+                replyProcessor, result, clientCF, ModelHelper.encode(uri));
         return result;
     }
 
+    /**
+     * Commits the given transaction on all the given segments, using a single (batched) request for all the segments
+     * that are owned by the same host.
+     *
+     * @param scope               stream scope
+     * @param stream              stream name
+     * @param segmentNumbers      numbers of the segments to commit the transaction on
+     * @param txId                transaction id
+     * @param hostControllerStore host controller store
+     * @param clientCF            connection factory
+     * @return A CompletableFuture that will complete once the transaction has been committed on all segments.
+     */
+    public CompletableFuture<TxnStatus> commitTransactions(final String scope,
+                                                           final String stream,
+                                                           final List<Integer> segmentNumbers,
+                                                           final UUID txId,
+                                                           final HostControllerStore hostControllerStore,
+                                                           final ConnectionFactory clientCF) {
+        final TxnStatus success = TxnStatus.newBuilder().setStatus(TxnStatus.Status.SUCCESS).build();
+        return sendBatchedRequests(scope, stream, segmentNumbers, hostControllerStore, (uri, segments) -> {
+            final CompletableFuture<TxnStatus> result = new CompletableFuture<>();
+            final Set<String> pending = ConcurrentHashMap.newKeySet();
+            pending.addAll(segments);
+            final WireCommandType type = WireCommandType.COMMIT_TRANSACTIONS;
+            final FailingReplyProcessor replyProcessor = new FailingReplyProcessor() {
+
+                @Override
+                public void connectionDropped() {
+                    result.completeExceptionally(
+                            new WireCommandFailedException(type, WireCommandFailedException.Reason.ConnectionDropped));
+                }
+
+                @Override
+                public void wrongHost(WireCommands.WrongHost wrongHost) {
+                    result.completeExceptionally(
+                            new WireCommandFailedException(type, WireCommandFailedException.Reason.UnknownHost));
+                }
+
+                @Override
+                public void transactionCommitted(WireCommands.TransactionCommitted transactionCommitted) {
+                    completeSegment(pending, transactionCommitted.getSegment(), result, success);
+                }
+
+                @Override
+                public void transactionAborted(WireCommands.TransactionAborted transactionAborted) {
+                    result.completeExceptionally(
+                            new WireCommandFailedException(type, WireCommandFailedException.Reason.PreconditionFailed));
+                }
+
+                @Override
+                public void processingFailure(Exception error) {
+                    result.completeExceptionally(error);
+                }
+            };
+
+            WireCommands.CommitTransactions request = new WireCommands.CommitTransactions(idGenerator.get(), segments, txId);
+            sendRequestAsync(request, withTransactionNames(segments, txId), replyProcessor, result, clientCF,
+                    ModelHelper.encode(uri));
+            return result;
+        }).thenApply(v -> success);
+    }
+
     public CompletableFuture<TxnStatus> abortTransaction(final String scope,
                                                          final String stream,
                                                          final int segmentNumber,
@@ -325,10 +464,70 @@ public class SegmentHelper {
 
         WireCommands.AbortTransaction request = new WireCommands.AbortTransaction(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber), txId);
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, withTransactionNames(Collections.singletonList(request.getSegment()), txId),
+                replyProcessor, result, clientCF, ModelHelper.encode(uri));
         return result;
     }
 
+    /**
+     * Aborts the given transaction on all the given segments, using a single (batched) request for all the segments
+     * that are owned by the same host.
+     *
+     * @param scope               stream scope
+     * @param stream              stream name
+     * @param segmentNumbers      numbers of the segments to abort the transaction on
+     * @param txId                transaction id
+     * @param hostControllerStore host controller store
+     * @param clientCF            connection factory
+     * @return A CompletableFuture that will complete once the transaction has been aborted on all segments.
+     */
+    public CompletableFuture<TxnStatus> abortTransactions(final String scope,
+                                                          final String stream,
+                                                          final List<Integer> segmentNumbers,
+                                                          final UUID txId,
+                                                          final HostControllerStore hostControllerStore,
+                                                          final ConnectionFactory clientCF) {
+        final TxnStatus success = TxnStatus.newBuilder().setStatus(TxnStatus.Status.SUCCESS).build();
+        return sendBatchedRequests(scope, stream, segmentNumbers, hostControllerStore, (uri, segments) -> {
+            final CompletableFuture<TxnStatus> result = new CompletableFuture<>();
+            final Set<String> pending = ConcurrentHashMap.newKeySet();
+            pending.addAll(segments);
+            final WireCommandType type = WireCommandType.ABORT_TRANSACTIONS;
+            final FailingReplyProcessor replyProcessor = new FailingReplyProcessor() {
+
+                @Override
+                public void connectionDropped() {
+                    result.completeExceptionally(new WireCommandFailedException(type, WireCommandFailedException.Reason.ConnectionDropped));
+                }
+
+                @Override
+                public void wrongHost(WireCommands.WrongHost wrongHost) {
+                    result.completeExceptionally(new WireCommandFailedException(type, WireCommandFailedException.Reason.UnknownHost));
+                }
+
+                @Override
+                public void transactionCommitted(WireCommands.TransactionCommitted transactionCommitted) {
+                    result.completeExceptionally(new WireCommandFailedException(type, WireCommandFailedException.Reason.PreconditionFailed));
+                }
+
+                @Override
+                public void transactionAborted(WireCommands.TransactionAborted transactionAborted) {
+                    completeSegment(pending, transactionAborted.getSegment(), result, success);
+                }
+
+                @Override
+                public void processingFailure(Exception error) {
+                    result.completeExceptionally(error);
+                }
+            };
+
+            WireCommands.AbortTransactions request = new WireCommands.AbortTransactions(idGenerator.get(), segments, txId);
+            sendRequestAsync(request, withTransactionNames(segments, txId), replyProcessor, result, clientCF,
+                    ModelHelper.encode(uri));
+            return result;
+        }).thenApply(v -> success);
+    }
+
     public CompletableFuture<Void> updatePolicy(String scope, String stream, ScalingPolicy policy,
                                                 int segmentNumber, HostControllerStore hostControllerStore,
                                                 ConnectionFactory clientCF) {
@@ -363,14 +562,55 @@ public class SegmentHelper {
 
         WireCommands.UpdateSegmentPolicy request = new WireCommands.UpdateSegmentPolicy(idGenerator.get(), 
                 Segment.getScopedName(scope, stream, segmentNumber), extracted.getLeft(), extracted.getRight());
-        sendRequestAsync(request, replyProcessor, result, clientCF, ModelHelper.encode(uri));
+        sendRequestAsync(request, Collections.singletonList(request.getSegment()), replyProcessor, result, clientCF,
+                ModelHelper.encode(uri));
         return result;
     }
 
-    private <ResultT> void sendRequestAsync(final WireCommand request, final ReplyProcessor replyProcessor,
+    /**
+     * Groups the given segments by the host that owns them and issues one request per host.
+     */
+    private <ResultT> CompletableFuture<Void> sendBatchedRequests(final String scope, final String stream,
+                                                                  final List<Integer> segmentNumbers,
+                                                                  final HostControllerStore hostControllerStore,
+                                                                  final BiFunction<Controller.NodeUri, List<String>, CompletableFuture<ResultT>> sendToHost) {
+        final Map<Controller.NodeUri, List<String>> segmentsByHost = new HashMap<>();
+        for (int segmentNumber : segmentNumbers) {
+            segmentsByHost.computeIfAbsent(getSegmentUri(scope, stream, segmentNumber, hostControllerStore), uri -> new ArrayList<>())
+                          .add(Segment.getScopedName(scope, stream, segmentNumber));
+        }
+
+        return FutureHelpers.allOf(segmentsByHost.entrySet()
+                                                 .stream()
+                                                 .map(e -> sendToHost.apply(e.getKey(), e.getValue()))
+                                                 .collect(Collectors.toList()));
+    }
+
+    /**
+     * Failures to commit or abort a transaction are reported against the transaction segment rather than its parent, so
+     * we need to receive the replies for both.
+     */
+    private List<String> withTransactionNames(final List<String> segments, final UUID txId) {
+        final List<String> result = new ArrayList<>(segments);
+        segments.forEach(segment -> result.add(StreamSegmentNameUtils.getTransactionNameFromId(segment, txId)));
+        return result;
+    }
+
+    private <ResultT> void completeSegment(final Set<String> pending, final String segment,
+                                           final CompletableFuture<ResultT> resultFuture, final ResultT result) {
+        // Replies for the same segment may be duplicated, hence we only care about the segments we are still waiting on.
+        if (pending.remove(segment) && pending.isEmpty()) {
+            resultFuture.complete(result);
+        }
+    }
+
+    private <ResultT> void sendRequestAsync(final WireCommand request, final Collection<String> segments,
+                                            final ReplyProcessor replyProcessor,
                                             final CompletableFuture<ResultT> resultFuture,
                                             final ConnectionFactory connectionFactory, final PravegaNodeUri uri) {
-        CompletableFuture<ClientConnection> connectionFuture = connectionFactory.establishConnection(uri, replyProcessor);
+        // Requests are multiplexed over pooled connections (if the ConnectionFactory supports it), so we only need a
+        // session for the segments this request refers to, rather than a whole new connection.
+        CompletableFuture<ClientConnection> connectionFuture = connectionFactory.establishConnection(uri, segments, replyProcessor);
         connectionFuture.whenComplete((connection, e) -> {
             if (connection == null) {
                 resultFuture.completeExceptionally(new WireCommandFailedException(new ConnectionFailedException(e),
@@ -23,16 +23,20 @@ import io.pravega.controller.retryable.RetryableException;
 import io.pravega.controller.server.SegmentHelper;
 import io.pravega.controller.store.host.HostControllerStore;
 import io.pravega.controller.store.stream.OperationContext;
+import io.pravega.controller.store.stream.Segment;
 import io.pravega.controller.store.stream.StreamMetadataStore;
 import io.pravega.controller.stream.api.grpc.v1.Controller;
 import io.pravega.client.stream.Position;
 import io.pravega.client.stream.impl.netty.ConnectionFactory;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -87,12 +91,14 @@ public class AbortEventProcessor extends EventProcessor<AbortEvent> {
         log.debug("Aborting transaction {} on stream {}/{}", event.getTxid(), event.getScope(), event.getStream());
 
         streamMetadataStore.getActiveSegments(event.getScope(), event.getStream(), context, executor)
-                .thenCompose(segments ->
-                        FutureHelpers.allOfWithResults(
-                                segments.stream()
-                                        .parallel()
-                                        .map(segment -> notifyAbortToHost(scope, stream, segment.getNumber(), txId))
-                                        .collect(Collectors.toList())))
+                // Looking up the owners of the segments may fail transiently, so it is retried as well.
+                .thenCompose(segments -> withRetries(() -> groupByHost(scope, stream, segments)))
+                .thenCompose(segmentsByHost ->
+                        // Send one batched request per host, each of which is retried independently.
+                        FutureHelpers.allOfWithResults(segmentsByHost
+                                .stream()
+                                .map(segmentNumbers -> notifyAbortToHost(scope, stream, segmentNumbers, txId))
+                                .collect(Collectors.toList())))
                 .thenCompose(x -> streamMetadataStore.abortTransaction(scope, stream, txId, context, executor))
                 .whenComplete((result, error) -> {
                     if (error != null) {
@@ -108,7 +114,26 @@ public class AbortEventProcessor extends EventProcessor<AbortEvent> {
                 }).join();
     }
 
-    private CompletableFuture<Controller.TxnStatus> notifyAbortToHost(final String scope, final String stream, final int segmentNumber, final UUID txId) {
+    private CompletableFuture<Collection<List<Integer>>> groupByHost(final String scope, final String stream,
+                                                                     final List<Segment> segments) {
+        return CompletableFuture.completedFuture(segments
+                .stream()
+                .collect(Collectors.groupingBy(segment -> segmentHelper.getSegmentUri(scope, stream, segment.getNumber(),
+                        this.hostControllerStore), Collectors.mapping(Segment::getNumber, Collectors.toList())))
+                .values());
+    }
+
+    private CompletableFuture<Controller.TxnStatus> notifyAbortToHost(final String scope, final String stream,
+                                                                      final List<Integer> segmentNumbers, final UUID txId) {
+        return withRetries(() -> segmentHelper.abortTransactions(scope,
+                stream,
+                segmentNumbers,
+                txId,
+                this.hostControllerStore,
+                this.connectionFactory));
+    }
+
+    private <T> CompletableFuture<T> withRetries(final Supplier<CompletableFuture<T>> supplier) {
         final long retryInitialDelay = 100;
         final int retryMultiplier = 10;
         final int retryMaxAttempts = 100;
@@ -117,11 +142,6 @@ public class AbortEventProcessor extends EventProcessor<AbortEvent> {
         return Retry.withExpBackoff(retryInitialDelay, retryMultiplier, retryMaxAttempts, retryMaxDelay)
                 .retryWhen(RetryableException::isRetryable)
                 .throwingOn(RuntimeException.class)
-                .runAsync(() -> segmentHelper.abortTransaction(scope,
-                        stream,
-                        segmentNumber,
-                        txId,
-                        this.hostControllerStore,
-                        this.connectionFactory), executor);
+                .runAsync(supplier, executor);
     }
 }
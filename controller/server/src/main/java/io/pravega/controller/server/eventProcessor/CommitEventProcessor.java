@@ -23,16 +23,20 @@ import io.pravega.controller.retryable.RetryableException;
 import io.pravega.controller.server.SegmentHelper;
 import io.pravega.controller.store.host.HostControllerStore;
 import io.pravega.controller.store.stream.OperationContext;
+import io.pravega.controller.store.stream.Segment;
 import io.pravega.controller.store.stream.StreamMetadataStore;
 import io.pravega.controller.stream.api.grpc.v1.Controller;
 import io.pravega.client.stream.Position;
 import io.pravega.client.stream.impl.netty.ConnectionFactory;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 /**
@@ -88,10 +92,13 @@ public class CommitEventProcessor extends EventProcessor<CommitEvent> {
         log.debug("Committing transaction {} on stream {}/{}", event.getTxid(), event.getScope(), event.getStream());
 
         streamMetadataStore.getActiveSegments(event.getScope(), event.getStream(), context, executor)
-                .thenCompose(segments ->
-                        FutureHelpers.allOfWithResults(segments.stream()
-                                .parallel()
-                                .map(segment -> notifyCommitToHost(scope, stream, segment.getNumber(), txId))
+                // Looking up the owners of the segments may fail transiently, so it is retried as well.
+                .thenCompose(segments -> withRetries(() -> groupByHost(scope, stream, segments)))
+                .thenCompose(segmentsByHost ->
+                        // Send one batched request per host, each of which is retried independently.
+                        FutureHelpers.allOfWithResults(segmentsByHost
+                                .stream()
+                                .map(segmentNumbers -> notifyCommitToHost(scope, stream, segmentNumbers, txId))
                                 .collect(Collectors.toList())))
                 .thenCompose(x -> streamMetadataStore.commitTransaction(scope, stream, txId, context, executor))
                 .whenComplete((result, error) -> {
@@ -108,7 +115,26 @@ public class CommitEventProcessor extends EventProcessor<CommitEvent> {
                 }).join();
     }
 
-    private CompletableFuture<Controller.TxnStatus> notifyCommitToHost(final String scope, final String stream, final int segmentNumber, final UUID txId) {
+    private CompletableFuture<Collection<List<Integer>>> groupByHost(final String scope, final String stream,
+                                                                     final List<Segment> segments) {
+        return CompletableFuture.completedFuture(segments
+                .stream()
+                .collect(Collectors.groupingBy(segment -> segmentHelper.getSegmentUri(scope, stream, segment.getNumber(),
+                        this.hostControllerStore), Collectors.mapping(Segment::getNumber, Collectors.toList())))
+                .values());
+    }
+
+    private CompletableFuture<Controller.TxnStatus> notifyCommitToHost(final String scope, final String stream,
+                                                                       final List<Integer> segmentNumbers, final UUID txId) {
+        return withRetries(() -> segmentHelper.commitTransactions(scope,
+                stream,
+                segmentNumbers,
+                txId,
+                this.hostControllerStore,
+                this.connectionFactory));
+    }
+
+    private <T> CompletableFuture<T> withRetries(final Supplier<CompletableFuture<T>> supplier) {
         final long retryInitialDelay = 100;
         final int retryMultiplier = 10;
         final int retryMaxAttempts = 100;
@@ -117,11 +143,6 @@ public class CommitEventProcessor extends EventProcessor<CommitEvent> {
         return Retry.withExpBackoff(retryInitialDelay, retryMultiplier, retryMaxAttempts, retryMaxDelay)
                 .retryWhen(RetryableException::isRetryable)
                 .throwingOn(RuntimeException.class)
-                .runAsync(() -> segmentHelper.commitTransaction(scope,
-                        stream,
-                        segmentNumber,
-                        txId,
-                        this.hostControllerStore,
-                        this.connectionFactory), executor);
+                .runAsync(supplier, executor);
     }
 }
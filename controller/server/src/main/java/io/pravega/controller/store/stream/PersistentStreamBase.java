@@ -26,6 +26,7 @@ import io.pravega.controller.store.stream.tables.HistoryRecord;
 import io.pravega.controller.store.stream.tables.IndexRecord;
 import io.pravega.controller.store.stream.tables.SegmentRecord;
 import io.pravega.controller.store.stream.tables.State;
+import io.pravega.controller.store.stream.tables.StreamHistory;
 import io.pravega.controller.store.stream.tables.TableHelper;
 import io.pravega.client.stream.StreamConfiguration;
 import lombok.extern.slf4j.Slf4j;
@@ -50,6 +51,7 @@ public abstract class PersistentStreamBase<T> implements Stream {
 
     private final String scope;
     private final String name;
+    private final StreamHistory history = new StreamHistory();
 
     PersistentStreamBase(String scope, final String name) {
         this.scope = scope;
@@ -110,7 +112,7 @@ public abstract class PersistentStreamBase<T> implements Stream {
 
     @Override
     public CompletableFuture<Void> delete() {
-        return deleteStream();
+        return deleteStream().thenRun(history::reset);
     }
 
     /**
@@ -161,7 +163,7 @@ public abstract class PersistentStreamBase<T> implements Stream {
 
     @Override
     public CompletableFuture<Integer> getSegmentCount() {
-        return verifyLegalState(getHistoryTable().thenApply(x -> TableHelper.getSegmentCount(x.getData())));
+        return verifyLegalState(getStreamHistory().thenApply(StreamHistory::getSegmentCount));
     }
 
     /**
@@ -187,34 +189,26 @@ public abstract class PersistentStreamBase<T> implements Stream {
 
     private CompletableFuture<List<Segment>> getSuccessorsForSegment(final int number) {
         val segmentFuture = getSegment(number);
-        val indexTableFuture = getIndexTable();
-        val historyTableFuture = getHistoryTable();
-        CompletableFuture<Void> all = CompletableFuture.allOf(segmentFuture, indexTableFuture, historyTableFuture);
+        val historyFuture = getStreamHistory();
 
-        return all.thenCompose(x -> {
-            final Segment segment = segmentFuture.getNow(null);
-            List<Integer> candidates = TableHelper.findSegmentSuccessorCandidates(segment,
-                    indexTableFuture.getNow(null).getData(),
-                    historyTableFuture.getNow(null).getData());
+        return segmentFuture.thenCombine(historyFuture, (segment, streamHistory) -> {
+            List<Integer> candidates = streamHistory.findSegmentSuccessorCandidates(segment.getNumber());
             return findOverlapping(segment, candidates);
-        });
+        }).thenCompose(x -> x);
     }
 
     @Override
     public CompletableFuture<Map<Integer, List<Integer>>> getSuccessorsWithPredecessors(final int number) {
-        val indexTableFuture = getIndexTable();
-        val historyTableFuture = getHistoryTable();
+        val historyFuture = getStreamHistory();
         CompletableFuture<List<Segment>> segments = getSuccessorsForSegment(number);
 
-        CompletableFuture<Void> all = CompletableFuture.allOf(segments, indexTableFuture, historyTableFuture);
+        CompletableFuture<Void> all = CompletableFuture.allOf(segments, historyFuture);
 
         CompletableFuture<Map<Integer, List<Integer>>> result = all.thenCompose(v -> {
             List<CompletableFuture<Map.Entry<Segment, List<Integer>>>> resultFutures = new ArrayList<>();
             List<Segment> successors = segments.getNow(null);
             for (Segment successor : successors) {
-                List<Integer> candidates = TableHelper.findSegmentPredecessorCandidates(successor,
-                        indexTableFuture.getNow(null).getData(),
-                        historyTableFuture.getNow(null).getData());
+                List<Integer> candidates = historyFuture.getNow(null).findSegmentPredecessorCandidates(successor.getNumber());
                 resultFutures.add(findOverlapping(successor, candidates).thenApply(
                         list -> new SimpleImmutableEntry<>(successor, list.stream().map(Segment::getNumber).collect(Collectors.toList()))));
             }
@@ -232,44 +226,32 @@ public abstract class PersistentStreamBase<T> implements Stream {
     @Override
     public CompletableFuture<List<Integer>> getPredecessors(final int number) {
         val segmentFuture = getSegment(number);
-        val indexTableFuture = getIndexTable();
-        val historyTableFuture = getHistoryTable();
-        CompletableFuture<Void> all = CompletableFuture.allOf(segmentFuture, indexTableFuture, historyTableFuture);
+        val historyFuture = getStreamHistory();
+        CompletableFuture<Void> all = CompletableFuture.allOf(segmentFuture, historyFuture);
 
         return verifyLegalState(all.thenCompose(x -> {
             final Segment segment = segmentFuture.getNow(null);
-            List<Integer> candidates = TableHelper.findSegmentPredecessorCandidates(segment,
-                    indexTableFuture.getNow(null).getData(),
-                    historyTableFuture.getNow(null).getData());
+            List<Integer> candidates = historyFuture.getNow(null).findSegmentPredecessorCandidates(segment.getNumber());
             return findOverlapping(segment, candidates);
         }).thenApply(list -> list.stream().map(e -> e.getNumber()).collect(Collectors.toList())));
     }
 
     @Override
     public CompletableFuture<List<Integer>> getActiveSegments() {
-        return verifyLegalState(getHistoryTable().thenApply(x -> TableHelper.getActiveSegments(x.getData())));
+        return verifyLegalState(getStreamHistory().thenApply(StreamHistory::getActiveSegments));
     }
 
     /**
-     * if timestamp is < create time of stream, we will return empty list.
-     * 1. perform binary searchIndex on index table to find timestamp
-     * 2. fetch the record from history table for the pointer in index.
-     * Note: index may be stale so we may need to fall through
-     * 3. parse the row and return the list of integers
+     * if timestamp is < create time of stream, we will return the segments the stream was created with.
+     * Otherwise perform a binary search on the decoded history epochs to find the epoch active at timestamp
+     * and return its segments.
      *
      * @param timestamp point in time.
      * @return : list of active segment numbers at given time stamp
      */
     @Override
     public CompletableFuture<List<Integer>> getActiveSegments(final long timestamp) {
-        final CompletableFuture<Data<T>> indexFuture = getIndexTable();
-
-        final CompletableFuture<Data<T>> historyFuture = getHistoryTable();
-
-        return verifyLegalState(indexFuture.thenCombine(historyFuture,
-                (indexTable, historyTable) -> TableHelper.getActiveSegments(timestamp,
-                        indexTable.getData(),
-                        historyTable.getData())));
+        return verifyLegalState(getStreamHistory().thenApply(streamHistory -> streamHistory.getActiveSegments(timestamp)));
     }
 
     /**
@@ -636,8 +618,7 @@ public abstract class PersistentStreamBase<T> implements Stream {
                     byte[] updatedTable = TableHelper.addPartialRecordToHistoryTable(historyTable.getData(), newActiveSegments);
                     final Data<T> updated = new Data<>(updatedTable, historyTable.getVersion());
 
-                    final HistoryRecord newRecord = HistoryRecord.readLatestRecord(updatedTable, false).get();
-                    return updateHistoryTable(updated);
+                    return updateHistoryTable(updated).thenAccept(x -> history.update(updatedTable));
                 });
     }
 
@@ -669,7 +650,10 @@ public abstract class PersistentStreamBase<T> implements Stream {
                     final Data<T> updated = new Data<>(updatedTable, historyTable.getVersion());
 
                     final HistoryRecord newRecord = HistoryRecord.readLatestRecord(updatedTable, false).get();
-                    return updateHistoryTable(updated).thenApply(y -> newRecord);
+                    return updateHistoryTable(updated).thenApply(y -> {
+                        history.update(updatedTable);
+                        return newRecord;
+                    });
                 });
     }
 
@@ -699,6 +683,35 @@ public abstract class PersistentStreamBase<T> implements Stream {
                 });
     }
 
+    /**
+     * Gets the decoded view of the history table. The history table is only fetched if the view has not been loaded
+     * yet or has been invalidated since (see {@link #invalidateStreamHistory()}); scale operations performed through
+     * this object keep the view up to date themselves.
+     */
+    private CompletableFuture<StreamHistory> getStreamHistory() {
+        if (history.isLoaded()) {
+            return CompletableFuture.completedFuture(history);
+        }
+
+        final long generation = history.getGeneration();
+        return getHistoryTable().thenCompose(historyTable -> {
+            if (history.update(historyTable.getData(), generation)) {
+                return CompletableFuture.completedFuture(history);
+            }
+
+            // The view was invalidated while the table was being fetched, so what we fetched may be stale.
+            return getStreamHistory();
+        });
+    }
+
+    /**
+     * Marks the decoded view of the history table as possibly out of date, so the history table will be fetched from
+     * the store on next access. Only records appended since the view was last updated are decoded then.
+     */
+    void invalidateStreamHistory() {
+        history.invalidate();
+    }
+
     private CompletionStage<ImmutablePair<Integer, Data<T>>> getLatestChunk(final List<String> segmentChunks) {
         assert segmentChunks.size() > 0;
 
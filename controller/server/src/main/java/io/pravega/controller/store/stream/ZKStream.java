@@ -105,6 +105,7 @@ class ZKStream extends PersistentStreamBase<Integer> {
     @Override
     public void refresh() {
         cache.invalidateAll();
+        invalidateStreamHistory();
     }
 
     @Override
@@ -0,0 +1,269 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.controller.store.stream.tables;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Decoded, in-memory view of a stream's history table.
+ * <p>
+ * Every record in the history table defines an epoch: the set of segments that are active from the record's scale time
+ * until the scale time of the next record. This class keeps all epochs in scale time order, together with the epoch in
+ * which every segment was created and sealed. Lookups by time are a binary search over the epochs and successor or
+ * predecessor lookups are constant time, so none of them need to parse the history table.
+ * <p>
+ * History tables are append-only (a partial record is only ever completed in place), so the view is updated
+ * incrementally: only the bytes beyond the last complete record that was decoded are parsed. If a table shorter than
+ * what has already been decoded is supplied, the view is rebuilt from scratch.
+ * <p>
+ * This class is thread safe.
+ */
+public class StreamHistory {
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final ArrayList<HistoryRecord> epochs = new ArrayList<>();
+    @GuardedBy("lock")
+    private final HashMap<Integer, Integer> creationEpochs = new HashMap<>();
+    @GuardedBy("lock")
+    private final HashMap<Integer, Integer> sealEpochs = new HashMap<>();
+    @GuardedBy("lock")
+    private byte[] lastTable = null;
+    @GuardedBy("lock")
+    private int decodedLength = 0;
+    @GuardedBy("lock")
+    private long generation = 0;
+
+    /**
+     * Brings this view up to date with the given history table.
+     *
+     * @param historyTable history table
+     */
+    public void update(final byte[] historyTable) {
+        synchronized (lock) {
+            if (historyTable == this.lastTable) {
+                return;
+            }
+
+            if (historyTable.length < this.decodedLength) {
+                reset();
+            }
+
+            // A trailing partial record is decoded again, since it may have been completed since.
+            if (hasPartialEpoch()) {
+                this.epochs.remove(this.epochs.size() - 1);
+            }
+
+            Optional<HistoryRecord> record = HistoryRecord.readRecord(historyTable, this.decodedLength, false);
+            while (record.isPresent()) {
+                addEpoch(record.get());
+                if (record.get().isPartial()) {
+                    break;
+                }
+                record = HistoryRecord.fetchNext(record.get(), historyTable, false);
+            }
+
+            this.decodedLength = hasPartialEpoch() ? this.epochs.get(this.epochs.size() - 1).getOffset() : historyTable.length;
+            this.lastTable = historyTable;
+        }
+    }
+
+    /**
+     * Brings this view up to date with the given history table, but only if it has not been reset since the given
+     * generation was obtained. This prevents a table that was fetched before a reset from being used after it.
+     *
+     * @param historyTable history table
+     * @param generation   the value of {@link #getGeneration()} before the history table was fetched
+     * @return true if the view was updated, false if it has been reset since
+     */
+    public boolean update(final byte[] historyTable, final long generation) {
+        synchronized (lock) {
+            if (generation != this.generation) {
+                return false;
+            }
+
+            update(historyTable);
+            return true;
+        }
+    }
+
+    /**
+     * Whether this view has been populated from a history table since it was created, last invalidated or last reset.
+     *
+     * @return true if the view is up to date with a history table
+     */
+    public boolean isLoaded() {
+        synchronized (lock) {
+            return this.lastTable != null;
+        }
+    }
+
+    /**
+     * The number of times this view has been invalidated or reset.
+     *
+     * @return the current generation
+     */
+    public long getGeneration() {
+        synchronized (lock) {
+            return this.generation;
+        }
+    }
+
+    /**
+     * Marks this view as possibly out of date, so that it is brought up to date with a freshly fetched history table
+     * before it is used again. What has been decoded so far is kept, since history tables are append-only.
+     */
+    public void invalidate() {
+        synchronized (lock) {
+            this.generation++;
+            this.lastTable = null;
+        }
+    }
+
+    /**
+     * Discards everything decoded so far.
+     */
+    public void reset() {
+        synchronized (lock) {
+            this.generation++;
+            this.epochs.clear();
+            this.creationEpochs.clear();
+            this.sealEpochs.clear();
+            this.lastTable = null;
+            this.decodedLength = 0;
+        }
+    }
+
+    /**
+     * Segments in the latest complete epoch. See {@link TableHelper#getActiveSegments(byte[])}.
+     *
+     * @return active segments
+     */
+    public List<Integer> getActiveSegments() {
+        synchronized (lock) {
+            int completeEpochs = getCompleteEpochCount();
+            return completeEpochs == 0 ? new ArrayList<>() : getSegments(completeEpochs - 1);
+        }
+    }
+
+    /**
+     * Segments in the epoch that was active at the given time. If the timestamp precedes the first epoch, the
+     * segments of the first epoch are returned. See {@link TableHelper#getActiveSegments(long, byte[], byte[])}.
+     *
+     * @param timestamp timestamp
+     * @return active segments
+     */
+    public List<Integer> getActiveSegments(final long timestamp) {
+        synchronized (lock) {
+            int lower = 0;
+            int upper = getCompleteEpochCount() - 1;
+            if (upper < 0) {
+                return new ArrayList<>();
+            }
+
+            // Find the last epoch whose scale time is not after timestamp.
+            while (lower < upper) {
+                int mid = (lower + upper + 1) >>> 1;
+                if (this.epochs.get(mid).getScaleTime() <= timestamp) {
+                    lower = mid;
+                } else {
+                    upper = mid - 1;
+                }
+            }
+            return getSegments(lower);
+        }
+    }
+
+    /**
+     * Largest segment number in the latest complete epoch. See {@link TableHelper#getSegmentCount(byte[])}.
+     *
+     * @return segment count
+     */
+    public int getSegmentCount() {
+        synchronized (lock) {
+            int completeEpochs = getCompleteEpochCount();
+            if (completeEpochs == 0) {
+                return 0;
+            }
+            return this.epochs.get(completeEpochs - 1).getSegments().stream().max(Integer::compare).orElse(0);
+        }
+    }
+
+    /**
+     * Segments of the epoch in which the given segment was sealed, or an empty list if the segment was never sealed
+     * or is not in the history table yet. See {@link TableHelper#findSegmentSuccessorCandidates}.
+     *
+     * @param segmentNumber segment number
+     * @return successor candidates
+     */
+    public List<Integer> findSegmentSuccessorCandidates(final int segmentNumber) {
+        synchronized (lock) {
+            Integer sealEpoch = this.sealEpochs.get(segmentNumber);
+            return sealEpoch == null ? new ArrayList<>() : getSegments(sealEpoch);
+        }
+    }
+
+    /**
+     * Segments of the epoch preceding the one in which the given segment was created, or an empty list if the segment
+     * was created with the stream or is not in the history table yet. See {@link TableHelper#findSegmentPredecessorCandidates}.
+     *
+     * @param segmentNumber segment number
+     * @return predecessor candidates
+     */
+    public List<Integer> findSegmentPredecessorCandidates(final int segmentNumber) {
+        synchronized (lock) {
+            Integer creationEpoch = this.creationEpochs.get(segmentNumber);
+            return creationEpoch == null || creationEpoch == 0 ? new ArrayList<>() : getSegments(creationEpoch - 1);
+        }
+    }
+
+    @GuardedBy("lock")
+    private void addEpoch(final HistoryRecord record) {
+        int epoch = this.epochs.size();
+        for (Integer segment : record.getSegments()) {
+            this.creationEpochs.putIfAbsent(segment, epoch);
+        }
+
+        if (epoch > 0) {
+            HashSet<Integer> active = new HashSet<>(record.getSegments());
+            for (Integer segment : this.epochs.get(epoch - 1).getSegments()) {
+                if (!active.contains(segment)) {
+                    this.sealEpochs.put(segment, epoch);
+                }
+            }
+        }
+        this.epochs.add(record);
+    }
+
+    @GuardedBy("lock")
+    private boolean hasPartialEpoch() {
+        return !this.epochs.isEmpty() && this.epochs.get(this.epochs.size() - 1).isPartial();
+    }
+
+    @GuardedBy("lock")
+    private int getCompleteEpochCount() {
+        return hasPartialEpoch() ? this.epochs.size() - 1 : this.epochs.size();
+    }
+
+    @GuardedBy("lock")
+    private List<Integer> getSegments(final int epoch) {
+        return new ArrayList<>(this.epochs.get(epoch).getSegments());
+    }
+}
@@ -398,16 +398,10 @@ public class StreamMetadataTasks extends TaskBase {
     }
 
     private CompletableFuture<Void> notifyNewSegments(String scope, String stream, StreamConfiguration configuration, List<Integer> segmentNumbers) {
-        return FutureHelpers.toVoid(FutureHelpers.allOfWithResults(segmentNumbers
-                .stream()
-                .parallel()
-                .map(segment -> notifyNewSegment(scope, stream, segment, configuration.getScalingPolicy()))
-                .collect(Collectors.toList())));
-    }
-
-    private CompletableFuture<Void> notifyNewSegment(String scope, String stream, int segmentNumber, ScalingPolicy policy) {
-        return FutureHelpers.toVoid(TaskStepsRetryHelper.withRetries(() -> segmentHelper.createSegment(scope,
-                stream, segmentNumber, policy, hostControllerStore, this.connectionFactory), executor));
+        // Segments are created using one batched request per host. Creating a segment is idempotent, so the whole batch
+        // can safely be retried.
+        return FutureHelpers.toVoid(TaskStepsRetryHelper.withRetries(() -> segmentHelper.createSegments(scope,
+                stream, segmentNumbers, configuration.getScalingPolicy(), hostControllerStore, this.connectionFactory), executor));
     }
 
     private CompletableFuture<Void> notifyDeleteSegments(String scope, String stream, int count) {
@@ -25,6 +25,8 @@ import io.pravega.client.stream.impl.segment.NoSuchEventException;
 import lombok.SneakyThrows;
 
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -38,8 +40,17 @@ public class EventStreamReaderMock<T> implements EventStreamReader<T> {
     }
 
     @Override
-    @SneakyThrows(value = InterruptedException.class)
     public EventRead<T> readNextEvent(long timeout) throws ReinitializationRequiredException {
+        return pollEvent(timeout);
+    }
+
+    @Override
+    public CompletableFuture<EventRead<T>> readNextEventAsync(long timeout, ScheduledExecutorService executor) {
+        return CompletableFuture.supplyAsync(() -> pollEvent(timeout), executor);
+    }
+
+    @SneakyThrows(value = InterruptedException.class)
+    private EventRead<T> pollEvent(long timeout) {
         T event = queue.poll(timeout, TimeUnit.MILLISECONDS);
         return new EventReadImpl<>(null, event, null, null, null);
     }
@@ -47,6 +47,12 @@ public class EventStreamWriterMock<T> implements EventStreamWriter<T> {
         return new AckFutureMock(CompletableFuture.completedFuture(true));
     }
 
+    @Override
+    public AckFuture writeEvents(String routingKey, List<T> events) {
+        eventList.addAll(events);
+        return new AckFutureMock(CompletableFuture.completedFuture(true));
+    }
+
     @Override
     public Transaction<T> beginTxn(long transactionTimeout, long maxExecutionTime, long scaleGracePeriod) {
         throw new NotImplementedException();
@@ -22,6 +22,7 @@ import java.util.concurrent.CompletableFuture;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
@@ -53,6 +54,15 @@ public class SegmentHelperMock {
         doReturn(CompletableFuture.completedFuture(true)).when(helper).commitTransaction(
                 anyString(), anyString(), anyInt(), any(), any(), any());
 
+        doReturn(CompletableFuture.completedFuture(true)).when(helper).createSegments(
+                anyString(), anyString(), anyList(), any(), any(), any());
+
+        doReturn(CompletableFuture.completedFuture(true)).when(helper).abortTransactions(
+                anyString(), anyString(), anyList(), any(), any(), any());
+
+        doReturn(CompletableFuture.completedFuture(true)).when(helper).commitTransactions(
+                anyString(), anyString(), anyList(), any(), any(), any());
+
         doReturn(CompletableFuture.completedFuture(true)).when(helper).updatePolicy(
                 anyString(), anyString(), any(), anyInt(), any(), any());
         return helper;
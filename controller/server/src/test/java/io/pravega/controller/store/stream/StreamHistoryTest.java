@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.controller.store.stream;
+
+import com.google.common.collect.Lists;
+import io.pravega.controller.store.stream.tables.HistoryRecord;
+import io.pravega.controller.store.stream.tables.StreamHistory;
+import io.pravega.controller.store.stream.tables.TableHelper;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class StreamHistoryTest {
+    private static final int SCALES = 20;
+
+    @Test
+    public void testMatchesTableHelper() {
+        final long start = 1000;
+        final List<Segment> segments = new ArrayList<>();
+        List<Integer> active = Lists.newArrayList(0, 1);
+        segments.add(new Segment(0, start, 0, 0.5));
+        segments.add(new Segment(1, start, 0.5, 1));
+
+        byte[] historyTable = TableHelper.createHistoryTable(start, active);
+        byte[] indexTable = TableHelper.createIndexTable(start, 0);
+        StreamHistory history = new StreamHistory();
+        history.update(historyTable);
+        verify(history, historyTable, indexTable, segments, start, Integer.MAX_VALUE);
+
+        long timestamp = start;
+        for (int i = 0; i < SCALES; i++) {
+            // Alternate between splitting the lowest segment and merging the two highest ones.
+            int next = segments.size();
+            timestamp += 10;
+            List<Integer> newActive = new ArrayList<>(active);
+            if (i % 2 == 0) {
+                Segment split = segments.get(newActive.remove(0));
+                double mid = (split.getKeyStart() + split.getKeyEnd()) / 2;
+                segments.add(new Segment(next, timestamp, split.getKeyStart(), mid));
+                segments.add(new Segment(next + 1, timestamp, mid, split.getKeyEnd()));
+                newActive.add(next);
+                newActive.add(next + 1);
+            } else {
+                Segment high = segments.get(newActive.remove(newActive.size() - 1));
+                Segment low = segments.get(newActive.remove(newActive.size() - 1));
+                segments.add(new Segment(next, timestamp, low.getKeyStart(), high.getKeyEnd()));
+                newActive.add(next);
+            }
+
+            int historyOffset = historyTable.length;
+            historyTable = TableHelper.addPartialRecordToHistoryTable(historyTable, newActive);
+            history.update(historyTable);
+            verify(history, historyTable, indexTable, segments, timestamp, next);
+
+            // The index table is only updated once the record is complete, so it is stale until then.
+            HistoryRecord partial = HistoryRecord.readLatestRecord(historyTable, false).get();
+            historyTable = TableHelper.completePartialRecordInHistoryTable(historyTable, partial, timestamp + 5);
+            history.update(historyTable);
+            verify(history, historyTable, indexTable, segments, timestamp, Integer.MAX_VALUE);
+
+            indexTable = TableHelper.updateIndexTable(indexTable, timestamp + 5, historyOffset);
+            verify(history, historyTable, indexTable, segments, timestamp, Integer.MAX_VALUE);
+            active = newActive;
+        }
+
+        // A freshly decoded view must be identical to the incrementally built one.
+        StreamHistory fresh = new StreamHistory();
+        fresh.update(historyTable);
+        verify(fresh, historyTable, indexTable, segments, timestamp, Integer.MAX_VALUE);
+
+        // A shorter table causes the view to be rebuilt.
+        byte[] initialTable = TableHelper.createHistoryTable(start, Lists.newArrayList(0, 1));
+        history.update(initialTable);
+        assertEquals(Lists.newArrayList(0, 1), history.getActiveSegments());
+        assertEquals(new ArrayList<Integer>(), history.findSegmentSuccessorCandidates(0));
+    }
+
+    @Test
+    public void testInvalidate() {
+        final long start = 1000;
+        byte[] historyTable = TableHelper.createHistoryTable(start, Lists.newArrayList(0, 1));
+        StreamHistory history = new StreamHistory();
+        assertFalse(history.isLoaded());
+        assertTrue(history.update(historyTable, history.getGeneration()));
+        assertTrue(history.isLoaded());
+
+        // A table fetched before the view was invalidated must not be used to bring it up to date.
+        long generation = history.getGeneration();
+        history.invalidate();
+        assertFalse(history.isLoaded());
+        byte[] updatedTable = TableHelper.addPartialRecordToHistoryTable(historyTable, Lists.newArrayList(0, 2, 3));
+        updatedTable = TableHelper.completePartialRecordInHistoryTable(updatedTable,
+                HistoryRecord.readLatestRecord(updatedTable, false).get(), start + 10);
+        assertFalse(history.update(updatedTable, generation));
+        assertFalse(history.isLoaded());
+
+        // What was decoded before it was invalidated is kept and extended.
+        assertTrue(history.update(updatedTable, history.getGeneration()));
+        assertTrue(history.isLoaded());
+        assertEquals(TableHelper.getActiveSegments(updatedTable), history.getActiveSegments());
+        assertEquals(Lists.newArrayList(0, 2, 3), history.findSegmentSuccessorCandidates(1));
+    }
+
+    /**
+     * Checks that all queries on the StreamHistory return the same result as their TableHelper counterparts.
+     * Segments numbered firstPartialSegment and above only exist in a partial history record, for which TableHelper
+     * cannot compute successors; those must have none.
+     */
+    private void verify(StreamHistory history, byte[] historyTable, byte[] indexTable, List<Segment> segments, long maxTime,
+                        int firstPartialSegment) {
+        assertEquals(TableHelper.getActiveSegments(historyTable), history.getActiveSegments());
+        assertEquals(TableHelper.getSegmentCount(historyTable), history.getSegmentCount());
+        for (long time = 0; time <= maxTime + 10; time++) {
+            assertEquals("Time " + time, TableHelper.getActiveSegments(time, indexTable, historyTable),
+                    history.getActiveSegments(time));
+        }
+        for (Segment segment : segments) {
+            List<Integer> expectedSuccessors = segment.getNumber() >= firstPartialSegment ? new ArrayList<>() :
+                    TableHelper.findSegmentSuccessorCandidates(segment, indexTable, historyTable);
+            assertEquals("Successors of " + segment.getNumber(), expectedSuccessors,
+                    history.findSegmentSuccessorCandidates(segment.getNumber()));
+            assertEquals("Predecessors of " + segment.getNumber(),
+                    TableHelper.findSegmentPredecessorCandidates(segment, indexTable, historyTable),
+                    history.findSegmentPredecessorCandidates(segment.getNumber()));
+        }
+    }
+}
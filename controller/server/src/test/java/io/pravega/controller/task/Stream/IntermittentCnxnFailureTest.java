@@ -56,6 +56,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
@@ -148,9 +149,11 @@ public class IntermittentCnxnFailureTest {
             assertEquals(ExceptionHelpers.getRealException(ex).getClass(), IllegalStateException.class);
         }
 
-        // Mock createSegment to return success.
+        // Mock createSegment (and its batched version, which is used for creating streams) to return success.
         doReturn(CompletableFuture.completedFuture(true)).when(segmentHelperMock).createSegment(
                 anyString(), anyString(), anyInt(), any(), any(), any());
+        doReturn(CompletableFuture.completedFuture(true)).when(segmentHelperMock).createSegments(
+                anyString(), anyString(), anyList(), any(), any(), any());
 
         AtomicBoolean result = new AtomicBoolean(false);
         Retry.withExpBackoff(10, 10, 4)
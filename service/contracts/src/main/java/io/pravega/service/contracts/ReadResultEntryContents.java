@@ -15,7 +15,12 @@
  */
 package io.pravega.service.contracts;
 
+import com.google.common.collect.Iterators;
+import io.pravega.common.util.ByteArraySegment;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Contents for a ReadResultEntry.
@@ -23,6 +28,7 @@ import java.io.InputStream;
 public class ReadResultEntryContents {
     private final int length;
     private final InputStream data;
+    private final List<ByteArraySegment> arraySegments;
 
     /**
      * Creates a new instance of the ReadResultEntryContents class.
@@ -33,6 +39,19 @@ public class ReadResultEntryContents {
     public ReadResultEntryContents(InputStream data, int length) {
         this.data = data;
         this.length = length;
+        this.arraySegments = null;
+    }
+
+    /**
+     * Creates a new instance of the ReadResultEntryContents class that is backed by the given ByteArraySegments. The
+     * data is not copied; callers must not modify the given ByteArraySegments after this.
+     *
+     * @param arraySegments The ByteArraySegments making up the data, in order.
+     */
+    public ReadResultEntryContents(List<ByteArraySegment> arraySegments) {
+        this.arraySegments = Collections.unmodifiableList(arraySegments);
+        this.length = arraySegments.stream().mapToInt(ByteArraySegment::getLength).sum();
+        this.data = new SequenceInputStream(Iterators.asEnumeration(arraySegments.stream().map(ByteArraySegment::getReader).iterator()));
     }
 
     /**
@@ -49,6 +68,15 @@ public class ReadResultEntryContents {
         return this.data;
     }
 
+    /**
+     * Gets the ByteArraySegments backing the Data, in order, which can be used to access the data without copying it.
+     *
+     * @return The ByteArraySegments, or null if this instance is only backed by an InputStream.
+     */
+    public List<ByteArraySegment> getArraySegments() {
+        return this.arraySegments;
+    }
+
     @Override
     public String toString() {
         return String.format("Length = %d", getLength());
@@ -27,8 +27,12 @@ import io.pravega.service.server.store.ServiceBuilderConfig;
 import io.pravega.service.server.store.ServiceConfig;
 import io.pravega.service.storage.impl.bookkeeper.BookKeeperConfig;
 import io.pravega.service.storage.impl.bookkeeper.BookKeeperLogFactory;
+import io.pravega.service.storage.impl.filesystem.FileSystemStorageConfig;
+import io.pravega.service.storage.impl.filesystem.FileSystemStorageFactory;
 import io.pravega.service.storage.impl.hdfs.HDFSStorageConfig;
 import io.pravega.service.storage.impl.hdfs.HDFSStorageFactory;
+import io.pravega.service.storage.impl.offheap.OffHeapCacheConfig;
+import io.pravega.service.storage.impl.offheap.OffHeapCacheFactory;
 import io.pravega.service.storage.impl.rocksdb.RocksDBCacheFactory;
 import io.pravega.service.storage.impl.rocksdb.RocksDBConfig;
 import io.pravega.shared.metrics.MetricsConfig;
@@ -74,11 +78,15 @@ public final class ServiceStarter {
             attachBookKeeper(builder);
         }
 
-        if (options.rocksDb) {
+        if (options.offHeapCache) {
+            attachOffHeapCache(builder);
+        } else if (options.rocksDb) {
             attachRocksDB(builder);
         }
 
-        if (options.hdfs) {
+        if (options.fileSystemStorage) {
+            attachFileSystemStorage(builder);
+        } else if (options.hdfs) {
             attachHDFS(builder);
         }
 
@@ -161,6 +169,10 @@ public final class ServiceStarter {
         builder.withCacheFactory(setup -> new RocksDBCacheFactory(setup.getConfig(RocksDBConfig::builder)));
     }
 
+    private void attachOffHeapCache(ServiceBuilder builder) {
+        builder.withCacheFactory(setup -> new OffHeapCacheFactory(setup.getConfig(OffHeapCacheConfig::builder)));
+    }
+
     private void attachHDFS(ServiceBuilder builder) {
         builder.withStorageFactory(setup -> {
             try {
@@ -172,6 +184,11 @@ public final class ServiceStarter {
         });
     }
 
+    private void attachFileSystemStorage(ServiceBuilder builder) {
+        builder.withStorageFactory(setup ->
+                new FileSystemStorageFactory(setup.getConfig(FileSystemStorageConfig::builder), setup.getExecutor()));
+    }
+
     private void attachZKSegmentManager(ServiceBuilder builder) {
         builder.withContainerManager(setup ->
                 new ZKSegmentContainerManager(setup.getContainerRegistry(),
@@ -207,7 +224,9 @@ public final class ServiceStarter {
                     .include(System.getProperties())
                     .build();
             serviceStarter.set(new ServiceStarter(config, Options.builder()
-                                                                 .bookKeeper(true).hdfs(true).rocksDb(true).zkSegmentManager(true).build()));
+                                                                 .bookKeeper(true).hdfs(true).rocksDb(true).zkSegmentManager(true)
+                                                                 .offHeapCache(Boolean.getBoolean("pravega.offHeapCache"))
+                                                                 .fileSystemStorage(Boolean.getBoolean("pravega.fileSystemStorage")).build()));
         } catch (Throwable e) {
             log.error("Could not create a Service with default config, Aborting.", e);
             System.exit(1);
@@ -242,7 +261,9 @@ public final class ServiceStarter {
     public static class Options {
         final boolean bookKeeper;
         final boolean hdfs;
+        final boolean fileSystemStorage;
         final boolean rocksDb;
+        final boolean offHeapCache;
         final boolean zkSegmentManager;
     }
 
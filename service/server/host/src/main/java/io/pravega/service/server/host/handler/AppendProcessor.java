@@ -48,6 +48,7 @@ import com.google.common.collect.LinkedListMultimap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -57,6 +58,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import javax.annotation.concurrent.GuardedBy;
 
+import lombok.RequiredArgsConstructor;
 import lombok.val;
 import lombok.extern.slf4j.Slf4j;
 
@@ -74,6 +76,7 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     static final Duration TIMEOUT = Duration.ofMinutes(1);
     private static final int HIGH_WATER_MARK = 128 * 1024;
     private static final int LOW_WATER_MARK = 64 * 1024;
+    private static final int MAX_OUTSTANDING_APPENDS = 32;
 
     private static final StatsLogger STATS_LOGGER = MetricsProvider.createStatsLogger("host");
     private static final DynamicLogger DYNAMIC_LOGGER = MetricsProvider.getDynamicLogger();
@@ -91,7 +94,9 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     @GuardedBy("lock")
     private final HashMap<UUID, Long> latestEventNumbers = new HashMap<>();
     @GuardedBy("lock")
-    private Append outstandingAppend = null;
+    private final HashMap<String, Append> outstandingAppends = new HashMap<>();
+    @GuardedBy("lock")
+    private long outstandingBytes = 0;
 
     public AppendProcessor(StreamSegmentStore store, ServerConnection connection, RequestProcessor next) {
         this(store, connection, next, null);
@@ -143,50 +148,61 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     }
 
     /**
-     * If there isn't already an append outstanding against the store, write a new one.
+     * Writes all the appends that can currently be written to the store. There can be at most one append outstanding
+     * against the store for any given Segment (so that ordering is preserved), and at most MAX_OUTSTANDING_APPENDS
+     * outstanding for the whole connection. Appends to different Segments proceed concurrently.
      * Appends are opportunistically batched here. i.e. If many are waiting they are combined into a single append and
      * that is written.
      */
     public void performNextWrite() {
-        Append append;
-        long numOfEvents = 1;
-
+        ArrayList<PendingWrite> toWrite = new ArrayList<>();
         synchronized (lock) {
-            if (outstandingAppend != null || waitingAppends.isEmpty()) {
-                return;
+            Iterator<UUID> writers = new ArrayList<>(waitingAppends.keySet()).iterator();
+            while (writers.hasNext() && outstandingAppends.size() < MAX_OUTSTANDING_APPENDS) {
+                UUID writer = writers.next();
+                List<Append> appends = waitingAppends.get(writer);
+                if (appends.isEmpty() || outstandingAppends.containsKey(appends.get(0).getSegment())) {
+                    // Either nothing to write or there is already an append in progress for this Segment.
+                    continue;
+                }
+
+                PendingWrite pendingWrite = combineAppends(writer, appends);
+                outstandingAppends.put(pendingWrite.append.getSegment(), pendingWrite.append);
+                outstandingBytes += pendingWrite.append.getData().readableBytes();
+                toWrite.add(pendingWrite);
             }
+        }
 
-            UUID writer = waitingAppends.keys().iterator().next();
-            List<Append> appends = waitingAppends.get(writer);
-            if (appends.get(0).isConditional()) {
-                append = appends.remove(0);
-            } else {
-                ByteBuf[] toAppend = new ByteBuf[appends.size()];
-                Append first = appends.get(0);
-                Append last = first;
-                int i = -1;
-                for (Iterator<Append> iterator = appends.iterator(); iterator.hasNext(); ) {
-                    Append a = iterator.next();
-                    if (a.isConditional()) {
-                        break;
-                    }
-                    i++;
-                    toAppend[i] = a.getData();
-                    last = a;
-                    iterator.remove();
-                }
-                ByteBuf data = Unpooled.wrappedBuffer(toAppend);
-                if (last != null) {
-                    numOfEvents = last.getEventNumber() - first.getEventNumber() + 1;
-                }
+        toWrite.forEach(w -> write(w.append, w.numOfEvents));
+    }
+
+    /**
+     * Removes the first waiting Append for the given writer (if conditional), or all the consecutive unconditional
+     * waiting Appends (combining them into a single one).
+     */
+    @GuardedBy("lock")
+    private PendingWrite combineAppends(UUID writer, List<Append> appends) {
+        if (appends.get(0).isConditional()) {
+            return new PendingWrite(appends.remove(0), 1);
+        }
 
-                String segment = last != null ? last.getSegment() : first.getSegment();
-                long eventNumber = last != null ? last.getEventNumber() : first.getEventNumber();
-                append = new Append(segment, writer, eventNumber, data, null);
+        ByteBuf[] toAppend = new ByteBuf[appends.size()];
+        Append first = appends.get(0);
+        Append last = first;
+        int i = -1;
+        for (Iterator<Append> iterator = appends.iterator(); iterator.hasNext(); ) {
+            Append a = iterator.next();
+            if (a.isConditional()) {
+                break;
             }
-            outstandingAppend = append;
+            i++;
+            toAppend[i] = a.getData();
+            last = a;
+            iterator.remove();
         }
-        write(append, numOfEvents);
+        ByteBuf data = Unpooled.wrappedBuffer(Arrays.copyOf(toAppend, i + 1));
+        long numOfEvents = last.getEventNumber() - first.getEventNumber() + 1;
+        return new PendingWrite(new Append(last.getSegment(), writer, last.getEventNumber(), data, null), numOfEvents);
     }
 
     /**
@@ -215,13 +231,14 @@ public class AppendProcessor extends DelegatingRequestProcessor {
             try {
                 boolean conditionalFailed = u != null && (ExceptionHelpers.getRealException(u) instanceof BadOffsetException);
                 synchronized (lock) {
-                    if (outstandingAppend != toWrite) {
+                    if (outstandingAppends.get(segment) != toWrite) {
                         throw new IllegalStateException(
                                 "Synchronization error in: " + AppendProcessor.this.getClass().getName());
                     }
 
+                    outstandingBytes -= toWrite.getData().readableBytes();
                     toWrite.getData().release();
-                    outstandingAppend = null;
+                    outstandingAppends.remove(segment);
                     if (u != null && !conditionalFailed) {
                         waitingAppends.removeAll(toWrite.getConnectionId());
                         latestEventNumbers.remove(toWrite.getConnectionId());
@@ -280,13 +297,13 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     }
 
     /**
-     * If there is too much data waiting throttle the producer by stopping consumption from the socket.
+     * If there is too much data waiting or in flight throttle the producer by stopping consumption from the socket.
      * If there is room for more data, we resume consuming from the socket.
      */
     private void pauseOrResumeReading() {
-        int bytesWaiting;
+        long bytesWaiting;
         synchronized (lock) {
-            bytesWaiting = waitingAppends.values()
+            bytesWaiting = outstandingBytes + waitingAppends.values()
                     .stream()
                     .mapToInt(a -> a.getData().readableBytes())
                     .sum();
@@ -302,7 +319,7 @@ public class AppendProcessor extends DelegatingRequestProcessor {
 
     /**
      * Append data to the store.
-     * Because ordering dictates that there only be one outstanding append from a given connection, this is implemented
+     * Because ordering dictates that there only be one outstanding append for a given segment, this is implemented
      * by adding the append to a queue.
      */
     @Override
@@ -327,4 +344,10 @@ public class AppendProcessor extends DelegatingRequestProcessor {
     public RequestProcessor getNextRequestProcessor() {
         return next;
     }
+
+    @RequiredArgsConstructor
+    private static class PendingWrite {
+        private final Append append;
+        private final long numOfEvents;
+    }
 }
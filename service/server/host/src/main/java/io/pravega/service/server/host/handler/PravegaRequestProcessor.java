@@ -17,9 +17,13 @@ package io.pravega.service.server.host.handler;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.pravega.common.ExceptionHelpers;
 import io.pravega.common.Timer;
 import io.pravega.common.io.StreamHelpers;
 import io.pravega.common.segment.StreamSegmentNameUtils;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.service.contracts.AttributeUpdate;
 import io.pravega.service.contracts.AttributeUpdateType;
 import io.pravega.service.contracts.Attributes;
@@ -33,6 +37,7 @@ import io.pravega.service.contracts.StreamSegmentSealedException;
 import io.pravega.service.contracts.StreamSegmentStore;
 import io.pravega.service.contracts.WrongHostException;
 import io.pravega.service.server.host.stat.SegmentStatsRecorder;
+import io.pravega.shared.metrics.Counter;
 import io.pravega.shared.metrics.DynamicLogger;
 import io.pravega.shared.metrics.MetricsProvider;
 import io.pravega.shared.metrics.OpStatsLogger;
@@ -40,8 +45,11 @@ import io.pravega.shared.metrics.StatsLogger;
 import io.pravega.shared.protocol.netty.FailingRequestProcessor;
 import io.pravega.shared.protocol.netty.RequestProcessor;
 import io.pravega.shared.protocol.netty.WireCommands.AbortTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.AbortTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CommitTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.CommitTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CreateSegment;
+import io.pravega.shared.protocol.netty.WireCommands.CreateSegments;
 import io.pravega.shared.protocol.netty.WireCommands.CreateTransaction;
 import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
@@ -64,7 +72,6 @@ import io.pravega.shared.protocol.netty.WireCommands.TransactionInfo;
 import io.pravega.shared.protocol.netty.WireCommands.UpdateSegmentPolicy;
 import io.pravega.shared.protocol.netty.WireCommands.WrongHost;
 import java.io.IOException;
-import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -74,6 +81,7 @@ import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
 import lombok.extern.slf4j.Slf4j;
 
 import static io.pravega.service.contracts.Attributes.CREATION_TIME;
@@ -84,6 +92,7 @@ import static io.pravega.service.contracts.ReadResultEntryType.EndOfStreamSegmen
 import static io.pravega.service.contracts.ReadResultEntryType.Future;
 import static io.pravega.shared.MetricsNames.SEGMENT_CREATE_LATENCY;
 import static io.pravega.shared.MetricsNames.SEGMENT_READ_BYTES;
+import static io.pravega.shared.MetricsNames.SEGMENT_READ_COPIED_BYTES;
 import static io.pravega.shared.MetricsNames.SEGMENT_READ_LATENCY;
 import static io.pravega.shared.MetricsNames.nameFromSegment;
 import static io.pravega.shared.protocol.netty.WireCommands.TYPE_PLUS_LENGTH_SIZE;
@@ -102,6 +111,7 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
     @VisibleForTesting
     static final OpStatsLogger CREATE_STREAM_SEGMENT = STATS_LOGGER.createStats(SEGMENT_CREATE_LATENCY);
     static final OpStatsLogger READ_STREAM_SEGMENT = STATS_LOGGER.createStats(SEGMENT_READ_LATENCY);
+    static final Counter READ_COPIED_BYTES = STATS_LOGGER.createCounter(SEGMENT_READ_COPIED_BYTES);
 
     private final StreamSegmentStore segmentStore;
 
@@ -151,19 +161,26 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         boolean atTail = nonCachedEntry != null && nonCachedEntry.getType() == Future;
 
         if (!cachedEntries.isEmpty() || endOfSegment) {
-            ByteBuffer data = copyData(cachedEntries);
+            ByteBuf data = wrapData(cachedEntries);
             SegmentRead reply = new SegmentRead(segment, request.getOffset(), atTail, endOfSegment, data);
             connection.send(reply);
         } else {
             Preconditions.checkState(nonCachedEntry != null, "No ReadResultEntries returned from read!?");
             nonCachedEntry.requestContent(TIMEOUT);
             nonCachedEntry.getContent().thenApply((ReadResultEntryContents contents) -> {
-                ByteBuffer data = copyData(Collections.singletonList(contents));
+                ByteBuf data = wrapData(Collections.singletonList(contents));
                 SegmentRead reply = new SegmentRead(segment, nonCachedEntry.getStreamSegmentOffset(), false, endOfSegment, data);
                 connection.send(reply);
                 return null;
             }).exceptionally((Throwable e) -> {
-                handleException(nonCachedEntry.getStreamSegmentOffset(), segment, "Read segment", e);
+                if (atTail && ExceptionHelpers.getRealException(e) instanceof TimeoutException) {
+                    // Nothing was appended while we were waiting. This is not an error; reply with no data so that the
+                    // client can issue a new read (this bounds how long we hold on to tail reads).
+                    log.debug("Tail read timed out (Segment = '{}', Offset = {}).", segment, request.getOffset());
+                    connection.send(new SegmentRead(segment, request.getOffset(), true, false, Unpooled.EMPTY_BUFFER));
+                } else {
+                    handleException(nonCachedEntry.getStreamSegmentOffset(), segment, "Read segment", e);
+                }
                 return null;
             });
         }
@@ -192,24 +209,37 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
     }
 
     /**
-     * Copy all of the contents provided into a byteBuffer and return it.
+     * Assembles all of the contents provided into a single (possibly composite) ByteBuf and returns it.
+     * Contents that are backed by arrays are wrapped rather than copied; only contents that are exposed solely as an
+     * InputStream are copied into a newly allocated buffer. The number of bytes copied is reported to READ_COPIED_BYTES.
      */
-    private ByteBuffer copyData(List<ReadResultEntryContents> contents) {
-        int totalSize = contents.stream().mapToInt(ReadResultEntryContents::getLength).sum();
-
-        ByteBuffer data = ByteBuffer.allocate(totalSize);
+    @VisibleForTesting
+    static ByteBuf wrapData(List<ReadResultEntryContents> contents) {
+        ArrayList<ByteBuf> buffers = new ArrayList<>();
         int bytesCopied = 0;
         for (ReadResultEntryContents content : contents) {
-            try {
-                int copied = StreamHelpers.readAll(content.getData(), data.array(), bytesCopied, totalSize - bytesCopied);
-                Preconditions.checkState(copied == content.getLength(), "Read fewer bytes than available.");
-                bytesCopied += copied;
-            } catch (IOException e) {
-                //Not possible
-                throw new RuntimeException(e);
+            List<ByteArraySegment> segments = content.getArraySegments();
+            if (segments != null) {
+                for (ByteArraySegment s : segments) {
+                    buffers.add(Unpooled.wrappedBuffer(s.array(), s.arrayOffset(), s.getLength()));
+                }
+            } else {
+                byte[] data = new byte[content.getLength()];
+                try {
+                    int copied = StreamHelpers.readAll(content.getData(), data, 0, data.length);
+                    Preconditions.checkState(copied == content.getLength(), "Read fewer bytes than available.");
+                } catch (IOException e) {
+                    //Not possible
+                    throw new RuntimeException(e);
+                }
+                buffers.add(Unpooled.wrappedBuffer(data));
+                bytesCopied += data.length;
             }
         }
-        return data;
+        if (bytesCopied > 0) {
+            READ_COPIED_BYTES.add(bytesCopied);
+        }
+        return Unpooled.wrappedBuffer(buffers.toArray(new ByteBuf[buffers.size()]));
     }
 
     @Override
@@ -297,6 +327,15 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         });
     }
 
+    @Override
+    public void createSegments(CreateSegments createSegments) {
+        // Each segment is created independently (and concurrently), and is replied to individually.
+        for (String segment : createSegments.getSegments()) {
+            createSegment(new CreateSegment(createSegments.getRequestId(), segment, createSegments.getScaleType(),
+                    createSegments.getTargetRate()));
+        }
+    }
+
     private void handleException(long requestId, String segment, String operation, Throwable u) {
         if (u == null) {
             IllegalStateException exception = new IllegalStateException("No exception to handle.");
@@ -389,6 +428,20 @@ public class PravegaRequestProcessor extends FailingRequestProcessor implements
         });
     }
 
+    @Override
+    public void commitTransactions(CommitTransactions commitTxs) {
+        for (String segment : commitTxs.getSegments()) {
+            commitTransaction(new CommitTransaction(commitTxs.getRequestId(), segment, commitTxs.getTxid()));
+        }
+    }
+
+    @Override
+    public void abortTransactions(AbortTransactions abortTxs) {
+        for (String segment : abortTxs.getSegments()) {
+            abortTransaction(new AbortTransaction(abortTxs.getRequestId(), segment, abortTxs.getTxid()));
+        }
+    }
+
     @Override
     public void sealSegment(SealSegment sealSegment) {
         String segment = sealSegment.getSegment();
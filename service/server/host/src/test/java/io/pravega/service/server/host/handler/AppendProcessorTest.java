@@ -48,6 +48,8 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.atMost;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -253,6 +255,58 @@ public class AppendProcessorTest {
         verifyNoMoreInteractions(store);
     }
 
+    @Test
+    public void testConcurrentAppendsToDifferentSegments() {
+        String segment1 = "segment1";
+        String segment2 = "segment2";
+        UUID clientId1 = UUID.randomUUID();
+        UUID clientId2 = UUID.randomUUID();
+        byte[] data = new byte[] { 1, 2, 3, 4, 6, 7, 8, 9 };
+        StreamSegmentStore store = mock(StreamSegmentStore.class);
+        ServerConnection connection = mock(ServerConnection.class);
+        AppendProcessor processor = new AppendProcessor(store, connection, new FailingRequestProcessor());
+
+        setupGetStreamSegmentInfo(segment1, clientId1, store);
+        setupGetStreamSegmentInfo(segment2, clientId2, store);
+        CompletableFuture<Void> result1 = new CompletableFuture<>();
+        when(store.append(segment1, data, updateEventNumber(clientId1, 1), AppendProcessor.TIMEOUT))
+            .thenReturn(result1);
+        CompletableFuture<Void> result2 = new CompletableFuture<>();
+        when(store.append(segment2, data, updateEventNumber(clientId2, 1), AppendProcessor.TIMEOUT))
+            .thenReturn(result2);
+        CompletableFuture<Void> result3 = new CompletableFuture<>();
+        when(store.append(segment1, data, updateEventNumber(clientId1, 2), AppendProcessor.TIMEOUT))
+            .thenReturn(result3);
+
+        processor.setupAppend(new SetupAppend(1, clientId1, segment1));
+        processor.setupAppend(new SetupAppend(2, clientId2, segment2));
+        processor.append(new Append(segment1, clientId1, 1, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(segment2, clientId2, 1, Unpooled.wrappedBuffer(data), null));
+        processor.append(new Append(segment1, clientId1, 2, Unpooled.wrappedBuffer(data), null));
+
+        // The append to segment2 must not wait for the one to segment1, but the second append to segment1 must.
+        verify(store).append(segment1, data, updateEventNumber(clientId1, 1), AppendProcessor.TIMEOUT);
+        verify(store).append(segment2, data, updateEventNumber(clientId2, 1), AppendProcessor.TIMEOUT);
+        verify(store, never()).append(segment1, data, updateEventNumber(clientId1, 2), AppendProcessor.TIMEOUT);
+
+        result2.complete(null);
+        verify(connection).send(new DataAppended(clientId2, 1));
+        verify(connection, never()).send(new DataAppended(clientId1, 1));
+
+        result1.complete(null);
+        verify(connection).send(new DataAppended(clientId1, 1));
+        verify(store).append(segment1, data, updateEventNumber(clientId1, 2), AppendProcessor.TIMEOUT);
+
+        result3.complete(null);
+        verify(connection).send(new DataAppended(clientId1, 2));
+        verify(store, times(2)).getStreamSegmentInfo(anyString(), eq(true), eq(AppendProcessor.TIMEOUT));
+        verify(connection).send(new AppendSetup(1, segment1, clientId1, 0));
+        verify(connection).send(new AppendSetup(2, segment2, clientId2, 0));
+        verify(connection, atLeast(0)).resumeReading();
+        verifyNoMoreInteractions(connection);
+        verifyNoMoreInteractions(store);
+    }
+
     @Test
     public void testAppendFails() {
         String streamSegmentName = "testAppendSegment";
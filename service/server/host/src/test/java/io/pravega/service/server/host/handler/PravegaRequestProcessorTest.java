@@ -16,7 +16,10 @@
 package io.pravega.service.server.host.handler;
 
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.service.contracts.ReadResult;
 import io.pravega.service.contracts.ReadResultEntry;
 import io.pravega.service.contracts.ReadResultEntryContents;
@@ -38,7 +41,9 @@ import java.io.ByteArrayInputStream;
 import java.nio.ByteBuffer;
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import lombok.Cleanup;
 import lombok.Data;
@@ -148,6 +153,23 @@ public class PravegaRequestProcessorTest {
         verifyNoMoreInteractions(store);
     }
 
+    @Test(timeout = 20000)
+    public void testWrapData() {
+        byte[] data = new byte[]{1, 2, 3, 4, 6, 7, 8, 9};
+        List<ReadResultEntryContents> contents = new ArrayList<>();
+        contents.add(new ReadResultEntryContents(Arrays.asList(new ByteArraySegment(data, 0, 3), new ByteArraySegment(data, 3, 2))));
+        contents.add(new ReadResultEntryContents(new ByteArrayInputStream(data, 5, 3), 3));
+
+        ByteBuf result = PravegaRequestProcessor.wrapData(contents);
+        assertEquals(Unpooled.wrappedBuffer(data), result);
+
+        // Array-backed contents must be wrapped, not copied.
+        data[0] = 42;
+        assertEquals(42, result.getByte(0));
+        data[7] = 42;
+        assertEquals(9, result.getByte(7));
+    }
+
     @Test(timeout = 20000)
     public void testReadSegmentEmptySealed() {
         // Set up PravegaRequestProcessor instance to execute read segment request against
@@ -227,6 +249,45 @@ public class PravegaRequestProcessorTest {
         order.verify(connection).send(new WireCommands.SegmentDeleted(3, streamSegmentName));
     }
 
+    @Test(timeout = 20000)
+    public void testBatchedRequests() throws Exception {
+        // Set up PravegaRequestProcessor instance to execute requests against.
+        List<String> segments = Arrays.asList("testBatchedRequests1", "testBatchedRequests2", "testBatchedRequests3");
+        @Cleanup
+        ServiceBuilder serviceBuilder = newInlineExecutionInMemoryBuilder(getBuilderConfig());
+        serviceBuilder.initialize();
+        StreamSegmentStore store = serviceBuilder.createStreamSegmentService();
+        ServerConnection connection = mock(ServerConnection.class);
+        PravegaRequestProcessor processor = new PravegaRequestProcessor(store, connection);
+
+        // Every segment in a batch gets its own reply, with the batch's request id.
+        processor.createSegments(new WireCommands.CreateSegments(1, segments, WireCommands.CreateSegment.NO_SCALE, 0));
+        for (String segment : segments) {
+            verify(connection).send(new WireCommands.SegmentCreated(1, segment));
+            assertTrue(append(segment, 1, store));
+        }
+
+        // Creating them again fails for each segment individually.
+        processor.createSegments(new WireCommands.CreateSegments(2, segments, WireCommands.CreateSegment.NO_SCALE, 0));
+        for (String segment : segments) {
+            verify(connection).send(new WireCommands.SegmentAlreadyExists(2, segment));
+        }
+
+        UUID txnToCommit = UUID.randomUUID();
+        UUID txnToAbort = UUID.randomUUID();
+        for (String segment : segments) {
+            processor.createTransaction(new WireCommands.CreateTransaction(3, segment, txnToCommit));
+            processor.createTransaction(new WireCommands.CreateTransaction(4, segment, txnToAbort));
+        }
+
+        processor.commitTransactions(new WireCommands.CommitTransactions(5, segments, txnToCommit));
+        processor.abortTransactions(new WireCommands.AbortTransactions(6, segments, txnToAbort));
+        for (String segment : segments) {
+            verify(connection).send(new WireCommands.TransactionCommitted(5, segment, txnToCommit));
+            verify(connection).send(new WireCommands.TransactionAborted(6, segment, txnToAbort));
+        }
+    }
+
     private boolean append(String streamSegmentName, int number, StreamSegmentStore store) {
         return FutureHelpers.await(store.append(streamSegmentName,
                 new byte[]{(byte) number},
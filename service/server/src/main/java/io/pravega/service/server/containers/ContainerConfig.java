@@ -34,6 +34,8 @@ public class ContainerConfig {
             5 * MINIMUM_SEGMENT_METADATA_EXPIRATION_SECONDS);
     public static final Property<Integer> MAX_ACTIVE_SEGMENT_COUNT = Property.named("maxActiveSegmentCount", 10000);
     public static final Property<Integer> MAX_CONCURRENT_SEGMENT_EVICTION_COUNT = Property.named("maxConcurrentSegmentEvictionCount", 250);
+    public static final Property<Boolean> SEGMENT_STATE_LOG_ENABLED = Property.named("segmentStateLogEnabled", false);
+    public static final Property<Integer> SEGMENT_STATE_LOG_COMPACTION_MIN_BYTES = Property.named("segmentStateLogCompactionMinBytes", 4 * 1024 * 1024);
     private static final String COMPONENT_CODE = "containers";
 
     /**
@@ -54,6 +56,18 @@ public class ContainerConfig {
     @Getter
     private int maxConcurrentSegmentEvictionCount;
 
+    /**
+     * Whether to store Segment States in a single, per-container log (instead of one Storage Segment per Segment).
+     */
+    @Getter
+    private boolean segmentStateLogEnabled;
+
+    /**
+     * The minimum size of the Segment State log before it is considered for compaction.
+     */
+    @Getter
+    private int segmentStateLogCompactionMinBytes;
+
     //endregion
 
     //region Constructor
@@ -80,6 +94,12 @@ public class ContainerConfig {
         if (this.maxConcurrentSegmentEvictionCount <= 0) {
             throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CONCURRENT_SEGMENT_EVICTION_COUNT));
         }
+
+        this.segmentStateLogEnabled = properties.getBoolean(SEGMENT_STATE_LOG_ENABLED);
+        this.segmentStateLogCompactionMinBytes = properties.getInt(SEGMENT_STATE_LOG_COMPACTION_MIN_BYTES);
+        if (this.segmentStateLogCompactionMinBytes <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", SEGMENT_STATE_LOG_COMPACTION_MIN_BYTES));
+        }
     }
 
     /**
@@ -0,0 +1,670 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.containers;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.ExceptionHelpers;
+import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.TimeoutTimer;
+import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.io.EnhancedByteArrayOutputStream;
+import io.pravega.common.util.AsyncMap;
+import io.pravega.common.util.BitConverter;
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.service.contracts.StreamSegmentNotExistsException;
+import io.pravega.service.server.DataCorruptionException;
+import io.pravega.service.storage.SegmentHandle;
+import io.pravega.service.storage.Storage;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Stores and Retrieves the SegmentStates of all the Segments in a Segment Container, using a single append-only log in
+ * Storage for the whole Container (instead of one Storage Segment per Segment, like SegmentStateStore does).
+ * <p>
+ * All states are kept in memory. Updates (put() and remove()) are queued up and appended to the log in batches, one
+ * Storage write per batch; concurrent updates to the same key are applied in the order in which they were received.
+ * <p>
+ * The log alternates between two Storage Segments ("slots"). Every slot begins with a header (the epoch of the owning
+ * container and a generation number) followed by a snapshot of all the states at that time, after which updates are
+ * appended. Whenever the log grows to be much larger than the snapshot it would produce, it is compacted by writing a
+ * new snapshot into the other slot, after which the old slot is deleted. Upon initialization, the valid slot with the
+ * highest epoch and generation is loaded in one pass and immediately compacted, which fences out any previous owner and
+ * discards any partially written records.
+ * <p>
+ * States that were written by a SegmentStateStore (one Storage Segment per Segment) are still readable: get() falls back
+ * to the given legacy store if a state is not found in the log, and remove() removes from both.
+ */
+@Slf4j
+@ThreadSafe
+class SegmentStateLog implements AsyncMap<String, SegmentState>, AutoCloseable {
+    //region Members
+
+    private static final int SLOT_COUNT = 2;
+    private static final int RECORD_PREFIX_LENGTH = 2 * Integer.BYTES; // Length + CRC32.
+    private static final byte RECORD_HEADER = 0;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+
+    private final String traceObjectId;
+    private final int containerId;
+    private final Storage storage;
+    private final AsyncMap<String, SegmentState> legacyStore;
+    private final long compactionMinBytes;
+    private final Executor executor;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final HashMap<String, byte[]> states;
+    @GuardedBy("lock")
+    private final List<PendingUpdate> pendingUpdates;
+    @GuardedBy("lock")
+    private long snapshotLength;
+    @GuardedBy("lock")
+    private boolean flushInProgress;
+    @GuardedBy("lock")
+    private boolean initialized;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    // These are only accessed by initialize() and the flush loop, which never execute concurrently.
+    private long epoch;
+    private long generation;
+    private int activeSlot;
+    private SegmentHandle activeHandle;
+    private long logLength;
+    private boolean compactionRequired;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the SegmentStateLog class.
+     *
+     * @param containerId        The Id of the Segment Container this log belongs to.
+     * @param storage            The Storage to use.
+     * @param legacyStore        An AsyncMap to fall back to for states that are not found in this log.
+     * @param compactionMinBytes The minimum size of the log before it is considered for compaction.
+     * @param executor           The Executor to use for asynchronous operations.
+     */
+    SegmentStateLog(int containerId, Storage storage, AsyncMap<String, SegmentState> legacyStore, long compactionMinBytes, Executor executor) {
+        Preconditions.checkNotNull(storage, "storage");
+        Preconditions.checkNotNull(legacyStore, "legacyStore");
+        Preconditions.checkArgument(compactionMinBytes > 0, "compactionMinBytes must be a positive number.");
+        Preconditions.checkNotNull(executor, "executor");
+
+        this.traceObjectId = String.format("SegmentStateLog[%d]", containerId);
+        this.containerId = containerId;
+        this.storage = storage;
+        this.legacyStore = legacyStore;
+        this.compactionMinBytes = compactionMinBytes;
+        this.executor = executor;
+        this.states = new HashMap<>();
+        this.pendingUpdates = new ArrayList<>();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        List<PendingUpdate> toFail;
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            toFail = new ArrayList<>(this.pendingUpdates);
+            this.pendingUpdates.clear();
+        }
+
+        ObjectClosedException ex = new ObjectClosedException(this);
+        toFail.forEach(u -> u.result.completeExceptionally(ex));
+        log.info("{}: Closed.", this.traceObjectId);
+    }
+
+    //endregion
+
+    //region Initialization
+
+    /**
+     * Loads the log from Storage and compacts it. This must be invoked (and completed) before any other operation.
+     *
+     * @param epoch   The epoch of the Segment Container. This must be the same value that the Storage was initialized with.
+     * @param timeout Timeout for the operation.
+     * @return A CompletableFuture that will indicate when the operation completed. If the log is corrupted, this will be
+     * failed with a DataCorruptionException.
+     */
+    CompletableFuture<Void> initialize(long epoch, Duration timeout) {
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            Preconditions.checkState(!this.initialized && !this.flushInProgress, "SegmentStateLog is already initialized.");
+            this.flushInProgress = true;
+        }
+
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        ArrayList<CompletableFuture<LoadedSlot>> loads = new ArrayList<>();
+        for (int slot = 0; slot < SLOT_COUNT; slot++) {
+            loads.add(loadSlot(slot, timer));
+        }
+
+        return CompletableFuture
+                .allOf(loads.toArray(new CompletableFuture[loads.size()]))
+                .thenComposeAsync(v -> {
+                    LoadedSlot latest = null;
+                    int existingSlots = 0;
+                    for (CompletableFuture<LoadedSlot> load : loads) {
+                        LoadedSlot s = load.join();
+                        if (s != null) {
+                            existingSlots++;
+                            if (s.valid && (latest == null || s.isNewerThan(latest))) {
+                                latest = s;
+                            }
+                        }
+                    }
+
+                    if (latest == null && existingSlots > 0) {
+                        throw new CompletionException(new DataCorruptionException(String.format(
+                                "%s: Unable to find a valid state log slot (%d slot(s) exist).", this.traceObjectId, existingSlots)));
+                    }
+
+                    synchronized (this.lock) {
+                        if (latest != null) {
+                            latest.states.forEach(this::putStateInternal);
+                        }
+                    }
+
+                    this.epoch = epoch;
+                    this.generation = latest == null ? 0 : latest.generation;
+                    this.activeSlot = latest == null ? SLOT_COUNT - 1 : latest.slot;
+                    log.info("{}: Loaded {} state(s) from slot {} (Epoch = {}, Generation = {}).", this.traceObjectId,
+                            latest == null ? 0 : latest.states.size(), latest == null ? "(none)" : latest.slot,
+                            latest == null ? "(none)" : latest.epoch, this.generation);
+
+                    // Always compact upon initialization. This gets rid of any partially written records from the previous
+                    // owner and (since we write with a newer epoch) ensures its writes can never be mistaken for ours.
+                    return compact(new ArrayList<>(), timer.getRemaining());
+                }, this.executor)
+                .whenComplete((r, ex) -> {
+                    synchronized (this.lock) {
+                        this.flushInProgress = false;
+                        this.initialized = ex == null;
+                    }
+
+                    if (ex == null) {
+                        triggerFlush();
+                    }
+                });
+    }
+
+    private CompletableFuture<LoadedSlot> loadSlot(int slot, TimeoutTimer timer) {
+        String slotName = getSlotName(slot);
+
+        // Open the slot for writing first; this fences out any previous owner before we read its contents.
+        return this.storage
+                .openWrite(slotName)
+                .thenComposeAsync(handle -> this.storage.getStreamSegmentInfo(slotName, timer.getRemaining()), this.executor)
+                .thenComposeAsync(sp -> {
+                    Preconditions.checkState(sp.getLength() <= Integer.MAX_VALUE, "State log slot '%s' is too large.", slotName);
+                    byte[] contents = new byte[(int) sp.getLength()];
+                    return readFully(slotName, contents, timer)
+                            .thenApply(v -> parse(slot, contents));
+                }, this.executor)
+                .exceptionally(this::handleSegmentNotExistsException);
+    }
+
+    private CompletableFuture<Void> readFully(String slotName, byte[] target, TimeoutTimer timer) {
+        int[] offset = new int[1];
+        return this.storage
+                .openRead(slotName)
+                .thenComposeAsync(handle -> FutureHelpers.loop(
+                        () -> offset[0] < target.length,
+                        () -> this.storage.read(handle, offset[0], target, offset[0], target.length - offset[0], timer.getRemaining()),
+                        bytesRead -> {
+                            Preconditions.checkState(bytesRead > 0, "Unexpected end of state log slot '%s'.", slotName);
+                            offset[0] += bytesRead;
+                        },
+                        this.executor), this.executor);
+    }
+
+    //endregion
+
+    //region AsyncMap Implementation
+
+    @Override
+    public CompletableFuture<SegmentState> get(String segmentName, Duration timeout) {
+        byte[] serialized;
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            Preconditions.checkState(this.initialized, "SegmentStateLog is not initialized.");
+            serialized = this.states.get(segmentName);
+        }
+
+        if (serialized == null) {
+            return this.legacyStore.get(segmentName, timeout);
+        } else {
+            return CompletableFuture.completedFuture(deserialize(serialized));
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String segmentName, SegmentState state, Duration timeout) {
+        Preconditions.checkArgument(segmentName.equals(state.getSegmentName()), "segmentName does not match the given state.");
+        byte[] serialized = serialize(state);
+        return queueUpdate(new PendingUpdate(segmentName, serialized, createRecord(RECORD_PUT, serialized), timeout));
+    }
+
+    @Override
+    public CompletableFuture<Void> remove(String segmentName, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        return queueUpdate(new PendingUpdate(segmentName, null, createRecord(RECORD_REMOVE, serializeName(segmentName)), timeout))
+                .thenComposeAsync(v -> this.legacyStore.remove(segmentName, timer.getRemaining()), this.executor);
+    }
+
+    //endregion
+
+    //region Flushing and Compaction
+
+    private CompletableFuture<Void> queueUpdate(PendingUpdate update) {
+        synchronized (this.lock) {
+            Exceptions.checkNotClosed(this.closed, this);
+            Preconditions.checkState(this.initialized, "SegmentStateLog is not initialized.");
+            this.pendingUpdates.add(update);
+        }
+
+        triggerFlush();
+        return update.result;
+    }
+
+    /**
+     * Writes all pending updates to Storage as a single batch, unless a flush is already in progress (in which case they
+     * will be picked up by that flush once it completes).
+     */
+    private void triggerFlush() {
+        List<PendingUpdate> batch;
+        synchronized (this.lock) {
+            if (this.flushInProgress || this.closed || !this.initialized || this.pendingUpdates.isEmpty()) {
+                return;
+            }
+
+            this.flushInProgress = true;
+            batch = new ArrayList<>(this.pendingUpdates);
+            this.pendingUpdates.clear();
+        }
+
+        Duration timeout = batch.stream().map(u -> u.timer.getRemaining()).max(Duration::compareTo).get();
+        CompletableFuture<Void> writeFuture;
+        try {
+            writeFuture = isCompactionRequired() ? compact(batch, timeout) : append(batch, timeout);
+        } catch (Throwable ex) {
+            writeFuture = new CompletableFuture<>();
+            writeFuture.completeExceptionally(ex);
+        }
+
+        writeFuture.whenCompleteAsync((r, ex) -> {
+            if (ex != null) {
+                // We do not know how much of this batch made it to Storage (if any). Write a new snapshot next time.
+                this.compactionRequired = true;
+            }
+
+            synchronized (this.lock) {
+                this.flushInProgress = false;
+            }
+
+            if (ex == null) {
+                batch.forEach(u -> u.result.complete(null));
+            } else {
+                log.warn("{}: Unable to write {} state update(s).", this.traceObjectId, batch.size(), ex);
+                Throwable cause = ExceptionHelpers.getRealException(ex);
+                batch.forEach(u -> u.result.completeExceptionally(cause));
+            }
+
+            triggerFlush();
+        }, this.executor);
+    }
+
+    private CompletableFuture<Void> append(List<PendingUpdate> batch, Duration timeout) {
+        ByteArraySegment data = concatRecords(batch.stream().map(u -> u.record).iterator(), null);
+        return this.storage
+                .write(this.activeHandle, this.logLength, data.getReader(), data.getLength(), timeout)
+                .thenRun(() -> {
+                    this.logLength += data.getLength();
+                    synchronized (this.lock) {
+                        batch.forEach(this::applyUpdate);
+                    }
+                });
+    }
+
+    /**
+     * Writes a snapshot of the current states, with the given updates applied, into the inactive slot, makes that slot the
+     * active one and deletes the previously active slot.
+     */
+    private CompletableFuture<Void> compact(List<PendingUpdate> batch, Duration timeout) {
+        TimeoutTimer timer = new TimeoutTimer(timeout);
+        int newSlot = (this.activeSlot + 1) % SLOT_COUNT;
+        String oldSlotName = getSlotName(this.activeSlot);
+        String newSlotName = getSlotName(newSlot);
+        long newGeneration = this.generation + 1;
+
+        HashMap<String, byte[]> snapshot;
+        synchronized (this.lock) {
+            snapshot = new HashMap<>(this.states);
+        }
+
+        batch.forEach(u -> {
+            if (u.state == null) {
+                snapshot.remove(u.segmentName);
+            } else {
+                snapshot.put(u.segmentName, u.state);
+            }
+        });
+
+        byte[] header = createRecord(RECORD_HEADER, serializeHeader(this.epoch, newGeneration, snapshot.size()));
+        ByteArraySegment data = concatRecords(snapshot.values().stream().map(s -> createRecord(RECORD_PUT, s)).iterator(), header);
+        return deleteIfExists(newSlotName, timer)
+                .thenComposeAsync(v -> this.storage.create(newSlotName, timer.getRemaining()), this.executor)
+                .thenComposeAsync(v -> this.storage.openWrite(newSlotName), this.executor)
+                .thenComposeAsync(handle -> this.storage
+                        .write(handle, 0, data.getReader(), data.getLength(), timer.getRemaining())
+                        .thenApply(v -> handle), this.executor)
+                .thenComposeAsync(handle -> {
+                    log.info("{}: Compacted into slot {} (Generation = {}, States = {}, Length = {}, Previous Length = {}).",
+                            this.traceObjectId, newSlot, newGeneration, snapshot.size(), data.getLength(), this.logLength);
+                    this.activeSlot = newSlot;
+                    this.activeHandle = handle;
+                    this.generation = newGeneration;
+                    this.logLength = data.getLength();
+                    this.compactionRequired = false;
+                    synchronized (this.lock) {
+                        batch.forEach(this::applyUpdate);
+                    }
+
+                    // The new slot has a higher generation, so failing to delete the old one does not affect correctness.
+                    return deleteIfExists(oldSlotName, timer)
+                            .exceptionally(ex -> {
+                                log.warn("{}: Unable to delete old slot '{}'.", this.traceObjectId, oldSlotName, ex);
+                                return null;
+                            });
+                }, this.executor);
+    }
+
+    private boolean isCompactionRequired() {
+        if (this.compactionRequired) {
+            return true;
+        }
+
+        synchronized (this.lock) {
+            return this.logLength >= this.compactionMinBytes && this.logLength > 2 * this.snapshotLength;
+        }
+    }
+
+    @GuardedBy("lock")
+    private void applyUpdate(PendingUpdate update) {
+        if (update.state == null) {
+            byte[] oldState = this.states.remove(update.segmentName);
+            if (oldState != null) {
+                this.snapshotLength -= getRecordLength(oldState);
+            }
+        } else {
+            putStateInternal(update.segmentName, update.state);
+        }
+    }
+
+    @GuardedBy("lock")
+    private void putStateInternal(String segmentName, byte[] state) {
+        byte[] oldState = this.states.put(segmentName, state);
+        if (oldState != null) {
+            this.snapshotLength -= getRecordLength(oldState);
+        }
+
+        this.snapshotLength += getRecordLength(state);
+    }
+
+    private CompletableFuture<Void> deleteIfExists(String segmentName, TimeoutTimer timer) {
+        return this.storage
+                .openWrite(segmentName)
+                .thenComposeAsync(handle -> this.storage.delete(handle, timer.getRemaining()), this.executor)
+                .exceptionally(this::handleSegmentNotExistsException);
+    }
+
+    //endregion
+
+    //region Serialization
+
+    /**
+     * Parses the contents of a slot. Parsing stops at the first record which is incomplete or fails its checksum; any
+     * data after that is ignored.
+     *
+     * @return A LoadedSlot with the result. If the slot does not contain a header followed by its complete snapshot, the
+     * result will not be valid.
+     */
+    @SneakyThrows(IOException.class)
+    private LoadedSlot parse(int slot, byte[] contents) {
+        LoadedSlot result = new LoadedSlot(slot);
+        int expectedSnapshotCount = -1;
+        int recordCount = 0;
+        int offset = 0;
+        while (offset + RECORD_PREFIX_LENGTH <= contents.length) {
+            int length = BitConverter.readInt(contents, offset);
+            int checksum = BitConverter.readInt(contents, offset + Integer.BYTES);
+            int bodyOffset = offset + RECORD_PREFIX_LENGTH;
+            if (length <= 0 || length > contents.length - bodyOffset || checksum != getChecksum(contents, bodyOffset, length)) {
+                break;
+            }
+
+            DataInputStream input = new DataInputStream(new ByteArrayInputStream(contents, bodyOffset, length));
+            byte recordType = input.readByte();
+            if (expectedSnapshotCount < 0) {
+                if (recordType != RECORD_HEADER) {
+                    break;
+                }
+
+                result.epoch = input.readLong();
+                result.generation = input.readLong();
+                expectedSnapshotCount = input.readInt();
+            } else if (recordType == RECORD_PUT) {
+                byte[] state = Arrays.copyOfRange(contents, bodyOffset + 1, bodyOffset + length);
+                result.states.put(deserialize(state).getSegmentName(), state);
+                recordCount++;
+            } else if (recordType == RECORD_REMOVE) {
+                result.states.remove(input.readUTF());
+                recordCount++;
+            } else {
+                break;
+            }
+
+            offset = bodyOffset + length;
+        }
+
+        result.valid = expectedSnapshotCount >= 0 && recordCount >= expectedSnapshotCount;
+        if (!result.valid) {
+            log.warn("{}: Slot {} is incomplete or corrupted (Length = {}, Usable Length = {}).",
+                    this.traceObjectId, slot, contents.length, offset);
+        } else if (offset < contents.length) {
+            log.info("{}: Slot {} has {} trailing byte(s) which will be discarded.", this.traceObjectId, slot, contents.length - offset);
+        }
+
+        return result;
+    }
+
+    private static byte[] createRecord(byte recordType, byte[] payload) {
+        int bodyLength = 1 + payload.length;
+        byte[] record = new byte[RECORD_PREFIX_LENGTH + bodyLength];
+        record[RECORD_PREFIX_LENGTH] = recordType;
+        System.arraycopy(payload, 0, record, RECORD_PREFIX_LENGTH + 1, payload.length);
+        BitConverter.writeInt(record, 0, bodyLength);
+        BitConverter.writeInt(record, Integer.BYTES, getChecksum(record, RECORD_PREFIX_LENGTH, bodyLength));
+        return record;
+    }
+
+    private static int getRecordLength(byte[] state) {
+        return RECORD_PREFIX_LENGTH + 1 + state.length;
+    }
+
+    private static int getChecksum(byte[] array, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(array, offset, length);
+        return (int) crc.getValue();
+    }
+
+    @SneakyThrows(IOException.class)
+    private static ByteArraySegment concatRecords(Iterator<byte[]> records, byte[] first) {
+        try (EnhancedByteArrayOutputStream output = new EnhancedByteArrayOutputStream()) {
+            if (first != null) {
+                output.write(first);
+            }
+
+            while (records.hasNext()) {
+                output.write(records.next());
+            }
+
+            return output.getData();
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static byte[] serializeHeader(long epoch, long generation, int snapshotCount) {
+        try (EnhancedByteArrayOutputStream innerStream = new EnhancedByteArrayOutputStream();
+             DataOutputStream output = new DataOutputStream(innerStream)) {
+            output.writeLong(epoch);
+            output.writeLong(generation);
+            output.writeInt(snapshotCount);
+            output.flush();
+            return innerStream.getData().getCopy();
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static byte[] serializeName(String segmentName) {
+        try (EnhancedByteArrayOutputStream innerStream = new EnhancedByteArrayOutputStream();
+             DataOutputStream output = new DataOutputStream(innerStream)) {
+            output.writeUTF(segmentName);
+            output.flush();
+            return innerStream.getData().getCopy();
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static byte[] serialize(SegmentState state) {
+        try (EnhancedByteArrayOutputStream innerStream = new EnhancedByteArrayOutputStream();
+             DataOutputStream output = new DataOutputStream(innerStream)) {
+            state.serialize(output);
+            output.flush();
+            return innerStream.getData().getCopy();
+        }
+    }
+
+    @SneakyThrows(IOException.class)
+    private static SegmentState deserialize(byte[] contents) {
+        try (DataInputStream input = new DataInputStream(new ByteArrayInputStream(contents))) {
+            return SegmentState.deserialize(input);
+        }
+    }
+
+    //endregion
+
+    //region Helpers
+
+    private String getSlotName(int slot) {
+        return getSlotName(this.containerId, slot);
+    }
+
+    /**
+     * Gets the name of the Storage Segment that backs the given slot of the given Segment Container's log.
+     */
+    static String getSlotName(int containerId, int slot) {
+        return String.format("_system/containers/%d/segmentStateLog.%d", containerId, slot);
+    }
+
+    @SneakyThrows(Throwable.class)
+    private <T> T handleSegmentNotExistsException(Throwable ex) {
+        ex = ExceptionHelpers.getRealException(ex);
+        if (ex instanceof StreamSegmentNotExistsException) {
+            return null;
+        }
+
+        throw ex;
+    }
+
+    @Override
+    public String toString() {
+        return this.traceObjectId;
+    }
+
+    //endregion
+
+    //region PendingUpdate and LoadedSlot
+
+    /**
+     * An update that has not yet been written to Storage.
+     */
+    private static class PendingUpdate {
+        final String segmentName;
+        final byte[] state; // Null means removal.
+        final byte[] record;
+        final TimeoutTimer timer;
+        final CompletableFuture<Void> result;
+
+        PendingUpdate(String segmentName, byte[] state, byte[] record, Duration timeout) {
+            this.segmentName = segmentName;
+            this.state = state;
+            this.record = record;
+            this.timer = new TimeoutTimer(timeout);
+            this.result = new CompletableFuture<>();
+        }
+    }
+
+    /**
+     * The result of reading a slot from Storage.
+     */
+    private static class LoadedSlot {
+        final int slot;
+        final Map<String, byte[]> states = new HashMap<>();
+        long epoch;
+        long generation;
+        boolean valid;
+
+        LoadedSlot(int slot) {
+            this.slot = slot;
+        }
+
+        boolean isNewerThan(LoadedSlot other) {
+            return this.epoch > other.epoch || (this.epoch == other.epoch && this.generation > other.generation);
+        }
+    }
+
+    //endregion
+}
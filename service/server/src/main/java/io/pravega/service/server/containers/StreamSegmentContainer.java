@@ -71,6 +71,7 @@ import lombok.val;
 @Slf4j
 class StreamSegmentContainer extends AbstractService implements SegmentContainer {
     //region Members
+    private static final Duration STATE_LOG_INITIALIZE_TIMEOUT = Duration.ofSeconds(60);
     private final String traceObjectId;
     private final ContainerConfig config;
     private final StreamSegmentContainerMetadata metadata;
@@ -79,6 +80,7 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
     private final Writer writer;
     private final Storage storage;
     private final AsyncMap<String, SegmentState> stateStore;
+    private final SegmentStateLog stateLog; // Null if disabled; otherwise same instance as stateStore.
     private final StreamSegmentMapper segmentMapper;
     private final ScheduledExecutorService executor;
     private final MetadataCleaner metadataCleaner;
@@ -118,7 +120,16 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         shutdownWhenStopped(this.durableLog, "DurableLog");
         this.writer = writerFactory.createWriter(this.metadata, this.durableLog, this.readIndex, this.storage);
         shutdownWhenStopped(this.writer, "Writer");
-        this.stateStore = new SegmentStateStore(this.storage, this.executor);
+        SegmentStateStore segmentStateStore = new SegmentStateStore(this.storage, this.executor);
+        if (config.isSegmentStateLogEnabled()) {
+            this.stateLog = new SegmentStateLog(streamSegmentContainerId, this.storage, segmentStateStore,
+                    config.getSegmentStateLogCompactionMinBytes(), this.executor);
+            this.stateStore = this.stateLog;
+        } else {
+            this.stateLog = null;
+            this.stateStore = segmentStateStore;
+        }
+
         this.metadataCleaner = new MetadataCleaner(this.config, this.metadata, this.stateStore, this::notifyMetadataRemoved,
                 this.executor, this.traceObjectId);
         this.segmentMapper = new StreamSegmentMapper(this.metadata, this.durableLog, this.stateStore, this.metadataCleaner::runOnce,
@@ -137,6 +148,10 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
             ServiceShutdownListener.awaitShutdown(this, false);
 
             this.metadataCleaner.close();
+            if (this.stateLog != null) {
+                this.stateLog.close();
+            }
+
             this.writer.close();
             this.durableLog.close();
             this.readIndex.close();
@@ -157,6 +172,9 @@ class StreamSegmentContainer extends AbstractService implements SegmentContainer
         runAsyncOrFail(() -> {
             this.durableLog.awaitRunning();
             this.storage.initialize(this.metadata.getContainerEpoch());
+            if (this.stateLog != null) {
+                this.stateLog.initialize(this.metadata.getContainerEpoch(), STATE_LOG_INITIALIZE_TIMEOUT).join();
+            }
 
             // DurableLog is running. Now start all other components that depend on it.
             this.metadataCleaner.startAsync();
@@ -32,12 +32,15 @@ import static io.pravega.common.util.BitConverter.writeInt;
 /**
  * Helps serialize entries into fixed-size batches. Allows writing multiple records per frame, as well as splitting a record
  * across multiple frames.
+ * <p>
+ * The contents of a frame may optionally be compressed when the frame is sealed. Compressed frames are marked as such
+ * in their FrameHeader and are transparently decompressed when deserialized, so both kinds of frames may be read back.
  */
 public class DataFrame {
     //region Members
 
     static final int MIN_ENTRY_LENGTH_NEEDED = EntryHeader.HEADER_SIZE + 1;
-    private static final byte CURRENT_VERSION = 0;
+    private static final byte CURRENT_VERSION = 1;
     private final ByteArraySegment data;
     private FrameHeader header;
     private ByteArraySegment contents;
@@ -63,12 +66,28 @@ public class DataFrame {
      * @throws IllegalArgumentException When the value for startMagic is invalid.
      */
     public DataFrame(long previousFrameSequence, int maxSize) {
-        this.data = new ByteArraySegment(new byte[maxSize]);
+        this(previousFrameSequence, 1, new byte[maxSize]);
+    }
+
+    /**
+     * Creates a new instance of the DataFrame class which serializes into the given buffer. The maximum size of the frame
+     * is the length of the buffer. Any existing contents of the buffer will be overwritten.
+     *
+     * @param previousFrameSequence The offset (within the log) of the previous Data Frame.
+     * @param maxFramesInFlight     The maximum number of DataFrames that the writer of this frame may have in flight at
+     *                              the same time. This is serialized with the frame and tells readers how far back the
+     *                              previousFrameSequence may point.
+     * @param buffer                The buffer to serialize into.
+     * @throws IllegalArgumentException If maxFramesInFlight is not a positive integer.
+     */
+    DataFrame(long previousFrameSequence, int maxFramesInFlight, byte[] buffer) {
+        Exceptions.checkArgument(maxFramesInFlight > 0, "maxFramesInFlight", "Must be a positive integer.");
+        this.data = new ByteArraySegment(buffer);
         this.writeEntryStartIndex = -1;
         this.writePosition = 0;
         this.sealed = false;
 
-        formatForWriting(previousFrameSequence);
+        formatForWriting(previousFrameSequence, maxFramesInFlight);
     }
 
     /**
@@ -76,27 +95,30 @@ public class DataFrame {
      *
      * @param source An InputStream containing the serialization for this DataFrame.
      * @param length The length of the serialization in the given InputStream.
+     * @param codec  The DataFrameCodec to use if the DataFrame is compressed.
      * @throws IOException            If the given InputStream could not be read.
      * @throws SerializationException If the source cannot be deserialized into a DataFrame.
-     * @throws NullPointerException   If the source is null.
+     * @throws NullPointerException   If any of the arguments are null.
      */
-    public DataFrame(InputStream source, int length) throws IOException, SerializationException {
-        this(new ByteArraySegment(StreamHelpers.readAll(source, length)));
+    public DataFrame(InputStream source, int length, DataFrameCodec codec) throws IOException, SerializationException {
+        this(new ByteArraySegment(StreamHelpers.readAll(source, length)), codec);
     }
 
     /**
      * Creates a new instance of the DataFrame class using the given byte array as serialization source.
      *
      * @param source The source ByteArraySegment.
+     * @param codec  The DataFrameCodec to use if the DataFrame is compressed.
      * @throws SerializationException If the source cannot be deserialized into a DataFrame.
-     * @throws NullPointerException   If the source is null.
+     * @throws NullPointerException   If any of the arguments are null.
      */
-    public DataFrame(ByteArraySegment source) throws SerializationException {
+    public DataFrame(ByteArraySegment source, DataFrameCodec codec) throws SerializationException {
+        Preconditions.checkNotNull(codec, "codec");
         this.data = source.asReadOnly();
         this.writeEntryStartIndex = -1;
         this.writePosition = -1;
         this.sealed = true;
-        parse();
+        parse(codec);
     }
 
     //endregion
@@ -131,6 +153,15 @@ public class DataFrame {
         return this.header.getPreviousFrameSequence();
     }
 
+    /**
+     * Gets a value indicating the maximum number of DataFrames that the writer of this frame may have had in flight at
+     * the same time. When reading frames, this bounds how far back the previous frame sequence may point. Frames
+     * serialized before this was recorded were always written one at a time, so this is 1 for them.
+     */
+    int getMaxFramesInFlight() {
+        return this.header.getMaxFramesInFlight();
+    }
+
     /**
      * Gets a value indicating the length, in bytes, of the frame, including the header, contents and any other control
      * structures needed to serialize the frame.
@@ -154,6 +185,17 @@ public class DataFrame {
         }
     }
 
+    /**
+     * Gets the buffer this DataFrame is being serialized into. Once this DataFrame has been committed, the buffer may be
+     * reused for another DataFrame, after which this DataFrame must no longer be accessed.
+     *
+     * @throws IllegalStateException If this DataFrame was deserialized (and not new).
+     */
+    byte[] getBuffer() {
+        Preconditions.checkState(!this.data.isReadOnly(), "Cannot get the buffer of a read-only DataFrame.");
+        return this.data.array();
+    }
+
     /**
      * Gets a value indicating whether the DataFrame is empty (if it has no entries).
      */
@@ -257,6 +299,29 @@ public class DataFrame {
         }
     }
 
+    /**
+     * Appends a range of bytes from the given array to the DataFrame.
+     *
+     * @param data   The array to copy from.
+     * @param offset The offset within the array to start copying at.
+     * @param length The number of bytes to copy.
+     * @return The number of bytes written. If less than length, the frame is full and cannot write anything anymore.
+     * The remaining bytes will need to be written to a new frame.
+     * @throws IllegalStateException If the frame is sealed or no entry has been started.
+     */
+    int append(byte[] data, int offset, int length) {
+        ensureAppendConditions();
+        Exceptions.checkArrayRange(offset, length, data.length, "offset", "length");
+
+        int actualLength = Math.min(length, getAvailableLength());
+        if (actualLength > 0) {
+            System.arraycopy(data, offset, this.contents.array(), this.contents.arrayOffset() + this.writePosition, actualLength);
+            this.writePosition += actualLength;
+        }
+
+        return actualLength;
+    }
+
     /**
      * Appends the contents of the ByteArraySegment to the DataFrame.
      *
@@ -284,15 +349,57 @@ public class DataFrame {
      * @throws IllegalStateException If an open entry exists (entries must be closed prior to sealing).
      */
     void seal() {
+        seal(null);
+    }
+
+    /**
+     * Seals the frame for writing, optionally compressing its contents. After this method returns, no more modifications
+     * are allowed on this DataFrame. This method has no effect if the Frame is read-only if it is already sealed.
+     *
+     * @param codec If not null, the contents of the frame will be compressed using this DataFrameCodec, but only if
+     *              that makes the frame smaller. Once compressed, the entries of this DataFrame can no longer be iterated
+     *              over (a new DataFrame needs to be deserialized from its data in order to do that).
+     * @throws IllegalStateException If an open entry exists (entries must be closed prior to sealing).
+     */
+    void seal(DataFrameCodec codec) {
         if (!this.sealed && !this.contents.isReadOnly()) {
             Preconditions.checkState(writeEntryStartIndex < 0, "An open entry exists. Any open entries must be closed prior to sealing.");
 
+            if (codec != null && compressContents(codec)) {
+                this.header.setCompressed(true);
+            }
+
             this.header.setContentLength(writePosition);
             this.header.commit();
             this.sealed = true;
         }
     }
 
+    /**
+     * Attempts to compress the contents of the frame, in place. The compressed contents are laid out as: the length of
+     * the uncompressed contents (int), followed by the Deflate-compressed contents.
+     *
+     * @return True if the contents have been compressed, false otherwise (if compression would not reduce their size).
+     */
+    private boolean compressContents(DataFrameCodec codec) {
+        // If compression would not save anything, do not bother with it.
+        int maxCompressedLength = this.writePosition - Integer.BYTES - 1;
+        if (maxCompressedLength <= 0) {
+            return false;
+        }
+
+        ByteArraySegment compressed = codec.compress(this.contents.array(), this.contents.arrayOffset(), this.writePosition, maxCompressedLength);
+        if (compressed == null) {
+            // Compressed data would not have been smaller.
+            return false;
+        }
+
+        writeInt(this.contents, 0, this.writePosition);
+        this.contents.copyFrom(compressed, Integer.BYTES, compressed.getLength());
+        this.writePosition = Integer.BYTES + compressed.getLength();
+        return true;
+    }
+
     /**
      * Calculates the number of bytes available in the frame for writing.
      */
@@ -303,14 +410,14 @@ public class DataFrame {
     /**
      * Formats the DataFrame buffer for writing. Creates a FrameHeader and assigns a content.
      */
-    private void formatForWriting(long previousFrameSequence) {
+    private void formatForWriting(long previousFrameSequence, int maxFramesInFlight) {
         Preconditions.checkState(this.header == null && this.contents == null, "DataFrame already contains data; cannot re-format.");
 
         //We want to use the DataFrame for at least 1 byte of data.
         int sourceLength = this.data.getLength();
         Exceptions.checkArgument(sourceLength > FrameHeader.SERIALIZATION_LENGTH, "data", "Insufficient array length. Byte array must have a length of at least %d.", FrameHeader.SERIALIZATION_LENGTH + 1);
 
-        this.header = new FrameHeader(CURRENT_VERSION, previousFrameSequence, this.data.subSegment(0, FrameHeader.SERIALIZATION_LENGTH));
+        this.header = new FrameHeader(CURRENT_VERSION, previousFrameSequence, maxFramesInFlight, this.data.subSegment(0, FrameHeader.SERIALIZATION_LENGTH));
         this.contents = this.data.subSegment(FrameHeader.SERIALIZATION_LENGTH, sourceLength - FrameHeader.SERIALIZATION_LENGTH);
     }
 
@@ -327,12 +434,14 @@ public class DataFrame {
      * Gets an Iterator that returns all DataFrameEntries in this Data Frame
      */
     CloseableIterator<DataFrameEntry, SerializationException> getEntries() {
+        Preconditions.checkState(this.data.isReadOnly() || !this.header.isCompressed(), "Cannot iterate over the entries of a compressed DataFrame that is being written.");
+
         // The true max length differs based on whether we are still writing this frame or if it's read-only.
         int maxLength = this.writePosition >= 0 ? this.writePosition : this.contents.getLength();
         return new DataFrameEntryIterator(this.contents.asReadOnly(), this.address, maxLength);
     }
 
-    private void parse() throws SerializationException {
+    private void parse(DataFrameCodec codec) throws SerializationException {
         // Used for Reading.
         // FrameHeader will validate that the header is indeed a DataFrame header.
         this.header = new FrameHeader(this.data);
@@ -344,11 +453,22 @@ public class DataFrame {
 
         if (this.header.getContentLength() == 0) {
             this.contents = this.data.subSegment(0, 0); // Empty contents...
+        } else if (this.header.isCompressed()) {
+            this.contents = decompress(this.data.subSegment(this.header.getSerializationLength(), this.header.getContentLength()), codec);
         } else {
             this.contents = this.data.subSegment(this.header.getSerializationLength(), this.header.getContentLength());
         }
     }
 
+    private ByteArraySegment decompress(ByteArraySegment source, DataFrameCodec codec) throws SerializationException {
+        if (source.getLength() < Integer.BYTES) {
+            throw new SerializationException("DataFrame.deserialize", "Compressed DataFrame contents are too short.");
+        }
+
+        int uncompressedLength = readInt(source, 0);
+        return codec.decompress(source.array(), source.arrayOffset() + Integer.BYTES, source.getLength() - Integer.BYTES, uncompressedLength);
+    }
+
     //endregion
 
     //region EntryHeader
@@ -480,10 +600,14 @@ public class DataFrame {
     private static class FrameHeader {
         //region Members
 
-        static final int SERIALIZATION_LENGTH = Byte.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+        private static final int SERIALIZATION_LENGTH_V0 = Byte.BYTES + Long.BYTES + Integer.BYTES + Byte.BYTES;
+        static final int SERIALIZATION_LENGTH = SERIALIZATION_LENGTH_V0 + Integer.BYTES;
+        private static final byte COMPRESSED_MASK = 1;
         private final long previousFrameSequence;
+        private final int maxFramesInFlight;
         private final byte version;
         private int contentLength;
+        private boolean compressed;
         private int actualSerializationLength;
         private ByteArraySegment buffer;
 
@@ -496,15 +620,17 @@ public class DataFrame {
          *
          * @param version               The serialization version for the frame.
          * @param previousFrameSequence The Sequence Number in the Log for the previous Frame.
+         * @param maxFramesInFlight     The maximum number of Frames the writer may have in flight at the same time.
          * @param target                The target buffer where to write frame contents.
          * @throws NullPointerException     If the target buffer is null.
          * @throws IllegalArgumentException If the target buffer has an incorrect length.
          */
-        FrameHeader(byte version, long previousFrameSequence, ByteArraySegment target) {
+        FrameHeader(byte version, long previousFrameSequence, int maxFramesInFlight, ByteArraySegment target) {
             Exceptions.checkArgument(target.getLength() == SERIALIZATION_LENGTH, "target", "Unexpected length for target buffer. Expected %d, given %d.", SERIALIZATION_LENGTH, target.getLength());
 
             this.version = version;
             this.previousFrameSequence = previousFrameSequence;
+            this.maxFramesInFlight = maxFramesInFlight;
             this.actualSerializationLength = SERIALIZATION_LENGTH;
             this.contentLength = 0;
             this.buffer = target;
@@ -524,7 +650,7 @@ public class DataFrame {
             int sourceOffset = 0;
             this.version = source.get(sourceOffset);
             sourceOffset += Byte.BYTES;
-            this.actualSerializationLength = SERIALIZATION_LENGTH; // This will change based on serialization version.
+            this.actualSerializationLength = this.version == 0 ? SERIALIZATION_LENGTH_V0 : SERIALIZATION_LENGTH;
             if (source.getLength() < this.actualSerializationLength) {
                 throw new SerializationException("DataFrame.Header.deserialize", "DataFrame.Header has insufficient number of bytes given its serialization version.");
             }
@@ -534,7 +660,18 @@ public class DataFrame {
             this.contentLength = readInt(source, sourceOffset);
             sourceOffset += Integer.BYTES;
             byte flags = source.get(sourceOffset);
+            sourceOffset += Byte.BYTES;
             decodeFlags(flags, version);
+            if (this.version == 0) {
+                // Version 0 Frames were always written one at a time.
+                this.maxFramesInFlight = 1;
+            } else {
+                this.maxFramesInFlight = readInt(source, sourceOffset);
+                if (this.maxFramesInFlight <= 0) {
+                    throw new SerializationException("DataFrame.Header.deserialize", String.format("Invalid MaxFramesInFlight %d.", this.maxFramesInFlight));
+                }
+            }
+
             this.buffer = null;
         }
 
@@ -558,6 +695,8 @@ public class DataFrame {
             bufferOffset += BitConverter.writeLong(this.buffer, bufferOffset, this.previousFrameSequence);
             bufferOffset += writeInt(this.buffer, bufferOffset, this.contentLength);
             this.buffer.set(bufferOffset, encodeFlags());
+            bufferOffset += Byte.BYTES;
+            writeInt(this.buffer, bufferOffset, this.maxFramesInFlight);
         }
 
         /**
@@ -567,6 +706,13 @@ public class DataFrame {
             return this.previousFrameSequence;
         }
 
+        /**
+         * Gets a value indicating the maximum number of Frames the writer may have had in flight at the same time.
+         */
+        int getMaxFramesInFlight() {
+            return this.maxFramesInFlight;
+        }
+
         /**
          * Gets a value indicating the Serialization Version for the frame.
          */
@@ -588,6 +734,20 @@ public class DataFrame {
             this.contentLength = value;
         }
 
+        /**
+         * Gets a value indicating whether the Frame's payload (contents) is compressed.
+         */
+        boolean isCompressed() {
+            return this.compressed;
+        }
+
+        /**
+         * Sets whether the Frame's payload (contents) is compressed.
+         */
+        void setCompressed(boolean value) {
+            this.compressed = value;
+        }
+
         /**
          * Gets a value indicating the total number of bytes used for serializing this FrameHeader instance.
          */
@@ -597,16 +757,16 @@ public class DataFrame {
 
         @Override
         public String toString() {
-            return String.format("Version = %d, PrevOffset = %d, ContentLength = %d", getVersion(), getPreviousFrameSequence(), getContentLength());
+            return String.format("Version = %d, PrevOffset = %d, MaxFramesInFlight = %d, ContentLength = %d, Compressed = %s",
+                    getVersion(), getPreviousFrameSequence(), getMaxFramesInFlight(), getContentLength(), isCompressed());
         }
 
         private void decodeFlags(byte flags, byte version) {
-            // Placeholder method. Nothing to do yet.
+            this.compressed = (flags & COMPRESSED_MASK) == COMPRESSED_MASK;
         }
 
         private byte encodeFlags() {
-            // Placeholder method. Nothing to do yet.
-            return 0;
+            return this.compressed ? COMPRESSED_MASK : 0;
         }
 
         //endregion
@@ -0,0 +1,96 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.logs;
+
+import io.pravega.common.Exceptions;
+import java.util.concurrent.ArrayBlockingQueue;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * A bounded pool of buffers that Data Frames can be serialized into.
+ * <p>
+ * Buffers are handed out by get() and should be returned via release() once the Data Frame that was serialized into
+ * them has been acknowledged by the DurableDataLog (at which point the DurableDataLog no longer references it). Buffers
+ * that are never returned (i.e., for Data Frames that failed to commit) are simply left to the garbage collector.
+ */
+@ThreadSafe
+class DataFrameBufferPool {
+    //region Members
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<byte[]> availableBuffers;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DataFrameBufferPool class.
+     *
+     * @param bufferSize       The size of each buffer (this is the maximum size of a Data Frame).
+     * @param maxPooledBuffers The maximum number of released buffers to retain for reuse.
+     * @throws IllegalArgumentException If any of the arguments are not positive integers.
+     */
+    DataFrameBufferPool(int bufferSize, int maxPooledBuffers) {
+        Exceptions.checkArgument(bufferSize > 0, "bufferSize", "Must be a positive integer.");
+        Exceptions.checkArgument(maxPooledBuffers > 0, "maxPooledBuffers", "Must be a positive integer.");
+        this.bufferSize = bufferSize;
+        this.availableBuffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets a value indicating the size of each buffer handed out by this pool.
+     */
+    int getBufferSize() {
+        return this.bufferSize;
+    }
+
+    /**
+     * Gets a value indicating the number of buffers currently available for reuse.
+     */
+    int getAvailableCount() {
+        return this.availableBuffers.size();
+    }
+
+    /**
+     * Gets a buffer, either by reusing a previously released one, or by allocating a new one if none is available.
+     * Reused buffers are not cleared.
+     *
+     * @return The buffer.
+     */
+    byte[] get() {
+        byte[] buffer = this.availableBuffers.poll();
+        return buffer == null ? new byte[this.bufferSize] : buffer;
+    }
+
+    /**
+     * Returns a buffer to the pool. The buffer is discarded if the pool is already full or if it was not handed out by
+     * a pool with the same buffer size.
+     *
+     * @param buffer The buffer to release. This must not be used by the caller after this method returns.
+     */
+    void release(byte[] buffer) {
+        if (buffer.length == this.bufferSize) {
+            this.availableBuffers.offer(buffer);
+        }
+    }
+
+    //endregion
+}
@@ -17,21 +17,36 @@ package io.pravega.service.server.logs;
 
 import io.pravega.common.ExceptionHelpers;
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.common.function.CallbackHelpers;
 import io.pravega.common.function.ConsumerWithException;
 import io.pravega.service.server.LogItem;
 import io.pravega.service.storage.DurableDataLog;
 import io.pravega.service.storage.LogAddress;
 import com.google.common.base.Preconditions;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
 import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 
 /**
  * Builds DataFrames from LogItems. Splits the serialization of LogItems across multiple Data Frames, if necessary,
  * and publishes the finished Data Frames to the given DataFrameLog.
+ * <p>
+ * By default, every Data Frame is written synchronously to the DataFrameLog (the next one is not started until the
+ * previous one has been acknowledged). If configured with more than one Data Frame in flight, the DataFrameBuilder
+ * will pipeline its writes: Data Frames are published without waiting for the previous ones to be acknowledged, but the
+ * commit callbacks are still invoked strictly in the order in which the Data Frames were built. In this mode, a failure
+ * to commit a Data Frame will fail all Data Frames that follow it and will put the DataFrameBuilder in a failed state
+ * (all subsequent calls to append() will fail).
+ * <p>
+ * Data Frames are serialized into pooled buffers. A buffer is returned to the pool as soon as its Data Frame has been
+ * acknowledged by the DataFrameLog, so that steady-state serialization does not need to allocate new buffers.
  */
 @Slf4j
 class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
@@ -39,9 +54,15 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
 
     private static final Duration DATA_FRAME_WRITE_TIMEOUT = Duration.ofSeconds(30); // TODO: actual timeout.
     private final DataFrameOutputStream outputStream;
+    private final DataFrameBufferPool bufferPool;
     private final DurableDataLog targetLog;
+    private final int maxInFlightFrames;
+    private final Consumer<DataFrameCommitArgs> beforeCommitCallback;
     private final ConsumerWithException<DataFrameCommitArgs, Exception> dataFrameCommitSuccessCallback;
     private final Consumer<Throwable> dataFrameCommitFailureCallback;
+    private final ArrayDeque<CompletableFuture<Void>> inFlightCommits;
+    private final AtomicReference<Throwable> commitFailure;
+    private CompletableFuture<Void> lastCommit;
     private boolean closed;
     private long lastSerializedSequenceNumber;
     private long lastStartedSequenceNumber;
@@ -51,7 +72,7 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
     //region Constructor
 
     /**
-     * Creates a new instance of the DataFrameBuilder class.
+     * Creates a new instance of the DataFrameBuilder class, which writes Data Frames synchronously.
      *
      * @param targetLog                      The DurableDataLog to publish completed Data Frames to.
      * @param dataFrameCommitSuccessCallback A callback that will be invoked upon every successful commit of a Data Frame.
@@ -63,16 +84,51 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
      * @throws NullPointerException If any of the arguments are null.
      */
     DataFrameBuilder(DurableDataLog targetLog, ConsumerWithException<DataFrameCommitArgs, Exception> dataFrameCommitSuccessCallback, Consumer<Throwable> dataFrameCommitFailureCallback) {
+        this(targetLog, 1, false, args -> {
+        }, dataFrameCommitSuccessCallback, dataFrameCommitFailureCallback);
+    }
+
+    /**
+     * Creates a new instance of the DataFrameBuilder class.
+     *
+     * @param targetLog                      The DurableDataLog to publish completed Data Frames to.
+     * @param maxInFlightFrames              The maximum number of Data Frames that can be written to the DurableDataLog
+     *                                       concurrently. If 1, every Data Frame is written synchronously.
+     * @param compressDataFrames             Whether to compress the contents of Data Frames before writing them.
+     * @param beforeCommitCallback           A callback that will be invoked (synchronously) for every Data Frame right
+     *                                       before it is published to the DurableDataLog.
+     * @param dataFrameCommitSuccessCallback A callback that will be invoked upon every successful commit of a Data Frame,
+     *                                       in the order in which the Data Frames were published.
+     *                                       When this is called, all entries added via append() that were successful have
+     *                                       been 100% committed. In-flight entries (that have been written partially) should not be acked.
+     * @param dataFrameCommitFailureCallback A callback that will be invoked upon a failed commit of a Data Frame.
+     *                                       When this is called, all entries added via append() that were successful have
+     *                                       failed to commit. The in-flight entries will be failed via the append() method.
+     * @throws NullPointerException     If any of the arguments are null.
+     * @throws IllegalArgumentException If maxInFlightFrames is not a positive integer.
+     */
+    DataFrameBuilder(DurableDataLog targetLog, int maxInFlightFrames, boolean compressDataFrames, Consumer<DataFrameCommitArgs> beforeCommitCallback,
+                     ConsumerWithException<DataFrameCommitArgs, Exception> dataFrameCommitSuccessCallback, Consumer<Throwable> dataFrameCommitFailureCallback) {
         Preconditions.checkNotNull(targetLog, "targetLog");
+        Preconditions.checkNotNull(beforeCommitCallback, "beforeCommitCallback");
         Preconditions.checkNotNull(dataFrameCommitFailureCallback, "dataFrameCommitFailureCallback");
         Preconditions.checkNotNull(dataFrameCommitSuccessCallback, "dataFrameCommitSuccessCallback");
+        Exceptions.checkArgument(maxInFlightFrames > 0, "maxInFlightFrames", "Must be a positive integer.");
 
         this.targetLog = targetLog;
-        this.outputStream = new DataFrameOutputStream(targetLog.getMaxAppendLength(), targetLog::getLastAppendSequence, this::handleDataFrameComplete);
+        // We need at most one buffer for each Data Frame in flight, plus one for the Data Frame being built.
+        this.bufferPool = new DataFrameBufferPool(targetLog.getMaxAppendLength(), maxInFlightFrames + 1);
+        this.outputStream = new DataFrameOutputStream(this.bufferPool, targetLog::getLastAppendSequence, maxInFlightFrames,
+                this::handleDataFrameComplete, compressDataFrames);
         this.lastSerializedSequenceNumber = -1;
         this.lastStartedSequenceNumber = -1;
+        this.maxInFlightFrames = maxInFlightFrames;
+        this.beforeCommitCallback = beforeCommitCallback;
         this.dataFrameCommitSuccessCallback = dataFrameCommitSuccessCallback;
         this.dataFrameCommitFailureCallback = dataFrameCommitFailureCallback;
+        this.inFlightCommits = new ArrayDeque<>();
+        this.commitFailure = new AtomicReference<>();
+        this.lastCommit = CompletableFuture.completedFuture(null);
     }
 
     //endregion
@@ -85,11 +141,17 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
             // Stop accepting any new items.
             this.closed = true;
 
-            // Seal & ship whatever frame we currently have (if any).
-            this.outputStream.flush();
-
-            // Close the underlying stream (which destroys whatever we have in flight - but there shouldn't be any at this point).
-            this.outputStream.close();
+            try {
+                // Seal & ship whatever frame we currently have (if any).
+                this.outputStream.flush();
+            } finally {
+                // Wait for all the Data Frames we have in flight to be committed (or failed). Any failures will have been
+                // reported via the dataFrameCommitFailureCallback.
+                awaitInFlightFrames();
+
+                // Close the underlying stream (which destroys whatever we have in flight - but there shouldn't be any at this point).
+                this.outputStream.close();
+            }
         }
     }
 
@@ -97,6 +159,35 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
 
     //region Operations
 
+    /**
+     * Seals the current Data Frame (if any) and publishes it to the DataFrameLog. If more than one Data Frame is allowed
+     * to be in flight, this method does not wait for it to be committed.
+     *
+     * @throws IOException If the Data Frame could not be published or committed.
+     */
+    public void flush() throws IOException {
+        Exceptions.checkNotClosed(this.closed, this);
+        this.outputStream.flush();
+    }
+
+    /**
+     * Waits for all the Data Frames that are currently in flight to be committed (or failed). Failures are reported via
+     * the dataFrameCommitFailureCallback and via getCommitFailure().
+     */
+    public void awaitInFlightFrames() {
+        while (!this.inFlightCommits.isEmpty()) {
+            FutureHelpers.await(this.inFlightCommits.removeFirst());
+        }
+    }
+
+    /**
+     * Gets the exception that caused an asynchronously published Data Frame to fail to commit, or null if no such
+     * failure occurred. Once this is set, the DataFrameBuilder can no longer be used.
+     */
+    public Throwable getCommitFailure() {
+        return this.commitFailure.get();
+    }
+
     /**
      * Resets the DataFrameBuilder to its initial state.
      */
@@ -122,6 +213,7 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
      */
     public void append(T logItem) throws IOException {
         Exceptions.checkNotClosed(this.closed, this);
+        checkNoCommitFailure();
         long seqNo = logItem.getSequenceNumber();
         Exceptions.checkArgument(this.lastSerializedSequenceNumber < seqNo, "logItem", "Invalid sequence number. Expected: greater than %d, given: %d.", this.lastSerializedSequenceNumber, seqNo);
 
@@ -158,14 +250,21 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
      */
     private void handleDataFrameComplete(DataFrame dataFrame) throws IOException {
         Exceptions.checkArgument(dataFrame.isSealed(), "dataFrame", "Cannot publish a non-sealed DataFrame.");
+        DataFrameCommitArgs commitArgs = new DataFrameCommitArgs(this.lastSerializedSequenceNumber, this.lastStartedSequenceNumber, dataFrame);
+        if (this.maxInFlightFrames > 1) {
+            publishAsync(dataFrame, commitArgs);
+            return;
+        }
 
         // Write DataFrame to DataFrameLog.
         try {
+            this.beforeCommitCallback.accept(commitArgs);
             LogAddress logAddress = this.targetLog.append(dataFrame.getData(), DATA_FRAME_WRITE_TIMEOUT).get();
+            releaseBuffer(dataFrame);
 
             // Need to assign the DataFrameSequence that we got back from the DataLog. This is used to record truncation markers.
             dataFrame.setAddress(logAddress);
-            assert dataFrame.getPreviousFrameSequence() < logAddress.getSequence() : "DataLog assigned non-monotonic sequence number";
+            commitArgs.setLogAddress(logAddress);
         } catch (Exception ex) {
             Throwable realException = ExceptionHelpers.getRealException(ex);
             // This failure is due to us being unable to commit the DataFrame; this means the entire DataFrame has to be discarded.
@@ -179,13 +278,89 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
         }
 
         try {
-            this.dataFrameCommitSuccessCallback.accept(new DataFrameCommitArgs(this.lastSerializedSequenceNumber, this.lastStartedSequenceNumber, dataFrame));
+            this.dataFrameCommitSuccessCallback.accept(commitArgs);
         } catch (Exception ex) {
             CallbackHelpers.invokeSafely(this.dataFrameCommitFailureCallback, ex, cex -> log.error("dataFrameCommitFailureCallback FAILED.", cex));
             throw new IOException(ex);
         }
     }
 
+    /**
+     * Publishes a data frame to the DataFrameLog without waiting for it to be committed, as long as there are fewer than
+     * maxInFlightFrames Data Frames in flight (otherwise it waits for the oldest ones to complete first). The success
+     * callback for this Data Frame will only be invoked after the success callbacks for all previous Data Frames have
+     * completed; if any of those failed, this one will be failed as well.
+     *
+     * @param dataFrame  The data frame to publish.
+     * @param commitArgs The DataFrameCommitArgs for the data frame.
+     * @throws IOException If a previous Data Frame failed to commit, or if this one could not be published.
+     */
+    private void publishAsync(DataFrame dataFrame, DataFrameCommitArgs commitArgs) throws IOException {
+        // Clean up whatever has already completed, then wait until we have room for one more Data Frame.
+        while (!this.inFlightCommits.isEmpty()
+                && (this.inFlightCommits.peekFirst().isDone() || this.inFlightCommits.size() >= this.maxInFlightFrames)) {
+            FutureHelpers.await(this.inFlightCommits.removeFirst());
+        }
+
+        checkNoCommitFailure();
+        CompletableFuture<LogAddress> appendFuture;
+        try {
+            this.beforeCommitCallback.accept(commitArgs);
+            appendFuture = this.targetLog.append(dataFrame.getData(), DATA_FRAME_WRITE_TIMEOUT);
+        } catch (Exception ex) {
+            appendFuture = FutureHelpers.failedFuture(ex);
+        }
+
+        // Chain the commit to the previous one. This ensures that commit callbacks are invoked in order, and that if a
+        // previous Data Frame failed, this one will fail as well (even if it was successfully written).
+        final CompletableFuture<LogAddress> frameAppendFuture = appendFuture;
+        frameAppendFuture.thenRun(() -> releaseBuffer(dataFrame));
+        CompletableFuture<Void> commitFuture = this.lastCommit
+                .thenCompose(v -> frameAppendFuture)
+                .thenAccept(logAddress -> completeCommit(dataFrame, commitArgs, logAddress));
+        commitFuture.exceptionally(this::handleCommitFailure);
+        this.lastCommit = commitFuture;
+        this.inFlightCommits.addLast(commitFuture);
+    }
+
+    /**
+     * Completes the commit of a Data Frame that was published asynchronously.
+     */
+    @SneakyThrows(Exception.class)
+    private void completeCommit(DataFrame dataFrame, DataFrameCommitArgs commitArgs, LogAddress logAddress) {
+        dataFrame.setAddress(logAddress);
+        commitArgs.setLogAddress(logAddress);
+        this.dataFrameCommitSuccessCallback.accept(commitArgs);
+    }
+
+    /**
+     * Handles the failure of a Data Frame that was published asynchronously. Only the first failure is reported to the
+     * dataFrameCommitFailureCallback, since that invocation already covers all the Data Frames that follow it.
+     */
+    private Void handleCommitFailure(Throwable ex) {
+        Throwable realException = ExceptionHelpers.getRealException(ex);
+        if (this.commitFailure.compareAndSet(null, realException)) {
+            CallbackHelpers.invokeSafely(this.dataFrameCommitFailureCallback, realException, cex -> log.error("dataFrameCommitFailureCallback FAILED.", cex));
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the buffer of a Data Frame that has been acknowledged by the DataFrameLog to the buffer pool. This must
+     * not be invoked for Data Frames that failed to be written, since the DataFrameLog may still be accessing them.
+     */
+    private void releaseBuffer(DataFrame dataFrame) {
+        this.bufferPool.release(dataFrame.getBuffer());
+    }
+
+    private void checkNoCommitFailure() throws IOException {
+        Throwable failure = this.commitFailure.get();
+        if (failure != null) {
+            throw new IOException("A previous DataFrame failed to commit.", failure);
+        }
+    }
+
     //endregion
 
     //region DataFrameCommitArgs
@@ -196,27 +371,49 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
     static class DataFrameCommitArgs {
         private final long lastFullySerializedSequenceNumber;
         private final long lastStartedSequenceNumber;
-        private final LogAddress logAddress;
         private final long previousDataFrameSequence;
         private final int dataFrameLength;
+        private LogAddress logAddress;
+        private long metadataTransactionId;
 
         /**
          * Creates a new instance of the DataFrameCommitArgs class.
          *
          * @param lastFullySerializedSequenceNumber The Sequence Number of the last LogItem that was fully serialized (and committed).
          * @param lastStartedSequenceNumber         The Sequence Number of the last LogItem that was started (but not necessarily committed).
-         * @param dataFrame                         The DataFrame that was just committed.
+         * @param dataFrame                         The DataFrame that is about to be committed.
          */
         private DataFrameCommitArgs(long lastFullySerializedSequenceNumber, long lastStartedSequenceNumber, DataFrame dataFrame) {
             assert lastFullySerializedSequenceNumber <= lastStartedSequenceNumber : "lastFullySerializedSequenceNumber (" + lastFullySerializedSequenceNumber + ") is greater than lastStartedSequenceNumber (" + lastStartedSequenceNumber + ")";
-            assert dataFrame.getAddress().getSequence() >= 0 : "negative dataFrameSequence";
-            assert dataFrame.getAddress().getSequence() > dataFrame.getPreviousFrameSequence() : "dataFrameSequence should be larger than previousDataFrameSequence";
 
             this.lastFullySerializedSequenceNumber = lastFullySerializedSequenceNumber;
             this.lastStartedSequenceNumber = lastStartedSequenceNumber;
             this.previousDataFrameSequence = dataFrame.getPreviousFrameSequence();
-            this.logAddress = dataFrame.getAddress();
             this.dataFrameLength = dataFrame.getLength();
+            this.metadataTransactionId = OperationMetadataUpdater.NO_TRANSACTION_ID;
+        }
+
+        /**
+         * Sets the LogAddress of the Data Frame, once it has been committed.
+         */
+        private void setLogAddress(LogAddress logAddress) {
+            assert logAddress.getSequence() >= 0 : "negative dataFrameSequence";
+            assert logAddress.getSequence() > this.previousDataFrameSequence : "dataFrameSequence should be larger than previousDataFrameSequence";
+            this.logAddress = logAddress;
+        }
+
+        /**
+         * Gets a value indicating the Id of the Metadata UpdateTransaction that corresponds to this Data Frame.
+         */
+        long getMetadataTransactionId() {
+            return this.metadataTransactionId;
+        }
+
+        /**
+         * Sets the Id of the Metadata UpdateTransaction that corresponds to this Data Frame.
+         */
+        void setMetadataTransactionId(long metadataTransactionId) {
+            this.metadataTransactionId = metadataTransactionId;
         }
 
         /**
@@ -260,7 +457,9 @@ class DataFrameBuilder<T extends LogItem> implements AutoCloseable {
 
         @Override
         public String toString() {
-            return String.format("LastFullySerializedSN = %d, LastStartedSN = %d, DataFrameSN = %d/%d, Length = %d", getLastFullySerializedSequenceNumber(), getLastStartedSequenceNumber(), this.logAddress.getSequence(), getPreviousDataFrameSequence(), getDataFrameLength());
+            return String.format("LastFullySerializedSN = %d, LastStartedSN = %d, DataFrameSN = %d/%d, Length = %d",
+                    getLastFullySerializedSequenceNumber(), getLastStartedSequenceNumber(), this.logAddress == null ? -1 : this.logAddress.getSequence(),
+                    getPreviousDataFrameSequence(), getDataFrameLength());
         }
     }
 
@@ -0,0 +1,175 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.logs;
+
+import io.pravega.common.Exceptions;
+import io.pravega.common.util.ByteArraySegment;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Compresses and decompresses the contents of Data Frames.
+ * <p>
+ * The Deflater, the Inflater and the buffer that contents are compressed into are created once and reused for every
+ * Data Frame. The Deflater and the Inflater wrap native zlib streams, which hold native memory until they are ended, so
+ * a DataFrameCodec must be closed when no longer needed. Instances of this class are not thread-safe; each writer or
+ * reader should have its own.
+ */
+@NotThreadSafe
+class DataFrameCodec implements AutoCloseable {
+    //region Members
+
+    private final int maxFrameSize;
+    private Deflater deflater;
+    private Inflater inflater;
+    private byte[] compressBuffer;
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the DataFrameCodec class.
+     *
+     * @param maxFrameSize The maximum size of a Data Frame. No Data Frame may have contents longer than this, whether
+     *                     compressed or not.
+     * @throws IllegalArgumentException If maxFrameSize is not a positive integer.
+     */
+    DataFrameCodec(int maxFrameSize) {
+        Exceptions.checkArgument(maxFrameSize > 0, "maxFrameSize", "Must be a positive integer.");
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.closed = true;
+            if (this.deflater != null) {
+                this.deflater.end();
+            }
+
+            if (this.inflater != null) {
+                this.inflater.end();
+            }
+
+            this.compressBuffer = null;
+        }
+    }
+
+    //endregion
+
+    //region Operations
+
+    /**
+     * Gets a value indicating the maximum size of a Data Frame.
+     */
+    int getMaxFrameSize() {
+        return this.maxFrameSize;
+    }
+
+    /**
+     * Compresses the given range of bytes, unless the result would be longer than maxLength.
+     *
+     * @param source    The array containing the bytes to compress.
+     * @param offset    The offset within the array where the bytes begin.
+     * @param length    The number of bytes to compress.
+     * @param maxLength The maximum acceptable length of the compressed bytes.
+     * @return A ByteArraySegment with the compressed bytes, or null if they would be longer than maxLength. The returned
+     * ByteArraySegment is backed by an internal buffer and is only valid until the next call to this method.
+     */
+    ByteArraySegment compress(byte[] source, int offset, int length, int maxLength) {
+        Exceptions.checkNotClosed(this.closed, this);
+        Exceptions.checkArrayRange(offset, length, source.length, "offset", "length");
+        Exceptions.checkArgument(maxLength <= this.maxFrameSize, "maxLength", "Cannot be larger than the max frame size.");
+        if (this.deflater == null) {
+            this.deflater = new Deflater(Deflater.BEST_SPEED);
+            this.compressBuffer = new byte[this.maxFrameSize];
+        } else {
+            this.deflater.reset();
+        }
+
+        this.deflater.setInput(source, offset, length);
+        this.deflater.finish();
+        int compressedLength = 0;
+        while (!this.deflater.finished() && compressedLength < maxLength) {
+            compressedLength += this.deflater.deflate(this.compressBuffer, compressedLength, maxLength - compressedLength);
+        }
+
+        if (!this.deflater.finished()) {
+            // Compressed data does not fit in the allowed length.
+            return null;
+        }
+
+        return new ByteArraySegment(this.compressBuffer, 0, compressedLength);
+    }
+
+    /**
+     * Decompresses the given range of bytes.
+     *
+     * @param source             The array containing the compressed bytes.
+     * @param offset             The offset within the array where the compressed bytes begin.
+     * @param length             The number of compressed bytes.
+     * @param uncompressedLength The expected length of the bytes after decompression.
+     * @return A read-only ByteArraySegment with the decompressed bytes. This is backed by a new array, which is exactly
+     * uncompressedLength bytes long.
+     * @throws SerializationException If uncompressedLength is not a positive number or exceeds the max frame size, or if
+     *                                the compressed bytes are corrupt.
+     */
+    ByteArraySegment decompress(byte[] source, int offset, int length, int uncompressedLength) throws SerializationException {
+        Exceptions.checkNotClosed(this.closed, this);
+        Exceptions.checkArrayRange(offset, length, source.length, "offset", "length");
+        if (uncompressedLength <= 0 || uncompressedLength > this.maxFrameSize) {
+            throw new SerializationException("DataFrame.deserialize", String.format("Invalid uncompressed length %d. Must be a positive number no larger than %d.", uncompressedLength, this.maxFrameSize));
+        }
+
+        if (this.inflater == null) {
+            this.inflater = new Inflater();
+        } else {
+            this.inflater.reset();
+        }
+
+        byte[] result = new byte[uncompressedLength];
+        int resultLength = 0;
+        try {
+            this.inflater.setInput(source, offset, length);
+            while (!this.inflater.finished() && resultLength < result.length) {
+                int count = this.inflater.inflate(result, resultLength, result.length - resultLength);
+                if (count == 0 && (this.inflater.needsInput() || this.inflater.needsDictionary())) {
+                    break;
+                }
+
+                resultLength += count;
+            }
+        } catch (DataFormatException ex) {
+            throw new SerializationException("DataFrame.deserialize", "Compressed DataFrame is corrupt.", ex);
+        }
+
+        if (resultLength != uncompressedLength || !this.inflater.finished()) {
+            throw new SerializationException("DataFrame.deserialize", String.format("Compressed DataFrame is corrupt. Expected %d bytes after decompression, got %d.", uncompressedLength, resultLength));
+        }
+
+        return new ByteArraySegment(result, 0, result.length, true);
+    }
+
+    //endregion
+}
@@ -17,7 +17,6 @@ package io.pravega.service.server.logs;
 
 import io.pravega.common.Exceptions;
 import io.pravega.common.function.ConsumerWithException;
-import io.pravega.common.util.ByteArraySegment;
 import com.google.common.base.Preconditions;
 
 import java.io.IOException;
@@ -27,13 +26,18 @@ import java.util.function.Supplier;
 /**
  * An OutputStream that abstracts writing to Data Frames. Allows writing arbitrary bytes, and seamlessly transitions
  * from one Data Frame to another if the previous Data Frame was full.
+ * <p>
+ * Data Frames are serialized into buffers obtained from a DataFrameBufferPool. The DataFrameOutputStream never returns
+ * buffers to the pool itself, since it does not know when a Data Frame is no longer referenced by its consumer.
  */
 class DataFrameOutputStream extends OutputStream {
     //region Members
 
-    private final int maxDataFrameSize;
+    private final DataFrameBufferPool bufferPool;
     private final Supplier<Long> getPreviousFrameSequence;
+    private final int maxFramesInFlight;
     private final ConsumerWithException<DataFrame, IOException> dataFrameCompleteCallback;
+    private final DataFrameCodec codec;
     private DataFrame currentFrame;
     private boolean hasDataInCurrentFrame;
     private boolean closed;
@@ -52,13 +56,32 @@ class DataFrameOutputStream extends OutputStream {
      * @throws NullPointerException     If any of the arguments are null.
      */
     public DataFrameOutputStream(int maxDataFrameSize, Supplier<Long> getPreviousFrameSequence, ConsumerWithException<DataFrame, IOException> dataFrameCompleteCallback) {
-        Exceptions.checkArgument(maxDataFrameSize > 0, "maxDataFrameSize", "Must be a positive integer.");
+        this(new DataFrameBufferPool(maxDataFrameSize, 1), getPreviousFrameSequence, 1, dataFrameCompleteCallback, false);
+    }
+
+    /**
+     * Creates a new instance of the DataFrameOutputStream class.
+     *
+     * @param bufferPool                The DataFrameBufferPool to get Data Frame buffers from. The size of the buffers
+     *                                  is the maximum size, in bytes, of a Data Frame.
+     * @param getPreviousFrameSequence  A method that retrieves the Frame Sequence for the previous frame.
+     * @param maxFramesInFlight         The maximum number of Data Frames that may be in flight at the same time. This
+     *                                  is recorded in each Data Frame.
+     * @param dataFrameCompleteCallback A callback that will be invoked when a Data Frame is full.
+     * @param compress                  Whether to compress the contents of Data Frames when sealing them.
+     * @throws NullPointerException If any of the arguments are null.
+     */
+    DataFrameOutputStream(DataFrameBufferPool bufferPool, Supplier<Long> getPreviousFrameSequence, int maxFramesInFlight,
+                          ConsumerWithException<DataFrame, IOException> dataFrameCompleteCallback, boolean compress) {
+        Preconditions.checkNotNull(bufferPool, "bufferPool");
         Preconditions.checkNotNull(getPreviousFrameSequence, "getPreviousFrameSequence");
         Preconditions.checkNotNull(dataFrameCompleteCallback, "dataFrameCompleteCallback");
 
-        this.maxDataFrameSize = maxDataFrameSize;
+        this.bufferPool = bufferPool;
         this.getPreviousFrameSequence = getPreviousFrameSequence;
+        this.maxFramesInFlight = maxFramesInFlight;
         this.dataFrameCompleteCallback = dataFrameCompleteCallback;
+        this.codec = compress ? new DataFrameCodec(bufferPool.getBufferSize()) : null;
     }
 
     //endregion
@@ -70,23 +93,17 @@ class DataFrameOutputStream extends OutputStream {
         Exceptions.checkNotClosed(this.closed, this);
         Preconditions.checkState(this.currentFrame != null, "No current frame exists. Most likely no record is started.");
 
-        int attemptCount = 0;
-        int totalBytesWritten = 0;
-        while (totalBytesWritten == 0 && attemptCount < 2) {
-            // We attempt to write 1 byte. If append() says it wrote 0 bytes, it means the current frame is full. Seal it and create a new one.
-            totalBytesWritten += this.currentFrame.append((byte) b);
-            if (totalBytesWritten == 0) {
-                this.currentFrame.endEntry(false); // Close the current entry, and indicate it is not the last one of the record.
-                flush();
-                createNewFrame();
-                startNewRecordInCurrentFrame(false);
+        // Most of the time there is room in the current frame, in which case the byte goes straight into its buffer.
+        if (this.currentFrame.append((byte) b) == 0) {
+            // The current frame is full. Seal it (indicating the current entry is not the last one of the record) and
+            // write the byte to a new one.
+            this.currentFrame.endEntry(false);
+            flush();
+            createNewFrame();
+            startNewRecordInCurrentFrame(false);
+            if (this.currentFrame.append((byte) b) == 0) {
+                throw new IOException("Unable to make progress in serializing to DataFrame.");
             }
-
-            attemptCount++;
-        }
-
-        if (totalBytesWritten == 0) {
-            throw new IOException("Unable to make progress in serializing to DataFrame.");
         }
     }
 
@@ -98,7 +115,7 @@ class DataFrameOutputStream extends OutputStream {
         int totalBytesWritten = 0;
         int attemptsWithNoProgress = 0;
         while (totalBytesWritten < length) {
-            int bytesWritten = this.currentFrame.append(new ByteArraySegment(data, offset + totalBytesWritten, length - totalBytesWritten));
+            int bytesWritten = this.currentFrame.append(data, offset + totalBytesWritten, length - totalBytesWritten);
             attemptsWithNoProgress = bytesWritten == 0 ? attemptsWithNoProgress + 1 : 0;
             if (attemptsWithNoProgress > 1) {
                 // We had two consecutive attempts to write to a frame with no progress made.
@@ -133,7 +150,7 @@ class DataFrameOutputStream extends OutputStream {
         }
 
         // Seal the current frame for appends.
-        this.currentFrame.seal();
+        this.currentFrame.seal(this.codec);
 
         // Invoke the callback. At the end of this, the frame is committed so we can get rid of it.
         if (!this.currentFrame.isEmpty()) {
@@ -150,6 +167,9 @@ class DataFrameOutputStream extends OutputStream {
         if (!this.closed) {
             this.closed = true;
             this.currentFrame = null;
+            if (this.codec != null) {
+                this.codec.close();
+            }
         }
     }
 
@@ -214,7 +234,7 @@ class DataFrameOutputStream extends OutputStream {
     private void createNewFrame() {
         Preconditions.checkState(this.currentFrame == null || this.currentFrame.isSealed(), "Cannot create a new frame if we currently have a non-sealed frame.");
 
-        this.currentFrame = new DataFrame(this.getPreviousFrameSequence.get(), this.maxDataFrameSize);
+        this.currentFrame = new DataFrame(this.getPreviousFrameSequence.get(), this.maxFramesInFlight, this.bufferPool.get());
         this.hasDataInCurrentFrame = false;
     }
 
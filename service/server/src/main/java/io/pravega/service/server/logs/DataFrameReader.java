@@ -29,6 +29,8 @@ import io.pravega.service.storage.DurableDataLogException;
 import io.pravega.service.storage.LogAddress;
 import java.io.InputStream;
 import java.io.SequenceInputStream;
+import java.util.ArrayDeque;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
@@ -453,7 +455,11 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
 
         private static final long INITIAL_LAST_READ_FRAME_SEQUENCE = -1;
         private final DurableDataLog log;
+        private final DataFrameCodec codec;
+        private final ArrayDeque<Long> recentFrameSequences;
+        private long firstReadFrameSequence;
         private long lastReadFrameSequence;
+        private int readFrameCount;
         private CloseableIterator<DurableDataLog.ReadItem, DurableDataLogException> reader;
 
         //endregion
@@ -471,6 +477,9 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
             Preconditions.checkNotNull(log, "log");
 
             this.log = log;
+            this.codec = new DataFrameCodec(log.getMaxAppendLength());
+            this.recentFrameSequences = new ArrayDeque<>();
+            this.firstReadFrameSequence = INITIAL_LAST_READ_FRAME_SEQUENCE;
             this.lastReadFrameSequence = INITIAL_LAST_READ_FRAME_SEQUENCE;
             if (this.reader == null) {
                 // We start from the beginning.
@@ -487,6 +496,8 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
             if (this.reader != null) {
                 this.reader.close();
             }
+
+            this.codec.close();
         }
 
         //endregion
@@ -509,7 +520,7 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
 
             DataFrame frame;
             try {
-                frame = new DataFrame(nextItem.getPayload(), nextItem.getLength());
+                frame = new DataFrame(nextItem.getPayload(), nextItem.getLength(), this.codec);
                 frame.setAddress(nextItem.getAddress());
             } catch (SerializationException ex) {
                 throw new DataCorruptionException(String.format("Unable to deserialize DataFrame. LastReadFrameSequence =  %d.", this.lastReadFrameSequence), ex);
@@ -521,15 +532,46 @@ class DataFrameReader<T extends LogItem> implements CloseableIterator<DataFrameR
                 throw new DataCorruptionException(String.format("Found DataFrame out of order. Expected frame sequence greater than %d, found %d.", this.lastReadFrameSequence, sequence));
             }
 
-            if (this.lastReadFrameSequence != INITIAL_LAST_READ_FRAME_SEQUENCE && this.lastReadFrameSequence != frame.getPreviousFrameSequence()) {
-                // Previous Frame Sequence is not match what the Current Frame claims it is.
-                throw new DataCorruptionException(String.format("DataFrame with Sequence %d has a PreviousFrameSequence (%d) that does not match the previous DataFrame FrameSequence (%d).", sequence, frame.getPreviousFrameSequence(), this.lastReadFrameSequence));
+            // When DataFrames are written one at a time, each one must point to the one right before it. When up to N
+            // are written concurrently, a DataFrame may have been started while the previous N were still in flight, so
+            // it may point to any of the previous N + 1 DataFrames. Each DataFrame records how it was written, so this
+            // does not depend on how the log is being written to now.
+            int maxFrameGap = frame.getMaxFramesInFlight() == 1 ? 0 : frame.getMaxFramesInFlight();
+            if (this.lastReadFrameSequence != INITIAL_LAST_READ_FRAME_SEQUENCE && !isValidPreviousFrameSequence(frame.getPreviousFrameSequence(), maxFrameGap)) {
+                // The Previous Frame Sequence is the last Frame that was known to be committed when the Current Frame was
+                // built. This must be one of the last few Frames we read (or the last one, if Frames were not written
+                // concurrently); anything else means we are missing a Frame.
+                throw new DataCorruptionException(String.format("DataFrame with Sequence %d has a PreviousFrameSequence (%d) that does not match any of the previous %d DataFrames (last FrameSequence %d).",
+                        sequence, frame.getPreviousFrameSequence(), maxFrameGap + 1, this.lastReadFrameSequence));
+            }
+
+            this.recentFrameSequences.addLast(sequence);
+            while (this.recentFrameSequences.size() > maxFrameGap + 1) {
+                this.recentFrameSequences.removeFirst();
+            }
+
+            if (this.readFrameCount == 0) {
+                this.firstReadFrameSequence = sequence;
             }
 
+            this.readFrameCount++;
             this.lastReadFrameSequence = sequence;
             return frame;
         }
 
+        private boolean isValidPreviousFrameSequence(long previousFrameSequence, int maxFrameGap) {
+            Iterator<Long> recentFrames = this.recentFrameSequences.descendingIterator();
+            for (int i = 0; i <= maxFrameGap && recentFrames.hasNext(); i++) {
+                if (recentFrames.next() == previousFrameSequence) {
+                    return true;
+                }
+            }
+
+            // If we haven't yet read enough Frames to cover the gap, the Previous Frame may be one that precedes the
+            // first Frame we read (i.e., it has been truncated out of the log).
+            return this.readFrameCount <= maxFrameGap && previousFrameSequence < this.firstReadFrameSequence;
+        }
+
         //endregion
     }
 
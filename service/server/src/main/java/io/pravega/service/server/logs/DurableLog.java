@@ -21,6 +21,7 @@ import io.pravega.common.LoggerHelpers;
 import io.pravega.common.TimeoutTimer;
 import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.common.concurrent.ServiceShutdownListener;
+import io.pravega.common.util.CloseableIterator;
 import io.pravega.common.util.SequencedItemList;
 import io.pravega.service.contracts.ContainerException;
 import io.pravega.service.contracts.StreamSegmentException;
@@ -36,6 +37,7 @@ import io.pravega.service.server.logs.operations.Operation;
 import io.pravega.service.server.logs.operations.OperationFactory;
 import io.pravega.service.server.logs.operations.ProbeOperation;
 import io.pravega.service.storage.DurableDataLog;
+import io.pravega.service.storage.DurableDataLogException;
 import io.pravega.service.storage.DurableDataLogFactory;
 import io.pravega.service.storage.LogAddress;
 import com.google.common.base.Preconditions;
@@ -57,6 +59,7 @@ import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import lombok.extern.slf4j.Slf4j;
+import lombok.val;
 
 /**
  * Represents an OperationLog that durably stores Log Operations it receives.
@@ -111,9 +114,11 @@ public class DurableLog extends AbstractService implements OperationLog {
         this.executor = executor;
         this.operationFactory = new OperationFactory();
         this.inMemoryOperationLog = new SequencedItemList<>();
-        this.memoryStateUpdater = new MemoryStateUpdater(this.inMemoryOperationLog, readIndex, this::triggerTailReads);
+        this.memoryStateUpdater = new MemoryStateUpdater(this.inMemoryOperationLog, readIndex, this::triggerTailReads,
+                this.config.getApplyParallelism(), this.executor);
         MetadataCheckpointPolicy checkpointPolicy = new MetadataCheckpointPolicy(this.config, this::queueMetadataCheckpoint, this.executor);
-        this.operationProcessor = new OperationProcessor(this.metadata, this.memoryStateUpdater, this.durableDataLog, checkpointPolicy, executor);
+        this.operationProcessor = new OperationProcessor(this.metadata, this.memoryStateUpdater, this.durableDataLog, checkpointPolicy,
+                this.config.getMaxDataFramesInFlight(), this.config.isCompressDataFrames(), executor);
         this.operationProcessor.addListener(new ServiceShutdownListener(this::queueStoppedHandler, this::queueFailedHandler), this.executor);
         this.tailReads = new HashSet<>();
         this.closed = new AtomicBoolean();
@@ -360,7 +365,7 @@ public class DurableLog extends AbstractService implements OperationLog {
 
         // Read all entries from the DataFrameLog and append them to the InMemoryOperationLog.
         // Also update metadata along the way.
-        try (DataFrameReader<Operation> reader = new DataFrameReader<>(this.durableDataLog, this.operationFactory, getId())) {
+        try (CloseableIterator<DataFrameReader.ReadResult<Operation>, Exception> reader = createRecoveryReader()) {
             DataFrameReader.ReadResult<Operation> readResult;
 
             // We can only recover starting from a MetadataCheckpointOperation; find the first one.
@@ -401,6 +406,19 @@ public class DurableLog extends AbstractService implements OperationLog {
         return recoveredItemCount > 0;
     }
 
+    /**
+     * Creates a reader for the Operations in the DurableDataLog. If so configured, the returned reader will read and
+     * deserialize Operations in the background, ahead of the ones being recovered.
+     */
+    private CloseableIterator<DataFrameReader.ReadResult<Operation>, Exception> createRecoveryReader() throws DurableDataLogException {
+        val reader = new DataFrameReader<Operation>(this.durableDataLog, this.operationFactory, getId());
+        if (this.config.getRecoveryReadAheadCount() > 0) {
+            return new ReadAheadIterator<>(reader, this.config.getRecoveryReadAheadCount(), this.executor);
+        }
+
+        return reader;
+    }
+
     private void recoverOperation(Operation operation, OperationMetadataUpdater metadataUpdater) throws DataCorruptionException {
         // Update Metadata Sequence Number.
         metadataUpdater.setOperationSequenceNumber(operation.getSequenceNumber());
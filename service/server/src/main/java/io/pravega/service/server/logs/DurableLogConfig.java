@@ -30,6 +30,10 @@ public class DurableLogConfig {
     public static final Property<Integer> CHECKPOINT_MIN_COMMIT_COUNT = Property.named("checkpointMinCommitCount", 300);
     public static final Property<Integer> CHECKPOINT_COMMIT_COUNT = Property.named("checkpointCommitCountThreshold", 300);
     public static final Property<Long> CHECKPOINT_TOTAL_COMMIT_LENGTH = Property.named("checkpointTotalCommitLengthThreshold", 256 * 1024 * 1024L);
+    public static final Property<Integer> MAX_DATA_FRAMES_IN_FLIGHT = Property.named("maxDataFramesInFlight", 1);
+    public static final Property<Integer> APPLY_PARALLELISM = Property.named("applyParallelism", 1);
+    public static final Property<Integer> RECOVERY_READ_AHEAD_COUNT = Property.named("recoveryReadAheadCount", 0);
+    public static final Property<Boolean> COMPRESS_DATA_FRAMES = Property.named("compressDataFrames", false);
     private static final String COMPONENT_CODE = "durablelog";
 
     //endregion
@@ -54,6 +58,38 @@ public class DurableLogConfig {
     @Getter
     private final long checkpointTotalCommitLengthThreshold;
 
+    /**
+     * The maximum number of DataFrames that can be written concurrently to the DurableDataLog. If 1, every DataFrame
+     * is written only after the previous one has been acknowledged. Values greater than 1 require the DurableDataLog to
+     * persist concurrent appends in the order in which they were issued.
+     */
+    @Getter
+    private final int maxDataFramesInFlight;
+
+    /**
+     * The maximum number of threads that may be used to apply the operations committed in a DataFrame to the ReadIndex.
+     * Operations are grouped by StreamSegment, and each group is applied by a single thread. If 1, all operations are
+     * applied on the thread that processes the commit.
+     */
+    @Getter
+    private final int applyParallelism;
+
+    /**
+     * The maximum number of Operations that may be read and deserialized from the DurableDataLog ahead of the one being
+     * recovered. If greater than 0, reading and deserialization are done in the background while recovered Operations
+     * are applied; if 0, everything is done on the recovery thread.
+     */
+    @Getter
+    private final int recoveryReadAheadCount;
+
+    /**
+     * Whether to compress the contents of DataFrames before writing them to the DurableDataLog. DataFrames whose contents
+     * do not compress are written uncompressed. Compressed and uncompressed DataFrames can both be read back regardless
+     * of this setting.
+     */
+    @Getter
+    private final boolean compressDataFrames;
+
     //endregion
 
     //region Constructor
@@ -73,6 +109,25 @@ public class DurableLogConfig {
         }
 
         this.checkpointTotalCommitLengthThreshold = properties.getLong(CHECKPOINT_TOTAL_COMMIT_LENGTH);
+        this.maxDataFramesInFlight = properties.getInt(MAX_DATA_FRAMES_IN_FLIGHT);
+        if (this.maxDataFramesInFlight <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a positive integer.",
+                    MAX_DATA_FRAMES_IN_FLIGHT, this.maxDataFramesInFlight));
+        }
+
+        this.applyParallelism = properties.getInt(APPLY_PARALLELISM);
+        if (this.applyParallelism <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a positive integer.",
+                    APPLY_PARALLELISM, this.applyParallelism));
+        }
+
+        this.recoveryReadAheadCount = properties.getInt(RECOVERY_READ_AHEAD_COUNT);
+        if (this.recoveryReadAheadCount < 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a non-negative integer.",
+                    RECOVERY_READ_AHEAD_COUNT, this.recoveryReadAheadCount));
+        }
+
+        this.compressDataFrames = properties.getBoolean(COMPRESS_DATA_FRAMES);
     }
 
     /**
@@ -16,6 +16,7 @@
 package io.pravega.service.server.logs;
 
 import io.pravega.common.ExceptionHelpers;
+import io.pravega.common.Exceptions;
 import io.pravega.common.util.SequencedItemList;
 import io.pravega.service.server.ContainerMetadata;
 import io.pravega.service.server.DataCorruptionException;
@@ -27,12 +28,28 @@ import io.pravega.service.server.logs.operations.StorageOperation;
 import io.pravega.service.server.logs.operations.StreamSegmentAppendOperation;
 import com.google.common.base.Preconditions;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Helper class that allows appending Log Operations to available InMemory Structures.
+ * <p>
+ * Operations can be processed in batches (usually all the operations committed in the same DataFrame). Within a batch,
+ * StreamSegmentAppendOperations are grouped by StreamSegment and each group is applied to the ReadIndex as a whole; if
+ * configured with an applyParallelism greater than 1, the groups are applied concurrently. The order of operations
+ * within each StreamSegment is always preserved, and all operations are added to the InMemory Operation Log (in order)
+ * only after their data has been added to the ReadIndex.
  */
 @ThreadSafe
 class MemoryStateUpdater {
@@ -41,6 +58,8 @@ class MemoryStateUpdater {
     private final ReadIndex readIndex;
     private final SequencedItemList<Operation> inMemoryOperationLog;
     private final Runnable flushCallback;
+    private final int applyParallelism;
+    private final Executor executor;
     @GuardedBy("readIndex")
     private HashSet<Long> recentStreamSegmentIds;
 
@@ -66,12 +85,30 @@ class MemoryStateUpdater {
      * @param flushCallback        (Optional) A callback to be invoked whenever flush() is invoked.
      */
     MemoryStateUpdater(SequencedItemList<Operation> inMemoryOperationLog, ReadIndex readIndex, Runnable flushCallback) {
+        this(inMemoryOperationLog, readIndex, flushCallback, 1, null);
+    }
+
+    /**
+     * Creates a new instance of the MemoryStateUpdater class.
+     *
+     * @param inMemoryOperationLog InMemory Operation Log.
+     * @param readIndex            The ReadIndex to update.
+     * @param flushCallback        (Optional) A callback to be invoked whenever flush() is invoked.
+     * @param applyParallelism     The maximum number of threads to use when applying a batch of operations to the ReadIndex.
+     * @param executor             An Executor to apply operations on. May be null if applyParallelism is 1.
+     */
+    MemoryStateUpdater(SequencedItemList<Operation> inMemoryOperationLog, ReadIndex readIndex, Runnable flushCallback,
+                       int applyParallelism, Executor executor) {
         Preconditions.checkNotNull(readIndex, "readIndex");
         Preconditions.checkNotNull(inMemoryOperationLog, "inMemoryOperationLog");
+        Exceptions.checkArgument(applyParallelism > 0, "applyParallelism", "Must be a positive integer.");
+        Preconditions.checkArgument(applyParallelism == 1 || executor != null, "executor must be provided if applyParallelism is greater than 1.");
 
         this.inMemoryOperationLog = inMemoryOperationLog;
         this.readIndex = readIndex;
         this.flushCallback = flushCallback;
+        this.applyParallelism = applyParallelism;
+        this.executor = executor;
         this.recentStreamSegmentIds = new HashSet<>();
     }
 
@@ -115,27 +152,48 @@ class MemoryStateUpdater {
         // which always acks items in order of Sequence Number - so the entries should be ordered (but always check).
         if (operation instanceof StorageOperation) {
             addToReadIndex((StorageOperation) operation);
+        }
+
+        addToMemoryOperationLog(operation);
+    }
+
+    /**
+     * Appends the given operations, in order, as a single batch. StreamSegmentAppendOperations are grouped by StreamSegment
+     * before being added to the ReadIndex; all other StorageOperations act as barriers (all the appends that precede them
+     * are added to the ReadIndex before they are). None of the operations are added to the InMemory Operation Log until
+     * all of them have been added to the ReadIndex.
+     *
+     * @param operations An Iterator returning the operations to append.
+     * @throws DataCorruptionException If a serious, non-recoverable, data corruption was detected, such as trying to
+     *                                 append operations out of order. If this happens, some of the operations may
+     *                                 have been added to the ReadIndex, but none of them will have been added to the
+     *                                 InMemory Operation Log.
+     */
+    void process(Iterator<Operation> operations) throws DataCorruptionException {
+        ArrayList<Operation> toAdd = new ArrayList<>();
+        LinkedHashMap<Long, List<StreamSegmentAppendOperation>> appendsBySegment = new LinkedHashMap<>();
+        while (operations.hasNext()) {
+            Operation operation = operations.next();
+            if (!operation.canSerialize()) {
+                continue;
+            }
+
             if (operation instanceof StreamSegmentAppendOperation) {
-                // Transform a StreamSegmentAppendOperation into its corresponding Cached version.
-                try {
-                    operation = new CachedStreamSegmentAppendOperation((StreamSegmentAppendOperation) operation);
-                } catch (Throwable ex) {
-                    if (ExceptionHelpers.mustRethrow(ex)) {
-                        throw ex;
-                    } else {
-                        throw new DataCorruptionException(String.format("Unable to create a CachedStreamSegmentAppendOperation from operation '%s'.", operation), ex);
-                    }
-                }
+                StreamSegmentAppendOperation append = (StreamSegmentAppendOperation) operation;
+                appendsBySegment.computeIfAbsent(append.getStreamSegmentId(), id -> new ArrayList<>()).add(append);
+            } else if (operation instanceof StorageOperation) {
+                // Merges, Seals, etc. may depend on the appends that precede them, so apply those first.
+                applyAppends(appendsBySegment.values());
+                appendsBySegment.clear();
+                addToReadIndex((StorageOperation) operation);
             }
+
+            toAdd.add(operation);
         }
 
-        boolean added = this.inMemoryOperationLog.add(operation);
-        if (!added) {
-            // This is a pretty nasty one. It's safer to shut down the container than continue.
-            // We either recorded the Operation correctly, but invoked this callback out of order, or we really
-            // recorded the Operation in the wrong order (by sequence number). In either case, we will be inconsistent
-            // while serving reads, so better stop now than later.
-            throw new DataCorruptionException("About to have added a Log Operation to InMemoryOperationLog that was out of order.");
+        applyAppends(appendsBySegment.values());
+        for (Operation operation : toAdd) {
+            addToMemoryOperationLog(operation);
         }
     }
 
@@ -156,6 +214,90 @@ class MemoryStateUpdater {
         }
     }
 
+    /**
+     * Adds the given groups of StreamSegmentAppendOperations to the ReadIndex. Each group is added in order by a single
+     * thread. If there is more than one group and applyParallelism allows it, groups are applied concurrently: the current
+     * thread applies groups alongside up to (applyParallelism - 1) tasks on the executor, and only waits for the groups
+     * that other threads have already started applying, so this can never block waiting for an executor thread.
+     *
+     * @param groups The groups of operations to apply.
+     * @throws DataCorruptionException If any of the operations could not be applied.
+     */
+    private void applyAppends(Collection<List<StreamSegmentAppendOperation>> groups) throws DataCorruptionException {
+        if (groups.isEmpty()) {
+            return;
+        }
+
+        ConcurrentLinkedQueue<List<StreamSegmentAppendOperation>> pending = new ConcurrentLinkedQueue<>(groups);
+        CountDownLatch remaining = new CountDownLatch(groups.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Runnable worker = () -> {
+            List<StreamSegmentAppendOperation> group;
+            while ((group = pending.poll()) != null) {
+                try {
+                    group.forEach(this::addToReadIndex);
+                } catch (Throwable ex) {
+                    failure.compareAndSet(null, ex);
+                } finally {
+                    remaining.countDown();
+                }
+            }
+        };
+
+        int helperCount = Math.min(groups.size(), this.applyParallelism) - 1;
+        try {
+            for (int i = 0; i < helperCount; i++) {
+                this.executor.execute(worker);
+            }
+        } catch (RejectedExecutionException ex) {
+            // Nothing to do; whatever was not picked up by other threads will be applied by this one.
+        }
+
+        worker.run();
+        Exceptions.handleInterrupted(remaining::await);
+
+        // Surface the failure the same way as if the operations had been applied on this thread.
+        Throwable ex = failure.get();
+        if (ex instanceof RuntimeException) {
+            throw (RuntimeException) ex;
+        } else if (ex instanceof Error) {
+            throw (Error) ex;
+        } else if (ex != null) {
+            throw new DataCorruptionException("Unable to add StreamSegmentAppendOperations to the ReadIndex.", ex);
+        }
+    }
+
+    /**
+     * Adds the given operation to the InMemory Operation Log. StreamSegmentAppendOperations are transformed into their
+     * corresponding CachedStreamSegmentAppendOperations.
+     *
+     * @param operation The operation to add.
+     * @throws DataCorruptionException If the operation could not be transformed or added.
+     */
+    private void addToMemoryOperationLog(Operation operation) throws DataCorruptionException {
+        if (operation instanceof StreamSegmentAppendOperation) {
+            // Transform a StreamSegmentAppendOperation into its corresponding Cached version.
+            try {
+                operation = new CachedStreamSegmentAppendOperation((StreamSegmentAppendOperation) operation);
+            } catch (Throwable ex) {
+                if (ExceptionHelpers.mustRethrow(ex)) {
+                    throw ex;
+                } else {
+                    throw new DataCorruptionException(String.format("Unable to create a CachedStreamSegmentAppendOperation from operation '%s'.", operation), ex);
+                }
+            }
+        }
+
+        boolean added = this.inMemoryOperationLog.add(operation);
+        if (!added) {
+            // This is a pretty nasty one. It's safer to shut down the container than continue.
+            // We either recorded the Operation correctly, but invoked this callback out of order, or we really
+            // recorded the Operation in the wrong order (by sequence number). In either case, we will be inconsistent
+            // while serving reads, so better stop now than later.
+            throw new DataCorruptionException("About to have added a Log Operation to InMemoryOperationLog that was out of order.");
+        }
+    }
+
     /**
      * Registers the given operation in the ReadIndex.
      *
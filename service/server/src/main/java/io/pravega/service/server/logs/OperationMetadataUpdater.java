@@ -51,6 +51,7 @@ import com.google.common.base.Preconditions;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -63,6 +64,7 @@ import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import javax.annotation.concurrent.GuardedBy;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -75,9 +77,17 @@ import lombok.val;
 class OperationMetadataUpdater implements ContainerMetadata {
     //region Members
 
+    /**
+     * Transaction Id returned by sealTransaction() if no transaction was ever created.
+     */
+    static final long NO_TRANSACTION_ID = -1;
     private final String traceObjectId;
     private final UpdateableContainerMetadata metadata;
-    private UpdateTransaction currentTransaction;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final ArrayDeque<UpdateTransaction> transactions;
+    @GuardedBy("lock")
+    private long lastTransactionId;
 
     //endregion
 
@@ -94,7 +104,8 @@ class OperationMetadataUpdater implements ContainerMetadata {
 
         this.traceObjectId = String.format("OperationMetadataUpdater[%d]", metadata.getContainerId());
         this.metadata = metadata;
-        this.currentTransaction = null;
+        this.transactions = new ArrayDeque<>();
+        this.lastTransactionId = NO_TRANSACTION_ID;
     }
 
     //endregion
@@ -103,27 +114,31 @@ class OperationMetadataUpdater implements ContainerMetadata {
 
     @Override
     public SegmentMetadata getStreamSegmentMetadata(long streamSegmentId) {
-        UpdateTransaction transaction = this.currentTransaction;
-        if (transaction == null) {
-            return null;
-        }
+        synchronized (this.lock) {
+            UpdateTransaction transaction = this.transactions.peekLast();
+            if (transaction == null) {
+                return null;
+            }
 
-        try {
-            return transaction.getStreamSegmentMetadata(streamSegmentId);
-        } catch (MetadataUpdateException ex) {
-            return null;
+            try {
+                return transaction.getStreamSegmentMetadata(streamSegmentId);
+            } catch (MetadataUpdateException ex) {
+                return null;
+            }
         }
     }
 
     @Override
     public long getStreamSegmentId(String streamSegmentName, boolean updateLastUsed) {
         // We ignore the 'updateLastUsed' argument here since this is an internal call, and there is no need to update the metadata stats.
-        UpdateTransaction transaction = this.currentTransaction;
-        if (transaction == null) {
-            return ContainerMetadata.NO_STREAM_SEGMENT_ID;
-        }
+        synchronized (this.lock) {
+            UpdateTransaction transaction = this.transactions.peekLast();
+            if (transaction == null) {
+                return ContainerMetadata.NO_STREAM_SEGMENT_ID;
+            }
 
-        return transaction.getExistingStreamSegmentId(streamSegmentName);
+            return transaction.getExistingStreamSegmentId(streamSegmentName);
+        }
     }
 
     @Override
@@ -151,27 +166,72 @@ class OperationMetadataUpdater implements ContainerMetadata {
     //region Processing
 
     /**
-     * Commits all outstanding changes to the base Container Metadata.
+     * Seals the currently active UpdateTransaction (if any). No more changes can be made to a sealed UpdateTransaction;
+     * all subsequent changes will be recorded in a new UpdateTransaction which is layered on top of it. Sealed
+     * UpdateTransactions can be committed (in order) using commit(long).
+     *
+     * @return The Id of the UpdateTransaction that was sealed. If there was no active UpdateTransaction, this returns the
+     * Id of the last UpdateTransaction that was created (or NO_TRANSACTION_ID if none).
+     */
+    long sealTransaction() {
+        synchronized (this.lock) {
+            UpdateTransaction transaction = this.transactions.peekLast();
+            if (transaction != null && !transaction.isSealed()) {
+                transaction.seal();
+                log.trace("{}: SealTransaction {}.", this.traceObjectId, transaction.getTransactionId());
+            }
+
+            return this.lastTransactionId;
+        }
+    }
+
+    /**
+     * Commits all outstanding changes to the base Container Metadata, including those in the active UpdateTransaction.
      *
      * @return True if anything was committed, false otherwise.
      */
     boolean commit() {
-        log.trace("{}: Commit (Anything = {}).", this.traceObjectId, this.currentTransaction != null);
-        if (this.currentTransaction == null) {
-            return false;
+        synchronized (this.lock) {
+            return commit(sealTransaction());
         }
+    }
 
-        this.currentTransaction.commit();
-        this.currentTransaction = null;
-        return true;
+    /**
+     * Commits all sealed UpdateTransactions with Ids up to, and including, the given one to the base Container Metadata.
+     * UpdateTransactions are always committed in the order in which they were created.
+     *
+     * @param upToTransactionId The Id of the last UpdateTransaction to commit.
+     * @return True if anything was committed, false otherwise.
+     */
+    boolean commit(long upToTransactionId) {
+        synchronized (this.lock) {
+            log.trace("{}: Commit (UpToTransactionId = {}, Outstanding = {}).", this.traceObjectId, upToTransactionId, this.transactions.size());
+            boolean anyCommitted = false;
+            while (!this.transactions.isEmpty()
+                    && this.transactions.peekFirst().isSealed()
+                    && this.transactions.peekFirst().getTransactionId() <= upToTransactionId) {
+                this.transactions.removeFirst().commit();
+                anyCommitted = true;
+            }
+
+            if (anyCommitted && !this.transactions.isEmpty()) {
+                // The base Container Metadata now reflects all the changes from the UpdateTransactions that we just
+                // committed, so the next one in line can read straight from it.
+                this.transactions.peekFirst().detachFromPreviousTransaction();
+            }
+
+            return anyCommitted;
+        }
     }
 
     /**
-     * Discards any outstanding changes.
+     * Discards all outstanding changes, whether in sealed UpdateTransactions or in the active one.
      */
     void rollback() {
-        log.trace("{}: Rollback (Anything = {}).", this.traceObjectId, this.currentTransaction != null);
-        this.currentTransaction = null;
+        synchronized (this.lock) {
+            log.trace("{}: Rollback (Outstanding = {}).", this.traceObjectId, this.transactions.size());
+            this.transactions.clear();
+        }
     }
 
     /**
@@ -182,7 +242,9 @@ class OperationMetadataUpdater implements ContainerMetadata {
      */
     void recordTruncationMarker(long operationSequenceNumber, LogAddress logAddress) {
         log.debug("{}: RecordTruncationMarker OperationSequenceNumber = {}, DataFrameAddress = {}.", this.traceObjectId, operationSequenceNumber, logAddress);
-        getCurrentTransaction().recordTruncationMarker(operationSequenceNumber, logAddress);
+        synchronized (this.lock) {
+            getCurrentTransaction().recordTruncationMarker(operationSequenceNumber, logAddress);
+        }
     }
 
     /**
@@ -198,7 +260,9 @@ class OperationMetadataUpdater implements ContainerMetadata {
      */
     void setOperationSequenceNumber(long value) {
         Preconditions.checkState(this.isRecoveryMode(), "Can only set new Operation Sequence Number in Recovery Mode.");
-        getCurrentTransaction().setOperationSequenceNumber(value);
+        synchronized (this.lock) {
+            getCurrentTransaction().setOperationSequenceNumber(value);
+        }
     }
 
     /**
@@ -224,7 +288,9 @@ class OperationMetadataUpdater implements ContainerMetadata {
      */
     void preProcessOperation(Operation operation) throws ContainerException, StreamSegmentException {
         log.trace("{}: PreProcess {}.", this.traceObjectId, operation);
-        getCurrentTransaction().preProcessOperation(operation);
+        synchronized (this.lock) {
+            getCurrentTransaction().preProcessOperation(operation);
+        }
     }
 
     /**
@@ -239,15 +305,22 @@ class OperationMetadataUpdater implements ContainerMetadata {
      */
     void acceptOperation(Operation operation) throws MetadataUpdateException {
         log.trace("{}: Accept {}.", this.traceObjectId, operation);
-        getCurrentTransaction().acceptOperation(operation);
+        synchronized (this.lock) {
+            getCurrentTransaction().acceptOperation(operation);
+        }
     }
 
+    @GuardedBy("lock")
     private UpdateTransaction getCurrentTransaction() {
-        if (this.currentTransaction == null) {
-            this.currentTransaction = new UpdateTransaction(this.metadata, this.traceObjectId);
+        UpdateTransaction transaction = this.transactions.peekLast();
+        if (transaction == null || transaction.isSealed()) {
+            // Either we have no transaction, or the last one is sealed. In both cases, start a new one on top of it.
+            this.lastTransactionId++;
+            transaction = new UpdateTransaction(this.metadata, transaction, this.lastTransactionId, this.traceObjectId);
+            this.transactions.addLast(transaction);
         }
 
-        return this.currentTransaction;
+        return transaction;
     }
 
     //endregion
@@ -267,16 +340,26 @@ class OperationMetadataUpdater implements ContainerMetadata {
         private final UpdateableContainerMetadata containerMetadata;
         private final AtomicLong newSequenceNumber;
         private final String traceObjectId;
+        private final long transactionId;
+        private UpdateTransaction previousTransaction;
         private boolean processedCheckpoint;
+        private boolean sealed;
 
         /**
          * Creates a new instance of the UpdateTransaction class.
          *
-         * @param containerMetadata The base Container Metadata.
+         * @param containerMetadata   The base Container Metadata.
+         * @param previousTransaction The sealed, but not yet committed, UpdateTransaction that this one is layered on top
+         *                            of. Null if none.
+         * @param transactionId       The Id of this UpdateTransaction.
+         * @param traceObjectId       An identifier to use for logging purposes.
          */
-        UpdateTransaction(UpdateableContainerMetadata containerMetadata, String traceObjectId) {
+        UpdateTransaction(UpdateableContainerMetadata containerMetadata, UpdateTransaction previousTransaction, long transactionId, String traceObjectId) {
             assert containerMetadata != null : "containerMetadata is null";
+            assert previousTransaction == null || previousTransaction.isSealed() : "previousTransaction is not sealed";
             this.traceObjectId = traceObjectId;
+            this.previousTransaction = previousTransaction;
+            this.transactionId = transactionId;
             this.streamSegmentUpdates = new HashMap<>();
             this.containerMetadata = containerMetadata;
             this.newTruncationMarkers = new HashMap<>();
@@ -290,6 +373,35 @@ class OperationMetadataUpdater implements ContainerMetadata {
             }
         }
 
+        /**
+         * Gets the Id of this UpdateTransaction.
+         */
+        long getTransactionId() {
+            return this.transactionId;
+        }
+
+        /**
+         * Gets a value indicating whether this UpdateTransaction is sealed (no more changes can be made to it).
+         */
+        boolean isSealed() {
+            return this.sealed;
+        }
+
+        /**
+         * Seals this UpdateTransaction. No more changes can be made to it after this.
+         */
+        void seal() {
+            this.sealed = true;
+        }
+
+        /**
+         * Indicates that the previous UpdateTransaction has been committed to the base Container Metadata, so there is
+         * no need to consult it anymore.
+         */
+        void detachFromPreviousTransaction() {
+            this.previousTransaction = null;
+        }
+
         /**
          * Commits all pending changes to the base Container Metadata.
          */
@@ -333,23 +445,45 @@ class OperationMetadataUpdater implements ContainerMetadata {
         TemporaryStreamSegmentMetadata getStreamSegmentMetadata(long streamSegmentId) throws MetadataUpdateException {
             TemporaryStreamSegmentMetadata tsm = this.streamSegmentUpdates.getOrDefault(streamSegmentId, null);
             if (tsm == null) {
-                UpdateableSegmentMetadata streamSegmentMetadata = this.containerMetadata.getStreamSegmentMetadata(streamSegmentId);
-                if (streamSegmentMetadata == null) {
-                    streamSegmentMetadata = this.newStreamSegments.getOrDefault(streamSegmentId, null);
-
+                // If any of the uncommitted transactions below us has pending changes for this segment, we need to
+                // continue from where they left off.
+                TemporaryStreamSegmentMetadata previousTsm = this.previousTransaction == null
+                        ? null
+                        : this.previousTransaction.findStreamSegmentUpdate(streamSegmentId);
+                if (previousTsm != null) {
+                    tsm = new TemporaryStreamSegmentMetadata(previousTsm);
+                } else {
+                    UpdateableSegmentMetadata streamSegmentMetadata = getExistingMetadata(streamSegmentId);
                     if (streamSegmentMetadata == null) {
                         throw new MetadataUpdateException(this.containerMetadata.getContainerId(),
                                 String.format("No metadata entry exists for StreamSegment Id %d.", streamSegmentId));
                     }
+
+                    tsm = new TemporaryStreamSegmentMetadata(streamSegmentMetadata, this.containerMetadata.isRecoveryMode());
                 }
 
-                tsm = new TemporaryStreamSegmentMetadata(streamSegmentMetadata, this.containerMetadata.isRecoveryMode());
                 this.streamSegmentUpdates.put(streamSegmentId, tsm);
             }
 
             return tsm;
         }
 
+        /**
+         * Finds the most recent pending changes for the given StreamSegment, either in this UpdateTransaction or in any of
+         * the uncommitted ones below it.
+         *
+         * @param streamSegmentId The Id of the Segment to query.
+         * @return The pending changes, or null if there are none.
+         */
+        private TemporaryStreamSegmentMetadata findStreamSegmentUpdate(long streamSegmentId) {
+            TemporaryStreamSegmentMetadata tsm = this.streamSegmentUpdates.getOrDefault(streamSegmentId, null);
+            if (tsm == null && this.previousTransaction != null) {
+                tsm = this.previousTransaction.findStreamSegmentUpdate(streamSegmentId);
+            }
+
+            return tsm;
+        }
+
         /**
          * Records the given Truncation Marker Mapping.
          *
@@ -469,7 +603,7 @@ class OperationMetadataUpdater implements ContainerMetadata {
             }
 
             if (!this.containerMetadata.isRecoveryMode()) {
-                if (this.containerMetadata.getActiveSegmentCount() + this.newStreamSegments.size() >= this.containerMetadata.getMaximumActiveSegmentCount()) {
+                if (this.containerMetadata.getActiveSegmentCount() + getNewStreamSegmentCount() >= this.containerMetadata.getMaximumActiveSegmentCount()) {
                     throw new TooManyActiveSegmentsException(this.containerMetadata.getContainerId(), this.containerMetadata.getMaximumActiveSegmentCount());
                 }
 
@@ -500,7 +634,7 @@ class OperationMetadataUpdater implements ContainerMetadata {
             }
 
             if (!this.containerMetadata.isRecoveryMode()) {
-                if (this.containerMetadata.getActiveSegmentCount() + this.newStreamSegments.size() >= this.containerMetadata.getMaximumActiveSegmentCount()) {
+                if (this.containerMetadata.getActiveSegmentCount() + getNewStreamSegmentCount() >= this.containerMetadata.getMaximumActiveSegmentCount()) {
                     throw new TooManyActiveSegmentsException(this.containerMetadata.getContainerId(), this.containerMetadata.getMaximumActiveSegmentCount());
                 }
 
@@ -589,8 +723,10 @@ class OperationMetadataUpdater implements ContainerMetadata {
 
         private long getExistingStreamSegmentId(String streamSegmentName) {
             long existingSegmentId = this.containerMetadata.getStreamSegmentId(streamSegmentName, false);
-            if (existingSegmentId == ContainerMetadata.NO_STREAM_SEGMENT_ID) {
-                existingSegmentId = this.newStreamSegmentNames.getOrDefault(streamSegmentName, ContainerMetadata.NO_STREAM_SEGMENT_ID);
+            UpdateTransaction transaction = this;
+            while (existingSegmentId == ContainerMetadata.NO_STREAM_SEGMENT_ID && transaction != null) {
+                existingSegmentId = transaction.newStreamSegmentNames.getOrDefault(streamSegmentName, ContainerMetadata.NO_STREAM_SEGMENT_ID);
+                transaction = transaction.previousTransaction;
             }
 
             return existingSegmentId;
@@ -601,7 +737,7 @@ class OperationMetadataUpdater implements ContainerMetadata {
             // It can be safely used as a new unique Segment Id. If any clashes occur, just keep searching up until we find
             // a non-used one.
             long streamSegmentId = Math.max(this.containerMetadata.getOperationSequenceNumber(), ContainerMetadata.NO_STREAM_SEGMENT_ID + 1);
-            while (this.newStreamSegments.containsKey(streamSegmentId) || this.containerMetadata.getStreamSegmentMetadata(streamSegmentId) != null) {
+            while (getExistingMetadata(streamSegmentId) != null) {
                 streamSegmentId++;
             }
 
@@ -610,13 +746,26 @@ class OperationMetadataUpdater implements ContainerMetadata {
 
         private UpdateableSegmentMetadata getExistingMetadata(long streamSegmentId) {
             UpdateableSegmentMetadata sm = this.containerMetadata.getStreamSegmentMetadata(streamSegmentId);
-            if (sm == null) {
-                sm = this.newStreamSegments.getOrDefault(streamSegmentId, null);
+            UpdateTransaction transaction = this;
+            while (sm == null && transaction != null) {
+                sm = transaction.newStreamSegments.getOrDefault(streamSegmentId, null);
+                transaction = transaction.previousTransaction;
             }
 
             return sm;
         }
 
+        private int getNewStreamSegmentCount() {
+            int count = 0;
+            UpdateTransaction transaction = this;
+            while (transaction != null) {
+                count += transaction.newStreamSegments.size();
+                transaction = transaction.previousTransaction;
+            }
+
+            return count;
+        }
+
         private UpdateableSegmentMetadata recordNewStreamSegment(String streamSegmentName, long streamSegmentId, long parentId) {
             UpdateableSegmentMetadata metadata;
             if (parentId == ContainerMetadata.NO_STREAM_SEGMENT_ID) {
@@ -699,6 +848,7 @@ class OperationMetadataUpdater implements ContainerMetadata {
         private void serializeTo(MetadataCheckpointOperation operation) throws IOException {
             assert operation != null : "operation is null";
             Preconditions.checkState(!this.containerMetadata.isRecoveryMode(), "Cannot serialize Metadata in recovery mode.");
+            Preconditions.checkState(this.previousTransaction == null, "Cannot serialize Metadata while there are uncommitted sealed transactions.");
 
             EnhancedByteArrayOutputStream byteStream = new EnhancedByteArrayOutputStream();
             GZIPOutputStream zipStream = new GZIPOutputStream(byteStream);
@@ -849,6 +999,27 @@ class OperationMetadataUpdater implements ContainerMetadata {
             this.lastUsed = -1;
         }
 
+        /**
+         * Creates a new instance of the TemporaryStreamSegmentMetadata class which continues from the pending changes
+         * of another one (that belongs to an uncommitted UpdateTransaction).
+         *
+         * @param previous The TemporaryStreamSegmentMetadata to continue from.
+         */
+        TemporaryStreamSegmentMetadata(TemporaryStreamSegmentMetadata previous) {
+            assert previous != null : "previous is null";
+            this.baseMetadata = previous.baseMetadata;
+            this.isRecoveryMode = previous.isRecoveryMode;
+            this.currentDurableLogLength = previous.currentDurableLogLength;
+            this.sealed = previous.sealed;
+            this.merged = previous.merged;
+            this.deleted = previous.deleted;
+
+            // We need to carry over the attribute updates as well, since they have not yet made it into the base metadata.
+            // Re-applying them upon commit is harmless, since they will already have these values by then.
+            this.updatedAttributeValues = new HashMap<>(previous.updatedAttributeValues);
+            this.lastUsed = previous.lastUsed;
+        }
+
         //endregion
 
         //region StreamProperties Implementation
@@ -25,24 +25,30 @@ import io.pravega.service.server.DataCorruptionException;
 import io.pravega.service.server.IllegalContainerStateException;
 import io.pravega.service.server.UpdateableContainerMetadata;
 import io.pravega.service.server.logs.operations.CompletableOperation;
+import io.pravega.service.server.logs.operations.MetadataCheckpointOperation;
 import io.pravega.service.server.logs.operations.Operation;
 import io.pravega.service.storage.DurableDataLog;
 import com.google.common.base.Preconditions;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.Queue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.function.Predicate;
+import javax.annotation.concurrent.GuardedBy;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * Single-thread Processor for Operations. Queues all incoming entries in a BlockingDrainingQueue, then picks them all
- * at once, generates DataFrames from them and commits them to the DataFrameLog, one by one, in sequence.
+ * at once, generates DataFrames from them and commits them to the DataFrameLog, in sequence.
+ * <p>
+ * Depending on configuration, multiple DataFrames may be in flight to the DataFrameLog at any given time. Regardless of
+ * that, Operations are always acknowledged (and their effects applied to the Metadata and in-memory structures) strictly
+ * in the order of their Sequence Numbers.
  */
 @Slf4j
 class OperationProcessor extends AbstractThreadPoolService implements Container {
@@ -51,18 +57,23 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
     private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
     private static final int MAX_READ_AT_ONCE = 1000;
 
+    private final UpdateableContainerMetadata metadata;
     private final OperationMetadataUpdater metadataUpdater;
     private final MemoryStateUpdater stateUpdater;
     private final DurableDataLog durableDataLog;
     private final BlockingDrainingQueue<CompletableOperation> operationQueue;
     private final MetadataCheckpointPolicy checkpointPolicy;
+    private final int maxDataFramesInFlight;
+    private final boolean compressDataFrames;
+    private QueueProcessingState state;
+    private DataFrameBuilder<Operation> dataFrameBuilder;
 
     //endregion
 
     //region Constructor
 
     /**
-     * Creates a new instance of the OperationProcessor class.
+     * Creates a new instance of the OperationProcessor class, which writes one DataFrame at a time to the DataFrameLog.
      *
      * @param metadata         The ContainerMetadata for the Container to process operations for.
      * @param stateUpdater     A MemoryStateUpdater that is used to update in-memory structures upon successful Operation committal.
@@ -72,17 +83,39 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
      * @throws NullPointerException If any of the arguments are null.
      */
     OperationProcessor(UpdateableContainerMetadata metadata, MemoryStateUpdater stateUpdater, DurableDataLog durableDataLog, MetadataCheckpointPolicy checkpointPolicy, ScheduledExecutorService executor) {
+        this(metadata, stateUpdater, durableDataLog, checkpointPolicy, 1, false, executor);
+    }
+
+    /**
+     * Creates a new instance of the OperationProcessor class.
+     *
+     * @param metadata              The ContainerMetadata for the Container to process operations for.
+     * @param stateUpdater          A MemoryStateUpdater that is used to update in-memory structures upon successful Operation committal.
+     * @param durableDataLog        The DataFrameLog to write DataFrames to.
+     * @param checkpointPolicy      The Checkpoint Policy for Metadata.
+     * @param maxDataFramesInFlight The maximum number of DataFrames that can be written concurrently to the DataFrameLog.
+     * @param compressDataFrames    Whether to compress the contents of DataFrames before writing them to the DataFrameLog.
+     * @param executor              An Executor to use for async operations.
+     * @throws NullPointerException     If any of the arguments are null.
+     * @throws IllegalArgumentException If maxDataFramesInFlight is not a positive integer.
+     */
+    OperationProcessor(UpdateableContainerMetadata metadata, MemoryStateUpdater stateUpdater, DurableDataLog durableDataLog, MetadataCheckpointPolicy checkpointPolicy,
+                       int maxDataFramesInFlight, boolean compressDataFrames, ScheduledExecutorService executor) {
         super(String.format("OperationProcessor[%d]", metadata.getContainerId()), executor);
 
         // No need to check metadata or executor != null as the super() call above takes care of that.
         Preconditions.checkNotNull(stateUpdater, "stateUpdater");
         Preconditions.checkNotNull(durableDataLog, "durableDataLog");
         Preconditions.checkNotNull(checkpointPolicy, "checkpointPolicy");
+        Preconditions.checkArgument(maxDataFramesInFlight > 0, "maxDataFramesInFlight must be a positive integer.");
 
+        this.metadata = metadata;
         this.metadataUpdater = new OperationMetadataUpdater(metadata);
         this.stateUpdater = stateUpdater;
         this.durableDataLog = durableDataLog;
         this.checkpointPolicy = checkpointPolicy;
+        this.maxDataFramesInFlight = maxDataFramesInFlight;
+        this.compressDataFrames = compressDataFrames;
         this.operationQueue = new BlockingDrainingQueue<>();
     }
 
@@ -171,9 +204,11 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
      * Steps:
      * <ol>
      * <li> Picks the next items from the queue
-     * <li> Creates a DataFrameBuilder and starts appending items to it.
+     * <li> Appends them to the DataFrameBuilder (creating one, if needed).
      * <li> As the DataFrameBuilder acknowledges DataFrames being published, acknowledge the corresponding Operations as well.
      * <li> If at the end, the Queue still has items to process, processes those as well.
+     * <li> Publishes whatever DataFrame is left at the end. If multiple DataFrames may be in flight, this does not
+     * wait for it to be committed; the next iteration can proceed in parallel with it.
      * </ol>
      *
      * @param operations The initial set of operations to process (in order). Multiple operations may be processed eventually
@@ -181,11 +216,15 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
      */
     private void processOperations(Queue<CompletableOperation> operations) {
         log.debug("{}: processOperations (OperationCount = {}).", this.traceObjectId, operations.size());
+        if (this.dataFrameBuilder == null) {
+            // Create a new State and Builder (we need this either initially or after recovery from an error).
+            this.state = new QueueProcessingState(this.metadata, this.metadataUpdater, this.stateUpdater, this.checkpointPolicy, this.traceObjectId);
+            this.dataFrameBuilder = new DataFrameBuilder<>(this.durableDataLog, this.maxDataFramesInFlight, this.compressDataFrames, this.state::beforeCommit,
+                    this.state::commit, this.state::fail);
+        }
 
-        // Create a new State and Builder (we need this either initially or after recovery from an error).
-        final QueueProcessingState state = new QueueProcessingState(this.metadataUpdater, this.stateUpdater, this.checkpointPolicy, this.traceObjectId);
-        final DataFrameBuilder<Operation> dataFrameBuilder = new DataFrameBuilder<>(this.durableDataLog, state::commit, state::fail);
-
+        final QueueProcessingState state = this.state;
+        final DataFrameBuilder<Operation> dataFrameBuilder = this.dataFrameBuilder;
         try {
             // Process the operations in the queue. This loop will ensure we continue processing after a recoverable failure,
             // as well as after we processed the entire collection, but found more items in need of processing.
@@ -201,16 +240,21 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
                 }
             }
 
-            // Close the DataFrameBuilder, which makes sure that the last set of operations are properly flushed and
-            // completed.
-            dataFrameBuilder.close();
-            if (state.hasPending()) {
-                // Usually we reach this state if the only operation we had as a ProbeOperation (i.e. non-serializable),
-                // which wouldn't have triggered a state.commit on its own.
-                completeNonSerializableOperations(state);
-            }
+            // Publish the last DataFrame, which makes sure that the last set of operations are properly flushed and
+            // completed (when running with a single DataFrame in flight, this also waits for it to be committed).
+            dataFrameBuilder.flush();
+
+            // Usually we have pending items at this point if the only operations we had were ProbeOperations (i.e.
+            // non-serializable), which wouldn't have triggered a state.commit on their own.
+            state.completeNonSerializableOperations();
+            checkCommitFailure(state, dataFrameBuilder);
         } catch (Throwable ex) {
-            handleIterationException(ex, state, operations);
+            try {
+                handleIterationException(ex, state, operations);
+            } finally {
+                // Start over with a fresh State and Builder.
+                closeDataFrameBuilder();
+            }
         }
     }
 
@@ -264,6 +308,13 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
         }
 
         try {
+            if (entry instanceof MetadataCheckpointOperation && this.maxDataFramesInFlight > 1) {
+                // A Metadata Checkpoint captures the committed state of the Metadata along with whatever changes are not
+                // yet committed. We can only do that if there are no other DataFrames in flight, so wait for them first.
+                dataFrameBuilder.flush();
+                dataFrameBuilder.awaitInFlightFrames();
+            }
+
             // Update Metadata and Operations with any missing data (offsets, lengths, etc) - the Metadata Updater has all the knowledge for that task.
             this.metadataUpdater.preProcessOperation(entry);
 
@@ -289,21 +340,32 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
     }
 
     /**
-     * Completes all operations in the given state that are non-serializable (if any are left).
+     * Checks whether any of the DataFrames that were published asynchronously by the given DataFrameBuilder failed to
+     * commit. If multiple DataFrames were in flight, a failed DataFrame may be followed by others that have already been
+     * written to the DataFrameLog, so the only safe course of action is to shut down and let recovery reconstruct the
+     * state from the DataFrameLog.
      */
-    private void completeNonSerializableOperations(QueueProcessingState state) {
-        state.forEachPending(op -> {
-            boolean canComplete = !op.getOperation().canSerialize();
-            if (canComplete) {
-                op.complete();
-            }
-
-            return canComplete;
-        });
+    @SneakyThrows(Throwable.class)
+    private void checkCommitFailure(QueueProcessingState state, DataFrameBuilder<Operation> dataFrameBuilder) {
+        Throwable commitFailure = dataFrameBuilder.getCommitFailure();
+        if (commitFailure != null) {
+            // Fail anything that may have been added to the state after the failure was reported.
+            state.fail(commitFailure);
+            throw commitFailure;
+        }
+    }
 
-        // We need to ensure that the only possible pending operations are those that are non-serializable; otherwise
-        // we have a problem.
-        assert !state.hasPending() : "QueueProcessingState still has pending items after closing the DataFrameBuilder.";
+    /**
+     * Closes the current DataFrameBuilder (if any), waiting for all of its DataFrames in flight to complete.
+     */
+    private void closeDataFrameBuilder() {
+        DataFrameBuilder<Operation> dataFrameBuilder = this.dataFrameBuilder;
+        this.dataFrameBuilder = null;
+        this.state = null;
+        if (dataFrameBuilder != null) {
+            dataFrameBuilder.reset();
+            dataFrameBuilder.awaitInFlightFrames();
+        }
     }
 
     /**
@@ -341,7 +403,7 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
         log.warn("{}: Cancelling {} operations with exception: {}.", this.traceObjectId, cancelCount, failException.toString());
     }
 
-    @SneakyThrows(DataCorruptionException.class)
+    @SneakyThrows(Throwable.class)
     private void handleIterationException(Throwable ex, QueueProcessingState state, Collection<CompletableOperation> operations) {
         // Fail the current set of operations with the caught exception.
         Throwable realCause = ExceptionHelpers.getRealException(ex);
@@ -354,6 +416,11 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
             // But first, fail any Operations that we did not have a chance to process yet.
             cancelIncompleteOperations(operations, realCause);
             throw (DataCorruptionException) realCause;
+        } else if (this.dataFrameBuilder != null && this.dataFrameBuilder.getCommitFailure() != null) {
+            // A DataFrame that was published asynchronously failed to commit. See checkCommitFailure() for why we
+            // cannot continue.
+            cancelIncompleteOperations(operations, realCause);
+            throw realCause;
         }
     }
 
@@ -363,22 +430,30 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
 
     /**
      * Temporary State for the QueueProcessor. Keeps track of pending Operations and allows committing or failing all of them.
+     * Commits may be invoked from a different thread than the one adding pending Operations, so all access is synchronized.
      */
     @Slf4j
     private static class QueueProcessingState {
         private final String traceObjectId;
+        @GuardedBy("this")
         private final Queue<CompletableOperation> pendingOperations;
+        private final UpdateableContainerMetadata metadata;
         private final OperationMetadataUpdater metadataUpdater;
         private final MemoryStateUpdater logUpdater;
         private final MetadataCheckpointPolicy checkpointPolicy;
+        @GuardedBy("this")
+        private int uncommittedFrameCount;
 
-        QueueProcessingState(OperationMetadataUpdater metadataUpdater, MemoryStateUpdater stateUpdater, MetadataCheckpointPolicy checkpointPolicy, String traceObjectId) {
+        QueueProcessingState(UpdateableContainerMetadata metadata, OperationMetadataUpdater metadataUpdater, MemoryStateUpdater stateUpdater,
+                             MetadataCheckpointPolicy checkpointPolicy, String traceObjectId) {
+            assert metadata != null : "metadata is null";
             assert metadataUpdater != null : "metadataUpdater is null";
             assert stateUpdater != null : "stateUpdater is null";
             assert checkpointPolicy != null : "checkpointPolicy is null";
 
             this.traceObjectId = traceObjectId;
             this.pendingOperations = new LinkedList<>();
+            this.metadata = metadata;
             this.metadataUpdater = metadataUpdater;
             this.logUpdater = stateUpdater;
             this.checkpointPolicy = checkpointPolicy;
@@ -389,46 +464,65 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
          *
          * @param operation The operation to append.
          */
-        void addPending(CompletableOperation operation) {
+        synchronized void addPending(CompletableOperation operation) {
             this.pendingOperations.add(operation);
         }
 
         /**
-         * Gets a value indicating whether there exist any pending operations in this state.
+         * Seals the current Metadata Update Transaction and associates it with the DataFrame that is about to be committed.
+         * Any changes made to the Metadata after this call will belong to the next DataFrame.
+         *
+         * @param commitArgs The Data Frame Commit Args for the DataFrame that is about to be committed.
          */
-        boolean hasPending() {
-            return !this.pendingOperations.isEmpty();
+        synchronized void beforeCommit(DataFrameBuilder.DataFrameCommitArgs commitArgs) {
+            commitArgs.setMetadataTransactionId(this.metadataUpdater.sealTransaction());
+            this.uncommittedFrameCount++;
         }
 
         /**
-         * Commits all pending Metadata changes, assigns a TruncationMarker and acknowledges all the pending operations.
+         * Commits the Metadata changes for the DataFrame, assigns a TruncationMarker and acknowledges all the pending
+         * operations that were fully contained within it.
+         * <p>
+         * The operations are applied to the in-memory structures as a single batch, outside of this object's lock, so
+         * that the processing thread can continue building DataFrames in the meantime. This is safe because commits are
+         * always invoked one at a time, in the order in which the DataFrames were built.
          *
          * @param commitArgs The Data Frame Commit Args that triggered this action.
          * @throws DataCorruptionException When the operation has been committed, but failed to be accepted into the In-Memory log.
          */
         public void commit(DataFrameBuilder.DataFrameCommitArgs commitArgs) throws Exception {
-            log.debug("{}: CommitSuccess (OperationCount = {}).", this.traceObjectId, this.pendingOperations.size());
-
-            // Record the Truncation marker and then commit any changes to metadata.
-            this.metadataUpdater.recordTruncationMarker(commitArgs.getLastStartedSequenceNumber(), commitArgs.getLogAddress());
-            this.metadataUpdater.commit();
-
-            // Acknowledge all pending entries, in the order in which they are in the queue. It is important that we ack entries in order of increasing Sequence Number.
-            while (this.pendingOperations.size() > 0 && this.pendingOperations.peek().getOperation().getSequenceNumber() <= commitArgs.getLastFullySerializedSequenceNumber()) {
-                CompletableOperation e = this.pendingOperations.poll();
-                try {
-                    this.logUpdater.process(e.getOperation());
-                } catch (Throwable ex) {
-                    log.error("{}: OperationCommitFailure ({}). {}", this.traceObjectId, e.getOperation(), ex);
-                    e.fail(ex);
-                    throw ex;
+            ArrayList<CompletableOperation> toAck = new ArrayList<>();
+            synchronized (this) {
+                log.debug("{}: CommitSuccess (OperationCount = {}).", this.traceObjectId, this.pendingOperations.size());
+
+                // Commit any changes to metadata, up to this DataFrame, and then record the Truncation marker.
+                this.metadataUpdater.commit(commitArgs.getMetadataTransactionId());
+                this.metadata.recordTruncationMarker(commitArgs.getLastStartedSequenceNumber(), commitArgs.getLogAddress());
+
+                // Collect all pending entries that were fully contained in this DataFrame, in the order in which they are in the queue.
+                while (this.pendingOperations.size() > 0 && this.pendingOperations.peek().getOperation().getSequenceNumber() <= commitArgs.getLastFullySerializedSequenceNumber()) {
+                    toAck.add(this.pendingOperations.poll());
                 }
+            }
 
-                e.complete();
+            try {
+                this.logUpdater.process(toAck.stream().map(CompletableOperation::getOperation).iterator());
+            } catch (Throwable ex) {
+                log.error("{}: OperationCommitFailure ({} operations). {}", this.traceObjectId, toAck.size(), ex);
+                toAck.forEach(e -> e.fail(ex));
+                throw ex;
             }
 
+            // Acknowledge the entries. It is important that we ack entries in order of increasing Sequence Number.
+            toAck.forEach(CompletableOperation::complete);
             this.logUpdater.flush();
-            this.checkpointPolicy.recordCommit(commitArgs.getDataFrameLength());
+            synchronized (this) {
+                // Only now can completeNonSerializableOperations() complete any operations that follow the ones above.
+                // This may have already been reset by fail().
+                this.uncommittedFrameCount = Math.max(0, this.uncommittedFrameCount - 1);
+                this.checkpointPolicy.recordCommit(commitArgs.getDataFrameLength());
+                completeNonSerializableOperations();
+            }
         }
 
         /**
@@ -436,7 +530,7 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
          *
          * @param ex The cause of the failure. The operations will be failed with this as a cause.
          */
-        public void fail(Throwable ex) {
+        public synchronized void fail(Throwable ex) {
             log.error("{}: CommitFailure ({} operations). {}", this.traceObjectId, this.pendingOperations.size(), ex);
 
             // Discard all updates to the metadata.
@@ -445,10 +539,24 @@ class OperationProcessor extends AbstractThreadPoolService implements Container
             // Fail all pending entries.
             this.pendingOperations.forEach(e -> e.fail(ex));
             this.pendingOperations.clear();
+            this.uncommittedFrameCount = 0;
         }
 
-        public void forEachPending(Predicate<CompletableOperation> inspector) {
-            this.pendingOperations.removeIf(inspector);
+        /**
+         * Completes all pending operations that are non-serializable, but only if there are no DataFrames in flight. If
+         * there are DataFrames in flight, these operations will be completed when the last of those DataFrames is committed.
+         * <p>
+         * Only the non-serializable operations at the head of the queue are completed: any operations that follow a
+         * serializable operation (which is part of a DataFrame that has not been published yet) must wait for it.
+         */
+        synchronized void completeNonSerializableOperations() {
+            if (this.uncommittedFrameCount > 0) {
+                return;
+            }
+
+            while (this.pendingOperations.size() > 0 && !this.pendingOperations.peek().getOperation().canSerialize()) {
+                this.pendingOperations.poll().complete();
+            }
         }
     }
 
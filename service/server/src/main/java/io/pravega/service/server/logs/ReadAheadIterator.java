@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.logs;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.util.CloseableIterator;
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.SneakyThrows;
+
+/**
+ * CloseableIterator that fetches items from another (non-thread-safe) CloseableIterator in the background, keeping up to
+ * a fixed number of them buffered ahead of the consumer. This allows whatever work the source does in getNext() (such as
+ * reading and deserializing DataFrames) to overlap with whatever work the consumer does with the items it returns.
+ * <p>
+ * Items are returned in the same order as the source returned them. If the source fails, all items fetched before the
+ * failure are returned first, after which getNext() throws the same exception.
+ * <p>
+ * Background fetches are executed on the given Executor. If none is running when the consumer finds the buffer empty,
+ * the consumer fetches the next item itself instead of waiting, so this never blocks on the availability of a thread.
+ *
+ * @param <T> Type of the items.
+ */
+@ThreadSafe
+class ReadAheadIterator<T> implements CloseableIterator<T, Exception> {
+    //region Members
+
+    private final CloseableIterator<T, ? extends Exception> source;
+    private final int capacity;
+    private final Executor executor;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private final ArrayDeque<T> buffer;
+    @GuardedBy("lock")
+    private boolean sourceBusy;
+    @GuardedBy("lock")
+    private boolean fetchScheduled;
+    @GuardedBy("lock")
+    private boolean endReached;
+    @GuardedBy("lock")
+    private Throwable failure;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the ReadAheadIterator class and begins fetching items from the source.
+     *
+     * @param source   The CloseableIterator to fetch items from. This will be closed when this iterator is closed.
+     * @param capacity The maximum number of items to fetch ahead of the consumer.
+     * @param executor An Executor to fetch items on.
+     */
+    ReadAheadIterator(CloseableIterator<T, ? extends Exception> source, int capacity, Executor executor) {
+        Preconditions.checkArgument(capacity > 0, "capacity must be a positive integer.");
+        this.source = Preconditions.checkNotNull(source, "source");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.capacity = capacity;
+        this.buffer = new ArrayDeque<>(capacity);
+        synchronized (this.lock) {
+            triggerFetch();
+        }
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    /**
+     * Closes this iterator and the source. If a fetch is currently in progress, this waits for it to complete first, since
+     * the source cannot be closed concurrently with a call to its getNext() method.
+     */
+    @Override
+    @SneakyThrows(InterruptedException.class)
+    public void close() {
+        synchronized (this.lock) {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            this.buffer.clear();
+            while (this.sourceBusy) {
+                this.lock.wait();
+            }
+        }
+
+        this.source.close();
+    }
+
+    //endregion
+
+    //region CloseableIterator Implementation
+
+    @Override
+    public T getNext() throws Exception {
+        while (true) {
+            synchronized (this.lock) {
+                Exceptions.checkNotClosed(this.closed, this);
+                T result = this.buffer.poll();
+                if (result != null) {
+                    triggerFetch();
+                    return result;
+                } else if (this.failure != null) {
+                    if (this.failure instanceof Error) {
+                        throw (Error) this.failure;
+                    }
+
+                    throw (Exception) this.failure;
+                } else if (this.endReached) {
+                    return null;
+                } else if (this.sourceBusy) {
+                    // A background fetch is in progress; wait for it.
+                    this.lock.wait();
+                    continue;
+                }
+
+                // Nobody is fetching anything. Do it ourselves.
+                this.sourceBusy = true;
+            }
+
+            fetchOne();
+        }
+    }
+
+    //endregion
+
+    //region Fetching
+
+    /**
+     * Schedules a background fetch, if one is not already running and the buffer is not full.
+     */
+    @GuardedBy("lock")
+    private void triggerFetch() {
+        if (canFetch() && !this.fetchScheduled) {
+            this.fetchScheduled = true;
+            this.executor.execute(this::fetchLoop);
+        }
+    }
+
+    @GuardedBy("lock")
+    private boolean canFetch() {
+        return !this.closed && !this.endReached && this.failure == null && this.buffer.size() < this.capacity;
+    }
+
+    private void fetchLoop() {
+        while (true) {
+            synchronized (this.lock) {
+                if (this.sourceBusy || !canFetch()) {
+                    // Either we're done, or the consumer is fetching an item itself (in which case it will reschedule us
+                    // when it's done).
+                    this.fetchScheduled = false;
+                    return;
+                }
+
+                this.sourceBusy = true;
+            }
+
+            fetchOne();
+        }
+    }
+
+    /**
+     * Fetches one item from the source and records the outcome. Must only be invoked by whoever set sourceBusy.
+     */
+    private void fetchOne() {
+        T item = null;
+        Throwable ex = null;
+        try {
+            item = this.source.getNext();
+        } catch (Throwable e) {
+            ex = e;
+        }
+
+        synchronized (this.lock) {
+            this.sourceBusy = false;
+            if (ex != null) {
+                this.failure = ex;
+            } else if (item == null) {
+                this.endReached = true;
+            } else if (!this.closed) {
+                this.buffer.addLast(item);
+            }
+
+            triggerFetch();
+            this.lock.notifyAll();
+        }
+    }
+
+    //endregion
+}
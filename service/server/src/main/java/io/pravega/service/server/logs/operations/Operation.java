@@ -20,6 +20,7 @@ import io.pravega.service.server.LogItem;
 import io.pravega.service.server.logs.SerializationException;
 import com.google.common.base.Preconditions;
 
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
@@ -131,10 +132,14 @@ public abstract class Operation implements LogItem {
     public void serialize(OutputStream output) throws IOException {
         ensureSerializationCondition(this.sequenceNumber >= 0, "Sequence Number has not been assigned for this entry.");
 
-        DataOutputStream target = new DataOutputStream(output);
+        // DataOutputStream writes most primitives one byte at a time. Stage them in a small buffer so that they reach the
+        // given OutputStream through its array write overloads instead; large arrays (such as append payloads) bypass it.
+        SerializationBuffer buffer = new SerializationBuffer(output);
+        DataOutputStream target = new DataOutputStream(buffer);
         OperationHeader header = new OperationHeader(getOperationType().getType(), this.sequenceNumber);
         header.serialize(target);
         serializeContent(target);
+        buffer.drain();
     }
 
     /**
@@ -202,6 +207,39 @@ public abstract class Operation implements LogItem {
 
     // endregion
 
+    //region SerializationBuffer
+
+    /**
+     * A BufferedOutputStream which does not flush the underlying OutputStream when drained. Flushing a DataFrameOutputStream
+     * seals its current Data Frame, which is not something that serializing a single Operation should do.
+     */
+    private static class SerializationBuffer extends BufferedOutputStream {
+        private static final int BUFFER_SIZE = 128;
+
+        SerializationBuffer(OutputStream output) {
+            super(output, BUFFER_SIZE);
+        }
+
+        /**
+         * Writes any buffered bytes to the underlying OutputStream, without flushing it.
+         *
+         * @throws IOException If the underlying OutputStream threw one.
+         */
+        synchronized void drain() throws IOException {
+            if (this.count > 0) {
+                this.out.write(this.buf, 0, this.count);
+                this.count = 0;
+            }
+        }
+
+        @Override
+        public synchronized void flush() throws IOException {
+            drain();
+        }
+    }
+
+    //endregion
+
     //region OperationHeader
 
     /**
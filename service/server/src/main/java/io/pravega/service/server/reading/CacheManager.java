@@ -27,6 +27,7 @@ import java.util.HashSet;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -57,6 +58,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
     private int oldestGeneration;
     private final CachePolicy policy;
     private final AtomicBoolean closed;
+    private final AtomicLong lastKnownSize;
 
     //endregion
 
@@ -77,6 +79,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
         this.currentGeneration = 0;
         this.executorService = executorService;
         this.closed = new AtomicBoolean();
+        this.lastKnownSize = new AtomicLong();
     }
 
     //endregion
@@ -136,6 +139,21 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
 
     //endregion
 
+    //region Properties
+
+    /**
+     * Gets a value indicating how full the cache is, as a percentage of the maximum size defined by the Cache Policy.
+     * This is based on the size reported by all the clients during the last time the Cache Policy was applied, so it
+     * does not reflect any changes since then.
+     *
+     * @return The cache utilization percentage. This may exceed 100 if the cache is over its maximum size.
+     */
+    int getCacheUtilizationPercent() {
+        return (int) Math.min(Integer.MAX_VALUE, this.lastKnownSize.get() * 100 / this.policy.getMaxSize());
+    }
+
+    //endregion
+
     //region Client Registration
 
     /**
@@ -182,6 +200,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
     protected void applyCachePolicy() {
         // Run through all the active clients and gather status.
         CacheStatus currentStatus = collectStatus();
+        this.lastKnownSize.set(currentStatus == null ? 0 : currentStatus.getSize());
         if (currentStatus == null || currentStatus.getSize() == 0) {
             // This indicates we have no clients or those clients have no data.
             return;
@@ -205,6 +224,7 @@ public class CacheManager extends AbstractScheduledService implements AutoClosea
             sizeReduction = updateClients();
             if (sizeReduction > 0) {
                 currentStatus = currentStatus.withUpdatedSize(-sizeReduction);
+                this.lastKnownSize.set(currentStatus.getSize());
                 logCurrentStatus(currentStatus);
                 oldestChanged = adjustOldestGeneration(currentStatus);
             }
@@ -19,8 +19,10 @@ import io.pravega.common.Exceptions;
 import io.pravega.service.contracts.ReadResultEntryContents;
 import io.pravega.service.contracts.ReadResultEntryType;
 
-import java.io.ByteArrayInputStream;
+import io.pravega.common.util.ByteArraySegment;
 import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Read Result Entry for data that is readily available for reading (in memory).
@@ -39,7 +41,7 @@ class CacheReadResultEntry extends ReadResultEntryBase {
     CacheReadResultEntry(long streamSegmentOffset, byte[] data, int dataOffset, int dataLength) {
         super(ReadResultEntryType.Cache, streamSegmentOffset + dataOffset, dataLength);
         Exceptions.checkArrayRange(dataOffset, dataLength, data.length, "dataOffset", "dataLength");
-        complete(new ReadResultEntryContents(new ByteArrayInputStream(data, dataOffset, dataLength), dataLength));
+        complete(new ReadResultEntryContents(Collections.singletonList(new ByteArraySegment(data, dataOffset, dataLength, true))));
     }
 
     /**
@@ -53,4 +55,19 @@ class CacheReadResultEntry extends ReadResultEntryBase {
         super(ReadResultEntryType.Cache, streamSegmentOffset, dataLength);
         complete(new ReadResultEntryContents(data, dataLength));
     }
+
+    /**
+     * Creates a new instance of the CacheReadResultEntry class.
+     *
+     * @param streamSegmentOffset The offset within the StreamSegment where this ReadResultEntry starts at.
+     * @param data                The ByteArraySegments that make up the data that this ReadResultEntry has, in order.
+     */
+    CacheReadResultEntry(long streamSegmentOffset, List<ByteArraySegment> data) {
+        this(streamSegmentOffset, new ReadResultEntryContents(data));
+    }
+
+    private CacheReadResultEntry(long streamSegmentOffset, ReadResultEntryContents contents) {
+        super(ReadResultEntryType.Cache, streamSegmentOffset, contents.getLength());
+        complete(contents);
+    }
 }
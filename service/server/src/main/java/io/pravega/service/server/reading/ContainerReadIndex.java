@@ -16,6 +16,7 @@
 package io.pravega.service.server.reading;
 
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.TimeoutWheel;
 import io.pravega.service.contracts.ReadResult;
 import io.pravega.service.server.ContainerMetadata;
 import io.pravega.service.server.DataCorruptionException;
@@ -57,6 +58,8 @@ import lombok.val;
 public class ContainerReadIndex implements ReadIndex {
     //region Members
 
+    private static final Duration FUTURE_READ_TIMEOUT_TICK = Duration.ofMillis(100);
+    private static final int FUTURE_READ_TIMEOUT_WHEEL_SIZE = 512;
     private final String traceObjectId;
     @GuardedBy("lock")
     private final HashMap<Long, StreamSegmentReadIndex> readIndices;
@@ -66,6 +69,7 @@ public class ContainerReadIndex implements ReadIndex {
     private final ScheduledExecutorService executor;
     private final ReadIndexConfig config;
     private final CacheManager cacheManager;
+    private final TimeoutWheel futureReadTimeouts;
     @GuardedBy("lock")
     private ContainerMetadata metadata;
     @GuardedBy("lock")
@@ -103,6 +107,7 @@ public class ContainerReadIndex implements ReadIndex {
         this.storage = storage;
         this.cacheManager = cacheManager;
         this.executor = executor;
+        this.futureReadTimeouts = new TimeoutWheel(FUTURE_READ_TIMEOUT_TICK, FUTURE_READ_TIMEOUT_WHEEL_SIZE, executor);
         this.preRecoveryMetadata = null;
         this.closed = new AtomicBoolean();
     }
@@ -115,6 +120,7 @@ public class ContainerReadIndex implements ReadIndex {
     public void close() {
         if (!this.closed.getAndSet(true)) {
             closeAllIndices(false); // Do not individually clear the cache; we are wiping it anyway when closing it.
+            this.futureReadTimeouts.close();
             this.cache.close();
             log.info("{}: Closed.", this.traceObjectId);
         }
@@ -333,7 +339,7 @@ public class ContainerReadIndex implements ReadIndex {
             Exceptions.checkArgument(segmentMetadata != null, "streamSegmentId", "StreamSegmentId {} does not exist in the metadata.", streamSegmentId);
             Exceptions.checkArgument(!segmentMetadata.isDeleted(), "streamSegmentId", "StreamSegmentId {} exists in the metadata but is marked as deleted.", streamSegmentId);
 
-            index = new StreamSegmentReadIndex(this.config, segmentMetadata, this.cache, this.storage, this.executor, isRecoveryMode());
+            index = new StreamSegmentReadIndex(this.config, segmentMetadata, this.cache, this.storage, this.cacheManager, this.futureReadTimeouts, this.executor, isRecoveryMode());
             this.cacheManager.register(index);
             this.readIndices.put(streamSegmentId, index);
         }
@@ -16,12 +16,16 @@
 package io.pravega.service.server.reading;
 
 import io.pravega.service.contracts.ReadResultEntryType;
+import java.time.Duration;
+import java.util.function.Consumer;
 
 /**
  * Read Result Entry for data that is not yet available in the StreamSegment (for an offset that is beyond the
  * StreamSegment's DurableLogLength)
  */
 class FutureReadResultEntry extends ReadResultEntryBase {
+    private volatile Consumer<Duration> requestContentCallback;
+
     /**
      * Creates a new instance of the FutureReadResultEntry class.
      *
@@ -32,4 +36,24 @@ class FutureReadResultEntry extends ReadResultEntryBase {
     FutureReadResultEntry(long streamSegmentOffset, int requestedReadLength) {
         super(ReadResultEntryType.Future, streamSegmentOffset, requestedReadLength);
     }
+
+    @Override
+    public void requestContent(Duration timeout) {
+        // There is nothing to fetch for a Future Read (it will be completed when data is appended); however the caller
+        // may not want to wait indefinitely, so let whoever is tracking this entry enforce the timeout.
+        Consumer<Duration> callback = this.requestContentCallback;
+        if (callback != null && !getContent().isDone()) {
+            callback.accept(timeout);
+        }
+    }
+
+    /**
+     * Sets a callback that will be invoked every time requestContent() is invoked on this entry, before the entry is
+     * completed.
+     *
+     * @param callback The callback to set.
+     */
+    void setRequestContentCallback(Consumer<Duration> callback) {
+        this.requestContentCallback = callback;
+    }
 }
@@ -16,25 +16,36 @@
 package io.pravega.service.server.reading;
 
 import io.pravega.common.Exceptions;
-
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.concurrent.TimeoutWheel;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.NavigableMap;
+import java.util.TreeMap;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeoutException;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 /**
  * Organizes PlaceholderReadResultEntries by their starting offset and provides efficient methods for retrieving those
  * whose offsets are below certain values.
+ *
+ * Entries are indexed by their starting offset, so polling for a given offset only touches the entries that it returns.
+ * If a TimeoutWheel is provided, any call to requestContent() on an entry in this collection will register a timeout
+ * for it; if the entry is still in the collection when that timeout expires, it is removed and failed with a
+ * TimeoutException. Whoever removes an entry from this collection is responsible for completing it.
  */
 @ThreadSafe
 class FutureReadResultEntryCollection implements AutoCloseable {
     //region Members
 
+    private final TimeoutWheel timeoutWheel;
     @GuardedBy("reads")
-    private final PriorityQueue<FutureReadResultEntry> reads;
+    private final TreeMap<Long, List<FutureReadResultEntry>> reads;
     @GuardedBy("reads")
     private boolean closed;
 
@@ -43,10 +54,21 @@ class FutureReadResultEntryCollection implements AutoCloseable {
     //region Constructor
 
     /**
-     * Creates a new instance of the FutureReadResultEntryCollection class.
+     * Creates a new instance of the FutureReadResultEntryCollection class which does not enforce any timeouts.
      */
     FutureReadResultEntryCollection() {
-        this.reads = new PriorityQueue<>(FutureReadResultEntryCollection::entryComparator);
+        this(null);
+    }
+
+    /**
+     * Creates a new instance of the FutureReadResultEntryCollection class.
+     *
+     * @param timeoutWheel (Optional) A TimeoutWheel to use for enforcing the timeouts passed to requestContent(). If null,
+     *                     the entries will not time out.
+     */
+    FutureReadResultEntryCollection(TimeoutWheel timeoutWheel) {
+        this.timeoutWheel = timeoutWheel;
+        this.reads = new TreeMap<>();
     }
 
     //endregion
@@ -76,10 +98,17 @@ class FutureReadResultEntryCollection implements AutoCloseable {
      * @param entry The entry to add.
      */
     public void add(FutureReadResultEntry entry) {
+        if (this.timeoutWheel != null) {
+            entry.setRequestContentCallback(timeout -> scheduleTimeout(entry, timeout));
+        }
+
         synchronized (this.reads) {
             Exceptions.checkNotClosed(this.closed, this);
-            this.reads.add(entry);
+            this.reads.computeIfAbsent(entry.getStreamSegmentOffset(), offset -> new ArrayList<>()).add(entry);
         }
+
+        // If the entry is cancelled (or otherwise failed) by its consumer, there is no point in keeping it around.
+        FutureHelpers.exceptionListener(entry.getContent(), ex -> remove(entry));
     }
 
     /**
@@ -93,11 +122,11 @@ class FutureReadResultEntryCollection implements AutoCloseable {
         synchronized (this.reads) {
             Exceptions.checkNotClosed(this.closed, this);
 
-            // 'reads' is sorted by Starting Offset, in ascending order. As long as it is not empty and the
-            // first entry overlaps the given offset by at least one byte, extract and return it.
-            while (this.reads.size() > 0 && this.reads.peek().getStreamSegmentOffset() <= maxOffset) {
-                result.add(this.reads.poll());
-            }
+            // 'reads' is sorted by Starting Offset, in ascending order. Extract every entry which overlaps the given
+            // offset by at least one byte.
+            NavigableMap<Long, List<FutureReadResultEntry>> toRemove = this.reads.headMap(maxOffset, true);
+            toRemove.values().forEach(result::addAll);
+            toRemove.clear();
         }
 
         return result;
@@ -114,14 +143,58 @@ class FutureReadResultEntryCollection implements AutoCloseable {
      * Cancels all Reads in this collection..
      */
     void cancelAll() {
-        List<FutureReadResultEntry> toCancel;
+        List<FutureReadResultEntry> toCancel = new ArrayList<>();
         synchronized (this.reads) {
-            toCancel = new ArrayList<>(this.reads);
+            this.reads.values().forEach(toCancel::addAll);
             this.reads.clear();
         }
 
         CancellationException ce = new CancellationException();
-        toCancel.forEach(e -> e.fail(ce));
+        toCancel.stream()
+                .filter(e -> !e.getContent().isDone())
+                .forEach(e -> e.fail(ce));
+    }
+
+    /**
+     * Gets a value indicating the number of Result Entries in this collection.
+     */
+    int size() {
+        synchronized (this.reads) {
+            return this.reads.values().stream().mapToInt(List::size).sum();
+        }
+    }
+
+    private boolean remove(FutureReadResultEntry entry) {
+        synchronized (this.reads) {
+            List<FutureReadResultEntry> entries = this.reads.get(entry.getStreamSegmentOffset());
+            if (entries == null || !entries.remove(entry)) {
+                return false;
+            }
+
+            if (entries.isEmpty()) {
+                this.reads.remove(entry.getStreamSegmentOffset());
+            }
+
+            return true;
+        }
+    }
+
+    private void scheduleTimeout(FutureReadResultEntry entry, Duration timeout) {
+        TimeoutWheel.Timeout t;
+        try {
+            t = this.timeoutWheel.schedule(() -> {
+                // Only fail the entry if we are the ones removing it; otherwise it is already being completed.
+                if (remove(entry)) {
+                    entry.fail(new TimeoutException(String.format("Future read at offset %d timed out after %s.",
+                            entry.getStreamSegmentOffset(), timeout)));
+                }
+            }, timeout);
+        } catch (ObjectClosedException ex) {
+            // We are shutting down; this entry will be cancelled anyway.
+            return;
+        }
+
+        entry.getContent().whenComplete((r, ex) -> t.cancel());
     }
 
     static int entryComparator(FutureReadResultEntry e1, FutureReadResultEntry e2) {
@@ -17,6 +17,7 @@ package io.pravega.service.server.reading;
 
 import io.pravega.common.util.ConfigBuilder;
 import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
 import io.pravega.common.util.Property;
 import io.pravega.common.util.TypedProperties;
 import java.time.Duration;
@@ -34,6 +35,8 @@ public class ReadIndexConfig {
     public static final Property<Long> CACHE_POLICY_MAX_SIZE = Property.named("cacheMaxSize", 16L * 1024 * 1024 * 1024);
     public static final Property<Integer> CACHE_POLICY_MAX_TIME = Property.named("cacheMaxTimeMillis", 30 * 60 * 1000);
     public static final Property<Integer> CACHE_POLICY_GENERATION_TIME = Property.named("cacheGenerationTimeMillis", 5 * 1000);
+    public static final Property<Integer> STORAGE_PREFETCH_COUNT = Property.named("storagePrefetchCount", 0);
+    public static final Property<Integer> STORAGE_PREFETCH_MAX_CACHE_UTILIZATION = Property.named("storagePrefetchMaxCacheUtilizationPercent", 75);
     private static final String COMPONENT_CODE = "readindex";
 
     //endregion
@@ -73,6 +76,22 @@ public class ReadIndexConfig {
     @Getter
     private final Duration storageReadDefaultTimeout;
 
+    /**
+     * The number of Storage Read Alignment-sized blocks to prefetch from Storage (into the Cache) ahead of a reader that
+     * is reading a StreamSegment sequentially from Storage.
+     * <p>
+     * Setting this to 0 will effectively disable this feature.
+     */
+    @Getter
+    private final int storagePrefetchCount;
+
+    /**
+     * The Cache utilization (as a percentage of the Cache Policy's maximum size) at or above which no more prefetching
+     * is done, so that prefetched data does not push out data that is actively being read.
+     */
+    @Getter
+    private final int storagePrefetchMaxCacheUtilizationPercent;
+
     //endregion
 
     //region Constructor
@@ -90,6 +109,17 @@ public class ReadIndexConfig {
         int cachePolicyMaxTime = properties.getInt(CACHE_POLICY_MAX_TIME);
         int cachePolicyGenerationTime = properties.getInt(CACHE_POLICY_GENERATION_TIME);
         this.cachePolicy = new CachePolicy(cachePolicyMaxSize, Duration.ofMillis(cachePolicyMaxTime), Duration.ofMillis(cachePolicyGenerationTime));
+        this.storagePrefetchCount = properties.getInt(STORAGE_PREFETCH_COUNT);
+        if (this.storagePrefetchCount < 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a non-negative integer.",
+                    STORAGE_PREFETCH_COUNT, this.storagePrefetchCount));
+        }
+
+        this.storagePrefetchMaxCacheUtilizationPercent = properties.getInt(STORAGE_PREFETCH_MAX_CACHE_UTILIZATION);
+        if (this.storagePrefetchMaxCacheUtilizationPercent < 0 || this.storagePrefetchMaxCacheUtilizationPercent > 100) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a value between 0 and 100.",
+                    STORAGE_PREFETCH_MAX_CACHE_UTILIZATION, this.storagePrefetchMaxCacheUtilizationPercent));
+        }
     }
 
     /**
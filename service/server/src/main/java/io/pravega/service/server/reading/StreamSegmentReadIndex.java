@@ -18,6 +18,7 @@ package io.pravega.service.server.reading;
 import io.pravega.common.Exceptions;
 import io.pravega.common.LoggerHelpers;
 import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.concurrent.TimeoutWheel;
 import io.pravega.common.util.AvlTreeIndex;
 import io.pravega.common.util.ByteArraySegment;
 import io.pravega.common.util.SortedIndex;
@@ -39,12 +40,14 @@ import java.io.SequenceInputStream;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -77,10 +80,15 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     private final HashMap<Long, Long> mergeOffsets; //Key = StreamSegmentId (Merged), Value = Merge offset.
     private final StorageReader storageReader;
     private final ReadIndexSummary summary;
+    private final CacheManager cacheManager;
     private final ScheduledExecutorService executor;
     private SegmentMetadata metadata;
     @GuardedBy("lock")
     private long lastAppendedOffset;
+    @GuardedBy("lock")
+    private long lastReadEndOffset;
+    @GuardedBy("lock")
+    private long prefetchEndOffset;
     private boolean recoveryMode;
     private boolean closed;
     private boolean merged;
@@ -97,15 +105,20 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * @param metadata     The StreamSegmentMetadata to use.
      * @param cache        The Cache to use to store, read and manage data entries.
      * @param storage      A ReadOnlyStorage to fetch data if not in Cache.
+     * @param cacheManager The CacheManager this index is registered with (used to throttle prefetching).
+     * @param timeoutWheel A TimeoutWheel to use for enforcing Future Read timeouts.
      * @param executor     An executor to run async operations.
      * @param recoveryMode Whether we are in recovery mode at the time of creation (this can change later on).
      * @throws NullPointerException If any of the arguments are null.
      */
-    StreamSegmentReadIndex(ReadIndexConfig config, SegmentMetadata metadata, Cache cache, ReadOnlyStorage storage, ScheduledExecutorService executor, boolean recoveryMode) {
+    StreamSegmentReadIndex(ReadIndexConfig config, SegmentMetadata metadata, Cache cache, ReadOnlyStorage storage, CacheManager cacheManager,
+                           TimeoutWheel timeoutWheel, ScheduledExecutorService executor, boolean recoveryMode) {
         Preconditions.checkNotNull(config, "config");
         Preconditions.checkNotNull(metadata, "metadata");
         Preconditions.checkNotNull(cache, "cache");
         Preconditions.checkNotNull(storage, "storage");
+        Preconditions.checkNotNull(cacheManager, "cacheManager");
+        Preconditions.checkNotNull(timeoutWheel, "timeoutWheel");
         Preconditions.checkNotNull(executor, "executor");
 
         this.traceObjectId = String.format("ReadIndex[%d-%d]", metadata.getContainerId(), metadata.getId());
@@ -114,9 +127,12 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         this.cache = cache;
         this.recoveryMode = recoveryMode;
         this.indexEntries = new AvlTreeIndex<>();
-        this.futureReads = new FutureReadResultEntryCollection();
+        this.futureReads = new FutureReadResultEntryCollection(timeoutWheel);
         this.mergeOffsets = new HashMap<>();
         this.lastAppendedOffset = -1;
+        this.lastReadEndOffset = -1;
+        this.prefetchEndOffset = -1;
+        this.cacheManager = cacheManager;
         this.storageReader = new StorageReader(metadata, storage, executor);
         this.executor = executor;
         this.summary = new ReadIndexSummary();
@@ -225,9 +241,9 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
 
         // Update the summary (no need for holding the lock here; we are not modifying the index).
         toRemove.forEach(e -> {
-            long entryLength = e.getLength();
-            this.summary.remove(entryLength, e.getGeneration());
-            sizeRemoved.addAndGet(entryLength);
+            long entrySize = getCacheSize(e);
+            this.summary.remove(entrySize, e.getGeneration());
+            sizeRemoved.addAndGet(entrySize);
         });
 
         return sizeRemoved.get();
@@ -266,6 +282,14 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         return this.metadata.getDurableLogLength();
     }
 
+    /**
+     * Gets the number of bytes the given (data) entry takes up in the Cache, which is what the CacheManager needs to
+     * account for. This may exceed the entry's length.
+     */
+    private long getCacheSize(ReadIndexEntry entry) {
+        return this.cache.getEntrySize((int) entry.getLength());
+    }
+
     private CacheKey getCacheKey(ReadIndexEntry entry) {
         if (entry instanceof MergedIndexEntry) {
             MergedIndexEntry me = (MergedIndexEntry) entry;
@@ -486,17 +510,17 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
         if (entry.isDataEntry()) {
             if (entry instanceof MergedIndexEntry) {
                 // This entry has already existed in the cache for a while; do not change its generation.
-                this.summary.add(entry.getLength(), entry.getGeneration());
+                this.summary.add(getCacheSize(entry), entry.getGeneration());
             } else {
-                // Update the Stats with the entry's length, and set the entry's generation as well.
-                int generation = this.summary.add(entry.getLength());
+                // Update the Stats with the entry's size, and set the entry's generation as well.
+                int generation = this.summary.add(getCacheSize(entry));
                 entry.setGeneration(generation);
             }
         }
 
         if (oldEntry != null && oldEntry.isDataEntry()) {
             // Need to eject the old entry's data from the Cache Stats.
-            this.summary.remove(oldEntry.getLength(), oldEntry.getGeneration());
+            this.summary.remove(getCacheSize(oldEntry), oldEntry.getGeneration());
         }
 
         return oldEntry;
@@ -678,7 +702,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * <p>
      * Compared to getMultiReadResultEntry(), this method returns exactly one ReadResultEntry.
      * <p>
-     * Compared to getSingleMemoryReadResultEntry(), this method will return a CompletableReadResultEntry regardless of
+     * Compared to readCachedEntries(), this method will return a CompletableReadResultEntry regardless of
      * whether the data is cached or not. This may involve registering a future read or triggering a Storage read if necessary,
      * as well as redirecting the read to a Transaction if necessary.
      *
@@ -735,7 +759,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     /**
      * Returns a ReadResultEntry that matches the specified search parameters.
      * <p>
-     * Compared to getSingleMemoryReadResultEntry(), this method may return a direct entry or a collection of entries.
+     * Compared to getSingleReadResultEntry(), this method may return a direct entry or a collection of entries.
      * If the first entry to be returned would constitute a cache hit, then this method will attempt to return data from
      * subsequent (congruent) entries, as long as they are cache hits. If at any time a cache miss occurs, the data collected
      * so far is returned as a single entry, excluding the cache miss entry (exception if the first entry is a miss,
@@ -746,57 +770,89 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
      * @return A ReadResultEntry representing the data to return.
      */
     private CompletableReadResultEntry getMultiReadResultEntry(long resultStartOffset, int maxLength) {
-        int readLength = 0;
-
         CompletableReadResultEntry nextEntry = getSingleReadResultEntry(resultStartOffset, maxLength);
         if (nextEntry == null || !(nextEntry instanceof CacheReadResultEntry)) {
             // We can only coalesce CacheReadResultEntries.
+            if (nextEntry != null && nextEntry.getType() == ReadResultEntryType.Storage) {
+                // The Storage Read will be aligned once its content is requested.
+                recordRead(resultStartOffset, getReadAlignedLength(resultStartOffset, nextEntry.getRequestedReadLength()));
+            }
+
             return nextEntry;
         }
 
-        // Collect the contents of congruent Index Entries into a list, as long as we still encounter data in the cache.
-        ArrayList<InputStream> contents = new ArrayList<>();
-        do {
-            assert FutureHelpers.isSuccessful(nextEntry.getContent()) : "Found CacheReadResultEntry that is not completed yet: " + nextEntry;
-            val entryContents = nextEntry.getContent().join();
-            contents.add(entryContents.getData());
-            readLength += entryContents.getLength();
-            if (readLength >= this.config.getMemoryReadMinLength() || readLength >= maxLength) {
-                break;
-            }
-
-            nextEntry = getSingleMemoryReadResultEntry(resultStartOffset + readLength, maxLength - readLength);
-        } while (nextEntry != null);
+        assert FutureHelpers.isSuccessful(nextEntry.getContent()) : "Found CacheReadResultEntry that is not completed yet: " + nextEntry;
+        val entryContents = nextEntry.getContent().join();
+        int readLength = entryContents.getLength();
+        int minReadLength = this.config.getMemoryReadMinLength();
+        if (entryContents.getArraySegments() == null || readLength >= minReadLength || readLength >= maxLength) {
+            recordRead(resultStartOffset, readLength);
+            return nextEntry;
+        }
 
-        // Coalesce the results into a single InputStream and return the result.
-        return new CacheReadResultEntry(resultStartOffset, new SequenceInputStream(Iterators.asEnumeration(contents.iterator())), readLength);
+        // Collect the contents of congruent Index Entries into a list, as long as we still encounter data in the cache,
+        // and coalesce the results without copying them, so that they can be accessed directly.
+        ArrayList<ByteArraySegment> arraySegments = new ArrayList<>(entryContents.getArraySegments());
+        readLength += readCachedEntries(resultStartOffset + readLength, minReadLength - readLength, maxLength - readLength, arraySegments);
+        recordRead(resultStartOffset, readLength);
+        return new CacheReadResultEntry(resultStartOffset, arraySegments);
     }
 
     /**
-     * Returns a CacheReadResultEntry that matches the specified search parameters, but only if the data is readily available
-     * in the cache and if there is an index entry that starts at that location.. As opposed from getSingleReadResultEntry(),
-     * this method will return null if the requested data is not available.
+     * Fetches the contents of consecutive cached Index Entries, the first of which starts at the given offset. Entries are
+     * collected as long as each one starts where the previous one ended and less than minLength bytes have been collected.
+     * All the entries are fetched from the Cache using a single bulk lookup (outside of the index lock); collection stops
+     * at the first entry that is no longer in the Cache (i.e., it has been evicted in the meantime).
      *
-     * @param resultStartOffset The Offset within the StreamSegment where to start returning data from.
-     * @param maxLength         The maximum number of bytes to return.
-     * @return A CacheReadResultEntry representing the data to return.
+     * @param startOffset The Offset within the StreamSegment where to start collecting data from.
+     * @param minLength   The number of bytes after which to stop collecting entries.
+     * @param maxLength   The maximum number of bytes to collect.
+     * @param result      A List to add read-only ByteArraySegments for the collected data to.
+     * @return The number of bytes collected.
      */
-    private CacheReadResultEntry getSingleMemoryReadResultEntry(long resultStartOffset, int maxLength) {
+    private int readCachedEntries(long startOffset, int minLength, int maxLength, List<ByteArraySegment> result) {
         Exceptions.checkNotClosed(this.closed, this);
+        if (minLength <= 0 || maxLength <= 0 || !canReadAtOffset(startOffset, false)) {
+            return 0;
+        }
 
-        if (maxLength > 0 && canReadAtOffset(resultStartOffset, false)) {
-            // Look up an entry in the index that contains our requested start offset.
-            synchronized (this.lock) {
-                ReadIndexEntry indexEntry = this.indexEntries.get(resultStartOffset);
-                if (indexEntry != null && indexEntry.isDataEntry()) {
-                    // We found an entry; return a result for it.
-                    return createMemoryRead(indexEntry, resultStartOffset, maxLength, true);
+        ArrayList<ReadIndexEntry> entries = new ArrayList<>();
+        synchronized (this.lock) {
+            long offset = startOffset;
+            long length = 0;
+            while (length < minLength && length < maxLength) {
+                ReadIndexEntry indexEntry = this.indexEntries.get(offset);
+                if (indexEntry == null || !indexEntry.isDataEntry()) {
+                    break;
                 }
+
+                // Update the entry's generation, just like for any other cache hit.
+                indexEntry.setGeneration(this.summary.touchOne(indexEntry.getGeneration()));
+                entries.add(indexEntry);
+                offset += indexEntry.getLength();
+                length += indexEntry.getLength();
             }
         }
 
-        // Nothing could be found in the cache at the given offset.
-        return null;
+        if (entries.isEmpty()) {
+            return 0;
+        }
+
+        List<byte[]> data = this.cache.getAll(entries.stream().map(this::getCacheKey).collect(Collectors.toList()));
+        int readLength = 0;
+        for (int i = 0; i < entries.size() && readLength < maxLength; i++) {
+            byte[] entryData = data.get(i);
+            if (entryData == null) {
+                // This entry has been evicted since we looked it up; whatever we collected so far is still valid.
+                break;
+            }
+
+            int entryReadLength = (int) Math.min(Math.min(entries.get(i).getLength(), entryData.length), maxLength - readLength);
+            result.add(new ByteArraySegment(entryData, 0, entryReadLength, true));
+            readLength += entryReadLength;
+        }
+
+        return readLength;
     }
 
     private CompletableReadResultEntry createRedirectedRead(long streamSegmentOffset, int maxLength, RedirectIndexEntry entry) {
@@ -905,7 +961,7 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
                 insert(offset, data);
             }
 
-            successCallback.accept(new ReadResultEntryContents(data.getReader(), data.getLength()));
+            successCallback.accept(new ReadResultEntryContents(Collections.singletonList(data)));
         };
 
         // Queue the request for async processing.
@@ -983,4 +1039,96 @@ class StreamSegmentReadIndex implements CacheManager.Client, AutoCloseable {
     }
 
     //endregion
+
+    //region Prefetching
+
+    /**
+     * Records that a ReadResultEntry for the given range has been handed out. If this read continues exactly where the
+     * previous one ended (i.e., the segment is being read sequentially), the next few Storage Read Alignment-sized blocks
+     * that follow it are prefetched from Storage into the Cache, so that they are readily available by the time the
+     * reader gets to them. Nothing is prefetched if the Cache is too full (as reported by the CacheManager).
+     * <p>
+     * Sequential access is tracked per StreamSegment, so concurrent readers of the same StreamSegment at different
+     * offsets will (correctly) look like random access and not trigger any prefetching.
+     *
+     * @param offset The offset at which the read started.
+     * @param length The length of the read.
+     */
+    private void recordRead(long offset, int length) {
+        int prefetchCount = this.config.getStoragePrefetchCount();
+        if (prefetchCount <= 0 || length <= 0) {
+            return;
+        }
+
+        long readEndOffset = offset + length;
+        ArrayList<StorageReader.Request> toPrefetch = new ArrayList<>();
+        synchronized (this.lock) {
+            boolean sequential = offset == this.lastReadEndOffset;
+            this.lastReadEndOffset = readEndOffset;
+            if (!sequential) {
+                // Anything we have prefetched for an earlier sequential read is of no use to this one.
+                this.prefetchEndOffset = -1;
+                return;
+            }
+
+            // Prefetch whole blocks, starting with the one after the block this read ends in, but do not go beyond what
+            // is in Storage and do not request anything we have already prefetched.
+            int alignment = this.config.getStorageReadAlignment();
+            long firstBlockOffset = (readEndOffset + alignment - 1) / alignment * alignment;
+            long windowEndOffset = Math.min(this.metadata.getStorageLength(), firstBlockOffset + (long) alignment * prefetchCount);
+            long blockOffset = Math.max(firstBlockOffset, this.prefetchEndOffset);
+            if (blockOffset >= windowEndOffset || isCacheFull()) {
+                return;
+            }
+
+            while (blockOffset < windowEndOffset) {
+                int blockLength = (int) Math.min(windowEndOffset - blockOffset, alignment - blockOffset % alignment);
+                if (!isInIndex(blockOffset, blockLength)) {
+                    toPrefetch.add(createPrefetchRequest(blockOffset, blockLength));
+                }
+
+                blockOffset += blockLength;
+            }
+
+            this.prefetchEndOffset = windowEndOffset;
+        }
+
+        // Issue the requests outside of the lock. If the reader catches up with any of them while still in progress, the
+        // StorageReader will piggyback the reader's request onto it.
+        toPrefetch.forEach(this.storageReader::execute);
+    }
+
+    private StorageReader.Request createPrefetchRequest(long offset, int length) {
+        log.debug("{}: Prefetch (Offset = {}, Length = {}).", this.traceObjectId, offset, length);
+        Consumer<StorageReader.Result> doneCallback = result -> {
+            if (!result.isDerived() && !this.closed) {
+                insert(offset, result.getData());
+            }
+        };
+
+        Consumer<Throwable> failureCallback = ex ->
+                log.warn("{}: Prefetch failed (Offset = {}, Length = {}). {}", this.traceObjectId, offset, length, ex);
+
+        return new StorageReader.Request(offset, length, doneCallback, failureCallback, this.config.getStorageReadDefaultTimeout());
+    }
+
+    /**
+     * Determines whether any part of the given range is covered by an entry in the index.
+     */
+    @GuardedBy("lock")
+    private boolean isInIndex(long offset, int length) {
+        ReadIndexEntry floorEntry = this.indexEntries.getFloor(offset);
+        if (floorEntry != null && floorEntry.getLastStreamSegmentOffset() >= offset) {
+            return true;
+        }
+
+        ReadIndexEntry ceilingEntry = this.indexEntries.getCeiling(offset);
+        return ceilingEntry != null && ceilingEntry.getStreamSegmentOffset() < offset + length;
+    }
+
+    private boolean isCacheFull() {
+        return this.cacheManager.getCacheUtilizationPercent() >= this.config.getStoragePrefetchMaxCacheUtilizationPercent();
+    }
+
+    //endregion
 }
\ No newline at end of file
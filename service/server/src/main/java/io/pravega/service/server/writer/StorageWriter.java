@@ -31,14 +31,23 @@ import io.pravega.service.server.logs.operations.Operation;
 import io.pravega.service.server.logs.operations.StorageOperation;
 import io.pravega.service.storage.Storage;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Queue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
@@ -57,6 +66,7 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
     private final WriterState state;
     private final Timer timer;
     private final AckCalculator ackCalculator;
+    private PendingRead pendingRead;
 
     //endregion
 
@@ -158,16 +168,26 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
     //region Input Processing
 
     /**
-     * Reads data from the OperationLog.
+     * Reads data from the OperationLog. If a read has already been issued (during the previous iteration's Flush stage)
+     * for the current Sequence Number, its result will be used instead of issuing a new one.
      *
      * @return A CompletableFuture that, when complete, will indicate that the read has been performed in its entirety.
      */
     private CompletableFuture<Iterator<Operation>> readData(Void ignored) {
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "readData");
         try {
-            Duration readTimeout = getReadTimeout();
-            return this.dataSource
-                    .read(this.state.getLastReadSequenceNumber(), this.config.getMaxItemsToReadAtOnce(), readTimeout)
+            PendingRead read = this.pendingRead;
+            this.pendingRead = null;
+            if (read == null
+                    || read.afterSequenceNumber != this.state.getLastReadSequenceNumber()
+                    || (!read.result.isDone() && getReadTimeout(Collections.emptySet()).isZero())) {
+                // Either there was no read issued in advance, or it no longer applies (the state changed or some
+                // SegmentAggregator must be flushed right away and we can't wait for the existing read's timeout).
+                read = issueRead(getReadTimeout(Collections.emptySet()));
+            }
+
+            final Duration readTimeout = read.timeout;
+            return read.result
                     .thenApply(result -> {
                         LoggerHelpers.traceLeave(log, this.traceObjectId, "readData", traceId);
                         return result;
@@ -196,6 +216,25 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
         }
     }
 
+    /**
+     * Issues a read from the WriterDataSource, beginning right after the last read Sequence Number.
+     *
+     * @param timeout The timeout for the read.
+     * @return A PendingRead representing the read.
+     */
+    private PendingRead issueRead(Duration timeout) {
+        long afterSequenceNumber = this.state.getLastReadSequenceNumber();
+        CompletableFuture<Iterator<Operation>> result;
+        try {
+            result = this.dataSource.read(afterSequenceNumber, this.config.getMaxItemsToReadAtOnce(), timeout);
+        } catch (Throwable ex) {
+            // Synchronous exceptions are handled by whoever consumes the result.
+            result = FutureHelpers.failedFuture(ex);
+        }
+
+        return new PendingRead(afterSequenceNumber, timeout, result);
+    }
+
     /**
      * Processes all the operations in the given ReadResult.
      *
@@ -263,30 +302,90 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
 
     /**
      * Flushes eligible operations to Storage, if necessary. Does not perform any mergers.
+     * * At most WriterConfig.MaxConcurrentFlushes SegmentAggregators are flushed at any given time.
+     * * SegmentAggregators are flushed in increasing order of their lowest uncommitted Sequence Number, so that those
+     * holding back the truncation of the OperationLog go first.
+     * * The next iteration's read is issued before any flush begins, so that it can execute while the flushes are in progress.
+     * * The failure of one flush does not prevent the others from executing; the first failure (if any) will be used
+     * to complete the returned future.
      */
     private CompletableFuture<Void> flush(Void ignored) {
         checkRunning();
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "flush");
 
-        // Flush everything we can flush.
-        val flushFutures = this.aggregators.values().stream()
-                                           .filter(SegmentAggregator::mustFlush)
-                                           .map(a -> a.flush(this.config.getFlushTimeout(), this.executor))
-                                           .collect(Collectors.toList());
+        val toFlush = this.aggregators.values().stream()
+                                      .filter(SegmentAggregator::mustFlush)
+                                      .sorted(Comparator.comparingLong(SegmentAggregator::getLowestUncommittedSequenceNumber))
+                                      .collect(Collectors.toList());
+
+        // Issue the next read now. The SegmentAggregators we are about to flush must not be touched until that is done
+        // (they are not thread safe), so exclude them from the read timeout calculation.
+        this.pendingRead = issueRead(getReadTimeout(new HashSet<>(toFlush)));
+
+        // Flush everything we can flush, using a bounded number of "lanes", each of which flushes one SegmentAggregator
+        // at a time, in priority order.
+        val queue = new ConcurrentLinkedQueue<SegmentAggregator>(toFlush);
+        val flushResults = new ConcurrentLinkedQueue<FlushResult>();
+        val failure = new AtomicReference<Throwable>();
+        int laneCount = Math.min(this.config.getMaxConcurrentFlushes(), toFlush.size());
+        val lanes = new ArrayList<CompletableFuture<Void>>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(flushNext(queue, flushResults, failure));
+        }
 
         return FutureHelpers
-                .allOfWithResults(flushFutures)
-                .thenAccept(flushResults -> {
+                .allOf(lanes)
+                .thenRun(() -> {
                     FlushStageResult result = new FlushStageResult();
                     flushResults.forEach(result::withFlushResult);
                     if (result.getFlushedBytes() + result.getMergedBytes() + result.count > 0) {
                         logStageEvent("Flush", result);
                     }
 
+                    Throwable ex = failure.get();
+                    if (ex != null) {
+                        throw new CompletionException(ex);
+                    }
+
                     LoggerHelpers.traceLeave(log, this.traceObjectId, "flush", traceId);
                 });
     }
 
+    /**
+     * Flushes the SegmentAggregators in the given queue, one at a time, until the queue is empty.
+     *
+     * @param queue        The queue to pick SegmentAggregators from.
+     * @param flushResults A collection to add the results of successful flushes to.
+     * @param failure      An AtomicReference that will hold the first flush failure.
+     * @return A CompletableFuture that will be completed when the queue is empty and all flushes initiated by this call
+     * are done.
+     */
+    private CompletableFuture<Void> flushNext(Queue<SegmentAggregator> queue, Collection<FlushResult> flushResults, AtomicReference<Throwable> failure) {
+        SegmentAggregator aggregator = queue.poll();
+        if (aggregator == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        CompletableFuture<FlushResult> flushFuture;
+        try {
+            flushFuture = aggregator.flush(this.config.getFlushTimeout(), this.executor);
+        } catch (Throwable ex) {
+            flushFuture = FutureHelpers.failedFuture(ex);
+        }
+
+        return flushFuture
+                .handle((result, ex) -> {
+                    if (ex != null) {
+                        failure.compareAndSet(null, ExceptionHelpers.getRealException(ex));
+                    } else {
+                        flushResults.add(result);
+                    }
+
+                    return null;
+                })
+                .thenComposeAsync(v -> flushNext(queue, flushResults, failure), this.executor);
+    }
+
     /**
      * Cleans up all SegmentAggregators that are currently closed.
      */
@@ -387,13 +486,19 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
      * * If at least one SegmentAggregator needs to flush right away, the timeout returned is 0.
      * * The returned timeout is the amount of time until the first SegmentAggregator is due to flush.
      * * The returned timeout (except in the first case) is bounded by WriterConfig.MinReadTimeout and WriterConfig.MaxReadTimeout.
+     *
+     * @param excluded A Collection of SegmentAggregators that should not be considered (i.e., those currently being flushed).
      */
-    private Duration getReadTimeout() {
+    private Duration getReadTimeout(Collection<SegmentAggregator> excluded) {
         // Find the minimum expiration time among all SegmentAggregators.
         long maxTimeMillis = this.config.getMaxReadTimeout().toMillis();
         long minTimeMillis = this.config.getMinReadTimeout().toMillis();
         long timeMillis = maxTimeMillis;
         for (SegmentAggregator a : this.aggregators.values()) {
+            if (excluded.contains(a)) {
+                continue;
+            }
+
             if (a.mustFlush()) {
                 // We found a SegmentAggregator that needs to flush right away. No need to search anymore.
                 timeMillis = 0;
@@ -451,6 +556,20 @@ class StorageWriter extends AbstractThreadPoolService implements Writer {
 
     //endregion
 
+    //region PendingRead
+
+    /**
+     * A read from the WriterDataSource that has been issued but whose result may not yet be consumed.
+     */
+    @RequiredArgsConstructor
+    private static class PendingRead {
+        final long afterSequenceNumber;
+        final Duration timeout;
+        final CompletableFuture<Iterator<Operation>> result;
+    }
+
+    //endregion
+
     //region FlushStageResult
 
     /**
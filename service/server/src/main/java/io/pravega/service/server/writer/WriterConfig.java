@@ -39,6 +39,7 @@ public class WriterConfig {
     public static final Property<Long> FLUSH_TIMEOUT_MILLIS = Property.named("flushTimeoutMillis", 60 * 1000L);
     public static final Property<Long> ACK_TIMEOUT_MILLIS = Property.named("ackTimeoutMillis", 15 * 1000L);
     public static final Property<Long> SHUTDOWN_TIMEOUT_MILLIS = Property.named("shutdownTimeoutMillis", 10 * 1000L);
+    public static final Property<Integer> MAX_CONCURRENT_FLUSHES = Property.named("maxConcurrentFlushes", 32);
     private static final String COMPONENT_CODE = "writer";
 
     //endregion
@@ -105,6 +106,13 @@ public class WriterConfig {
     @Getter
     private final Duration shutdownTimeout;
 
+    /**
+     * The maximum number of Segments that can be flushed to Storage at the same time. Segments holding back the
+     * truncation of the OperationLog (lowest uncommitted Sequence Number) are flushed first.
+     */
+    @Getter
+    private final int maxConcurrentFlushes;
+
     //endregion
 
     //region Constructor
@@ -143,6 +151,10 @@ public class WriterConfig {
         this.flushTimeout = Duration.ofMillis(properties.getLong(FLUSH_TIMEOUT_MILLIS));
         this.ackTimeout = Duration.ofMillis(properties.getLong(ACK_TIMEOUT_MILLIS));
         this.shutdownTimeout = Duration.ofMillis(properties.getLong(SHUTDOWN_TIMEOUT_MILLIS));
+        this.maxConcurrentFlushes = properties.getInt(MAX_CONCURRENT_FLUSHES);
+        if (this.maxConcurrentFlushes <= 0) {
+            throw new ConfigurationException(String.format("Property '%s' must be a positive integer.", MAX_CONCURRENT_FLUSHES));
+        }
     }
 
     /**
@@ -30,6 +30,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import javax.annotation.concurrent.GuardedBy;
 import lombok.Cleanup;
 
 /**
@@ -46,6 +47,9 @@ public class TestDurableDataLog implements DurableDataLog {
     private ErrorInjector<Exception> readSyncErrorInjector;
     private Function<ReadItem, ReadItem> readInterceptor;
     private Consumer<LogAddress> truncateCallback;
+    private volatile CompletableFuture<Void> appendGate;
+    @GuardedBy("this")
+    private CompletableFuture<LogAddress> lastGatedAppend = CompletableFuture.completedFuture(null);
 
     //endregion
 
@@ -77,8 +81,19 @@ public class TestDurableDataLog implements DurableDataLog {
     @Override
     public CompletableFuture<LogAddress> append(ArrayView data, Duration timeout) {
         ErrorInjector.throwSyncExceptionIfNeeded(this.appendSyncErrorInjector);
-        return ErrorInjector.throwAsyncExceptionIfNeeded(this.appendAsyncErrorInjector)
-                            .thenCompose(v -> this.wrappedLog.append(data, timeout));
+        CompletableFuture<LogAddress> result = ErrorInjector.throwAsyncExceptionIfNeeded(this.appendAsyncErrorInjector)
+                                                            .thenCompose(v -> this.wrappedLog.append(data, timeout));
+        CompletableFuture<Void> gate = this.appendGate;
+        if (gate != null) {
+            // Hold off the acknowledgement until the gate is released, keeping acknowledgements in order.
+            synchronized (this) {
+                CompletableFuture<LogAddress> previous = this.lastGatedAppend;
+                result = result.thenCompose(address -> gate.thenCompose(v -> previous.handle((r, ex) -> address)));
+                this.lastGatedAppend = result;
+            }
+        }
+
+        return result;
     }
 
     @Override
@@ -118,6 +133,16 @@ public class TestDurableDataLog implements DurableDataLog {
 
     //region Test Helper Methods
 
+    /**
+     * Sets a gate that all subsequent appends will wait on before being acknowledged. The appends are still written to
+     * the wrapped DurableDataLog right away.
+     *
+     * @param gate A CompletableFuture that, when completed, releases the acknowledgements. If null, appends are not delayed.
+     */
+    public void setAppendGate(CompletableFuture<Void> gate) {
+        this.appendGate = gate;
+    }
+
     /**
      * Sets the Truncation callback, which will be called if a truncation actually happened.
      *
@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.containers;
+
+import io.pravega.common.concurrent.FutureHelpers;
+import io.pravega.common.util.AsyncMap;
+import io.pravega.common.util.ImmutableDate;
+import io.pravega.service.contracts.StreamSegmentInformation;
+import io.pravega.service.server.DataCorruptionException;
+import io.pravega.service.storage.Storage;
+import io.pravega.service.storage.mocks.InMemoryStorage;
+import io.pravega.test.common.AssertExtensions;
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.Cleanup;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the SegmentStateLog class.
+ */
+public class SegmentStateLogTests extends StateStoreTests {
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int CONTAINER_ID = 1;
+    private static final long COMPACTION_MIN_BYTES = 1024 * 1024;
+
+    @Override
+    public int getThreadPoolSize() {
+        return 5;
+    }
+
+    @Override
+    protected AsyncMap<String, SegmentState> createStateStore() {
+        val storage = new InMemoryStorage(executorService());
+        storage.initialize(1);
+        val stateLog = createStateLog(storage, new SegmentStateStore(storage, executorService()), COMPACTION_MIN_BYTES);
+        stateLog.initialize(1, TIMEOUT).join();
+        return stateLog;
+    }
+
+    /**
+     * Tests that all updates (including concurrent ones) are persisted and loaded back upon initialization.
+     */
+    @Test
+    public void testRecovery() {
+        final int segmentCount = 100;
+        @Cleanup
+        val storage = new InMemoryStorage(executorService());
+        storage.initialize(1);
+        val expected = new HashMap<String, SegmentState>();
+        @Cleanup
+        val stateLog1 = createStateLog(storage, new InMemoryStateStore(), COMPACTION_MIN_BYTES);
+        stateLog1.initialize(1, TIMEOUT).join();
+
+        // Issue all updates at once, so that they get batched together.
+        val futures = new ArrayList<CompletableFuture<Void>>();
+        for (int i = 0; i < segmentCount; i++) {
+            SegmentState state = createState("Segment" + i);
+            futures.add(stateLog1.put(state.getSegmentName(), state, TIMEOUT));
+            if (i % 3 == 0) {
+                futures.add(stateLog1.remove(state.getSegmentName(), TIMEOUT));
+            } else {
+                expected.put(state.getSegmentName(), state);
+            }
+        }
+
+        FutureHelpers.allOf(futures).join();
+        stateLog1.close();
+
+        // Load it back in a new instance with a higher epoch.
+        @Cleanup
+        val stateLog2 = createStateLog(storage, new InMemoryStateStore(), COMPACTION_MIN_BYTES);
+        stateLog2.initialize(2, TIMEOUT).join();
+        checkStates(expected, segmentCount, stateLog2);
+        Assert.assertEquals("Expected exactly one slot to exist after initialization.", 1, getExistingSlotCount(storage));
+    }
+
+    /**
+     * Tests that the log gets compacted when it grows too large, and that it can be loaded back after that.
+     */
+    @Test
+    public void testCompaction() {
+        final int segmentCount = 10;
+        final int updateCount = 500;
+        final long compactionMinBytes = 4096;
+        @Cleanup
+        val storage = new InMemoryStorage(executorService());
+        storage.initialize(1);
+        val expected = new HashMap<String, SegmentState>();
+        @Cleanup
+        val stateLog1 = createStateLog(storage, new InMemoryStateStore(), compactionMinBytes);
+        stateLog1.initialize(1, TIMEOUT).join();
+
+        // Keep overwriting the same few states; the log would grow indefinitely without compaction.
+        for (int i = 0; i < updateCount; i++) {
+            SegmentState state = createState("Segment" + (i % segmentCount));
+            stateLog1.put(state.getSegmentName(), state, TIMEOUT).join();
+            expected.put(state.getSegmentName(), state);
+        }
+
+        long totalLength = 0;
+        for (int slot = 0; slot < 2; slot++) {
+            String slotName = SegmentStateLog.getSlotName(CONTAINER_ID, slot);
+            if (storage.exists(slotName, TIMEOUT).join()) {
+                totalLength += storage.getStreamSegmentInfo(slotName, TIMEOUT).join().getLength();
+            }
+        }
+
+        AssertExtensions.assertLessThan("Log was not compacted.", 2 * compactionMinBytes + 1024, totalLength);
+        checkStates(expected, segmentCount, stateLog1);
+        stateLog1.close();
+
+        @Cleanup
+        val stateLog2 = createStateLog(storage, new InMemoryStateStore(), compactionMinBytes);
+        stateLog2.initialize(2, TIMEOUT).join();
+        checkStates(expected, segmentCount, stateLog2);
+    }
+
+    /**
+     * Tests that partially written records at the end of the log are ignored upon initialization, and that a log whose
+     * snapshot cannot be read is reported as corrupted.
+     */
+    @Test
+    public void testCorruptedLog() {
+        final int segmentCount = 10;
+        @Cleanup
+        val storage = new InMemoryStorage(executorService());
+        storage.initialize(1);
+        val expected = new HashMap<String, SegmentState>();
+        @Cleanup
+        val stateLog1 = createStateLog(storage, new InMemoryStateStore(), COMPACTION_MIN_BYTES);
+        stateLog1.initialize(1, TIMEOUT).join();
+        for (int i = 0; i < segmentCount; i++) {
+            SegmentState state = createState("Segment" + i);
+            stateLog1.put(state.getSegmentName(), state, TIMEOUT).join();
+            expected.put(state.getSegmentName(), state);
+        }
+
+        stateLog1.close();
+
+        // Simulate a partial write at the end of the active slot.
+        String slotName = getExistingSlotName(storage);
+        byte[] garbage = new byte[]{0, 0, 0, 100, 1, 2, 3};
+        appendToSegment(storage, slotName, garbage);
+
+        @Cleanup
+        val stateLog2 = createStateLog(storage, new InMemoryStateStore(), COMPACTION_MIN_BYTES);
+        stateLog2.initialize(2, TIMEOUT).join();
+        checkStates(expected, segmentCount, stateLog2);
+        stateLog2.close();
+
+        // Replace the active slot with something that does not have a header.
+        slotName = getExistingSlotName(storage);
+        storage.delete(storage.openWrite(slotName).join(), TIMEOUT).join();
+        storage.create(slotName, TIMEOUT).join();
+        appendToSegment(storage, slotName, garbage);
+
+        @Cleanup
+        val stateLog3 = createStateLog(storage, new InMemoryStateStore(), COMPACTION_MIN_BYTES);
+        AssertExtensions.assertThrows(
+                "initialize() did not fail for a corrupted log.",
+                () -> stateLog3.initialize(3, TIMEOUT),
+                ex -> ex instanceof DataCorruptionException);
+    }
+
+    /**
+     * Tests that states that only exist in the legacy store can still be retrieved and removed.
+     */
+    @Test
+    public void testLegacyFallback() {
+        @Cleanup
+        val storage = new InMemoryStorage(executorService());
+        storage.initialize(1);
+        val legacyStore = new SegmentStateStore(storage, executorService());
+        val legacyState = createState("Legacy");
+        legacyStore.put(legacyState.getSegmentName(), legacyState, TIMEOUT).join();
+
+        @Cleanup
+        val stateLog = createStateLog(storage, legacyStore, COMPACTION_MIN_BYTES);
+        stateLog.initialize(1, TIMEOUT).join();
+        checkStates(Collections.singletonMap(legacyState.getSegmentName(), legacyState), 0, stateLog);
+
+        // A newer state in the log takes precedence.
+        val newState = createState(legacyState.getSegmentName());
+        stateLog.put(newState.getSegmentName(), newState, TIMEOUT).join();
+        checkStates(Collections.singletonMap(newState.getSegmentName(), newState), 0, stateLog);
+
+        // Removing it must remove it from both places.
+        stateLog.remove(newState.getSegmentName(), TIMEOUT).join();
+        Assert.assertNull("Unexpected state after removal.", stateLog.get(newState.getSegmentName(), TIMEOUT).join());
+        Assert.assertNull("Legacy state was not removed.", legacyStore.get(newState.getSegmentName(), TIMEOUT).join());
+    }
+
+    private SegmentStateLog createStateLog(Storage storage, AsyncMap<String, SegmentState> legacyStore, long compactionMinBytes) {
+        return new SegmentStateLog(CONTAINER_ID, storage, legacyStore, compactionMinBytes, executorService());
+    }
+
+    private void checkStates(Map<String, SegmentState> expected, int segmentCount, AsyncMap<String, SegmentState> stateStore) {
+        for (val e : expected.entrySet()) {
+            val actual = stateStore.get(e.getKey(), TIMEOUT).join();
+            Assert.assertNotNull("No state found for " + e.getKey(), actual);
+            Assert.assertEquals("Unexpected segment name.", e.getKey(), actual.getSegmentName());
+            AssertExtensions.assertMapEquals("Unexpected attributes for " + e.getKey(), e.getValue().getAttributes(), actual.getAttributes());
+        }
+
+        for (int i = 0; i < segmentCount; i++) {
+            String segmentName = "Segment" + i;
+            if (!expected.containsKey(segmentName)) {
+                Assert.assertNull("Unexpected state for removed segment " + segmentName, stateStore.get(segmentName, TIMEOUT).join());
+            }
+        }
+    }
+
+    private int getExistingSlotCount(Storage storage) {
+        int count = 0;
+        for (int slot = 0; slot < 2; slot++) {
+            if (storage.exists(SegmentStateLog.getSlotName(CONTAINER_ID, slot), TIMEOUT).join()) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    private String getExistingSlotName(Storage storage) {
+        Assert.assertEquals("Expected exactly one slot to exist.", 1, getExistingSlotCount(storage));
+        String slotName = SegmentStateLog.getSlotName(CONTAINER_ID, 0);
+        return storage.exists(slotName, TIMEOUT).join() ? slotName : SegmentStateLog.getSlotName(CONTAINER_ID, 1);
+    }
+
+    private void appendToSegment(Storage storage, String segmentName, byte[] data) {
+        val handle = storage.openWrite(segmentName).join();
+        long length = storage.getStreamSegmentInfo(segmentName, TIMEOUT).join().getLength();
+        storage.write(handle, length, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+    }
+
+    private SegmentState createState(String segmentName) {
+        HashMap<UUID, Long> attributes = new HashMap<>();
+        attributes.put(UUID.randomUUID(), System.nanoTime());
+        return new SegmentState(new StreamSegmentInformation(segmentName, 0, false, false, attributes, new ImmutableDate()));
+    }
+}
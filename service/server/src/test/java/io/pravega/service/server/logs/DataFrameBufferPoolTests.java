@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.logs;
+
+import java.util.ArrayList;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the DataFrameBufferPool class.
+ */
+public class DataFrameBufferPoolTests {
+    private static final int BUFFER_SIZE = 1024;
+    private static final int MAX_POOLED_BUFFERS = 3;
+
+    /**
+     * Tests the ability to get and release buffers, and that released buffers are reused.
+     */
+    @Test
+    public void testGetRelease() {
+        DataFrameBufferPool pool = new DataFrameBufferPool(BUFFER_SIZE, MAX_POOLED_BUFFERS);
+        Assert.assertEquals("Unexpected buffer size.", BUFFER_SIZE, pool.getBufferSize());
+
+        // Nothing is available initially, so these should all be new buffers.
+        ArrayList<byte[]> buffers = new ArrayList<>();
+        for (int i = 0; i < MAX_POOLED_BUFFERS + 1; i++) {
+            byte[] buffer = pool.get();
+            Assert.assertEquals("Unexpected length of new buffer.", BUFFER_SIZE, buffer.length);
+            for (byte[] b : buffers) {
+                Assert.assertNotSame("Same buffer handed out twice.", b, buffer);
+            }
+
+            buffers.add(buffer);
+        }
+
+        // Release all of them; only MAX_POOLED_BUFFERS should be retained.
+        buffers.forEach(pool::release);
+        Assert.assertEquals("Unexpected number of available buffers.", MAX_POOLED_BUFFERS, pool.getAvailableCount());
+
+        // Buffers of a different size are never retained.
+        pool.get();
+        pool.release(new byte[BUFFER_SIZE + 1]);
+        Assert.assertEquals("Buffer of a different size was retained.", MAX_POOLED_BUFFERS - 1, pool.getAvailableCount());
+
+        // Released buffers are reused (in the order in which they were released).
+        for (int i = 1; i < MAX_POOLED_BUFFERS; i++) {
+            Assert.assertSame("Released buffer was not reused.", buffers.get(i), pool.get());
+        }
+
+        Assert.assertEquals("Unexpected number of available buffers.", 0, pool.getAvailableCount());
+        Assert.assertNotNull("Unable to get a new buffer when none is available.", pool.get());
+    }
+}
@@ -17,6 +17,7 @@ package io.pravega.service.server.logs;
 
 import io.pravega.common.ExceptionHelpers;
 import io.pravega.common.ObjectClosedException;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.service.server.DataCorruptionException;
 import io.pravega.service.server.LogItemFactory;
 import io.pravega.service.server.TestDurableDataLog;
@@ -32,8 +33,10 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -196,6 +199,89 @@ public class DataFrameReaderTests extends ThreadPooledTestSuite {
         }
     }
 
+    /**
+     * Tests the case when the DataFrameReader reads from a log that is missing a DataFrame in the middle.
+     */
+    @Test
+    public void testReadsWithMissingFrame() throws Exception {
+        ArrayList<TestLogItem> records = DataFrameTestHelpers.generateLogItems(100, SMALL_RECORD_MIN_SIZE, SMALL_RECORD_MAX_SIZE, 0);
+        records.addAll(DataFrameTestHelpers.generateLogItems(100, LARGE_RECORD_MIN_SIZE, LARGE_RECORD_MAX_SIZE, records.size()));
+
+        try (TestDurableDataLog dataLog = TestDurableDataLog.create(CONTAINER_ID, FRAME_SIZE, executorService())) {
+            dataLog.initialize(TIMEOUT);
+
+            ArrayList<DataFrameBuilder.DataFrameCommitArgs> commitFrames = new ArrayList<>();
+            Consumer<Throwable> errorCallback = ex -> Assert.fail(String.format("Unexpected error occurred upon commit. %s", ex));
+            try (DataFrameBuilder<TestLogItem> b = new DataFrameBuilder<>(dataLog, commitFrames::add, errorCallback)) {
+                for (int i = 0; i < records.size(); i++) {
+                    b.append(records.get(i));
+                }
+            }
+
+            // Skip over one DataFrame in the middle of the log.
+            List<DurableDataLog.ReadItem> entries = dataLog.getAllEntries(readItem -> readItem);
+            int missingFrameIndex = entries.size() / 2;
+            AtomicInteger readCount = new AtomicInteger();
+            dataLog.setReadInterceptor(readItem -> {
+                int index = readCount.getAndIncrement();
+                if (index >= missingFrameIndex) {
+                    index++;
+                }
+
+                return index < entries.size() ? entries.get(index) : null;
+            });
+
+            TestLogItemFactory logItemFactory = new TestLogItemFactory();
+            testReadWithException(dataLog, logItemFactory, ex -> ex instanceof DataCorruptionException);
+        }
+    }
+
+    /**
+     * Tests the case when the DataFrameReader reads from a log that was written with multiple DataFrames in flight, where
+     * DataFrames may point to any of the DataFrames that were in flight when they were built. Also verifies that the
+     * DataFrames that follow them are validated based on how they themselves were written.
+     */
+    @Test
+    public void testReadsWithPipelinedFrames() throws Exception {
+        int maxFramesInFlight = 3;
+        ArrayList<TestLogItem> records = DataFrameTestHelpers.generateLogItems(20, SMALL_RECORD_MIN_SIZE, SMALL_RECORD_MAX_SIZE, 0);
+        TestLogItemFactory logItemFactory = new TestLogItemFactory();
+        try (TestDurableDataLog dataLog = TestDurableDataLog.create(CONTAINER_ID, FRAME_SIZE, executorService())) {
+            dataLog.initialize(TIMEOUT);
+
+            // Write one record per DataFrame, with each DataFrame pointing as far back as its writer allowed it to.
+            ArrayList<Long> frameSequences = new ArrayList<>();
+            for (int i = 0; i < records.size() - 1; i++) {
+                int previousIndex = i - maxFramesInFlight - 1;
+                long previousFrameSequence = previousIndex >= 0 ? frameSequences.get(previousIndex) : -1;
+                frameSequences.add(writeFrame(dataLog, records.get(i), previousFrameSequence, maxFramesInFlight));
+            }
+
+            // Follow up with a DataFrame that was written one at a time (i.e., after the writer was reconfigured).
+            long lastFrameSequence = frameSequences.get(frameSequences.size() - 1);
+            frameSequences.add(writeFrame(dataLog, records.get(records.size() - 1), lastFrameSequence, 1));
+
+            DataFrameReader<TestLogItem> reader = new DataFrameReader<>(dataLog, logItemFactory, CONTAINER_ID);
+            List<TestLogItem> readItems = readAll(reader);
+            checkReadResult(records, Collections.emptyList(), readItems);
+
+            // A DataFrame that was written one at a time must point to the one right before it.
+            TestLogItem badRecord = DataFrameTestHelpers.generateLogItems(1, SMALL_RECORD_MIN_SIZE, SMALL_RECORD_MAX_SIZE, records.size()).get(0);
+            writeFrame(dataLog, badRecord, lastFrameSequence, 1);
+            testReadWithException(dataLog, logItemFactory, ex -> ex instanceof DataCorruptionException);
+        }
+    }
+
+    private long writeFrame(DurableDataLog dataLog, TestLogItem record, long previousFrameSequence, int maxFramesInFlight) {
+        DataFrame frame = new DataFrame(previousFrameSequence, maxFramesInFlight, new byte[FRAME_SIZE]);
+        byte[] serialization = record.getFullSerialization();
+        Assert.assertTrue("Unable to start an entry in an empty DataFrame.", frame.startNewEntry(true));
+        Assert.assertEquals("Record does not fit in a single DataFrame.", serialization.length, frame.append(new ByteArraySegment(serialization)));
+        frame.endEntry(true);
+        frame.seal();
+        return dataLog.append(frame.getData(), TIMEOUT).join().getSequence();
+    }
+
     private void testReadWithException(DurableDataLog dataLog, LogItemFactory<TestLogItem> logItemFactory, Predicate<Throwable> exceptionVerifier) throws Exception {
         try (DataFrameReader<TestLogItem> reader = new DataFrameReader<>(dataLog, logItemFactory, CONTAINER_ID)) {
             boolean encounteredException = false;
@@ -18,6 +18,8 @@ package io.pravega.service.server.logs;
 import io.pravega.common.util.ByteArraySegment;
 import io.pravega.service.storage.LogAddress;
 import io.pravega.test.common.AssertExtensions;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import lombok.val;
 import org.junit.Assert;
@@ -73,10 +75,124 @@ public class DataFrameTests {
         Assert.assertEquals("Unexpected length from getData().", writeFrame.getLength(), frameData.getLength());
 
         // Read them back, by deserializing the frame.
-        DataFrame readFrame = new DataFrame(new ByteArraySegment(frameData.array(), frameData.arrayOffset(), frameData.getLength()));
+        DataFrame readFrame = new DataFrame(new ByteArraySegment(frameData.array(), frameData.arrayOffset(), frameData.getLength()), new DataFrameCodec(maxFrameSize));
         DataFrameTestHelpers.checkReadRecords(readFrame, allRecords, b -> b);
     }
 
+    /**
+     * Tests the ability to serialize a DataFrame into a buffer that already contains data (such as a buffer that was
+     * previously used for another DataFrame), and then read the records back.
+     */
+    @Test
+    public void testReusedBuffer() throws Exception {
+        int maxFrameSize = 1024 * 1024;
+        int maxRecordCount = 2500;
+        int minRecordSize = 0;
+        int maxRecordSize = 1024;
+        List<ByteArraySegment> allRecords = DataFrameTestHelpers.generateRecords(maxRecordCount, minRecordSize, maxRecordSize, ByteArraySegment::new);
+
+        byte[] buffer = new byte[maxFrameSize];
+        Arrays.fill(buffer, (byte) -1);
+        DataFrame writeFrame = new DataFrame(DEFAULT_PREVIOUS_SEQUENCE, 1, buffer);
+        Assert.assertSame("Unexpected buffer from getBuffer().", buffer, writeFrame.getBuffer());
+        int recordsAppended = appendRecords(allRecords, writeFrame);
+        AssertExtensions.assertGreaterThan("Did not append enough records. Test may not be valid.", allRecords.size() / 2, recordsAppended);
+        writeFrame.seal();
+
+        val frameData = writeFrame.getData();
+        DataFrame readFrame = new DataFrame(new ByteArraySegment(frameData.array(), frameData.arrayOffset(), frameData.getLength()), new DataFrameCodec(maxFrameSize));
+        DataFrameTestHelpers.checkReadRecords(readFrame, allRecords, b -> b);
+        AssertExtensions.assertThrows(
+                "getBuffer() worked on a read-only DataFrame.",
+                readFrame::getBuffer,
+                ex -> ex instanceof IllegalStateException);
+    }
+
+    /**
+     * Tests the ability to compress a DataFrame when sealing it, serialize it, deserialize it, and then read those
+     * records back.
+     */
+    @Test
+    public void testCompression() throws Exception {
+        int maxFrameSize = 1024 * 1024;
+        int recordCount = 2500;
+        List<ByteArraySegment> allRecords = new ArrayList<>();
+        for (int i = 0; i < recordCount; i++) {
+            allRecords.add(new ByteArraySegment(String.format("{\"id\":%d,\"name\":\"record-%d\",\"payload\":\"%0" + (i % 100 + 1) + "d\"}", i, i, 0).getBytes()));
+        }
+
+        DataFrame uncompressedFrame = new DataFrame(DEFAULT_PREVIOUS_SEQUENCE, maxFrameSize);
+        appendRecords(allRecords, uncompressedFrame);
+        uncompressedFrame.seal();
+
+        try (DataFrameCodec codec = new DataFrameCodec(maxFrameSize)) {
+            // Write the same frame multiple times, to verify the codec can be reused.
+            for (int i = 0; i < 2; i++) {
+                DataFrame writeFrame = new DataFrame(DEFAULT_PREVIOUS_SEQUENCE, maxFrameSize);
+                appendRecords(allRecords, writeFrame);
+                writeFrame.seal(codec);
+                AssertExtensions.assertLessThan("DataFrame was not compressed.", uncompressedFrame.getLength(), writeFrame.getLength());
+                AssertExtensions.assertThrows(
+                        "getEntries() worked on a compressed DataFrame that is being written.",
+                        writeFrame::getEntries,
+                        ex -> ex instanceof IllegalStateException);
+
+                // Read them back, by deserializing the frame.
+                val frameData = writeFrame.getData();
+                Assert.assertEquals("Unexpected length from getData().", writeFrame.getLength(), frameData.getLength());
+                DataFrame readFrame = new DataFrame(new ByteArraySegment(frameData.array(), frameData.arrayOffset(), frameData.getLength()), codec);
+                DataFrameTestHelpers.checkReadRecords(readFrame, allRecords, b -> b);
+            }
+        }
+    }
+
+    /**
+     * Tests that compressed DataFrames which claim to have uncompressed contents larger than the max frame size are
+     * rejected, rather than having a buffer of that size allocated for them.
+     */
+    @Test
+    public void testCompressionMaxFrameSize() throws Exception {
+        int maxFrameSize = 1024 * 1024;
+        List<ByteArraySegment> allRecords = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            allRecords.add(new ByteArraySegment(String.format("record-%d", i).getBytes()));
+        }
+
+        try (DataFrameCodec codec = new DataFrameCodec(maxFrameSize);
+             DataFrameCodec smallCodec = new DataFrameCodec(maxFrameSize / 1024)) {
+            DataFrame writeFrame = new DataFrame(DEFAULT_PREVIOUS_SEQUENCE, maxFrameSize);
+            appendRecords(allRecords, writeFrame);
+            writeFrame.seal(codec);
+
+            val frameData = writeFrame.getData();
+            AssertExtensions.assertThrows(
+                    "A compressed DataFrame was decompressed beyond the max frame size.",
+                    () -> new DataFrame(new ByteArraySegment(frameData.array(), frameData.arrayOffset(), frameData.getLength()), smallCodec),
+                    ex -> ex instanceof SerializationException);
+        }
+    }
+
+    /**
+     * Tests that DataFrames whose contents cannot be compressed are written uncompressed, even if compression is requested.
+     */
+    @Test
+    public void testCompressionNotBeneficial() throws Exception {
+        int maxFrameSize = 1024 * 1024;
+        List<ByteArraySegment> allRecords = DataFrameTestHelpers.generateRecords(2500, 0, 1024, ByteArraySegment::new);
+
+        try (DataFrameCodec codec = new DataFrameCodec(maxFrameSize)) {
+            DataFrame writeFrame = new DataFrame(DEFAULT_PREVIOUS_SEQUENCE, maxFrameSize);
+            appendRecords(allRecords, writeFrame);
+            writeFrame.seal(codec);
+
+            // Random data does not compress; if the DataFrame was left uncompressed, we can still iterate over its entries.
+            DataFrameTestHelpers.checkReadRecords(writeFrame, allRecords, b -> b);
+            val frameData = writeFrame.getData();
+            DataFrame readFrame = new DataFrame(new ByteArraySegment(frameData.array(), frameData.arrayOffset(), frameData.getLength()), codec);
+            DataFrameTestHelpers.checkReadRecords(readFrame, allRecords, b -> b);
+        }
+    }
+
     /**
      * Tests the ability to Start/End/Discard an entry.
      */
@@ -652,6 +652,31 @@ public class DurableLogTests extends OperationLogTestBase {
      */
     @Test
     public void testRecoveryWithNoFailures() throws Exception {
+        testRecovery(ContainerSetup.defaultDurableLogConfig());
+    }
+
+    /**
+     * Tests the DurableLog recovery process when Operations are read and deserialized ahead of the ones being recovered.
+     */
+    @Test
+    public void testRecoveryWithReadAhead() throws Exception {
+        DurableLogConfig config = DurableLogConfig
+                .builder()
+                .with(DurableLogConfig.CHECKPOINT_MIN_COMMIT_COUNT, 10)
+                .with(DurableLogConfig.CHECKPOINT_COMMIT_COUNT, Integer.MAX_VALUE)
+                .with(DurableLogConfig.CHECKPOINT_TOTAL_COMMIT_LENGTH, Long.MAX_VALUE)
+                .with(DurableLogConfig.RECOVERY_READ_AHEAD_COUNT, 10)
+                .build();
+        testRecovery(config);
+    }
+
+    /**
+     * Generates a DurableLog with some data, then recovers it into a new DurableLog using the given configuration and
+     * verifies that all Operations have been recovered correctly.
+     *
+     * @param recoveryConfig The DurableLogConfig to use for the recovered DurableLog.
+     */
+    private void testRecovery(DurableLogConfig recoveryConfig) throws Exception {
         int streamSegmentCount = 50;
         int transactionsPerStreamSegment = 2;
         int appendsPerStreamSegment = 20;
@@ -702,7 +727,7 @@ public class DurableLogTests extends OperationLogTestBase {
         metadata = new MetadataBuilder(CONTAINER_ID).build();
         try (
                 ReadIndex readIndex = new ContainerReadIndex(DEFAULT_READ_INDEX_CONFIG, metadata, cacheFactory, storage, cacheManager, executorService());
-                DurableLog durableLog = new DurableLog(ContainerSetup.defaultDurableLogConfig(), metadata, dataLogFactory, readIndex, executorService())) {
+                DurableLog durableLog = new DurableLog(recoveryConfig, metadata, dataLogFactory, readIndex, executorService())) {
             durableLog.startAsync().awaitRunning();
 
             List<Operation> recoveredOperations = readAllDurableLog(durableLog);
@@ -33,14 +33,17 @@ import io.pravega.service.server.logs.operations.StreamSegmentAppendOperation;
 import io.pravega.service.server.logs.operations.StreamSegmentMapOperation;
 import io.pravega.service.storage.mocks.InMemoryCache;
 import io.pravega.test.common.AssertExtensions;
+import io.pravega.test.common.ThreadPooledTestSuite;
 import java.io.InputStream;
 import java.time.Duration;
 import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -51,7 +54,12 @@ import org.junit.Test;
 /**
  * Unit tests for MemoryStateUpdater class.
  */
-public class MemoryStateUpdaterTests {
+public class MemoryStateUpdaterTests extends ThreadPooledTestSuite {
+    @Override
+    protected int getThreadPoolSize() {
+        return 3;
+    }
+
     /**
      * Tests the functionality of the process() method.
      */
@@ -106,6 +114,79 @@ public class MemoryStateUpdaterTests {
                 ex -> ex instanceof DataCorruptionException);
     }
 
+    /**
+     * Tests the functionality of the process() method when given a batch of operations, with the appends for different
+     * StreamSegments being applied concurrently.
+     */
+    @Test
+    public void testProcessBatch() throws Exception {
+        int segmentCount = 10;
+        int appendsPerSegment = 20;
+        int mergeAfter = appendsPerSegment / 2;
+
+        SequencedItemList<Operation> opLog = new SequencedItemList<>();
+        List<TestReadIndex.MethodInvocation> methodInvocations = Collections.synchronizedList(new ArrayList<>());
+        TestReadIndex readIndex = new TestReadIndex(methodInvocations::add);
+        MemoryStateUpdater updater = new MemoryStateUpdater(opLog, readIndex, null, 3, executorService());
+
+        // Interleave the appends for all the segments, with a merge in the middle.
+        ArrayList<Operation> operations = new ArrayList<>();
+        for (int j = 0; j < appendsPerSegment; j++) {
+            for (int i = 0; i < segmentCount; i++) {
+                StreamSegmentAppendOperation appendOp = new StreamSegmentAppendOperation(i, new byte[]{(byte) j}, null);
+                appendOp.setStreamSegmentOffset(j);
+                operations.add(appendOp);
+            }
+
+            if (j == mergeAfter) {
+                operations.add(new MergeTransactionOperation(0, segmentCount));
+            }
+        }
+
+        for (int i = 0; i < operations.size(); i++) {
+            operations.get(i).setSequenceNumber(i);
+        }
+
+        updater.process(operations.iterator());
+
+        // All operations must have been added to the Memory Log, in order.
+        Iterator<Operation> logIterator = opLog.read(-1, operations.size() + 1);
+        for (Operation expected : operations) {
+            Assert.assertTrue("No more items left to read from the Memory Log.", logIterator.hasNext());
+            Operation actual = logIterator.next();
+            Assert.assertEquals("Unexpected operation in the Memory Log.", expected.getSequenceNumber(), actual.getSequenceNumber());
+            if (expected instanceof StreamSegmentAppendOperation) {
+                Assert.assertTrue("StreamSegmentAppendOperation was not added as a CachedStreamSegmentAppendOperation to the Memory Log.", actual instanceof CachedStreamSegmentAppendOperation);
+            }
+        }
+
+        Assert.assertFalse("Unexpected items in the Memory Log.", logIterator.hasNext());
+
+        // The appends for each segment must have been added to the ReadIndex in order, and the merge must have been added
+        // after all the appends that preceded it, and before all the ones that followed it.
+        Assert.assertEquals("Unexpected number of items added to ReadIndex.", operations.size(), methodInvocations.size());
+        int mergeIndex = -1;
+        for (int k = 0; k < methodInvocations.size(); k++) {
+            if (methodInvocations.get(k).methodName.equals(TestReadIndex.BEGIN_MERGE)) {
+                mergeIndex = k;
+            }
+        }
+
+        Assert.assertEquals("Merge was not added to the ReadIndex in the right place.", (mergeAfter + 1) * segmentCount, mergeIndex);
+        HashMap<Long, Long> lastOffsets = new HashMap<>();
+        for (int k = 0; k < methodInvocations.size(); k++) {
+            TestReadIndex.MethodInvocation invokedMethod = methodInvocations.get(k);
+            if (invokedMethod.methodName.equals(TestReadIndex.APPEND)) {
+                long segmentId = (Long) invokedMethod.args.get("streamSegmentId");
+                long offset = (Long) invokedMethod.args.get("offset");
+                Assert.assertEquals("Appends for segment " + segmentId + " were not added in order.",
+                        lastOffsets.getOrDefault(segmentId, -1L) + 1, offset);
+                Assert.assertEquals("Append was added on the wrong side of the merge.", offset <= mergeAfter, k < mergeIndex);
+                lastOffsets.put(segmentId, offset);
+            }
+        }
+    }
+
     /**
      * Tests the ability of the MemoryStateUpdater to delegate Enter/Exit recovery mode to the read index.
      */
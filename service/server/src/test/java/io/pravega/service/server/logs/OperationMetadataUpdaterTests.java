@@ -1013,6 +1013,62 @@ public class OperationMetadataUpdaterTests {
         Assert.assertNull("Unexpected state of the updater after rollback.", transactionMetadata);
     }
 
+    /**
+     * Tests the ability of the OperationMetadataUpdater to seal UpdateTransactions and commit them in layers.
+     */
+    @Test
+    public void testSealAndCommitInLayers() throws Exception {
+        final int transactionCount = 10;
+        final int appendsPerTransaction = 5;
+        UpdateableContainerMetadata metadata = createMetadata();
+        OperationMetadataUpdater updater = createUpdater(metadata);
+        ArrayList<Long> transactionIds = new ArrayList<>();
+        for (int i = 0; i < transactionCount; i++) {
+            for (int j = 0; j < appendsPerTransaction; j++) {
+                StreamSegmentAppendOperation op = createAppendNoOffset();
+                updater.preProcessOperation(op);
+                updater.acceptOperation(op);
+            }
+
+            long transactionId = updater.sealTransaction();
+            if (transactionIds.size() > 0) {
+                AssertExtensions.assertGreaterThan("Transaction Ids are not increasing.", transactionIds.get(transactionIds.size() - 1), transactionId);
+            }
+
+            transactionIds.add(transactionId);
+            long expectedUpdaterLength = SEGMENT_LENGTH + (i + 1) * appendsPerTransaction * DEFAULT_APPEND_DATA.length;
+            Assert.assertEquals("Unexpected DurableLogLength in updater after sealing transaction.",
+                    expectedUpdaterLength, updater.getStreamSegmentMetadata(SEGMENT_ID).getDurableLogLength());
+            Assert.assertEquals("sealTransaction() seems to have modified the metadata.",
+                    SEGMENT_LENGTH, metadata.getStreamSegmentMetadata(SEGMENT_ID).getDurableLogLength());
+        }
+
+        // Commit the transactions one by one, and verify that each commit only applies the changes from that transaction.
+        for (int i = 0; i < transactionCount / 2; i++) {
+            Assert.assertTrue("commit() did not make any modifications.", updater.commit(transactionIds.get(i)));
+            long expectedLength = SEGMENT_LENGTH + (i + 1) * appendsPerTransaction * DEFAULT_APPEND_DATA.length;
+            Assert.assertEquals("Unexpected DurableLogLength in metadata after partial commit.",
+                    expectedLength, metadata.getStreamSegmentMetadata(SEGMENT_ID).getDurableLogLength());
+            Assert.assertFalse("commit() made modifications when invoked a second time for the same transaction.", updater.commit(transactionIds.get(i)));
+        }
+
+        // Make a few more changes, then rollback. Nothing that was not yet committed should make it into the metadata.
+        StreamSegmentAppendOperation op = createAppendNoOffset();
+        updater.preProcessOperation(op);
+        Assert.assertEquals("Unexpected offset assigned to append on top of sealed transactions.",
+                SEGMENT_LENGTH + transactionCount * appendsPerTransaction * DEFAULT_APPEND_DATA.length, op.getStreamSegmentOffset());
+        updater.rollback();
+        long expectedLength = SEGMENT_LENGTH + transactionCount / 2 * appendsPerTransaction * DEFAULT_APPEND_DATA.length;
+        Assert.assertEquals("Unexpected DurableLogLength in metadata after rollback.",
+                expectedLength, metadata.getStreamSegmentMetadata(SEGMENT_ID).getDurableLogLength());
+        Assert.assertFalse("commit() made modifications after rollback.", updater.commit(transactionIds.get(transactionCount - 1)));
+
+        // Verify the updater is now reading straight from the metadata.
+        op = createAppendNoOffset();
+        updater.preProcessOperation(op);
+        Assert.assertEquals("Unexpected offset assigned to append after rollback.", expectedLength, op.getStreamSegmentOffset());
+    }
+
     /**
      * Tests the recordTruncationMarker() method.
      */
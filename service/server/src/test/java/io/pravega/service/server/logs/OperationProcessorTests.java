@@ -58,7 +58,9 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 
 import lombok.Cleanup;
@@ -72,12 +74,35 @@ public class OperationProcessorTests extends OperationLogTestBase {
     private static final int CONTAINER_ID = 1234567;
     private static final int MAX_DATA_LOG_APPEND_SIZE = 8 * 1024;
     private static final int METADATA_CHECKPOINT_EVERY = 100;
+    private static final int SHORT_TIMEOUT_MILLIS = 200;
 
     /**
      * Tests the ability of the OperationProcessor to process Operations in a failure-free environment.
      */
     @Test
     public void testWithNoFailures() throws Exception {
+        testWithNoFailures(1, false);
+    }
+
+    /**
+     * Tests the ability of the OperationProcessor to process Operations in a failure-free environment, when multiple
+     * DataFrames are allowed to be in flight at the same time.
+     */
+    @Test
+    public void testWithNoFailuresPipelined() throws Exception {
+        testWithNoFailures(4, false);
+    }
+
+    /**
+     * Tests the ability of the OperationProcessor to process Operations in a failure-free environment, when DataFrames
+     * are compressed before being written to the DurableDataLog.
+     */
+    @Test
+    public void testWithNoFailuresCompressed() throws Exception {
+        testWithNoFailures(4, true);
+    }
+
+    private void testWithNoFailures(int maxDataFramesInFlight, boolean compressDataFrames) throws Exception {
         int streamSegmentCount = 50;
         int transactionsPerStreamSegment = 2;
         int appendsPerStreamSegment = 20;
@@ -97,7 +122,8 @@ public class OperationProcessorTests extends OperationLogTestBase {
         TestDurableDataLog dataLog = TestDurableDataLog.create(CONTAINER_ID, MAX_DATA_LOG_APPEND_SIZE, executorService());
         dataLog.initialize(TIMEOUT);
         @Cleanup
-        OperationProcessor operationProcessor = new OperationProcessor(context.metadata, context.stateUpdater, dataLog, getNoOpCheckpointPolicy(), executorService());
+        OperationProcessor operationProcessor = new OperationProcessor(context.metadata, context.stateUpdater, dataLog, getNoOpCheckpointPolicy(),
+                maxDataFramesInFlight, compressDataFrames, executorService());
         operationProcessor.startAsync().awaitRunning();
 
         // Process all generated operations.
@@ -439,6 +465,49 @@ public class OperationProcessorTests extends OperationLogTestBase {
         operationProcessor.stopAsync().awaitTerminated();
     }
 
+    /**
+     * Tests the ability of the OperationProcessor to complete a ProbeOperation that is queued up behind a DataFrame
+     * which is still in flight (pipelined mode), once that DataFrame is committed.
+     */
+    @Test
+    public void testProbeOperationBehindInFlightFrame() throws Exception {
+        @Cleanup
+        TestContext context = new TestContext();
+
+        // Generate some test data: a single append, followed by a ProbeOperation.
+        HashSet<Long> streamSegmentIds = createStreamSegmentsInMetadata(1, context.metadata);
+        List<Operation> operations = generateOperations(streamSegmentIds, new HashMap<>(), 1, Integer.MAX_VALUE, false, false);
+        operations.add(new ProbeOperation());
+
+        // Setup an OperationProcessor (with pipelining enabled) on top of a DurableDataLog that holds off all appends.
+        @Cleanup
+        TestDurableDataLog dataLog = TestDurableDataLog.create(CONTAINER_ID, MAX_DATA_LOG_APPEND_SIZE, executorService());
+        dataLog.initialize(TIMEOUT);
+        CompletableFuture<Void> appendGate = new CompletableFuture<>();
+        dataLog.setAppendGate(appendGate);
+        @Cleanup
+        OperationProcessor operationProcessor = new OperationProcessor(context.metadata, context.stateUpdater, dataLog, getNoOpCheckpointPolicy(),
+                2, false, executorService());
+        operationProcessor.startAsync().awaitRunning();
+
+        // Process all generated operations. The ProbeOperation must not complete while the append's DataFrame is in flight.
+        List<OperationWithCompletion> completionFutures = processOperations(operations, operationProcessor);
+        OperationWithCompletion probe = completionFutures.get(completionFutures.size() - 1);
+        AssertExtensions.assertThrows(
+                "ProbeOperation completed while its preceding DataFrame was still in flight.",
+                () -> probe.completion.get(SHORT_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS),
+                ex -> ex instanceof TimeoutException);
+        Assert.assertFalse("Append completed before the DataFrame was committed.", completionFutures.get(0).completion.isDone());
+
+        // Release the DataFrame; once committed, everything (including the ProbeOperation) must complete without any
+        // further operations being processed.
+        appendGate.complete(null);
+        OperationWithCompletion.allOf(completionFutures).get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        // Stop the processor.
+        operationProcessor.stopAsync().awaitTerminated();
+    }
+
     private List<OperationWithCompletion> processOperations(Collection<Operation> operations, OperationProcessor operationProcessor) {
         List<OperationWithCompletion> completionFutures = new ArrayList<>();
         operations.forEach(op -> completionFutures.add(new OperationWithCompletion(op, operationProcessor.process(op))));
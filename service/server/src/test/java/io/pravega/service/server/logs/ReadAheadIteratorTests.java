@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.server.logs;
+
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.util.CloseableIterator;
+import io.pravega.test.common.AssertExtensions;
+import io.pravega.test.common.IntentionalException;
+import io.pravega.test.common.ThreadPooledTestSuite;
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.Cleanup;
+import lombok.val;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for the ReadAheadIterator class.
+ */
+public class ReadAheadIteratorTests extends ThreadPooledTestSuite {
+    private static final int ITEM_COUNT = 1000;
+    private static final int CAPACITY = 10;
+
+    @Override
+    protected int getThreadPoolSize() {
+        return 3;
+    }
+
+    /**
+     * Tests that all items are returned, in order, when fetched in the background.
+     */
+    @Test
+    public void testReadAll() throws Exception {
+        @Cleanup
+        val source = new TestSource(ITEM_COUNT, -1);
+        @Cleanup
+        val iterator = new ReadAheadIterator<Integer>(source, CAPACITY, executorService());
+        checkItems(iterator, ITEM_COUNT);
+        Assert.assertNull("Unexpected result after the end has been reached.", iterator.getNext());
+    }
+
+    /**
+     * Tests that the consumer fetches items itself if no background fetches are ever executed.
+     */
+    @Test
+    public void testNoBackgroundFetch() throws Exception {
+        @Cleanup
+        val source = new TestSource(ITEM_COUNT, -1);
+        Executor neverExecutes = runnable -> {
+        };
+        @Cleanup
+        val iterator = new ReadAheadIterator<Integer>(source, CAPACITY, neverExecutes);
+        checkItems(iterator, ITEM_COUNT);
+        Assert.assertNull("Unexpected result after the end has been reached.", iterator.getNext());
+    }
+
+    /**
+     * Tests that a failure in the source is surfaced only after all items fetched before it have been returned.
+     */
+    @Test
+    public void testSourceFailure() throws Exception {
+        final int failAt = ITEM_COUNT / 2;
+        @Cleanup
+        val source = new TestSource(ITEM_COUNT, failAt);
+        @Cleanup
+        val iterator = new ReadAheadIterator<Integer>(source, CAPACITY, executorService());
+        checkItems(iterator, failAt);
+        AssertExtensions.assertThrows(
+                "getNext() did not throw the source's exception.",
+                iterator::getNext,
+                ex -> ex instanceof IntentionalException);
+    }
+
+    /**
+     * Tests that closing the iterator closes the source and prevents any further reads.
+     */
+    @Test
+    public void testClose() throws Exception {
+        val source = new TestSource(ITEM_COUNT, -1);
+        val iterator = new ReadAheadIterator<Integer>(source, CAPACITY, executorService());
+        checkItems(iterator, 1);
+        iterator.close();
+        Assert.assertTrue("Source was not closed.", source.closed.get());
+        AssertExtensions.assertThrows(
+                "getNext() worked after close().",
+                iterator::getNext,
+                ex -> ex instanceof ObjectClosedException);
+    }
+
+    private void checkItems(ReadAheadIterator<Integer> iterator, int count) throws Exception {
+        ArrayList<Integer> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(iterator.getNext());
+        }
+
+        for (int i = 0; i < count; i++) {
+            Assert.assertEquals("Unexpected item at index " + i, i, (int) items.get(i));
+        }
+    }
+
+    /**
+     * Source which returns consecutive integers and verifies it is never invoked concurrently.
+     */
+    private static class TestSource implements CloseableIterator<Integer, Exception> {
+        private final int count;
+        private final int failAt;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicBoolean busy = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        TestSource(int count, int failAt) {
+            this.count = count;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public Integer getNext() throws Exception {
+            Assert.assertFalse("Source was closed.", this.closed.get());
+            Assert.assertTrue("Source invoked concurrently.", this.busy.compareAndSet(false, true));
+            try {
+                int result = this.next.getAndIncrement();
+                if (result == this.failAt) {
+                    throw new IntentionalException();
+                } else if (result >= this.count) {
+                    return null;
+                }
+
+                return result;
+            } finally {
+                this.busy.set(false);
+            }
+        }
+
+        @Override
+        public void close() {
+            this.closed.set(true);
+        }
+    }
+}
@@ -17,11 +17,13 @@ package io.pravega.service.server.logs.operations;
 
 import io.pravega.common.MathHelpers;
 import io.pravega.test.common.AssertExtensions;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Base class for all Log Operation test.
@@ -51,9 +53,24 @@ public abstract class OperationTestsBase<T extends Operation> {
             configurePreSerialization(baseOp, random);
         }
 
-        // Serialize.
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        // Serialize. Verify that the Operation does not write its contents one byte at a time, nor flushes the stream.
+        AtomicInteger singleByteWrites = new AtomicInteger();
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream() {
+            @Override
+            public synchronized void write(int b) {
+                singleByteWrites.incrementAndGet();
+                super.write(b);
+            }
+
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
         baseOp.serialize(outputStream);
+        Assert.assertEquals("Unexpected number of single-byte writes.", 0, singleByteWrites.get());
+        Assert.assertEquals("Serialization flushed the OutputStream.", 0, flushes.get());
 
         //Deserialize.
         ByteArrayInputStream inputStream = new ByteArrayInputStream(outputStream.toByteArray());
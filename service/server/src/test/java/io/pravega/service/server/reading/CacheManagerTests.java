@@ -203,6 +203,29 @@ public class CacheManagerTests extends ThreadPooledTestSuite {
         cm.applyCachePolicy();
     }
 
+    /**
+     * Tests the ability of the CacheManager to report the cache utilization, as of the last time it applied the policy.
+     */
+    @Test
+    public void testCacheUtilization() {
+        final CachePolicy policy = new CachePolicy(1000, Duration.ofHours(1), Duration.ofHours(1));
+        @Cleanup
+        TestCacheManager cm = new TestCacheManager(policy, executorService());
+        TestClient client = new TestClient();
+        cm.register(client);
+        Assert.assertEquals("Unexpected utilization before applying the policy.", 0, cm.getCacheUtilizationPercent());
+
+        client.setCacheStatus(500, 0, 0);
+        Assert.assertEquals("Utilization changed before applying the policy.", 0, cm.getCacheUtilizationPercent());
+        cm.applyCachePolicy();
+        Assert.assertEquals("Unexpected utilization.", 50, cm.getCacheUtilizationPercent());
+
+        // Clients do not free up anything, so the cache remains over its maximum size.
+        client.setCacheStatus(2000, 0, 1);
+        cm.applyCachePolicy();
+        Assert.assertEquals("Unexpected utilization when exceeding the policy.", 200, cm.getCacheUtilizationPercent());
+    }
+
     private static class TestClient implements CacheManager.Client {
         private CacheManager.CacheStatus currentStatus;
         private BiFunction<Integer, Integer, Long> updateGenerationsImpl = (current, oldest) -> -1L;
@@ -51,11 +51,13 @@ import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
 import java.util.function.Consumer;
+import java.util.function.IntUnaryOperator;
 import java.util.stream.Collectors;
 
 import lombok.Cleanup;
@@ -190,6 +192,86 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         Assert.assertEquals("Not encountered any storage reads, even though one was forced.", lastCacheOffset > 0, encounteredStorageRead);
     }
 
+    /**
+     * Tests the ability of the ReadIndex to detect sequential reads from Storage and prefetch the blocks that follow
+     * into the cache, as well as to refrain from doing so if the cache is too full.
+     */
+    @Test
+    public void testStoragePrefetch() throws Exception {
+        testStoragePrefetch(100, true);
+        testStoragePrefetch(0, false);
+    }
+
+    private void testStoragePrefetch(int maxCacheUtilizationPercent, boolean expectPrefetch) throws Exception {
+        final int alignment = 1024;
+        final int prefetchCount = 2;
+        final int blockCount = 10;
+        final byte[] segmentData = new byte[alignment * blockCount];
+        new Random(0).nextBytes(segmentData);
+
+        final ReadIndexConfig config = ConfigHelpers
+                .withInfiniteCachePolicy(ReadIndexConfig.builder()
+                                                        .with(ReadIndexConfig.MEMORY_READ_MIN_LENGTH, 0)
+                                                        .with(ReadIndexConfig.STORAGE_READ_ALIGNMENT, alignment)
+                                                        .with(ReadIndexConfig.STORAGE_PREFETCH_COUNT, prefetchCount)
+                                                        .with(ReadIndexConfig.STORAGE_PREFETCH_MAX_CACHE_UTILIZATION, maxCacheUtilizationPercent))
+                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config, config.getCachePolicy());
+
+        // Create the segment in Storage and populate it with all the data; nothing is in the cache.
+        final long segmentId = createSegment(0, context);
+        createSegmentsInStorage(context);
+        final UpdateableSegmentMetadata segmentMetadata = context.metadata.getStreamSegmentMetadata(segmentId);
+        val writeHandle = context.storage.openWrite(segmentMetadata.getName()).join();
+        context.storage.write(writeHandle, 0, new ByteArrayInputStream(segmentData), segmentData.length, TIMEOUT).join();
+        segmentMetadata.setStorageLength(segmentData.length);
+        segmentMetadata.setDurableLogLength(segmentData.length);
+
+        // Keep track of what gets inserted into the cache, and get notified when the first prefetched blocks are in.
+        val insertedOffsets = new HashSet<Long>();
+        val prefetched = new CompletableFuture<Void>();
+        context.cacheFactory.cache.insertCallback = key -> {
+            synchronized (insertedOffsets) {
+                insertedOffsets.add(key.getOffset());
+                if (insertedOffsets.contains(2L * alignment) && insertedOffsets.contains(3L * alignment)) {
+                    prefetched.complete(null);
+                }
+            }
+        };
+
+        @Cleanup
+        ReadResult readResult = context.readIndex.read(segmentId, 0, segmentData.length, TIMEOUT);
+        long expectedOffset = 0;
+        while (readResult.hasNext()) {
+            int block = (int) (expectedOffset / alignment);
+            if (block == 2 && expectPrefetch) {
+                // Reading the second block should have triggered the prefetch of the ones that follow it.
+                prefetched.get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            }
+
+            ReadResultEntry entry = readResult.next();
+            Assert.assertEquals("Unexpected offset for ReadResultEntry.", expectedOffset, entry.getStreamSegmentOffset());
+            if (block < 2 || !expectPrefetch) {
+                // The first two blocks are read from Storage; the second one establishes the sequential pattern. If we
+                // are not supposed to prefetch, every other block must be read from Storage as well.
+                Assert.assertEquals("Unexpected entry type for block " + block, ReadResultEntryType.Storage, entry.getType());
+            } else if (block < 2 + prefetchCount) {
+                Assert.assertEquals("Block was not prefetched: " + block, ReadResultEntryType.Cache, entry.getType());
+            }
+
+            entry.requestContent(TIMEOUT);
+            val contents = entry.getContent().get(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            byte[] entryData = new byte[contents.getLength()];
+            StreamHelpers.readAll(contents.getData(), entryData, 0, entryData.length);
+            AssertExtensions.assertArrayEquals("Unexpected data read at offset " + expectedOffset, segmentData, (int) expectedOffset, entryData, 0, entryData.length);
+            expectedOffset += entryData.length;
+        }
+
+        Assert.assertEquals("Not all data was read.", segmentData.length, expectedOffset);
+    }
+
     /**
      * Tests the readDirect() method on the ReadIndex.
      */
@@ -882,6 +964,34 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
         Assert.assertArrayEquals("Unexpected data read back.", transactionWriteData, readData);
     }
 
+    /**
+     * Tests that the CacheManager accounts for the memory the cache uses for each entry (which may exceed the length of
+     * the entry if the cache allocates memory in fixed-size blocks), rather than for the entry lengths themselves.
+     */
+    @Test
+    public void testCacheEntrySize() throws Exception {
+        final int appendSize = 10;
+        final int entrySize = 100;
+        final int appendsPerSegment = 10;
+        CachePolicy cachePolicy = new CachePolicy(2L * SEGMENT_COUNT * appendsPerSegment * entrySize, Duration.ofHours(10), Duration.ofHours(1));
+        @Cleanup
+        TestContext context = new TestContext(DEFAULT_CONFIG, cachePolicy);
+        context.cacheFactory.cache.entrySize = length -> entrySize;
+        ArrayList<Long> segmentIds = createSegments(context);
+        for (long segmentId : segmentIds) {
+            UpdateableSegmentMetadata sm = context.metadata.getStreamSegmentMetadata(segmentId);
+            for (int i = 0; i < appendsPerSegment; i++) {
+                long offset = sm.getDurableLogLength();
+                sm.setDurableLogLength(offset + appendSize);
+                context.readIndex.append(segmentId, offset, new byte[appendSize]);
+            }
+        }
+
+        // If only the entry lengths were accounted for, the cache would appear to be 5% full.
+        context.cacheManager.applyCachePolicy();
+        Assert.assertEquals("Unexpected cache utilization.", 50, context.cacheManager.getCacheUtilizationPercent());
+    }
+
     /**
      * Tests the following scenario, where the Read Index has a read from a portion in a parent segment where a transaction
      * was just merged (fully in storage), but the read request might result in either an ObjectClosedException or
@@ -1220,11 +1330,28 @@ public class ContainerReadIndexTests extends ThreadPooledTestSuite {
 
     private static class TestCache extends InMemoryCache {
         Consumer<CacheKey> removeCallback;
+        Consumer<CacheKey> insertCallback;
+        IntUnaryOperator entrySize;
 
         TestCache(String id) {
             super(id);
         }
 
+        @Override
+        public void insert(Cache.Key key, byte[] payload) {
+            super.insert(key, payload);
+            Consumer<CacheKey> callback = this.insertCallback;
+            if (callback != null) {
+                callback.accept((CacheKey) key);
+            }
+        }
+
+        @Override
+        public long getEntrySize(int length) {
+            IntUnaryOperator entrySize = this.entrySize;
+            return entrySize == null ? super.getEntrySize(length) : entrySize.applyAsInt(length);
+        }
+
         @Override
         public void remove(Cache.Key key) {
             Consumer<CacheKey> callback = this.removeCallback;
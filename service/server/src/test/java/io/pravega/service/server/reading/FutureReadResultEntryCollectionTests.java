@@ -19,18 +19,30 @@ import lombok.Cleanup;
 import org.junit.Assert;
 import org.junit.Test;
 
+import io.pravega.common.concurrent.TimeoutWheel;
 import io.pravega.test.common.AssertExtensions;
+import io.pravega.test.common.ThreadPooledTestSuite;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Unit tests for FutureReadResultEntryCollection class.
  */
-public class FutureReadResultEntryCollectionTests {
+public class FutureReadResultEntryCollectionTests extends ThreadPooledTestSuite {
     private static final int ENTRY_COUNT = 100;
     private static final int OFFSET_MULTIPLIER = 1000;
+    private static final Duration TICK = Duration.ofMillis(10);
+    private static final Duration SHORT_TIMEOUT = Duration.ofMillis(50);
+    private static final Duration LONG_TIMEOUT = Duration.ofSeconds(30);
+
+    @Override
+    protected int getThreadPoolSize() {
+        return 2;
+    }
 
     /**
      * Tests the ability to poll entries based on their offsets.
@@ -97,6 +109,61 @@ public class FutureReadResultEntryCollectionTests {
         }
     }
 
+    /**
+     * Tests that entries whose content has been requested are failed with a TimeoutException and removed from the
+     * collection if not polled before the timeout expires, and that entries polled in time are not affected.
+     */
+    @Test(timeout = 10000)
+    public void testTimeout() {
+        @Cleanup
+        TimeoutWheel wheel = new TimeoutWheel(TICK, 16, executorService());
+        @Cleanup
+        FutureReadResultEntryCollection c = new FutureReadResultEntryCollection(wheel);
+        List<FutureReadResultEntry> entries = generateEntries();
+        entries.forEach(c::add);
+
+        // Even entries time out quickly, odd ones do not. Entries with no requestContent() call never time out.
+        final int requestedCount = ENTRY_COUNT / 2;
+        for (int i = 0; i < requestedCount; i++) {
+            entries.get(i).requestContent(i % 2 == 0 ? SHORT_TIMEOUT : LONG_TIMEOUT);
+        }
+
+        for (int i = 0; i < requestedCount; i += 2) {
+            AssertExtensions.assertThrows(
+                    "Entry did not time out.",
+                    entries.get(i).getContent()::join,
+                    ex -> ex instanceof TimeoutException);
+        }
+
+        Assert.assertEquals("Timed out entries were not removed.", ENTRY_COUNT - requestedCount / 2, c.size());
+        Collection<FutureReadResultEntry> polled = c.pollAll();
+        Assert.assertEquals("Unexpected number of entries polled.", ENTRY_COUNT - requestedCount / 2, polled.size());
+        for (FutureReadResultEntry e : polled) {
+            Assert.assertFalse("Polled entry is already completed.", e.getContent().isDone());
+        }
+
+        Assert.assertEquals("Timeouts for polled entries were not cancelled.", requestedCount / 2, wheel.getPendingCount());
+        polled.forEach(e -> e.fail(new IllegalStateException()));
+        Assert.assertEquals("Timeouts for completed entries were not cancelled.", 0, wheel.getPendingCount());
+    }
+
+    /**
+     * Tests that entries which are cancelled by their consumers are removed from the collection.
+     */
+    @Test
+    public void testExternalCancellation() {
+        @Cleanup
+        FutureReadResultEntryCollection c = new FutureReadResultEntryCollection();
+        List<FutureReadResultEntry> entries = generateEntries();
+        entries.forEach(c::add);
+        entries.get(0).getContent().cancel(true);
+        Assert.assertEquals("Cancelled entry was not removed.", ENTRY_COUNT - 1, c.size());
+
+        // Cancelling all entries should skip over those that are already completed.
+        c.cancelAll();
+        Assert.assertEquals("Unexpected size after cancelAll().", 0, c.size());
+    }
+
     private List<FutureReadResultEntry> generateEntries() {
         ArrayList<FutureReadResultEntry> entries = new ArrayList<>();
         for (int i = 0; i < ENTRY_COUNT; i++) {
@@ -16,6 +16,7 @@
 package io.pravega.service.server.writer;
 
 import io.pravega.common.ExceptionHelpers;
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.common.concurrent.ServiceShutdownListener;
 import io.pravega.common.segment.StreamSegmentNameUtils;
 import io.pravega.service.contracts.SegmentProperties;
@@ -103,6 +104,40 @@ public class StorageWriterTests extends ThreadPooledTestSuite {
         testWriter(context);
     }
 
+    /**
+     * Tests the StorageWriter when only a limited number of Segments may be flushed at the same time. Verifies that
+     * the limit is never exceeded and that all the data still makes it to Storage.
+     */
+    @Test
+    public void testLimitedConcurrentFlushes() throws Exception {
+        final int maxConcurrentFlushes = 2;
+        final WriterConfig config = WriterConfig.builder()
+                                                .with(WriterConfig.FLUSH_THRESHOLD_BYTES, 1000)
+                                                .with(WriterConfig.FLUSH_THRESHOLD_MILLIS, 1000L)
+                                                .with(WriterConfig.MIN_READ_TIMEOUT_MILLIS, 10L)
+                                                .with(WriterConfig.MAX_READ_TIMEOUT_MILLIS, 250L)
+                                                .with(WriterConfig.MAX_ITEMS_TO_READ_AT_ONCE, 100)
+                                                .with(WriterConfig.ERROR_SLEEP_MILLIS, 0L)
+                                                .with(WriterConfig.MAX_CONCURRENT_FLUSHES, maxConcurrentFlushes) // This differs from DEFAULT_CONFIG.
+                                                .build();
+
+        @Cleanup
+        TestContext context = new TestContext(config);
+
+        // Keep track of how many writes (each belonging to a different Segment's flush) are in progress at any time.
+        AtomicInteger activeWrites = new AtomicInteger();
+        AtomicInteger maxActiveWrites = new AtomicInteger();
+        context.storage.setWriteInterceptor((segmentName, offset, data, length, storage) -> {
+            int active = activeWrites.incrementAndGet();
+            maxActiveWrites.accumulateAndGet(active, Math::max);
+            return FutureHelpers.delayedFuture(Duration.ofMillis(1), executorService())
+                                .thenRun(activeWrites::decrementAndGet);
+        });
+
+        testWriter(context);
+        AssertExtensions.assertLessThanOrEqual("Too many concurrent flushes.", maxConcurrentFlushes, maxActiveWrites.get());
+    }
+
     /**
      * Tests the StorageWriter in a scenario where the DataSource throws random exceptions. Simulated errors are for
      * the following operations:
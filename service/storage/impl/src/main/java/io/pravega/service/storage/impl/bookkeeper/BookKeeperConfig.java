@@ -43,6 +43,8 @@ public class BookKeeperConfig {
     public static final Property<Integer> BK_WRITE_QUORUM_SIZE = Property.named("bkWriteQuorumSize", 3);
     public static final Property<Integer> BK_LEDGER_MAX_SIZE = Property.named("bkLedgerMaxSize", 1024 * 1024 * 1024);
     public static final Property<String> BK_PASSWORD = Property.named("bkPass", "");
+    public static final Property<Integer> BK_READ_BATCH_SIZE = Property.named("bkReadBatchSize", 64);
+    public static final Property<Integer> BK_READ_AHEAD_BATCH_COUNT = Property.named("bkReadAheadBatchCount", 4);
     private static final String COMPONENT_CODE = "bookkeeper";
 
     //endregion
@@ -113,6 +115,19 @@ public class BookKeeperConfig {
     private final int bkLedgerMaxSize;
     private final byte[] bkPassword;
 
+    /**
+     * The maximum number of Ledger Entries to request from BookKeeper in a single read when reading a Log.
+     */
+    @Getter
+    private final int bkReadBatchSize;
+
+    /**
+     * The maximum number of read batches that may be outstanding at any given time when reading a Log. While one batch
+     * is being consumed, the ones following it are fetched from BookKeeper in the background.
+     */
+    @Getter
+    private final int bkReadAheadBatchCount;
+
     //endregion
 
     //region Constructor
@@ -144,6 +159,18 @@ public class BookKeeperConfig {
 
         this.bkLedgerMaxSize = properties.getInt(BK_LEDGER_MAX_SIZE);
         this.bkPassword = properties.get(BK_PASSWORD).getBytes(Charset.forName("UTF-8"));
+
+        this.bkReadBatchSize = properties.getInt(BK_READ_BATCH_SIZE);
+        if (this.bkReadBatchSize <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    BK_READ_BATCH_SIZE, this.bkReadBatchSize));
+        }
+
+        this.bkReadAheadBatchCount = properties.getInt(BK_READ_AHEAD_BATCH_COUNT);
+        if (this.bkReadAheadBatchCount <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property %s (%d) must be a positive integer.",
+                    BK_READ_AHEAD_BATCH_COUNT, this.bkReadAheadBatchCount));
+        }
     }
 
     /**
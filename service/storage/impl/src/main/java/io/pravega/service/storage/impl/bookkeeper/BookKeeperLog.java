@@ -22,7 +22,9 @@ import io.pravega.common.LoggerHelpers;
 import io.pravega.common.ObjectClosedException;
 import io.pravega.common.Timer;
 import io.pravega.common.concurrent.ExecutorServiceHelpers;
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.common.util.ArrayView;
+import io.pravega.common.util.ByteArraySegment;
 import io.pravega.common.util.CloseableIterator;
 import io.pravega.common.util.Retry;
 import io.pravega.service.storage.DataLogInitializationException;
@@ -36,6 +38,7 @@ import java.time.Duration;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 import javax.annotation.concurrent.GuardedBy;
@@ -94,9 +97,12 @@ class BookKeeperLog implements DurableDataLog {
     private final Retry.RetryAndThrowBase<Exception> retryPolicy;
     private final AtomicReference<LedgerAddress> lastAppendAddress;
     private final AtomicBoolean rolloverInProgress;
+    private final AtomicInteger retryingAppendCount;
     @GuardedBy("lock")
     private WriteLedger writeLedger;
     @GuardedBy("lock")
+    private CompletableFuture<LogAddress> lastAppend;
+    @GuardedBy("lock")
     private LogMetadata logMetadata;
 
     //endregion
@@ -124,6 +130,8 @@ class BookKeeperLog implements DurableDataLog {
         this.lastAppendAddress = new AtomicReference<>(new LedgerAddress(0, 0));
         this.traceObjectId = String.format("Log[%d]", logId);
         this.rolloverInProgress = new AtomicBoolean();
+        this.retryingAppendCount = new AtomicInteger();
+        this.lastAppend = CompletableFuture.completedFuture(null);
         this.retryPolicy = config.getRetryPolicy()
                                  .retryWhen(BookKeeperLog::isRetryable)
                                  .throwingOn(Exception.class);
@@ -205,13 +213,53 @@ class BookKeeperLog implements DurableDataLog {
     }
 
     @Override
-    public CompletableFuture<LogAddress> append(ArrayView data, Duration timeout) {
+    public CompletableFuture<LogAddress> append(ArrayView inputData, Duration timeout) {
         ensurePreconditions();
         long traceId = LoggerHelpers.traceEnterWithContext(log, this.traceObjectId, "append");
         Timer timer = new Timer();
 
-        // Use a retry loop to handle retryable exceptions.
-        val result = this.retryPolicy.runAsync(() -> tryAppend(data).exceptionally(this::handleWriteException), this.executorService);
+        // If the Ack Quorum is smaller than the Write Quorum, BookKeeper may acknowledge an entry while it is still sending
+        // it to the remaining Bookies. Since the caller may reuse its buffer once we acknowledge, we need our own copy.
+        final ArrayView data = this.config.getBkAckQuorumSize() < this.config.getBkWriteQuorumSize()
+                ? copy(inputData)
+                : inputData;
+
+        // Appends must be written and acknowledged in the order in which they were received. Each append is sent to
+        // BookKeeper right away, but it is only acknowledged after all the ones before it have been acknowledged.
+        val result = new CompletableFuture<LogAddress>();
+        CompletableFuture<LogAddress> previous;
+        synchronized (this.lock) {
+            previous = this.lastAppend;
+            this.lastAppend = result;
+        }
+
+        CompletableFuture<LogAddress> write;
+        if (this.retryingAppendCount.get() > 0) {
+            // A previous append is being retried. We cannot write anything until it is done, otherwise we would get ahead of it.
+            write = retryAfter(previous, data);
+        } else {
+            write = tryAppend(data)
+                    .exceptionally(this::handleWriteException)
+                    .handle((address, ex) -> {
+                        if (ex == null) {
+                            return CompletableFuture.completedFuture(address);
+                        } else if (isRetryable(ex)) {
+                            return retryAfter(previous, data);
+                        } else {
+                            return FutureHelpers.<LogAddress>failedFuture(ExceptionHelpers.getRealException(ex));
+                        }
+                    })
+                    .thenCompose(f -> f);
+        }
+
+        write.whenComplete((address, ex) -> previous.whenComplete((previousAddress, previousEx) -> {
+            if (ex == null) {
+                this.lastAppendAddress.set((LedgerAddress) address);
+                result.complete(address);
+            } else {
+                result.completeExceptionally(ExceptionHelpers.getRealException(ex));
+            }
+        }));
 
         // Post append tasks. We do not need to wait for these to happen before returning the call.
         result.thenAcceptAsync(address -> {
@@ -260,6 +308,37 @@ class BookKeeperLog implements DurableDataLog {
 
     //region Appends
 
+    private static ArrayView copy(ArrayView data) {
+        byte[] result = new byte[data.getLength()];
+        System.arraycopy(data.array(), data.arrayOffset(), result, 0, result.length);
+        return new ByteArraySegment(result);
+    }
+
+    /**
+     * Retries an append (in a retry loop) once all the appends before it have completed. If any of them failed, this
+     * append is failed as well, since it would otherwise be written to the log after an append that is missing from it.
+     * While this is pending, all new appends are queued up behind it.
+     *
+     * @param previous A CompletableFuture that completes when all the appends before this one have completed.
+     * @param data     An ArrayView representing the data to append.
+     * @return A CompletableFuture that, when completed, will contain the result of the append.
+     */
+    private CompletableFuture<LogAddress> retryAfter(CompletableFuture<LogAddress> previous, ArrayView data) {
+        this.retryingAppendCount.incrementAndGet();
+        CompletableFuture<LogAddress> result = previous
+                .handle((address, ex) -> ex)
+                .thenCompose(previousEx -> {
+                    if (previousEx != null) {
+                        return FutureHelpers.<LogAddress>failedFuture(new WriteFailureException("A previous append failed.", ExceptionHelpers.getRealException(previousEx)));
+                    }
+
+                    // Use a retry loop to handle retryable exceptions.
+                    return this.retryPolicy.runAsync(() -> tryAppend(data).exceptionally(this::handleWriteException), this.executorService);
+                });
+        result.whenComplete((address, ex) -> this.retryingAppendCount.decrementAndGet());
+        return result;
+    }
+
     /**
      * Attempts to write one append to BookKeeper.
      *
@@ -303,9 +382,7 @@ class BookKeeperLog implements DurableDataLog {
                 }
 
                 // Successful write. Complete the callback future and update metrics.
-                LedgerAddress address = new LedgerAddress(writeLedger.metadata, entryId);
-                this.lastAppendAddress.set(address);
-                completionFuture.complete(address);
+                completionFuture.complete(new LedgerAddress(writeLedger.metadata, entryId));
             } catch (Throwable ex) {
                 completionFuture.completeExceptionally(ex);
             }
@@ -571,12 +648,18 @@ class BookKeeperLog implements DurableDataLog {
 
         // Update pointers to the new ledger and metadata.
         LedgerHandle oldLedger;
+        CompletableFuture<LogAddress> pendingAppends;
         synchronized (this.lock) {
             oldLedger = this.writeLedger.ledger;
             this.writeLedger = new WriteLedger(newLedger, ledgerMetadata);
             this.logMetadata = metadata;
+            pendingAppends = this.lastAppend;
         }
 
+        // Wait for the appends that may have been sent to the old ledger to complete. Closing it now would fail them, and
+        // they would then be written to the new ledger after appends that were received after them.
+        FutureHelpers.await(pendingAppends);
+
         // Close the old ledger. This must be done outside of the lock, otherwise the pending writes (and their callbacks
         // will be invoked within the lock, thus likely candidates for deadlocks).
         Ledgers.close(oldLedger);
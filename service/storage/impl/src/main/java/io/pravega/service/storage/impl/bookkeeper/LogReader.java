@@ -17,25 +17,32 @@ package io.pravega.service.storage.impl.bookkeeper;
 
 import com.google.common.base.Preconditions;
 import io.pravega.common.Exceptions;
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.common.util.CloseableIterator;
 import io.pravega.service.storage.DurableDataLog;
 import io.pravega.service.storage.DurableDataLogException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayDeque;
 import java.util.Enumeration;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicBoolean;
 import javax.annotation.concurrent.NotThreadSafe;
 import lombok.Getter;
-import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
+import org.apache.bookkeeper.client.BKException;
 import org.apache.bookkeeper.client.BookKeeper;
 import org.apache.bookkeeper.client.LedgerEntry;
 import org.apache.bookkeeper.client.LedgerHandle;
 
 /**
  * Performs read from BookKeeper Logs.
+ * <p>
+ * Each Ledger is read in batches of at most BookKeeperConfig.getBkReadBatchSize() entries. Up to
+ * BookKeeperConfig.getBkReadAheadBatchCount() batches are requested from BookKeeper ahead of the one being consumed,
+ * so that the caller's processing of one batch overlaps with fetching the following ones.
  */
 @Slf4j
 @NotThreadSafe
@@ -107,14 +114,13 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
         }
 
         // Try to read from the current reader.
-        if (this.currentLedger == null || this.currentLedger.reader == null) {
+        if (this.currentLedger == null || this.currentLedger.currentBatch == null) {
             return null;
         }
 
-        return new LogReader.ReadItem(this.currentLedger.reader.nextElement(), this.currentLedger.metadata);
+        return new LogReader.ReadItem(this.currentLedger.currentBatch.nextElement(), this.currentLedger.metadata);
     }
 
-    @SneakyThrows
     private void openNextLedger(LedgerAddress address) throws DurableDataLogException {
         if (address == null) {
             // We have reached the end.
@@ -132,18 +138,12 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
         if (lastEntryId < address.getEntryId()) {
             // This ledger is empty.
             Ledgers.close(ledger);
-            this.currentLedger = new ReadLedger(metadata, ledger, null);
+            this.currentLedger = new ReadLedger(metadata, ledger, address.getEntryId(), lastEntryId);
             return;
         }
 
-        try {
-            val reader = Exceptions.handleInterrupted(() -> ledger.readEntries(address.getEntryId(), lastEntryId));
-            this.currentLedger = new ReadLedger(metadata, ledger, reader);
-        } catch (Exception ex) {
-            Ledgers.close(ledger);
-            close();
-            throw new DurableDataLogException("Error while reading from BookKeeper.", ex);
-        }
+        this.currentLedger = new ReadLedger(metadata, ledger, address.getEntryId(), lastEntryId);
+        this.currentLedger.requestBatches();
     }
 
     //endregion
@@ -175,14 +175,66 @@ class LogReader implements CloseableIterator<DurableDataLog.ReadItem, DurableDat
 
     //region ReadLedger
 
-    @RequiredArgsConstructor
-    private static class ReadLedger {
+    private class ReadLedger {
         final LedgerMetadata metadata;
         final LedgerHandle handle;
-        final Enumeration<LedgerEntry> reader;
+        final long lastEntryId;
+        final ArrayDeque<CompletableFuture<Enumeration<LedgerEntry>>> pendingBatches;
+        long nextEntryId;
+        Enumeration<LedgerEntry> currentBatch;
+
+        ReadLedger(LedgerMetadata metadata, LedgerHandle handle, long firstEntryId, long lastEntryId) {
+            this.metadata = metadata;
+            this.handle = handle;
+            this.nextEntryId = firstEntryId;
+            this.lastEntryId = lastEntryId;
+            this.pendingBatches = new ArrayDeque<>();
+        }
+
+        /**
+         * Determines whether there are more entries to read from this Ledger. If the current batch is exhausted, this
+         * waits for the next one to arrive from BookKeeper (and requests more batches in its place).
+         */
+        boolean canRead() throws DurableDataLogException {
+            while (this.currentBatch == null || !this.currentBatch.hasMoreElements()) {
+                CompletableFuture<Enumeration<LedgerEntry>> nextBatch = this.pendingBatches.poll();
+                if (nextBatch == null) {
+                    return false;
+                }
+
+                try {
+                    this.currentBatch = FutureHelpers.getAndHandleExceptions(nextBatch,
+                            ex -> new DurableDataLogException("Error while reading from BookKeeper.", ex));
+                } catch (DurableDataLogException ex) {
+                    LogReader.this.close();
+                    throw ex;
+                }
+
+                requestBatches();
+            }
 
-        boolean canRead() {
-            return this.reader != null && this.reader.hasMoreElements();
+            return true;
+        }
+
+        /**
+         * Issues asynchronous reads for this Ledger, until either BookKeeperConfig.getBkReadAheadBatchCount() of them are
+         * outstanding or the end of the Ledger has been requested.
+         */
+        void requestBatches() {
+            while (this.pendingBatches.size() < config.getBkReadAheadBatchCount() && this.nextEntryId <= this.lastEntryId) {
+                long batchFirstEntryId = this.nextEntryId;
+                long batchLastEntryId = Math.min(this.lastEntryId, batchFirstEntryId + config.getBkReadBatchSize() - 1);
+                CompletableFuture<Enumeration<LedgerEntry>> result = new CompletableFuture<>();
+                this.handle.asyncReadEntries(batchFirstEntryId, batchLastEntryId, (rc, lh, entries, ctx) -> {
+                    if (rc == BKException.Code.OK) {
+                        result.complete(entries);
+                    } else {
+                        result.completeExceptionally(BKException.create(rc));
+                    }
+                }, null);
+                this.pendingBatches.add(result);
+                this.nextEntryId = batchLastEntryId + 1;
+            }
         }
     }
 
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.filesystem;
+
+import io.pravega.common.Exceptions;
+import io.pravega.service.storage.SegmentHandle;
+import lombok.Getter;
+
+/**
+ * Handle for FileSystemStorage.
+ */
+class FileSystemSegmentHandle implements SegmentHandle {
+    @Getter
+    private final String segmentName;
+    @Getter
+    private final boolean readOnly;
+
+    /**
+     * Creates a new instance of the FileSystemSegmentHandle class.
+     *
+     * @param segmentName The name of the Segment in this Handle, as perceived by users of the Segment interface.
+     * @param readOnly    Whether this handle is read-only or not.
+     */
+    private FileSystemSegmentHandle(String segmentName, boolean readOnly) {
+        Exceptions.checkNotNullOrEmpty(segmentName, "segmentName");
+        this.segmentName = segmentName;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Creates a read-write handle.
+     *
+     * @param segmentName The name of the Segment to create the handle for.
+     * @return The new handle.
+     */
+    static FileSystemSegmentHandle write(String segmentName) {
+        return new FileSystemSegmentHandle(segmentName, false);
+    }
+
+    /**
+     * Creates a read-only handle.
+     *
+     * @param segmentName The name of the Segment to create the handle for.
+     * @return The new handle.
+     */
+    static FileSystemSegmentHandle read(String segmentName) {
+        return new FileSystemSegmentHandle(segmentName, true);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s (%s)", this.segmentName, this.readOnly ? "R" : "RW");
+    }
+}
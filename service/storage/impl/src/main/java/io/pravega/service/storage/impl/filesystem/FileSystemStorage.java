@@ -0,0 +1,525 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.filesystem;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.LoggerHelpers;
+import io.pravega.common.util.ImmutableDate;
+import io.pravega.service.contracts.BadOffsetException;
+import io.pravega.service.contracts.SegmentProperties;
+import io.pravega.service.contracts.StreamSegmentExistsException;
+import io.pravega.service.contracts.StreamSegmentInformation;
+import io.pravega.service.contracts.StreamSegmentNotExistsException;
+import io.pravega.service.contracts.StreamSegmentSealedException;
+import io.pravega.service.storage.SegmentHandle;
+import io.pravega.service.storage.Storage;
+import io.pravega.service.storage.StorageNotPrimaryException;
+import java.io.EOFException;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Storage adapter for a local (or locally mounted) POSIX file system.
+ * <p>
+ * Each Segment is stored as a single file, located at {root}/{segment-name}. Data is written using positional writes at
+ * the end of the file, and read using positional reads, so no state needs to be kept in the SegmentHandles.
+ * <ul>
+ * <li> Sealing a Segment removes the write permissions from its file.
+ * <li> Concatenating a Segment appends the contents of the Source file to the Target file (using FileChannel.transferTo,
+ * so the data need not be copied through the JVM heap), after which the Source file is deleted.
+ * </ul>
+ * <p>
+ * Fencing is implemented using Container Epochs. Each Segment file has an accompanying Owner directory
+ * ({root}/{segment-name}$owner) in which every Container that called openWrite() or create() on it has created a marker
+ * file named after its Epoch. Marker files are created exclusively and are never overwritten, so claiming a Segment is
+ * atomic and no Container can undo the claim of another; the owner of a Segment is the Container with the highest Epoch
+ * marker. After claiming a Segment, openWrite() checks the markers again, so if two Containers claim a Segment at the
+ * same time, the one with the higher Epoch wins. Before every modification (including that of the Source Segment of a
+ * concat()), the markers are checked, and if there is one with a higher Epoch than ours, the operation is rejected with
+ * a StorageNotPrimaryException.
+ * <p>
+ * The ownership check and the modification that follows it are not atomic, so an instance that is being fenced out may
+ * still complete an operation it had already started. Since all writes must be made at the current end of the file, any
+ * such write would be detected by the new owner as a BadOffsetException.
+ */
+@Slf4j
+class FileSystemStorage implements Storage {
+    //region Members
+
+    private static final String OWNER_SUFFIX = "$owner";
+    private static final Set<PosixFilePermission> WRITE_PERMISSIONS = EnumSet.of(
+            PosixFilePermission.OWNER_WRITE, PosixFilePermission.GROUP_WRITE, PosixFilePermission.OTHERS_WRITE);
+    private final FileSystemStorageConfig config;
+    private final Executor executor;
+    private final AtomicLong epoch;
+    private final AtomicBoolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FileSystemStorage class.
+     *
+     * @param config   The configuration to use.
+     * @param executor The executor to use for running async operations.
+     */
+    FileSystemStorage(FileSystemStorageConfig config, Executor executor) {
+        this.config = Preconditions.checkNotNull(config, "config");
+        this.executor = Preconditions.checkNotNull(executor, "executor");
+        this.epoch = new AtomicLong();
+        this.closed = new AtomicBoolean();
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        this.closed.set(true);
+    }
+
+    //endregion
+
+    //region Storage Implementation
+
+    @Override
+    public void initialize(long epoch) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        Preconditions.checkArgument(epoch > 0, "epoch must be a positive number. Given %s.", epoch);
+        Preconditions.checkState(this.epoch.compareAndSet(0, epoch), "FileSystemStorage has already been initialized.");
+        log.info("Initialized (Root = '{}', Epoch = {}).", this.config.getRoot(), epoch);
+    }
+
+    @Override
+    public CompletableFuture<SegmentProperties> create(String streamSegmentName, Duration timeout) {
+        return execute(streamSegmentName, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "create", streamSegmentName);
+            Path path = getPath(streamSegmentName);
+            Path parent = path.getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+
+            Files.createFile(path);
+            writeOwner(path);
+            LoggerHelpers.traceLeave(log, "create", traceId, streamSegmentName);
+            return new StreamSegmentInformation(streamSegmentName, 0, false, false, new ImmutableDate());
+        });
+    }
+
+    @Override
+    public CompletableFuture<SegmentHandle> openWrite(String streamSegmentName) {
+        return execute(streamSegmentName, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "openWrite", streamSegmentName);
+            Path path = getPath(streamSegmentName);
+            if (isSealed(path)) {
+                // Sealed Segments cannot be modified, so there is no point in acquiring ownership of them.
+                LoggerHelpers.traceLeave(log, "openWrite", traceId, streamSegmentName, "sealed");
+                return FileSystemSegmentHandle.read(streamSegmentName);
+            }
+
+            checkOwnership(streamSegmentName, path);
+            if (readOwner(path) < this.epoch.get()) {
+                writeOwner(path);
+
+                // Another Container may have claimed the Segment at the same time as us; if it has a higher Epoch, it wins.
+                checkOwnership(streamSegmentName, path);
+                deleteStaleOwners(path);
+            }
+
+            LoggerHelpers.traceLeave(log, "openWrite", traceId, streamSegmentName);
+            return FileSystemSegmentHandle.write(streamSegmentName);
+        });
+    }
+
+    @Override
+    public CompletableFuture<SegmentHandle> openRead(String streamSegmentName) {
+        return execute(streamSegmentName, () -> {
+            Path path = getPath(streamSegmentName);
+            if (!Files.exists(path)) {
+                throw new StreamSegmentNotExistsException(streamSegmentName);
+            }
+
+            return FileSystemSegmentHandle.read(streamSegmentName);
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> write(SegmentHandle handle, long offset, InputStream data, int length, Duration timeout) {
+        String segmentName = asWritableHandle(handle).getSegmentName();
+        return execute(segmentName, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "write", segmentName, offset, length);
+            Path path = getPath(segmentName);
+            checkOwnership(segmentName, path);
+            if (isSealed(path)) {
+                throw new StreamSegmentSealedException(segmentName);
+            }
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                checkOffset(segmentName, channel, offset);
+                transferFrom(Channels.newChannel(data), channel, offset, length);
+            }
+
+            LoggerHelpers.traceLeave(log, "write", traceId, segmentName, offset, length);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> seal(SegmentHandle handle, Duration timeout) {
+        String segmentName = asWritableHandle(handle).getSegmentName();
+        return execute(segmentName, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "seal", segmentName);
+            Path path = getPath(segmentName);
+            checkOwnership(segmentName, path);
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+            if (permissions.removeAll(WRITE_PERMISSIONS)) {
+                Files.setPosixFilePermissions(path, permissions);
+            }
+
+            LoggerHelpers.traceLeave(log, "seal", traceId, segmentName);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> concat(SegmentHandle targetHandle, long offset, String sourceSegment, Duration timeout) {
+        String targetSegment = asWritableHandle(targetHandle).getSegmentName();
+        return execute(targetSegment, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "concat", targetSegment, offset, sourceSegment);
+            Path targetPath = getPath(targetSegment);
+            checkOwnership(targetSegment, targetPath);
+            if (isSealed(targetPath)) {
+                throw new StreamSegmentSealedException(targetSegment);
+            }
+
+            Path sourcePath = getPath(sourceSegment);
+            try {
+                // The Source Segment will be deleted, so we must own it too.
+                checkOwnership(sourceSegment, sourcePath);
+                if (!isSealed(sourcePath)) {
+                    throw new IllegalStateException(String.format("Source segment '%s' is not sealed.", sourceSegment));
+                }
+            } catch (NoSuchFileException ex) {
+                throw new StreamSegmentNotExistsException(sourceSegment, ex);
+            }
+
+            try (FileChannel target = FileChannel.open(targetPath, StandardOpenOption.WRITE);
+                 FileChannel source = FileChannel.open(sourcePath, StandardOpenOption.READ)) {
+                checkOffset(targetSegment, target, offset);
+                transferTo(source, target, offset);
+            }
+
+            delete(sourcePath);
+            LoggerHelpers.traceLeave(log, "concat", traceId, targetSegment, offset, sourceSegment);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(SegmentHandle handle, Duration timeout) {
+        String segmentName = asReadableHandle(handle).getSegmentName();
+        return execute(segmentName, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "delete", segmentName);
+            Path path = getPath(segmentName);
+            checkOwnership(segmentName, path);
+            delete(path);
+            LoggerHelpers.traceLeave(log, "delete", traceId, segmentName);
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Integer> read(SegmentHandle handle, long offset, byte[] buffer, int bufferOffset, int length, Duration timeout) {
+        String segmentName = asReadableHandle(handle).getSegmentName();
+        if (offset < 0 || bufferOffset < 0 || length < 0 || buffer.length < bufferOffset + length) {
+            throw new ArrayIndexOutOfBoundsException(String.format(
+                    "Offset (%s) must be non-negative, and bufferOffset (%s) and length (%s) must be valid indices into buffer of size %s.",
+                    offset, bufferOffset, length, buffer.length));
+        }
+
+        return execute(segmentName, () -> {
+            long traceId = LoggerHelpers.traceEnter(log, "read", segmentName, offset, length);
+            try (FileChannel channel = FileChannel.open(getPath(segmentName), StandardOpenOption.READ)) {
+                long segmentLength = channel.size();
+                if (offset + length > segmentLength) {
+                    throw new ArrayIndexOutOfBoundsException(String.format(
+                            "Offset (%s) + length (%s) is beyond the length of the segment (%s).", offset, length, segmentLength));
+                }
+
+                ByteBuffer target = ByteBuffer.wrap(buffer, bufferOffset, length);
+                while (target.hasRemaining()) {
+                    int count = channel.read(target, offset + target.position() - bufferOffset);
+                    if (count < 0) {
+                        throw new EOFException(String.format("Unexpected end of file for segment '%s' at offset %d.",
+                                segmentName, offset + target.position() - bufferOffset));
+                    }
+                }
+            }
+
+            LoggerHelpers.traceLeave(log, "read", traceId, segmentName, offset, length);
+            return length;
+        });
+    }
+
+    @Override
+    public CompletableFuture<SegmentProperties> getStreamSegmentInfo(String streamSegmentName, Duration timeout) {
+        return execute(streamSegmentName, () -> {
+            PosixFileAttributes attributes = Files.readAttributes(getPath(streamSegmentName), PosixFileAttributes.class);
+            boolean sealed = !attributes.permissions().contains(PosixFilePermission.OWNER_WRITE);
+            return new StreamSegmentInformation(streamSegmentName, attributes.size(), sealed, false,
+                    new ImmutableDate(attributes.lastModifiedTime().toMillis()));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> exists(String streamSegmentName, Duration timeout) {
+        return execute(streamSegmentName, () -> Files.exists(getPath(streamSegmentName)));
+    }
+
+    //endregion
+
+    //region Helpers
+
+    /**
+     * Executes the given operation asynchronously and returns a Future that will be completed with its result.
+     */
+    private <T> CompletableFuture<T> execute(String segmentName, Callable<T> operation) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+        Preconditions.checkState(this.epoch.get() > 0, "FileSystemStorage is not initialized.");
+        CompletableFuture<T> result = new CompletableFuture<>();
+        this.executor.execute(() -> {
+            try {
+                result.complete(operation.call());
+            } catch (Throwable ex) {
+                result.completeExceptionally(translateException(segmentName, ex));
+            }
+        });
+
+        return result;
+    }
+
+    private Path getPath(String segmentName) {
+        return Paths.get(this.config.getRoot(), segmentName);
+    }
+
+    private Path getOwnerPath(Path segmentPath) {
+        return segmentPath.resolveSibling(segmentPath.getFileName() + OWNER_SUFFIX);
+    }
+
+    /**
+     * Reads the Epoch of the current owner of the Segment at the given path, which is the highest Epoch that has a marker
+     * in its Owner directory. If no owner has been recorded yet, 0 is returned.
+     *
+     * @throws NoSuchFileException If the Segment does not exist.
+     */
+    private long readOwner(Path segmentPath) throws IOException {
+        if (!Files.exists(segmentPath)) {
+            throw new NoSuchFileException(segmentPath.toString());
+        }
+
+        long result = 0;
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(getOwnerPath(segmentPath))) {
+            for (Path marker : markers) {
+                result = Math.max(result, getMarkerEpoch(marker));
+            }
+        } catch (NoSuchFileException ex) {
+            // No owner has been recorded yet.
+        }
+
+        return result;
+    }
+
+    /**
+     * Claims the Segment at the given path by creating a marker file for our Epoch in its Owner directory. The marker is
+     * created exclusively, so this cannot overwrite the claim of any other Container.
+     */
+    private void writeOwner(Path segmentPath) throws IOException {
+        Path ownerPath = getOwnerPath(segmentPath);
+        Files.createDirectories(ownerPath);
+        try {
+            Files.createFile(ownerPath.resolve(Long.toString(this.epoch.get())));
+        } catch (FileAlreadyExistsException ex) {
+            // We have already claimed this Segment.
+        }
+    }
+
+    /**
+     * Deletes the markers of all Epochs lower than ours from the Owner directory of the Segment at the given path. These
+     * can no longer affect who owns the Segment, so this only keeps the Owner directory from growing.
+     */
+    private void deleteStaleOwners(Path segmentPath) throws IOException {
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(getOwnerPath(segmentPath))) {
+            for (Path marker : markers) {
+                if (getMarkerEpoch(marker) < this.epoch.get()) {
+                    Files.deleteIfExists(marker);
+                }
+            }
+        }
+    }
+
+    private long getMarkerEpoch(Path marker) {
+        try {
+            return Long.parseLong(marker.getFileName().toString());
+        } catch (NumberFormatException ex) {
+            // Not a marker file.
+            return 0;
+        }
+    }
+
+    /**
+     * Verifies that we are still the owner of the given Segment.
+     *
+     * @throws StorageNotPrimaryException If another instance with a higher Epoch has taken ownership of the Segment.
+     * @throws NoSuchFileException        If the Segment does not exist.
+     */
+    private void checkOwnership(String segmentName, Path segmentPath) throws IOException, StorageNotPrimaryException {
+        long ownerEpoch = readOwner(segmentPath);
+        if (ownerEpoch > this.epoch.get()) {
+            throw new StorageNotPrimaryException(segmentName,
+                    String.format("Segment is owned by Epoch %d, which is higher than ours (%d).", ownerEpoch, this.epoch.get()));
+        }
+    }
+
+    private boolean isSealed(Path segmentPath) throws IOException {
+        return !Files.getPosixFilePermissions(segmentPath).contains(PosixFilePermission.OWNER_WRITE);
+    }
+
+    private void checkOffset(String segmentName, FileChannel channel, long offset) throws IOException, BadOffsetException {
+        long length = channel.size();
+        if (length != offset) {
+            throw new BadOffsetException(segmentName, length, offset);
+        }
+    }
+
+    /**
+     * Writes exactly length bytes from the given source at the given offset in the given FileChannel. If this fails
+     * midway, the file is truncated back to the given offset.
+     */
+    private void transferFrom(ReadableByteChannel source, FileChannel target, long offset, int length) throws IOException {
+        long transferred = 0;
+        try {
+            while (transferred < length) {
+                long count = target.transferFrom(source, offset + transferred, length - transferred);
+                if (count <= 0) {
+                    throw new EOFException(String.format("Input stream ended after %d bytes; expected %d.", transferred, length));
+                }
+
+                transferred += count;
+            }
+
+            sync(target);
+        } catch (IOException ex) {
+            target.truncate(offset);
+            throw ex;
+        }
+    }
+
+    /**
+     * Appends the entire contents of the given source FileChannel at the given offset in the target FileChannel. If this
+     * fails midway, the target file is truncated back to the given offset.
+     */
+    private void transferTo(FileChannel source, FileChannel target, long offset) throws IOException {
+        long length = source.size();
+        long transferred = 0;
+        try {
+            target.position(offset);
+            while (transferred < length) {
+                transferred += source.transferTo(transferred, length - transferred, target);
+            }
+
+            sync(target);
+        } catch (IOException ex) {
+            target.truncate(offset);
+            throw ex;
+        }
+    }
+
+    private void sync(FileChannel channel) throws IOException {
+        if (this.config.isSyncWrites()) {
+            channel.force(false);
+        }
+    }
+
+    private void delete(Path segmentPath) throws IOException {
+        Files.delete(segmentPath);
+        Path ownerPath = getOwnerPath(segmentPath);
+        try (DirectoryStream<Path> markers = Files.newDirectoryStream(ownerPath)) {
+            for (Path marker : markers) {
+                Files.deleteIfExists(marker);
+            }
+        } catch (NoSuchFileException ex) {
+            // No owner has been recorded.
+            return;
+        }
+
+        Files.deleteIfExists(ownerPath);
+    }
+
+    private Throwable translateException(String segmentName, Throwable ex) {
+        if (ex instanceof NoSuchFileException || ex instanceof FileNotFoundException) {
+            return new StreamSegmentNotExistsException(segmentName, ex);
+        } else if (ex instanceof FileAlreadyExistsException) {
+            return new StreamSegmentExistsException(segmentName, ex);
+        }
+
+        return ex;
+    }
+
+    /**
+     * Casts the given handle as a FileSystemSegmentHandle that has isReadOnly == false.
+     */
+    private FileSystemSegmentHandle asWritableHandle(SegmentHandle handle) {
+        Preconditions.checkArgument(!handle.isReadOnly(), "handle must not be read-only.");
+        return asReadableHandle(handle);
+    }
+
+    /**
+     * Casts the given handle as a FileSystemSegmentHandle irrespective of its isReadOnly value.
+     */
+    private FileSystemSegmentHandle asReadableHandle(SegmentHandle handle) {
+        Preconditions.checkArgument(handle instanceof FileSystemSegmentHandle, "handle must be of type FileSystemSegmentHandle.");
+        return (FileSystemSegmentHandle) handle;
+    }
+
+    //endregion
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.filesystem;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import lombok.Getter;
+
+/**
+ * Configuration for the FileSystem Storage component.
+ */
+public class FileSystemStorageConfig {
+    //region Config Names
+
+    public static final Property<String> ROOT = Property.named("root", "/var/lib/pravega/storage");
+    public static final Property<Boolean> SYNC_WRITES = Property.named("syncWrites", true);
+    private static final String COMPONENT_CODE = "filesystem";
+
+    //endregion
+
+    //region Members
+
+    /**
+     * Root directory of the Pravega owned files. All the directories/files under this path will be exclusively owned by
+     * Pravega. Segments are stored as files under this directory, using their names as relative paths.
+     */
+    @Getter
+    private final String root;
+
+    /**
+     * Whether to force every write, seal and concat to the underlying device before acknowledging it. Disabling this
+     * improves throughput but may cause acknowledged data to be lost if the machine crashes.
+     */
+    @Getter
+    private final boolean syncWrites;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the FileSystemStorageConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private FileSystemStorageConfig(TypedProperties properties) throws ConfigurationException {
+        this.root = properties.get(ROOT);
+        if (this.root.isEmpty()) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' must be a non-empty path.", ROOT));
+        }
+
+        this.syncWrites = properties.getBoolean(SYNC_WRITES);
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<FileSystemStorageConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, FileSystemStorageConfig::new);
+    }
+
+    //endregion
+}
@@ -74,7 +74,9 @@ public class ConcatOperation extends FileSystemOperation<HDFSSegmentHandle> impl
         }
 
         try {
-            // Concat source files into target and update the handle.
+            // HDFS requires the target file to be closed, so close its output stream (if any). Concat source files into
+            // target and update the handle.
+            this.target.closeOutputStream();
             FileDescriptor newLastFile = combine(lastFile, sourceFiles, false);
             this.target.replaceLastFile(newLastFile);
         } catch (FileNotFoundException | AclException ex) {
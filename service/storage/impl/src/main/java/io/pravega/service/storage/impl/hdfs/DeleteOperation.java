@@ -46,6 +46,7 @@ class DeleteOperation extends FileSystemOperation<HDFSSegmentHandle> implements
         HDFSSegmentHandle handle = getTarget();
         long traceId = LoggerHelpers.traceEnter(log, "delete", handle);
         ensureCanDelete(handle);
+        handle.closeOutputStream();
 
         // Get an initial list of all files.
         List<FileDescriptor> files = handle.getFiles();
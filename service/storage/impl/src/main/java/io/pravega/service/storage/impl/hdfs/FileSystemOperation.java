@@ -33,6 +33,7 @@ import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.permission.FsAction;
 import org.apache.hadoop.fs.permission.FsPermission;
+import org.apache.hadoop.hdfs.DistributedFileSystem;
 
 /**
  * Base for any Operation that accesses the FileSystem.
@@ -200,8 +201,9 @@ abstract class FileSystemOperation<T> {
             this.context.fileSystem.concat(target.getPath(), toConcat);
         } finally {
             if (makeReadOnly) {
-                // Make sure we revert back to the original state if an error occurred.
-                makeReadOnly(target);
+                // Make sure we revert back to the original state if an error occurred. The target was read-only before,
+                // so there is no need to recover its lease again.
+                setReadOnly(target);
             }
         }
 
@@ -350,17 +352,46 @@ abstract class FileSystemOperation<T> {
      * @param file The FileDescriptor of the file to set. If this method returns true, this FileDescriptor will
      *             also be updated to indicate the file is read-only.
      * @return True if the file was not read-only before (and it is now), or false if the file was already read-only.
-     * @throws IOException If an exception occurred.
+     * @throws LeaseRecoveryInProgressException If the file may still be open for writing by someone else and its lease
+     *                                          is being recovered. The operation should be retried later.
+     * @throws IOException                      If an exception occurred.
      */
     boolean makeReadOnly(FileDescriptor file) throws IOException {
         if (isReadOnly(this.context.fileSystem.getFileStatus(file.getPath()))) {
             return false;
         }
 
+        recoverLease(file.getPath());
+        setReadOnly(file);
+        return true;
+    }
+
+    /**
+     * Revokes any output stream that may still be open for the given file. Permission changes do not affect output
+     * streams that are already open (such as those kept open by a previous owner of the Segment), so this is required
+     * to properly fence them out when output streams are kept open. This also guarantees that the length of the file
+     * (as reported by the NameNode) is final.
+     *
+     * @param path The path of the file.
+     * @throws LeaseRecoveryInProgressException If the file was not closed yet; HDFS recovers the lease in the background.
+     * @throws IOException                      If an exception occurred.
+     */
+    private void recoverLease(Path path) throws IOException {
+        if (!this.context.config.isKeepOutputStreamsOpen() || !(this.context.fileSystem instanceof DistributedFileSystem)) {
+            // Nobody keeps output streams open, or there are no leases to recover (only HDFS has them).
+            return;
+        }
+
+        if (!((DistributedFileSystem) this.context.fileSystem).recoverLease(path)) {
+            log.info("Recovering lease for '{}'.", path);
+            throw new LeaseRecoveryInProgressException(path);
+        }
+    }
+
+    private void setReadOnly(FileDescriptor file) throws IOException {
         this.context.fileSystem.setPermission(file.getPath(), READONLY_PERMISSION);
         log.debug("MakeReadOnly '{}'.", file.getPath());
         file.markReadOnly();
-        return true;
     }
 
     /**
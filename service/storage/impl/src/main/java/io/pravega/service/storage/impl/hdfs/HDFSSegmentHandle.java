@@ -16,18 +16,25 @@
 package io.pravega.service.storage.impl.hdfs;
 
 import io.pravega.common.Exceptions;
+import io.pravega.common.Timer;
 import io.pravega.service.storage.SegmentHandle;
 import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.List;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang.StringUtils;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.Path;
 import org.apache.http.annotation.GuardedBy;
 import org.apache.http.annotation.ThreadSafe;
 
 /**
  * Base Handle for HDFSStorage.
  */
+@Slf4j
 @ThreadSafe
 class HDFSSegmentHandle implements SegmentHandle {
     //region Members
@@ -39,6 +46,13 @@ class HDFSSegmentHandle implements SegmentHandle {
     @GuardedBy("files")
     @Getter
     private final List<FileDescriptor> files;
+    private final Object outputStreamLock = new Object();
+    @GuardedBy("outputStreamLock")
+    private FSDataOutputStream outputStream;
+    @GuardedBy("outputStreamLock")
+    private Path outputStreamPath;
+    @GuardedBy("outputStreamLock")
+    private Timer outputStreamLastUsed;
 
     //endregion
 
@@ -152,4 +166,100 @@ class HDFSSegmentHandle implements SegmentHandle {
     }
 
     //endregion
+
+    //region Output Stream
+
+    /**
+     * Gets an object that must be held while using the output stream returned by getOutputStream(), so that it cannot
+     * be closed while in use.
+     */
+    Object getOutputStreamLock() {
+        return this.outputStreamLock;
+    }
+
+    /**
+     * Gets the output stream that is currently open for the given file, if any, and records that it is being used.
+     * If this handle has an output stream open for a different file, that one is closed.
+     *
+     * @param path The Path of the file to get the output stream for.
+     * @return The output stream, or null if no output stream is open for the given file.
+     */
+    FSDataOutputStream getOutputStream(Path path) {
+        synchronized (this.outputStreamLock) {
+            if (this.outputStream != null && !this.outputStreamPath.equals(path)) {
+                closeOutputStream();
+            }
+
+            if (this.outputStream != null) {
+                this.outputStreamLastUsed = new Timer();
+            }
+
+            return this.outputStream;
+        }
+    }
+
+    /**
+     * Sets the output stream for the given file, closing any existing one.
+     *
+     * @param path   The Path of the file the output stream writes to.
+     * @param stream The output stream.
+     */
+    void setOutputStream(Path path, FSDataOutputStream stream) {
+        Preconditions.checkNotNull(path, "path");
+        Preconditions.checkNotNull(stream, "stream");
+        synchronized (this.outputStreamLock) {
+            closeOutputStream();
+            this.outputStream = stream;
+            this.outputStreamPath = path;
+            this.outputStreamLastUsed = new Timer();
+        }
+    }
+
+    /**
+     * Gets a value indicating whether this handle has an open output stream.
+     */
+    boolean hasOutputStream() {
+        synchronized (this.outputStreamLock) {
+            return this.outputStream != null;
+        }
+    }
+
+    /**
+     * Closes the output stream for this handle, if any. Any errors are logged and otherwise ignored; all data written
+     * to the stream has already been flushed to HDFS by the time it is closed.
+     */
+    void closeOutputStream() {
+        synchronized (this.outputStreamLock) {
+            if (this.outputStream != null) {
+                try {
+                    this.outputStream.close();
+                    log.debug("Closed output stream for '{}'.", this.outputStreamPath);
+                } catch (IOException ex) {
+                    log.warn("Unable to close output stream for '{}'.", this.outputStreamPath, ex);
+                } finally {
+                    this.outputStream = null;
+                    this.outputStreamPath = null;
+                    this.outputStreamLastUsed = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the output stream for this handle if it has not been used for at least the given amount of time.
+     *
+     * @param idleTimeout The amount of time.
+     * @return True if this handle no longer has an output stream open, false otherwise.
+     */
+    boolean closeOutputStreamIfIdle(Duration idleTimeout) {
+        synchronized (this.outputStreamLock) {
+            if (this.outputStream != null && this.outputStreamLastUsed.getElapsed().compareTo(idleTimeout) >= 0) {
+                closeOutputStream();
+            }
+
+            return this.outputStream == null;
+        }
+    }
+
+    //endregion
 }
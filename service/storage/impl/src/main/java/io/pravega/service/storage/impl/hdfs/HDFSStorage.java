@@ -15,9 +15,12 @@
  */
 package io.pravega.service.storage.impl.hdfs;
 
+import io.pravega.common.ExceptionHelpers;
 import io.pravega.common.Exceptions;
+import io.pravega.common.Timer;
 import io.pravega.common.function.RunnableWithException;
 import io.pravega.service.contracts.SegmentProperties;
+import io.pravega.service.contracts.StreamSegmentInformation;
 import io.pravega.service.storage.SegmentHandle;
 import io.pravega.service.storage.Storage;
 import com.google.common.base.Preconditions;
@@ -26,8 +29,12 @@ import java.io.InputStream;
 import java.time.Duration;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -80,15 +87,29 @@ import org.apache.hadoop.fs.FileSystem;
  * "foo_0_2". Then they will detect that there is more than one file, and the Container with epoch 1 will back out and
  * yield to the outcome of the Container with Epoch 2. A similar approach is taken for all other operations, with more
  * details in the code for each.
+ * <p>
+ * If HDFSStorageConfig.getOutputStreamIdleTimeout() is set, the output stream for a Segment's active file is kept open
+ * between writes (each write is made durable using hflush or hsync), and it is closed when the Segment is sealed,
+ * concatenated into, deleted, or has not been written to for that amount of time (idle output streams are looked for
+ * periodically, every half of that timeout). Closing an output stream may block, so it is always done on the executor.
+ * The NameNode does not know the exact
+ * length of files with open output streams, so this class makes up for it when reporting Segment information. Fencing
+ * is not affected: a new owner recovers the lease on the previous owner's active file before making it read-only, which
+ * causes any further writes to its open output stream to fail. Lease recovery completes in the background, so operations
+ * that need it are retried periodically (without blocking any threads) until the file has been closed.
  */
 @Slf4j
 class HDFSStorage implements Storage {
     //region Members
 
-    private final Executor executor;
+    private static final Duration LEASE_RECOVERY_TIMEOUT = Duration.ofSeconds(60);
+    private static final long LEASE_RECOVERY_CHECK_INTERVAL_MILLIS = 100;
+    private final ScheduledExecutorService executor;
     private final HDFSStorageConfig config;
     private final AtomicBoolean closed;
     private FileSystemOperation.OperationContext context;
+    private final ConcurrentHashMap<String, HDFSSegmentHandle> outputStreamHandles;
+    private final AtomicReference<ScheduledFuture<?>> idleCheck;
 
     //endregion
 
@@ -100,12 +121,14 @@ class HDFSStorage implements Storage {
      * @param config   The configuration to use.
      * @param executor The executor to use for running async operations.
      */
-    HDFSStorage(HDFSStorageConfig config, Executor executor) {
+    HDFSStorage(HDFSStorageConfig config, ScheduledExecutorService executor) {
         Preconditions.checkNotNull(config, "config");
         Preconditions.checkNotNull(executor, "executor");
         this.config = config;
         this.executor = executor;
         this.closed = new AtomicBoolean(false);
+        this.outputStreamHandles = new ConcurrentHashMap<>();
+        this.idleCheck = new AtomicReference<>();
     }
 
     //endregion
@@ -115,6 +138,13 @@ class HDFSStorage implements Storage {
     @Override
     public void close() {
         if (!this.closed.getAndSet(true)) {
+            ScheduledFuture<?> idleCheck = this.idleCheck.getAndSet(null);
+            if (idleCheck != null) {
+                idleCheck.cancel(false);
+            }
+
+            this.outputStreamHandles.values().forEach(HDFSSegmentHandle::closeOutputStream);
+            this.outputStreamHandles.clear();
             if (this.context != null) {
                 try {
                     this.context.fileSystem.close();
@@ -141,6 +171,12 @@ class HDFSStorage implements Storage {
         conf.set("fs.default.fs", this.config.getHdfsHostURL());
         conf.set("fs.hdfs.impl", "org.apache.hadoop.hdfs.DistributedFileSystem");
         this.context = new FileSystemOperation.OperationContext(epoch, openFileSystem(conf), this.config);
+        if (this.config.isKeepOutputStreamsOpen()) {
+            long checkIntervalMillis = Math.max(1, this.config.getOutputStreamIdleTimeout().toMillis() / 2);
+            this.idleCheck.set(this.executor.scheduleWithFixedDelay(this::closeIdleOutputStreams, checkIntervalMillis,
+                    checkIntervalMillis, TimeUnit.MILLISECONDS));
+        }
+
         log.info("Initialized (HDFSHost = '{}', Epoch = {}).", this.config.getHdfsHostURL(), epoch);
     }
 
@@ -155,7 +191,13 @@ class HDFSStorage implements Storage {
 
     @Override
     public CompletableFuture<SegmentHandle> openWrite(String streamSegmentName) {
-        return supplyAsync(new OpenWriteOperation(streamSegmentName, this.context));
+        // The new handle needs to find out the exact length of the Segment's files, which requires all of them to be closed.
+        HDFSSegmentHandle previousHandle = this.outputStreamHandles.remove(streamSegmentName);
+        OpenWriteOperation operation = new OpenWriteOperation(streamSegmentName, this.context);
+        return execute(operation, () -> {
+            closeOutputStream(previousHandle);
+            return operation.call();
+        });
     }
 
     @Override
@@ -165,7 +207,25 @@ class HDFSStorage implements Storage {
 
     @Override
     public CompletableFuture<Void> write(SegmentHandle handle, long offset, InputStream data, int length, Duration timeout) {
-        return runAsync(new WriteOperation(asWritableHandle(handle), offset, data, length, this.context));
+        HDFSSegmentHandle writeHandle = asWritableHandle(handle);
+        if (!this.config.isKeepOutputStreamsOpen()) {
+            return runAsync(new WriteOperation(writeHandle, offset, data, length, this.context));
+        }
+
+        // Only one handle per Segment may have an open output stream (HDFS does not allow more than one writer per file).
+        HDFSSegmentHandle previousHandle = this.outputStreamHandles.put(writeHandle.getSegmentName(), writeHandle);
+        WriteOperation operation = new WriteOperation(writeHandle, offset, data, length, this.context);
+        CompletableFuture<Void> result = execute(operation, () -> {
+            if (previousHandle != writeHandle) {
+                closeOutputStream(previousHandle);
+            }
+
+            operation.run();
+            return null;
+        });
+
+        // Make sure we keep track of this handle in case it was untracked while idle.
+        return result.whenComplete((r, ex) -> this.outputStreamHandles.putIfAbsent(writeHandle.getSegmentName(), writeHandle));
     }
 
     @Override
@@ -185,12 +245,28 @@ class HDFSStorage implements Storage {
 
     @Override
     public CompletableFuture<Integer> read(SegmentHandle handle, long offset, byte[] buffer, int bufferOffset, int length, Duration timeout) {
-        return supplyAsync(new ReadOperation(asReadableHandle(handle), offset, buffer, bufferOffset, length, this.context));
+        HDFSSegmentHandle readHandle = asReadableHandle(handle);
+        if (readHandle.isReadOnly()) {
+            // Read-only handles get their file lengths from the NameNode, which may not have caught up with what has
+            // been written to an open output stream. If we have one, use the handle that owns it, since it is always
+            // up to date.
+            HDFSSegmentHandle writeHandle = this.outputStreamHandles.get(readHandle.getSegmentName());
+            if (writeHandle != null && writeHandle.hasOutputStream()) {
+                readHandle = writeHandle;
+            }
+        }
+
+        return supplyAsync(new ReadOperation(readHandle, offset, buffer, bufferOffset, length, this.context));
     }
 
     @Override
     public CompletableFuture<SegmentProperties> getStreamSegmentInfo(String streamSegmentName, Duration timeout) {
-        return supplyAsync(new GetInfoOperation(streamSegmentName, this.context));
+        CompletableFuture<SegmentProperties> result = supplyAsync(new GetInfoOperation(streamSegmentName, this.context));
+        if (this.config.isKeepOutputStreamsOpen()) {
+            result = result.thenApply(this::includeOutputStreamLength);
+        }
+
+        return result;
     }
 
     @Override
@@ -206,37 +282,44 @@ class HDFSStorage implements Storage {
      * Executes the given FileSystemOperation asynchronously and returns a Future that will be completed when it finishes.
      */
     private <T extends FileSystemOperation & RunnableWithException> CompletableFuture<Void> runAsync(T operation) {
-        ensureInitializedAndNotClosed();
-        CompletableFuture<Void> result = new CompletableFuture<>();
-        this.executor.execute(() -> {
-            try {
-                operation.run();
-                result.complete(null);
-            } catch (Throwable e) {
-                handleException(e, operation, result);
-            }
+        return execute(operation, () -> {
+            operation.run();
+            return null;
         });
-
-        return result;
     }
 
     /**
      * Executes the given FileSystemOperation asynchronously and returns a Future that will be completed with the result.
      */
     private <R, T extends FileSystemOperation & Callable<? extends R>> CompletableFuture<R> supplyAsync(T operation) {
+        return execute(operation, operation::call);
+    }
+
+    private <R> CompletableFuture<R> execute(FileSystemOperation<?> operation, Callable<? extends R> task) {
         ensureInitializedAndNotClosed();
         CompletableFuture<R> result = new CompletableFuture<>();
-        this.executor.execute(() -> {
-            try {
-                result.complete(operation.call());
-            } catch (Throwable e) {
-                handleException(e, operation, result);
-            }
-        });
-
+        this.executor.execute(() -> executeAttempt(operation, task, new Timer(), result));
         return result;
     }
 
+    /**
+     * Executes one attempt of the given FileSystemOperation. If it needs to wait for a lease to be recovered, another
+     * attempt is scheduled (instead of blocking the current thread), up to LEASE_RECOVERY_TIMEOUT from the first one.
+     */
+    private <R> void executeAttempt(FileSystemOperation<?> operation, Callable<? extends R> task, Timer timer, CompletableFuture<R> result) {
+        try {
+            result.complete(task.call());
+        } catch (LeaseRecoveryInProgressException ex) {
+            if (timer.getElapsed().compareTo(LEASE_RECOVERY_TIMEOUT) >= 0) {
+                handleException(new IOException(String.format("Unable to recover lease within %s.", LEASE_RECOVERY_TIMEOUT), ex), operation, result);
+            } else {
+                this.executor.schedule(() -> executeAttempt(operation, task, timer, result), LEASE_RECOVERY_CHECK_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (Throwable e) {
+            handleException(e, operation, result);
+        }
+    }
+
     private void handleException(Throwable e, FileSystemOperation<?> operation, CompletableFuture<?> result) {
         String segmentName = operation.getTarget() instanceof SegmentHandle
                 ? ((SegmentHandle) operation.getTarget()).getSegmentName()
@@ -260,6 +343,50 @@ class HDFSStorage implements Storage {
         return (HDFSSegmentHandle) handle;
     }
 
+    /**
+     * If the given Segment has an open output stream, updates the given SegmentProperties with the length of the Segment
+     * as known by the handle that owns it (the NameNode does not know about data in incomplete blocks of open files).
+     */
+    private SegmentProperties includeOutputStreamLength(SegmentProperties properties) {
+        HDFSSegmentHandle writeHandle = this.outputStreamHandles.get(properties.getName());
+        if (writeHandle != null && writeHandle.hasOutputStream()) {
+            long length = writeHandle.getLastFile().getLastOffset();
+            if (length > properties.getLength()) {
+                return new StreamSegmentInformation(properties.getName(), length, properties.isSealed(), properties.isDeleted(), properties.getLastModified());
+            }
+        }
+
+        return properties;
+    }
+
+    /**
+     * Closes the output stream of the given handle, if any. This may block, so it must be invoked on the executor.
+     */
+    private void closeOutputStream(HDFSSegmentHandle handle) {
+        if (handle != null) {
+            handle.closeOutputStream();
+        }
+    }
+
+    /**
+     * Closes all output streams that have been idle for longer than the configured timeout, and stops tracking their
+     * handles. This runs periodically on the executor, so that Segments which are no longer written to do not keep their
+     * output streams (and leases) open indefinitely.
+     */
+    private void closeIdleOutputStreams() {
+        Duration idleTimeout = this.config.getOutputStreamIdleTimeout();
+        try {
+            this.outputStreamHandles.values().removeIf(h -> h.closeOutputStreamIfIdle(idleTimeout));
+        } catch (Throwable ex) {
+            if (ExceptionHelpers.mustRethrow(ex)) {
+                throw ex;
+            }
+
+            // Do not let this escape, otherwise no further checks would be executed.
+            log.warn("Unable to close idle output streams.", ex);
+        }
+    }
+
     private void ensureInitializedAndNotClosed() {
         Exceptions.checkNotClosed(this.closed.get(), this);
         Preconditions.checkState(this.context != null, "HDFSStorage is not initialized.");
@@ -17,8 +17,10 @@ package io.pravega.service.storage.impl.hdfs;
 
 import io.pravega.common.util.ConfigBuilder;
 import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
 import io.pravega.common.util.Property;
 import io.pravega.common.util.TypedProperties;
+import java.time.Duration;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
@@ -33,6 +35,8 @@ public class HDFSStorageConfig {
     public static final Property<String> ROOT = Property.named("hdfsRoot", "");
     public static final Property<Integer> REPLICATION = Property.named("replication", 3);
     public static final Property<Integer> BLOCK_SIZE = Property.named("blockSize", 1024 * 1024);
+    public static final Property<Long> OUTPUT_STREAM_IDLE_TIMEOUT_MILLIS = Property.named("outputStreamIdleTimeoutMillis", 0L);
+    public static final Property<Boolean> SYNC_ON_WRITE = Property.named("syncOnWrite", false);
     private static final String COMPONENT_CODE = "hdfs";
 
     //endregion
@@ -65,6 +69,29 @@ public class HDFSStorageConfig {
     @Getter
     private final long blockSize;
 
+    /**
+     * The amount of time a Segment's output stream may stay open without being written to. If zero, output streams are
+     * not kept open, and every write opens and closes the Segment's file.
+     */
+    @Getter
+    private final Duration outputStreamIdleTimeout;
+
+    /**
+     * Whether writes to open output streams should be synced to disk on the DataNodes (hsync) or only flushed to them
+     * (hflush). Only applies if output streams are kept open.
+     */
+    @Getter
+    private final boolean syncOnWrite;
+
+    /**
+     * Gets a value indicating whether Segment output streams should be kept open between writes.
+     *
+     * @return True if output streams are kept open, false otherwise.
+     */
+    boolean isKeepOutputStreamsOpen() {
+        return !this.outputStreamIdleTimeout.isZero();
+    }
+
     //endregion
 
     //region Constructor
@@ -79,6 +106,13 @@ public class HDFSStorageConfig {
         this.hdfsRoot = properties.get(ROOT);
         this.replication = (short) properties.getInt(REPLICATION);
         this.blockSize = properties.getInt(BLOCK_SIZE);
+        long idleTimeoutMillis = properties.getLong(OUTPUT_STREAM_IDLE_TIMEOUT_MILLIS);
+        if (idleTimeoutMillis < 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' must be a non-negative integer.", OUTPUT_STREAM_IDLE_TIMEOUT_MILLIS));
+        }
+
+        this.outputStreamIdleTimeout = Duration.ofMillis(idleTimeoutMillis);
+        this.syncOnWrite = properties.getBoolean(SYNC_ON_WRITE);
     }
 
     /**
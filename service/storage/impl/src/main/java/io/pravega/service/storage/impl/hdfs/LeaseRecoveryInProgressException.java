@@ -0,0 +1,29 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.hdfs;
+
+import java.io.IOException;
+import org.apache.hadoop.fs.Path;
+
+/**
+ * Exception that indicates the lease on a file is being recovered, and the operation that triggered it should be retried
+ * after the file has been closed.
+ */
+class LeaseRecoveryInProgressException extends IOException {
+    LeaseRecoveryInProgressException(Path path) {
+        super(String.format("Lease recovery is in progress for '%s'.", path));
+    }
+}
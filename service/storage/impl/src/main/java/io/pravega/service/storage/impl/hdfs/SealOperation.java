@@ -44,6 +44,9 @@ class SealOperation extends FileSystemOperation<HDFSSegmentHandle> implements Ru
     public void run() throws IOException, StorageNotPrimaryException {
         HDFSSegmentHandle handle = getTarget();
         long traceId = LoggerHelpers.traceEnter(log, "seal", handle);
+
+        // No more writes are possible after sealing; close the output stream so that the file's length is final.
+        handle.closeOutputStream();
         val lastHandleFile = handle.getLastFile();
         try {
             if (!lastHandleFile.isReadOnly()) {
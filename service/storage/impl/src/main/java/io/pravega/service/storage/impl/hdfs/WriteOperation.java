@@ -61,32 +61,25 @@ public class WriteOperation extends FileSystemOperation<HDFSSegmentHandle> imple
         FileDescriptor lastFile = handle.getLastFile();
 
         Timer timer = new Timer();
-        try (FSDataOutputStream stream = this.context.fileSystem.append(lastFile.getPath())) {
-            if (this.offset != lastFile.getLastOffset()) {
-                // Do the handle offset validation here, after we open the file. We want to throw FileNotFoundException
-                // before we throw BadOffsetException.
-                throw new BadOffsetException(handle.getSegmentName(), lastFile.getLastOffset(), this.offset);
-            } else if (stream.getPos() != lastFile.getLength()) {
-                // Looks like the filesystem changed from underneath us. This could be our bug, but it could be something else.
-                // Update our knowledge of the filesystem and throw a BadOffsetException - this should cause upstream code
-                // to try to reconcile; if it can't then the upstream code should shut down or take other appropriate measures.
-                log.warn("File changed detected for '{}'. Expected length = {}, actual length = {}.", lastFile, lastFile.getLength(), stream.getPos());
-                lastFile.setLength(stream.getPos());
-                throw new BadOffsetException(handle.getSegmentName(), lastFile.getLastOffset(), this.offset);
+        boolean keepOpen = this.context.config.isKeepOutputStreamsOpen();
+        try {
+            if (keepOpen) {
+                writeToOpenStream(handle, lastFile);
+            } else {
+                try (FSDataOutputStream stream = this.context.fileSystem.append(lastFile.getPath())) {
+                    if (write(stream, handle, lastFile)) {
+                        stream.flush();
+                        lastFile.increaseLength(this.length);
+                    }
+                }
             }
-
-            if (this.length == 0) {
-                // Exit here (vs at the beginning of the method), since we want to throw appropriate exceptions in case
-                // of Sealed or BadOffset
-                // Note: IOUtils.copyBytes with length == 0 will enter an infinite loop, hence the need for this check.
-                return;
+        } catch (IOException ex) {
+            if (keepOpen || ex instanceof FileNotFoundException || ex instanceof AclException) {
+                // An open output stream will begin failing (with a variety of errors) as soon as another instance recovers
+                // its lease, which happens when that instance fences us out.
+                checkForFenceOut(handle.getSegmentName(), handle.getFiles().size(), handle.getLastFile());
             }
 
-            IOUtils.copyBytes(this.data, stream, this.length);
-            stream.flush();
-            lastFile.increaseLength(this.length);
-        } catch (FileNotFoundException | AclException ex) {
-            checkForFenceOut(handle.getSegmentName(), handle.getFiles().size(), handle.getLastFile());
             throw ex; // If we were not fenced out, then this is a legitimate exception - rethrow it.
         }
 
@@ -94,4 +87,65 @@ public class WriteOperation extends FileSystemOperation<HDFSSegmentHandle> imple
         Metrics.WRITE_BYTES.add(this.length);
         LoggerHelpers.traceLeave(log, "write", traceId, handle, offset, length);
     }
+
+    /**
+     * Writes the data using the handle's open output stream for the given file, opening it if necessary. After the
+     * write, the stream is flushed (hflush) or synced (hsync) to HDFS, but it is not closed. Should the write fail for
+     * any reason, the stream will be closed.
+     */
+    private void writeToOpenStream(HDFSSegmentHandle handle, FileDescriptor lastFile) throws BadOffsetException, IOException {
+        synchronized (handle.getOutputStreamLock()) {
+            FSDataOutputStream stream = handle.getOutputStream(lastFile.getPath());
+            if (stream == null) {
+                stream = this.context.fileSystem.append(lastFile.getPath());
+                handle.setOutputStream(lastFile.getPath(), stream);
+            }
+
+            try {
+                if (write(stream, handle, lastFile)) {
+                    if (this.context.config.isSyncOnWrite()) {
+                        stream.hsync();
+                    } else {
+                        stream.hflush();
+                    }
+
+                    lastFile.increaseLength(this.length);
+                }
+            } catch (Throwable ex) {
+                // We do not know what state the stream is in. Close it; it will be reopened on the next write.
+                handle.closeOutputStream();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Validates the offset and the state of the given stream and writes the data to it.
+     *
+     * @return True if any data was written, false otherwise.
+     */
+    private boolean write(FSDataOutputStream stream, HDFSSegmentHandle handle, FileDescriptor lastFile) throws BadOffsetException, IOException {
+        if (this.offset != lastFile.getLastOffset()) {
+            // Do the handle offset validation here, after we open the file. We want to throw FileNotFoundException
+            // before we throw BadOffsetException.
+            throw new BadOffsetException(handle.getSegmentName(), lastFile.getLastOffset(), this.offset);
+        } else if (stream.getPos() != lastFile.getLength()) {
+            // Looks like the filesystem changed from underneath us. This could be our bug, but it could be something else.
+            // Update our knowledge of the filesystem and throw a BadOffsetException - this should cause upstream code
+            // to try to reconcile; if it can't then the upstream code should shut down or take other appropriate measures.
+            log.warn("File changed detected for '{}'. Expected length = {}, actual length = {}.", lastFile, lastFile.getLength(), stream.getPos());
+            lastFile.setLength(stream.getPos());
+            throw new BadOffsetException(handle.getSegmentName(), lastFile.getLastOffset(), this.offset);
+        }
+
+        if (this.length == 0) {
+            // Exit here (vs at the beginning of the method), since we want to throw appropriate exceptions in case
+            // of Sealed or BadOffset
+            // Note: IOUtils.copyBytes with length == 0 will enter an infinite loop, hence the need for this check.
+            return false;
+        }
+
+        IOUtils.copyBytes(this.data, stream, this.length);
+        return true;
+    }
 }
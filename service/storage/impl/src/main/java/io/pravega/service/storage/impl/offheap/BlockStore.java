@@ -0,0 +1,311 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.offheap;
+
+import com.google.common.base.Preconditions;
+import io.pravega.service.storage.CacheException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+/**
+ * Manages fixed-size Blocks of direct (off-heap) memory, carved out of larger Slabs.
+ * <p>
+ * Slabs are allocated lazily (up to the configured maximum size) and are never released until the BlockStore is closed.
+ * A cache entry is stored as a chain of Blocks; each Block is identified by an int address (Slab index * Blocks per
+ * Slab + Block index within the Slab), and the link to the next Block in the chain is kept in an on-heap int array
+ * (one per Slab), so no space in the Blocks themselves is wasted on bookkeeping.
+ * <p>
+ * Allocating and freeing Blocks is thread-safe. Reading and writing Block contents is not synchronized; callers must
+ * ensure that a chain is not read or written concurrently with it being freed.
+ */
+@ThreadSafe
+class BlockStore implements AutoCloseable {
+    //region Members
+
+    static final int NO_BLOCK = -1;
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final ByteBuffer[] slabs;
+    private final int[][] nextBlocks;
+    private final Object lock = new Object();
+    @GuardedBy("lock")
+    private int slabCount;
+    @GuardedBy("lock")
+    private int freeListHead;
+    @GuardedBy("lock")
+    private int freeBlockCount;
+    @GuardedBy("lock")
+    private boolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the BlockStore class.
+     *
+     * @param config The configuration to use.
+     */
+    BlockStore(OffHeapCacheConfig config) {
+        Preconditions.checkNotNull(config, "config");
+        this.blockSize = config.getBlockSize();
+        this.blocksPerSlab = config.getSlabSize() / config.getBlockSize();
+        long maxSlabCount = config.getMaxSize() / config.getSlabSize();
+        Preconditions.checkArgument(maxSlabCount * this.blocksPerSlab <= Integer.MAX_VALUE,
+                "Too many blocks (maxSize=%s, blockSize=%s); increase the block size.", config.getMaxSize(), this.blockSize);
+        this.slabs = new ByteBuffer[(int) maxSlabCount];
+        this.nextBlocks = new int[(int) maxSlabCount][];
+        this.freeListHead = NO_BLOCK;
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    /**
+     * Closes this BlockStore and releases all Slabs. The direct memory backing them is reclaimed once they are garbage
+     * collected.
+     */
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            this.closed = true;
+            for (int i = 0; i < this.slabCount; i++) {
+                this.slabs[i] = null;
+                this.nextBlocks[i] = null;
+            }
+
+            this.slabCount = 0;
+            this.freeListHead = NO_BLOCK;
+            this.freeBlockCount = 0;
+        }
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating the size of each Block, in bytes.
+     */
+    int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Gets a value indicating the number of Blocks required to store the given number of bytes.
+     *
+     * @param length The number of bytes.
+     */
+    int getBlockCount(int length) {
+        return (int) (((long) length + this.blockSize - 1) / this.blockSize);
+    }
+
+    /**
+     * Gets a value indicating the total amount of direct memory allocated so far, in bytes.
+     */
+    long getAllocatedBytes() {
+        synchronized (this.lock) {
+            return (long) this.slabCount * this.blocksPerSlab * this.blockSize;
+        }
+    }
+
+    /**
+     * Gets a value indicating the amount of allocated direct memory that is currently in use, in bytes.
+     */
+    long getUsedBytes() {
+        synchronized (this.lock) {
+            return ((long) this.slabCount * this.blocksPerSlab - this.freeBlockCount) * this.blockSize;
+        }
+    }
+
+    //endregion
+
+    //region Allocation
+
+    /**
+     * Allocates a chain of Blocks.
+     *
+     * @param blockCount The number of Blocks to allocate.
+     * @return The address of the first Block in the chain, or NO_BLOCK if blockCount is 0.
+     * @throws CacheException If there is not enough memory to allocate the requested number of Blocks.
+     */
+    int allocate(int blockCount) {
+        Preconditions.checkArgument(blockCount >= 0, "blockCount must be a non-negative integer.");
+        if (blockCount == 0) {
+            return NO_BLOCK;
+        }
+
+        synchronized (this.lock) {
+            Preconditions.checkState(!this.closed, "BlockStore is closed.");
+            while (this.freeBlockCount < blockCount) {
+                if (this.slabCount >= this.slabs.length) {
+                    throw new CacheException(String.format("Unable to allocate %d blocks; cache is full (%d bytes allocated).",
+                            blockCount, (long) this.slabCount * this.blocksPerSlab * this.blockSize));
+                }
+
+                allocateSlab();
+            }
+
+            // Detach the first blockCount Blocks from the free list; they are already chained together.
+            int head = this.freeListHead;
+            int last = head;
+            for (int i = 1; i < blockCount; i++) {
+                last = getNext(last);
+            }
+
+            this.freeListHead = getNext(last);
+            setNext(last, NO_BLOCK);
+            this.freeBlockCount -= blockCount;
+            return head;
+        }
+    }
+
+    /**
+     * Returns a chain of Blocks to the free list.
+     *
+     * @param head The address of the first Block in the chain. If NO_BLOCK, this method has no effect.
+     */
+    void free(int head) {
+        if (head == NO_BLOCK) {
+            return;
+        }
+
+        synchronized (this.lock) {
+            if (this.closed) {
+                // All Slabs have already been released.
+                return;
+            }
+
+            int last = head;
+            int count = 1;
+            int next;
+            while ((next = getNext(last)) != NO_BLOCK) {
+                last = next;
+                count++;
+            }
+
+            setNext(last, this.freeListHead);
+            this.freeListHead = head;
+            this.freeBlockCount += count;
+        }
+    }
+
+    @GuardedBy("lock")
+    private void allocateSlab() {
+        int slabIndex = this.slabCount;
+        ByteBuffer slab = ByteBuffer.allocateDirect(this.blocksPerSlab * this.blockSize);
+        int[] next = new int[this.blocksPerSlab];
+        int firstBlock = slabIndex * this.blocksPerSlab;
+        for (int i = 0; i < next.length - 1; i++) {
+            next[i] = firstBlock + i + 1;
+        }
+
+        // Prepend the new Blocks to the free list.
+        next[next.length - 1] = this.freeListHead;
+        this.slabs[slabIndex] = slab;
+        this.nextBlocks[slabIndex] = next;
+        this.freeListHead = firstBlock;
+        this.freeBlockCount += this.blocksPerSlab;
+        this.slabCount++;
+    }
+
+    //endregion
+
+    //region Reading and Writing
+
+    /**
+     * Copies the given data into a chain of Blocks.
+     *
+     * @param head   The address of the first Block in the chain.
+     * @param data   The array to copy from.
+     * @param offset The offset within data to start copying at.
+     * @param length The number of bytes to copy. The chain must have enough Blocks to accommodate this.
+     */
+    void write(int head, byte[] data, int offset, int length) {
+        int block = head;
+        while (length > 0) {
+            int toCopy = Math.min(length, this.blockSize);
+            getBlock(block).put(data, offset, toCopy);
+            offset += toCopy;
+            length -= toCopy;
+            block = getNext(block);
+        }
+    }
+
+    /**
+     * Copies data from a chain of Blocks.
+     *
+     * @param head   The address of the first Block in the chain.
+     * @param target The array to copy into.
+     * @param offset The offset within target to start copying at.
+     * @param length The number of bytes to copy.
+     */
+    void read(int head, byte[] target, int offset, int length) {
+        int block = head;
+        while (length > 0) {
+            int toCopy = Math.min(length, this.blockSize);
+            getBlock(block).get(target, offset, toCopy);
+            offset += toCopy;
+            length -= toCopy;
+            block = getNext(block);
+        }
+    }
+
+    /**
+     * Gets read-only ByteBuffers covering the contents of a chain of Blocks, without copying them.
+     *
+     * @param head   The address of the first Block in the chain.
+     * @param length The number of bytes in the chain.
+     * @return A List of ByteBuffers, one for each Block, in order.
+     */
+    List<ByteBuffer> getBuffers(int head, int length) {
+        ArrayList<ByteBuffer> result = new ArrayList<>(getBlockCount(length));
+        int block = head;
+        while (length > 0) {
+            ByteBuffer buffer = getBlock(block);
+            buffer.limit(buffer.position() + Math.min(length, this.blockSize));
+            result.add(buffer.slice().asReadOnlyBuffer());
+            length -= this.blockSize;
+            block = getNext(block);
+        }
+
+        return result;
+    }
+
+    /**
+     * Gets a ByteBuffer covering the given Block, with its own position and limit.
+     */
+    private ByteBuffer getBlock(int address) {
+        ByteBuffer block = this.slabs[address / this.blocksPerSlab].duplicate();
+        int position = (address % this.blocksPerSlab) * this.blockSize;
+        block.limit(position + this.blockSize).position(position);
+        return block;
+    }
+
+    private int getNext(int address) {
+        return this.nextBlocks[address / this.blocksPerSlab][address % this.blocksPerSlab];
+    }
+
+    private void setNext(int address, int next) {
+        this.nextBlocks[address / this.blocksPerSlab][address % this.blocksPerSlab] = next;
+    }
+
+    //endregion
+}
@@ -0,0 +1,531 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.offheap;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.common.ObjectClosedException;
+import io.pravega.common.function.CallbackHelpers;
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.service.storage.Cache;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache that stores its entries in direct (off-heap) memory, in fixed-size Blocks allocated from a shared BlockStore.
+ * <p>
+ * Keys must serialize to exactly two longs (such as a Segment Id and an Offset). They are indexed using an open-addressing
+ * hash table made up of primitive arrays, so neither the Keys nor the entries produce any garbage once inserted.
+ * <p>
+ * Lookups share a read lock, so any number of them may copy entries out concurrently. Entries are allocated and written
+ * before the (exclusive) write lock is acquired, which is only held while the index is modified.
+ * <p>
+ * Views (see {@link #getView}) expose the Blocks of an entry directly. An entry's Blocks are not freed while there are
+ * open Views of it, even if the entry is removed or replaced; that happens when the last View is closed instead.
+ */
+@Slf4j
+@ThreadSafe
+class OffHeapCache implements Cache {
+    //region Members
+
+    private static final int KEY_LENGTH = Long.BYTES * 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int EMPTY = -1;
+
+    @Getter
+    private final String id;
+    private final String logId;
+    private final BlockStore blockStore;
+    private final Consumer<String> closeCallback;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    @GuardedBy("lock")
+    private long[] keyHighs;
+    @GuardedBy("lock")
+    private long[] keyLows;
+    @GuardedBy("lock")
+    private int[] heads;
+    @GuardedBy("lock")
+    private int[] lengths;
+    @GuardedBy("lock")
+    private int count;
+    @GuardedBy("lock")
+    private long storedBytes;
+    @GuardedBy("lock")
+    private long usedBlocks;
+    @GuardedBy("lock")
+    private boolean closed;
+    /**
+     * The number of open Views for each entry (by its first Block) which has any. Views may be opened and closed under
+     * the read lock, so this needs to be a concurrent map.
+     */
+    private final ConcurrentHashMap<Integer, Integer> viewCounts = new ConcurrentHashMap<>();
+    /**
+     * First Blocks of the entries which have been removed from the index while they had open Views, and which need to be
+     * freed once these are closed. These are only added under the write lock.
+     */
+    private final Set<Integer> retiredHeads = ConcurrentHashMap.newKeySet();
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the OffHeapCache class.
+     *
+     * @param id            The Cache Id.
+     * @param blockStore    The BlockStore to allocate memory from.
+     * @param closeCallback A callback to invoke when the cache is closed.
+     */
+    OffHeapCache(String id, BlockStore blockStore, Consumer<String> closeCallback) {
+        Exceptions.checkNotNullOrEmpty(id, "id");
+        this.id = id;
+        this.logId = String.format("OffHeapCache[%s]", id);
+        this.blockStore = Preconditions.checkNotNull(blockStore, "blockStore");
+        this.closeCallback = closeCallback;
+        resetIndex(INITIAL_CAPACITY);
+        log.info("{}: Initialized.", this.logId);
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        this.lock.writeLock().lock();
+        try {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            for (int i = 0; i < this.lengths.length; i++) {
+                if (this.lengths[i] != EMPTY) {
+                    freeOrRetire(this.heads[i]);
+                }
+            }
+
+            resetIndex(0);
+            this.storedBytes = 0;
+            this.usedBlocks = 0;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        log.info("{}: Closed.", this.logId);
+        Consumer<String> callback = this.closeCallback;
+        if (callback != null) {
+            CallbackHelpers.invokeSafely(callback, this.id, null);
+        }
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating the total number of bytes stored in this Cache (the sum of the lengths of all entries).
+     */
+    long getStoredBytes() {
+        this.lock.readLock().lock();
+        try {
+            return this.storedBytes;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a value indicating the number of bytes of direct memory currently held by this Cache. This is the Stored Bytes
+     * rounded up to whole Blocks for each entry.
+     */
+    long getUsedBytes() {
+        this.lock.readLock().lock();
+        try {
+            return this.usedBlocks * this.blockStore.getBlockSize();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets a value indicating the number of entries in this Cache.
+     */
+    int getEntryCount() {
+        this.lock.readLock().lock();
+        try {
+            return this.count;
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    //endregion
+
+    //region Cache Implementation
+
+    @Override
+    public void insert(Key key, byte[] data) {
+        insert(key, data, 0, data.length);
+    }
+
+    @Override
+    public void insert(Key key, ByteArraySegment data) {
+        insert(key, data.array(), data.arrayOffset(), data.getLength());
+    }
+
+    @Override
+    public byte[] get(Key key) {
+        byte[] serializedKey = serialize(key);
+        long high = getHigh(serializedKey);
+        long low = getLow(serializedKey);
+        this.lock.readLock().lock();
+        try {
+            Exceptions.checkNotClosed(this.closed, this);
+            return read(find(high, low));
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<byte[]> getAll(List<? extends Key> keys) {
+        long[] highs = new long[keys.size()];
+        long[] lows = new long[keys.size()];
+        for (int i = 0; i < highs.length; i++) {
+            byte[] serializedKey = serialize(keys.get(i));
+            highs[i] = getHigh(serializedKey);
+            lows[i] = getLow(serializedKey);
+        }
+
+        ArrayList<byte[]> result = new ArrayList<>(highs.length);
+        this.lock.readLock().lock();
+        try {
+            Exceptions.checkNotClosed(this.closed, this);
+            for (int i = 0; i < highs.length; i++) {
+                result.add(read(find(highs[i], lows[i])));
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        return result;
+    }
+
+    @Override
+    public View getView(Key key) {
+        byte[] serializedKey = serialize(key);
+        long high = getHigh(serializedKey);
+        long low = getLow(serializedKey);
+        this.lock.readLock().lock();
+        try {
+            Exceptions.checkNotClosed(this.closed, this);
+            int slot = find(high, low);
+            if (slot == EMPTY) {
+                return null;
+            }
+
+            int head = this.heads[slot];
+            int length = this.lengths[slot];
+            if (head != BlockStore.NO_BLOCK) {
+                this.viewCounts.merge(head, 1, Integer::sum);
+            }
+
+            return new BlockView(head, length);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long getEntrySize(int length) {
+        return (long) this.blockStore.getBlockCount(length) * this.blockStore.getBlockSize();
+    }
+
+    @Override
+    public void remove(Key key) {
+        byte[] serializedKey = serialize(key);
+        long high = getHigh(serializedKey);
+        long low = getLow(serializedKey);
+        this.lock.writeLock().lock();
+        try {
+            Exceptions.checkNotClosed(this.closed, this);
+            int slot = find(high, low);
+            if (slot != EMPTY) {
+                releaseEntry(slot);
+                deleteSlot(slot);
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    private void insert(Key key, byte[] data, int offset, int length) {
+        byte[] serializedKey = serialize(key);
+        long high = getHigh(serializedKey);
+        long low = getLow(serializedKey);
+        int blockCount = this.blockStore.getBlockCount(length);
+
+        // Allocate and write the new entry before touching the index, so a failure leaves the old one in place. The new
+        // Blocks are not visible to anyone else until they are indexed, so there is no need to hold the lock for this.
+        int head = this.blockStore.allocate(blockCount);
+        this.blockStore.write(head, data, offset, length);
+        this.lock.writeLock().lock();
+        try {
+            if (this.closed) {
+                this.blockStore.free(head);
+                throw new ObjectClosedException(this);
+            }
+
+            int slot = find(high, low);
+            if (slot == EMPTY) {
+                if ((this.count + 1) * 4L > this.lengths.length * 3L) {
+                    resize(this.lengths.length * 2);
+                }
+
+                slot = findEmptySlot(high, low);
+                this.keyHighs[slot] = high;
+                this.keyLows[slot] = low;
+                this.count++;
+            } else {
+                releaseEntry(slot);
+            }
+
+            this.heads[slot] = head;
+            this.lengths[slot] = length;
+            this.storedBytes += length;
+            this.usedBlocks += blockCount;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    //endregion
+
+    //region Index
+
+    @GuardedBy("lock")
+    private void resetIndex(int capacity) {
+        this.keyHighs = new long[capacity];
+        this.keyLows = new long[capacity];
+        this.heads = new int[capacity];
+        this.lengths = new int[capacity];
+        Arrays.fill(this.lengths, EMPTY);
+        this.count = 0;
+    }
+
+    /**
+     * Finds the slot holding the given key.
+     *
+     * @return The slot, or EMPTY if the key is not in the index.
+     */
+    @GuardedBy("lock")
+    private int find(long high, long low) {
+        int mask = this.lengths.length - 1;
+        int slot = hash(high, low) & mask;
+        while (this.lengths[slot] != EMPTY) {
+            if (this.keyHighs[slot] == high && this.keyLows[slot] == low) {
+                return slot;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return EMPTY;
+    }
+
+    @GuardedBy("lock")
+    private int findEmptySlot(long high, long low) {
+        int mask = this.lengths.length - 1;
+        int slot = hash(high, low) & mask;
+        while (this.lengths[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+
+        return slot;
+    }
+
+    /**
+     * Removes the entry at the given slot from the index. Since we use linear probing, any entries following it in the
+     * same probe sequence are shifted back, so lookups never need to skip over deleted slots.
+     */
+    @GuardedBy("lock")
+    private void deleteSlot(int slot) {
+        int mask = this.lengths.length - 1;
+        int hole = slot;
+        int current = slot;
+        while (true) {
+            current = (current + 1) & mask;
+            if (this.lengths[current] == EMPTY) {
+                break;
+            }
+
+            // Move the entry into the hole unless its ideal slot lies cyclically within (hole, current].
+            int ideal = hash(this.keyHighs[current], this.keyLows[current]) & mask;
+            boolean stays = hole <= current ? (hole < ideal && ideal <= current) : (hole < ideal || ideal <= current);
+            if (!stays) {
+                this.keyHighs[hole] = this.keyHighs[current];
+                this.keyLows[hole] = this.keyLows[current];
+                this.heads[hole] = this.heads[current];
+                this.lengths[hole] = this.lengths[current];
+                hole = current;
+            }
+        }
+
+        this.lengths[hole] = EMPTY;
+        this.count--;
+    }
+
+    @GuardedBy("lock")
+    private void resize(int newCapacity) {
+        long[] oldHighs = this.keyHighs;
+        long[] oldLows = this.keyLows;
+        int[] oldHeads = this.heads;
+        int[] oldLengths = this.lengths;
+        int oldCount = this.count;
+        resetIndex(newCapacity);
+        for (int i = 0; i < oldLengths.length; i++) {
+            if (oldLengths[i] != EMPTY) {
+                int slot = findEmptySlot(oldHighs[i], oldLows[i]);
+                this.keyHighs[slot] = oldHighs[i];
+                this.keyLows[slot] = oldLows[i];
+                this.heads[slot] = oldHeads[i];
+                this.lengths[slot] = oldLengths[i];
+            }
+        }
+
+        this.count = oldCount;
+    }
+
+    @GuardedBy("lock")
+    private byte[] read(int slot) {
+        if (slot == EMPTY) {
+            return null;
+        }
+
+        byte[] result = new byte[this.lengths[slot]];
+        this.blockStore.read(this.heads[slot], result, 0, result.length);
+        return result;
+    }
+
+    @GuardedBy("lock")
+    private void releaseEntry(int slot) {
+        int length = this.lengths[slot];
+        freeOrRetire(this.heads[slot]);
+        this.storedBytes -= length;
+        this.usedBlocks -= this.blockStore.getBlockCount(length);
+    }
+
+    /**
+     * Frees the given chain of Blocks, unless there are open Views of it, in which case the last of them to be closed will.
+     * Since Views are only opened and closed under the read lock, none of them can be closed while this executes.
+     */
+    @GuardedBy("lock")
+    private void freeOrRetire(int head) {
+        if (this.viewCounts.containsKey(head)) {
+            this.retiredHeads.add(head);
+        } else {
+            this.blockStore.free(head);
+        }
+    }
+
+    private void releaseView(int head) {
+        this.lock.readLock().lock();
+        try {
+            Integer remaining = this.viewCounts.computeIfPresent(head, (h, count) -> count == 1 ? null : count - 1);
+            if (remaining == null && this.retiredHeads.remove(head)) {
+                this.blockStore.free(head);
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    private static int hash(long high, long low) {
+        // MurmurHash3 64-bit finalizer, applied to a combination of both halves of the key.
+        long h = high * 0x9E3779B97F4A7C15L + low;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return (int) h;
+    }
+
+    //endregion
+
+    //region BlockView
+
+    /**
+     * A View of an entry, backed by its Blocks.
+     */
+    private class BlockView implements View {
+        private final int head;
+        @Getter
+        private final int length;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        BlockView(int head, int length) {
+            this.head = head;
+            this.length = length;
+        }
+
+        @Override
+        public List<ByteBuffer> getBuffers() {
+            Preconditions.checkState(!this.closed.get(), "View is closed.");
+            return OffHeapCache.this.blockStore.getBuffers(this.head, this.length);
+        }
+
+        @Override
+        public void close() {
+            if (!this.closed.getAndSet(true) && this.head != BlockStore.NO_BLOCK) {
+                releaseView(this.head);
+            }
+        }
+    }
+
+    //endregion
+
+    //region Helpers
+
+    private byte[] serialize(Key key) {
+        byte[] result = key.serialize();
+        Preconditions.checkArgument(result.length == KEY_LENGTH,
+                "%s only supports keys that serialize to %s bytes; given %s.", this.logId, KEY_LENGTH, result.length);
+        return result;
+    }
+
+    private static long getHigh(byte[] serializedKey) {
+        return ByteBuffer.wrap(serializedKey).getLong(0);
+    }
+
+    private static long getLow(byte[] serializedKey) {
+        return ByteBuffer.wrap(serializedKey).getLong(Long.BYTES);
+    }
+
+    //endregion
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.offheap;
+
+import io.pravega.common.util.ConfigBuilder;
+import io.pravega.common.util.ConfigurationException;
+import io.pravega.common.util.InvalidPropertyValueException;
+import io.pravega.common.util.Property;
+import io.pravega.common.util.TypedProperties;
+import lombok.Getter;
+
+/**
+ * Configuration for the Off-Heap Cache.
+ */
+public class OffHeapCacheConfig {
+    //region Config Names
+
+    public static final Property<Integer> BLOCK_SIZE = Property.named("blockSize", 1024);
+    public static final Property<Integer> SLAB_SIZE = Property.named("slabSize", 32 * 1024 * 1024);
+    public static final Property<Long> MAX_SIZE = Property.named("maxSize", 16L * 1024 * 1024 * 1024);
+    private static final String COMPONENT_CODE = "offheapcache";
+
+    //endregion
+
+    //region Members
+
+    /**
+     * The size of a Block, in bytes. This is the unit of allocation for cache entries: every entry occupies a whole
+     * number of blocks.
+     */
+    @Getter
+    private final int blockSize;
+
+    /**
+     * The size of a Slab, in bytes. Direct memory is allocated (and never released until the factory is closed) one
+     * Slab at a time. This must be a multiple of the Block Size.
+     */
+    @Getter
+    private final int slabSize;
+
+    /**
+     * The maximum amount of direct memory that can be allocated by all the Caches created by the same factory.
+     */
+    @Getter
+    private final long maxSize;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the OffHeapCacheConfig class.
+     *
+     * @param properties The TypedProperties object to read Properties from.
+     */
+    private OffHeapCacheConfig(TypedProperties properties) throws ConfigurationException {
+        this.blockSize = properties.getInt(BLOCK_SIZE);
+        if (this.blockSize <= 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a positive integer.",
+                    BLOCK_SIZE, this.blockSize));
+        }
+
+        this.slabSize = properties.getInt(SLAB_SIZE);
+        if (this.slabSize <= 0 || this.slabSize % this.blockSize != 0) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be a positive multiple of '%s' (%d).",
+                    SLAB_SIZE, this.slabSize, BLOCK_SIZE, this.blockSize));
+        }
+
+        this.maxSize = properties.getLong(MAX_SIZE);
+        if (this.maxSize < this.slabSize) {
+            throw new InvalidPropertyValueException(String.format("Property '%s' (%d) must be at least '%s' (%d).",
+                    MAX_SIZE, this.maxSize, SLAB_SIZE, this.slabSize));
+        }
+    }
+
+    /**
+     * Creates a new ConfigBuilder that can be used to create instances of this class.
+     *
+     * @return A new Builder for this class.
+     */
+    public static ConfigBuilder<OffHeapCacheConfig> builder() {
+        return new ConfigBuilder<>(COMPONENT_CODE, OffHeapCacheConfig::new);
+    }
+
+    //endregion
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.offheap;
+
+import com.google.common.base.Preconditions;
+import io.pravega.common.Exceptions;
+import io.pravega.service.storage.Cache;
+import io.pravega.service.storage.CacheFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache Factory for the Off-Heap Cache implementation. All Caches created by the same factory share the same pool of
+ * direct memory, bounded by OffHeapCacheConfig.getMaxSize().
+ */
+@Slf4j
+public class OffHeapCacheFactory implements CacheFactory {
+    //region Members
+
+    private static final String LOG_ID = "OffHeapCacheFactory";
+    private final HashMap<String, OffHeapCache> caches;
+    private final BlockStore blockStore;
+    private final AtomicBoolean closed;
+
+    //endregion
+
+    //region Constructor
+
+    /**
+     * Creates a new instance of the OffHeapCacheFactory class.
+     *
+     * @param config The configuration to use.
+     */
+    public OffHeapCacheFactory(OffHeapCacheConfig config) {
+        Preconditions.checkNotNull(config, "config");
+
+        this.blockStore = new BlockStore(config);
+        this.caches = new HashMap<>();
+        this.closed = new AtomicBoolean();
+        log.info("{}: Initialized (BlockSize = {}, SlabSize = {}, MaxSize = {}).", LOG_ID,
+                config.getBlockSize(), config.getSlabSize(), config.getMaxSize());
+    }
+
+    //endregion
+
+    //region AutoCloseable Implementation
+
+    @Override
+    public void close() {
+        if (!this.closed.get()) {
+            ArrayList<OffHeapCache> toClose;
+            synchronized (this.caches) {
+                toClose = new ArrayList<>(this.caches.values());
+            }
+
+            toClose.forEach(OffHeapCache::close);
+            this.blockStore.close();
+            this.closed.set(true);
+            log.info("{}: Closed.", LOG_ID);
+        }
+    }
+
+    //endregion
+
+    //region Properties
+
+    /**
+     * Gets a value indicating the total amount of direct memory allocated by this factory, in bytes.
+     */
+    public long getAllocatedBytes() {
+        return this.blockStore.getAllocatedBytes();
+    }
+
+    /**
+     * Gets a value indicating the amount of allocated direct memory that is currently used by cache entries, in bytes.
+     */
+    public long getUsedBytes() {
+        return this.blockStore.getUsedBytes();
+    }
+
+    //endregion
+
+    //region CacheFactory Implementation
+
+    @Override
+    public Cache getCache(String id) {
+        Exceptions.checkNotClosed(this.closed.get(), this);
+
+        synchronized (this.caches) {
+            OffHeapCache result = this.caches.get(id);
+            if (result == null) {
+                result = new OffHeapCache(id, this.blockStore, this::cacheClosed);
+                this.caches.put(id, result);
+            }
+
+            return result;
+        }
+    }
+
+    private void cacheClosed(String cacheId) {
+        synchronized (this.caches) {
+            this.caches.remove(cacheId);
+        }
+    }
+
+    //endregion
+}
@@ -24,6 +24,9 @@ import io.pravega.service.storage.CacheException;
 import com.google.common.base.Preconditions;
 import java.io.File;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
@@ -181,6 +184,25 @@ class RocksDBCache implements Cache {
         }
     }
 
+    @Override
+    public List<byte[]> getAll(List<? extends Key> keys) {
+        ensureInitializedAndNotClosed();
+        ArrayList<byte[]> serializedKeys = new ArrayList<>(keys.size());
+        keys.forEach(key -> serializedKeys.add(key.serialize()));
+        Map<byte[], byte[]> values;
+        try {
+            values = this.database.get().multiGet(serializedKeys);
+        } catch (RocksDBException ex) {
+            throw convert(ex, "get %d keys", keys.size());
+        }
+
+        // The returned map is keyed by the very same (serialized key) array instances we passed in, and only contains
+        // entries for keys that exist.
+        ArrayList<byte[]> result = new ArrayList<>(keys.size());
+        serializedKeys.forEach(key -> result.add(values.get(key)));
+        return result;
+    }
+
     @Override
     public void remove(Key key) {
         ensureInitializedAndNotClosed();
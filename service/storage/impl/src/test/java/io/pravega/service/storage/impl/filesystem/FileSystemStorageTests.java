@@ -0,0 +1,244 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.filesystem;
+
+import io.pravega.common.io.FileHelpers;
+import io.pravega.service.storage.SegmentHandle;
+import io.pravega.service.storage.Storage;
+import io.pravega.service.storage.StorageNotPrimaryException;
+import io.pravega.service.storage.StorageTestBase;
+import io.pravega.test.common.AssertExtensions;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.file.Files;
+import lombok.val;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for FileSystemStorage.
+ */
+public class FileSystemStorageTests extends StorageTestBase {
+    private File baseDir = null;
+    private FileSystemStorageConfig adapterConfig;
+
+    @Before
+    public void setUp() throws Exception {
+        this.baseDir = Files.createTempDirectory("test_fs").toFile().getAbsoluteFile();
+        this.adapterConfig = FileSystemStorageConfig
+                .builder()
+                .with(FileSystemStorageConfig.ROOT, this.baseDir.getAbsolutePath())
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        FileHelpers.deleteFileOrDirectory(this.baseDir);
+        this.baseDir = null;
+    }
+
+    /**
+     * Tests that Segments with hierarchical names (such as Transactions and Segments of Scoped Streams) can be used.
+     */
+    @Test
+    public void testHierarchicalNames() {
+        final String segmentName = "scope/stream/0#transaction.1234";
+        final byte[] data = "hello".getBytes();
+        try (val storage = createStorage()) {
+            storage.initialize(DEFAULT_EPOCH);
+            storage.create(segmentName, TIMEOUT).join();
+            val handle = storage.openWrite(segmentName).join();
+            storage.write(handle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+
+            byte[] readBuffer = new byte[data.length];
+            int readBytes = storage.read(handle, 0, readBuffer, 0, readBuffer.length, TIMEOUT).join();
+            Assert.assertEquals("Unexpected number of bytes read.", data.length, readBytes);
+            Assert.assertArrayEquals("Unexpected data read.", data, readBuffer);
+            Assert.assertEquals("Unexpected length.", data.length, storage.getStreamSegmentInfo(segmentName, TIMEOUT).join().getLength());
+        }
+    }
+
+    //region Fencing tests
+
+    /**
+     * Tests fencing abilities. We create two different Storage objects with different epochs.
+     * * We create the Segment on Storage1 and verify that it can execute all operations.
+     * * We open the Segment on Storage2:
+     * ** We verify that Storage1 can execute only read-only operations.
+     * ** We verify that Storage2 can execute all operations.
+     * * We verify that Storage1 cannot take ownership back, since it has a lower epoch.
+     */
+    @Test
+    @Override
+    public void testFencing() throws Exception {
+        final long epoch1 = 1;
+        final long epoch2 = 2;
+        final String segmentName = "segment";
+        try (val storage1 = createStorage();
+             val storage2 = createStorage()) {
+            storage1.initialize(epoch1);
+            storage2.initialize(epoch2);
+
+            // Create segment in Storage1 (thus Storage1 owns it for now).
+            storage1.create(segmentName, TIMEOUT).join();
+
+            // Storage1 should be able to execute all operations.
+            SegmentHandle handle1 = storage1.openWrite(segmentName).join();
+            verifyWriteOperationsSucceed(handle1, storage1);
+            verifyReadOnlyOperationsSucceed(handle1, storage1);
+
+            // Open the segment in Storage2 (thus Storage2 owns it for now).
+            SegmentHandle handle2 = storage2.openWrite(segmentName).join();
+
+            // Storage1 should be able to execute only read-only operations, and it cannot re-acquire ownership.
+            verifyWriteOperationsFail(handle1, storage1);
+            verifyReadOnlyOperationsSucceed(handle1, storage1);
+            AssertExtensions.assertThrows(
+                    "openWrite() allowed a lower epoch to take ownership.",
+                    () -> storage1.openWrite(segmentName),
+                    ex -> ex instanceof StorageNotPrimaryException);
+
+            // Storage2 should be able to execute all operations.
+            verifyReadOnlyOperationsSucceed(handle2, storage2);
+            verifyWriteOperationsSucceed(handle2, storage2);
+
+            // Seal and Delete (these should be run last, otherwise we can't run our test).
+            verifyFinalWriteOperationsFail(handle1, storage1);
+            verifyFinalWriteOperationsSucceed(handle2, storage2);
+        }
+    }
+
+    /**
+     * Tests that concat() is fenced out if the Source Segment is owned by a Storage with a higher epoch, even if the
+     * Target Segment is owned by us.
+     */
+    @Test
+    public void testConcatSourceFencing() throws Exception {
+        final String targetName = "target";
+        final String sourceName = "source";
+        final byte[] data = "hello".getBytes();
+        try (val storage1 = createStorage();
+             val storage2 = createStorage()) {
+            storage1.initialize(1);
+            storage2.initialize(2);
+
+            // Storage1 owns the Target, while Storage2 owns the Source.
+            storage1.create(targetName, TIMEOUT).join();
+            val targetHandle = storage1.openWrite(targetName).join();
+            storage2.create(sourceName, TIMEOUT).join();
+            val sourceHandle = storage2.openWrite(sourceName).join();
+            storage2.write(sourceHandle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+            storage2.seal(sourceHandle, TIMEOUT).join();
+
+            AssertExtensions.assertThrows(
+                    "Concat was allowed with a Source Segment owned by a higher epoch.",
+                    () -> storage1.concat(targetHandle, 0, sourceName, TIMEOUT),
+                    ex -> ex instanceof StorageNotPrimaryException);
+            Assert.assertTrue("Source Segment was deleted after rejected call to concat.", storage1.exists(sourceName, TIMEOUT).join());
+            Assert.assertEquals("Target Segment was modified after rejected call to concat.",
+                    0, storage1.getStreamSegmentInfo(targetName, TIMEOUT).join().getLength());
+        }
+    }
+
+    private void verifyReadOnlyOperationsSucceed(SegmentHandle handle, Storage storage) {
+        boolean exists = storage.exists(handle.getSegmentName(), TIMEOUT).join();
+        Assert.assertTrue("Segment does not exist.", exists);
+
+        val si = storage.getStreamSegmentInfo(handle.getSegmentName(), TIMEOUT).join();
+        Assert.assertNotNull("Unexpected response from getStreamSegmentInfo.", si);
+
+        byte[] readBuffer = new byte[(int) si.getLength()];
+        int readBytes = storage.read(handle, 0, readBuffer, 0, readBuffer.length, TIMEOUT).join();
+        Assert.assertEquals("Unexpected number of bytes read.", readBuffer.length, readBytes);
+    }
+
+    private void verifyWriteOperationsSucceed(SegmentHandle handle, Storage storage) {
+        val si = storage.getStreamSegmentInfo(handle.getSegmentName(), TIMEOUT).join();
+        final byte[] data = "hello".getBytes();
+        storage.write(handle, si.getLength(), new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+
+        final String concatName = "concat";
+        storage.create(concatName, TIMEOUT).join();
+        val concatHandle = storage.openWrite(concatName).join();
+        storage.write(concatHandle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+        storage.seal(concatHandle, TIMEOUT).join();
+        storage.concat(handle, si.getLength() + data.length, concatHandle.getSegmentName(), TIMEOUT).join();
+    }
+
+    private void verifyWriteOperationsFail(SegmentHandle handle, Storage storage) {
+        val si = storage.getStreamSegmentInfo(handle.getSegmentName(), TIMEOUT).join();
+        final byte[] data = "hello".getBytes();
+        AssertExtensions.assertThrows(
+                "Write was not fenced out.",
+                () -> storage.write(handle, si.getLength(), new ByteArrayInputStream(data), data.length, TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+
+        // Create a second segment and try to concat it into the primary one.
+        final String concatName = "concat";
+        storage.create(concatName, TIMEOUT).join();
+        val concatHandle = storage.openWrite(concatName).join();
+        storage.write(concatHandle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+        storage.seal(concatHandle, TIMEOUT).join();
+        AssertExtensions.assertThrows(
+                "Concat was not fenced out.",
+                () -> storage.concat(handle, si.getLength(), concatHandle.getSegmentName(), TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+        storage.delete(concatHandle, TIMEOUT).join();
+    }
+
+    private void verifyFinalWriteOperationsSucceed(SegmentHandle handle, Storage storage) {
+        storage.seal(handle, TIMEOUT).join();
+        storage.delete(handle, TIMEOUT).join();
+
+        boolean exists = storage.exists(handle.getSegmentName(), TIMEOUT).join();
+        Assert.assertFalse("Segment still exists after deletion.", exists);
+    }
+
+    private void verifyFinalWriteOperationsFail(SegmentHandle handle, Storage storage) {
+        AssertExtensions.assertThrows(
+                "Seal was allowed on fenced Storage.",
+                () -> storage.seal(handle, TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+
+        val si = storage.getStreamSegmentInfo(handle.getSegmentName(), TIMEOUT).join();
+        Assert.assertFalse("Segment was sealed after rejected call to seal.", si.isSealed());
+
+        AssertExtensions.assertThrows(
+                "Delete was allowed on fenced Storage.",
+                () -> storage.delete(handle, TIMEOUT),
+                ex -> ex instanceof StorageNotPrimaryException);
+        boolean exists = storage.exists(handle.getSegmentName(), TIMEOUT).join();
+        Assert.assertTrue("Segment was deleted after rejected call to delete.", exists);
+    }
+
+    //endregion
+
+    @Override
+    protected SegmentHandle createHandle(String segmentName, boolean readOnly, long epoch) {
+        if (readOnly) {
+            return FileSystemSegmentHandle.read(segmentName);
+        } else {
+            return FileSystemSegmentHandle.write(segmentName);
+        }
+    }
+
+    @Override
+    protected Storage createStorage() {
+        return new FileSystemStorage(this.adapterConfig, executorService());
+    }
+}
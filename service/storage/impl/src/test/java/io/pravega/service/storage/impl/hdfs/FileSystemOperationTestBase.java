@@ -31,14 +31,18 @@ abstract class FileSystemOperationTestBase {
     protected static final int TEST_TIMEOUT_MILLIS = 30 * 1000;
 
     static TestContext newContext(long epoch, MockFileSystem fileSystem) {
-        return new TestContext(epoch, fileSystem);
+        return newContext(epoch, fileSystem, HDFSStorageConfig.builder().build());
+    }
+
+    static TestContext newContext(long epoch, MockFileSystem fileSystem, HDFSStorageConfig config) {
+        return new TestContext(epoch, fileSystem, config);
     }
 
     static class TestContext extends FileSystemOperation.OperationContext {
         private final DummyOperation operation;
 
-        private TestContext(long epoch, FileSystem fileSystem) {
-            super(epoch, fileSystem, HDFSStorageConfig.builder().build());
+        private TestContext(long epoch, FileSystem fileSystem, HDFSStorageConfig config) {
+            super(epoch, fileSystem, config);
             this.operation = new DummyOperation("", this);
         }
 
@@ -28,7 +28,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.Collections;
-import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
 
 import lombok.SneakyThrows;
 import lombok.val;
@@ -127,6 +127,102 @@ public class HDFSStorageTest extends StorageTestBase {
         }
     }
 
+    /**
+     * Tests fencing when output streams are kept open between writes. Storage2 takes over the Segment while Storage1
+     * still has an open output stream for it. Verifies that:
+     * * Storage2 sees all the data written by Storage1.
+     * * Storage1 can no longer write using its open output stream.
+     * * Storage2 can write to and read from the Segment.
+     */
+    @Test
+    public void testFencingWithOpenOutputStreams() throws Exception {
+        final long epoch1 = 1;
+        final long epoch2 = 2;
+        final String segmentName = "segment";
+        final byte[] data = "hello".getBytes();
+        val config = HDFSStorageConfig
+                .builder()
+                .with(HDFSStorageConfig.REPLICATION, 1)
+                .with(HDFSStorageConfig.URL, String.format("hdfs://localhost:%d/", hdfsCluster.getNameNodePort()))
+                .with(HDFSStorageConfig.OUTPUT_STREAM_IDLE_TIMEOUT_MILLIS, 60000L)
+                .build();
+        try (val storage1 = new TestHDFSStorage(config, executorService());
+             val storage2 = new TestHDFSStorage(config, executorService())) {
+            storage1.initialize(epoch1);
+            storage2.initialize(epoch2);
+
+            // Write a few times using Storage1; its output stream will stay open.
+            storage1.create(segmentName, TIMEOUT).join();
+            SegmentHandle handle1 = storage1.openWrite(segmentName).join();
+            int writeCount = 3;
+            for (int i = 0; i < writeCount; i++) {
+                storage1.write(handle1, i * data.length, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+            }
+
+            long expectedLength = writeCount * data.length;
+            Assert.assertEquals("Unexpected length while the output stream is open.",
+                    expectedLength, storage1.getStreamSegmentInfo(segmentName, TIMEOUT).join().getLength());
+            verifyReadOnlyOperationsSucceed(storage1.openRead(segmentName).join(), storage1);
+
+            // Storage2 takes over.
+            SegmentHandle handle2 = storage2.openWrite(segmentName).join();
+            Assert.assertEquals("Unexpected length after fencing.",
+                    expectedLength, storage2.getStreamSegmentInfo(segmentName, TIMEOUT).join().getLength());
+
+            AssertExtensions.assertThrows(
+                    "Write using an open output stream was not fenced out.",
+                    () -> storage1.write(handle1, expectedLength, new ByteArrayInputStream(data), data.length, TIMEOUT),
+                    ex -> ex instanceof StorageNotPrimaryException);
+
+            storage2.write(handle2, expectedLength, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+            byte[] readBuffer = new byte[(int) expectedLength + data.length];
+            int readBytes = storage2.read(handle2, 0, readBuffer, 0, readBuffer.length, TIMEOUT).join();
+            Assert.assertEquals("Unexpected number of bytes read.", readBuffer.length, readBytes);
+            for (int i = 0; i <= writeCount; i++) {
+                AssertExtensions.assertArrayEquals("Unexpected data read.", data, 0, readBuffer, i * data.length, data.length);
+            }
+
+            verifyFinalWriteOperationsSucceed(handle2, storage2);
+        }
+    }
+
+    /**
+     * Tests that output streams which are no longer written to are eventually closed, even if no further writes are
+     * made to any Segment.
+     */
+    @Test
+    public void testIdleOutputStreamsClosed() throws Exception {
+        final String segmentName = "segment";
+        final byte[] data = "hello".getBytes();
+        final long idleTimeoutMillis = 200;
+        val config = HDFSStorageConfig
+                .builder()
+                .with(HDFSStorageConfig.REPLICATION, 1)
+                .with(HDFSStorageConfig.URL, String.format("hdfs://localhost:%d/", hdfsCluster.getNameNodePort()))
+                .with(HDFSStorageConfig.OUTPUT_STREAM_IDLE_TIMEOUT_MILLIS, idleTimeoutMillis)
+                .build();
+        try (val storage = new TestHDFSStorage(config, executorService())) {
+            storage.initialize(1);
+            storage.create(segmentName, TIMEOUT).join();
+            val handle = (HDFSSegmentHandle) storage.openWrite(segmentName).join();
+            storage.write(handle, 0, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+            Assert.assertTrue("Expected the output stream to be kept open after a write.", handle.hasOutputStream());
+
+            // Wait for the periodic check to close it.
+            long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+            while (handle.hasOutputStream() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(idleTimeoutMillis / 4);
+            }
+
+            Assert.assertFalse("Idle output stream was not closed.", handle.hasOutputStream());
+
+            // The Segment must still be writable afterwards.
+            storage.write(handle, data.length, new ByteArrayInputStream(data), data.length, TIMEOUT).join();
+            Assert.assertEquals("Unexpected length after writing to a closed output stream.",
+                    2 * data.length, storage.getStreamSegmentInfo(segmentName, TIMEOUT).join().getLength());
+        }
+    }
+
     private void verifyReadOnlyOperationsSucceed(SegmentHandle handle, Storage storage) {
         boolean exists = storage.exists(handle.getSegmentName(), TIMEOUT).join();
         Assert.assertTrue("Segment does not exist.", exists);
@@ -222,7 +318,7 @@ public class HDFSStorageTest extends StorageTestBase {
      * 'read-only' permission issues observed with that one.
      **/
     private static class TestHDFSStorage extends HDFSStorage {
-        TestHDFSStorage(HDFSStorageConfig config, Executor executor) {
+        TestHDFSStorage(HDFSStorageConfig config, ScheduledExecutorService executor) {
             super(config, executor);
         }
 
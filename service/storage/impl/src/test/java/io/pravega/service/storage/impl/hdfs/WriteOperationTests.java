@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Random;
 import lombok.Cleanup;
 import lombok.val;
+import org.apache.hadoop.fs.FSDataOutputStream;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -94,6 +95,58 @@ public class WriteOperationTests extends FileSystemOperationTestBase {
         }
     }
 
+    /**
+     * Tests writing when output streams are kept open between writes. Verifies that the output stream is reused and
+     * that it is closed when the segment is sealed.
+     */
+    @Test (timeout = TEST_TIMEOUT_MILLIS)
+    public void testKeepOutputStreamOpen() throws Exception {
+        val rnd = new Random(0);
+        @Cleanup
+        val fs = new MockFileSystem();
+        val config = HDFSStorageConfig.builder()
+                                      .with(HDFSStorageConfig.OUTPUT_STREAM_IDLE_TIMEOUT_MILLIS, 60000L)
+                                      .build();
+        val context = newContext(1, fs, config);
+        new CreateOperation(SEGMENT_NAME, context).call();
+        val handle = new OpenWriteOperation(SEGMENT_NAME, context).call();
+        val writtenData = new ByteArrayOutputStream();
+        FSDataOutputStream stream = null;
+        for (int writeId = 0; writeId < WRITES_PER_FILE; writeId++) {
+            byte[] data = new byte[WRITE_SIZE];
+            rnd.nextBytes(data);
+            new WriteOperation(handle, writtenData.size(), new ByteArrayInputStream(data), data.length, context).run();
+            writtenData.write(data);
+
+            val currentStream = handle.getOutputStream(handle.getLastFile().getPath());
+            Assert.assertNotNull("Output stream was not kept open.", currentStream);
+            if (stream != null) {
+                Assert.assertSame("Output stream was not reused.", stream, currentStream);
+            }
+
+            stream = currentStream;
+        }
+
+        // A failed write closes the stream; the next one reopens it.
+        AssertExtensions.assertThrows(
+                "WriteOperation allowed writing at wrong offset.",
+                new WriteOperation(handle, writtenData.size() + 1, new ByteArrayInputStream(new byte[1]), 1, context)::run,
+                ex -> ex instanceof BadOffsetException);
+        Assert.assertFalse("Output stream was not closed after a failed write.", handle.hasOutputStream());
+
+        new SealOperation(handle, context).run();
+        Assert.assertFalse("Output stream was not closed after sealing.", handle.hasOutputStream());
+
+        byte[] expectedData = writtenData.toByteArray();
+        val lastFile = handle.getLastFile();
+        Assert.assertEquals("Unexpected file length.", expectedData.length, fs.getFileStatus(lastFile.getPath()).getLen());
+        @Cleanup
+        val inputStream = fs.open(lastFile.getPath(), WRITE_SIZE);
+        byte[] fileReadBuffer = new byte[expectedData.length];
+        inputStream.readFully(0, fileReadBuffer);
+        Assert.assertArrayEquals("Unexpected file contents.", expectedData, fileReadBuffer);
+    }
+
     /**
      * Tests the case when the current file (previously empty) has disappeared due to it being fenced out.
      * Expected behavior: StorageNotPrimaryException with no side effects.
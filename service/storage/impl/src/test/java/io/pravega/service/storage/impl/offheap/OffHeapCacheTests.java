@@ -0,0 +1,245 @@
+/**
+ * Copyright (c) 2017 Dell Inc., or its subsidiaries.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.pravega.service.storage.impl.offheap;
+
+import io.pravega.common.util.ByteArraySegment;
+import io.pravega.service.storage.Cache;
+import io.pravega.service.storage.CacheException;
+import io.pravega.service.storage.CacheTestBase;
+import io.pravega.test.common.AssertExtensions;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.Cleanup;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit tests for OffHeapCache.
+ */
+public class OffHeapCacheTests extends CacheTestBase {
+    private static final int BLOCK_SIZE = 16;
+    private static final int SLAB_SIZE = 64 * 1024;
+    private static final long MAX_SIZE = 64 * SLAB_SIZE;
+    private final AtomicReference<OffHeapCacheFactory> factory = new AtomicReference<>();
+
+    @Before
+    public void setUp() {
+        this.factory.set(new OffHeapCacheFactory(createConfig(MAX_SIZE)));
+    }
+
+    @After
+    public void tearDown() {
+        this.factory.getAndSet(null).close();
+    }
+
+    @Override
+    protected Cache createCache(String cacheId) {
+        return this.factory.get().getCache(cacheId);
+    }
+
+    /**
+     * Tests that entries spanning multiple blocks (and no blocks at all) can be inserted, overwritten and read back, and
+     * that the byte counts reported by the cache are exact.
+     */
+    @Test
+    public void testVariableLengthEntries() {
+        @Cleanup
+        OffHeapCache cache = (OffHeapCache) createCache("cache");
+        Random rnd = new Random(0);
+        int[] lengths = new int[]{0, 1, BLOCK_SIZE - 1, BLOCK_SIZE, BLOCK_SIZE + 1, 10 * BLOCK_SIZE + 3};
+        byte[][] contents = new byte[lengths.length][];
+        long expectedStored = 0;
+        long expectedUsed = 0;
+        long reportedUsed = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            contents[i] = new byte[lengths[i]];
+            rnd.nextBytes(contents[i]);
+            cache.insert(new TestKey(i, i), contents[i]);
+            expectedStored += lengths[i];
+            expectedUsed += (lengths[i] + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+            reportedUsed += cache.getEntrySize(lengths[i]);
+        }
+
+        Assert.assertEquals("Unexpected entry count.", lengths.length, cache.getEntryCount());
+        Assert.assertEquals("Unexpected stored bytes.", expectedStored, cache.getStoredBytes());
+        Assert.assertEquals("Unexpected used bytes.", expectedUsed, cache.getUsedBytes());
+        Assert.assertEquals("Unexpected used bytes in factory.", expectedUsed, this.factory.get().getUsedBytes());
+        Assert.assertEquals("Unexpected entry sizes (as accounted for by the CacheManager).", expectedUsed, reportedUsed);
+        for (int i = 0; i < lengths.length; i++) {
+            Assert.assertArrayEquals("Unexpected contents for entry " + i, contents[i], cache.get(new TestKey(i, i)));
+        }
+
+        // Overwrite every entry with a sub-segment of a larger array; the old blocks must be released.
+        expectedStored = 0;
+        expectedUsed = 0;
+        for (int i = 0; i < lengths.length; i++) {
+            byte[] buffer = new byte[lengths[i] + 10];
+            rnd.nextBytes(buffer);
+            ByteArraySegment segment = new ByteArraySegment(buffer, 5, lengths[i]);
+            cache.insert(new TestKey(i, i), segment);
+            contents[i] = segment.getCopy();
+            expectedStored += lengths[i];
+            expectedUsed += (lengths[i] + BLOCK_SIZE - 1) / BLOCK_SIZE * BLOCK_SIZE;
+        }
+
+        Assert.assertEquals("Unexpected entry count after overwrite.", lengths.length, cache.getEntryCount());
+        Assert.assertEquals("Unexpected stored bytes after overwrite.", expectedStored, cache.getStoredBytes());
+        Assert.assertEquals("Unexpected used bytes after overwrite.", expectedUsed, this.factory.get().getUsedBytes());
+        for (int i = 0; i < lengths.length; i++) {
+            Assert.assertArrayEquals("Unexpected contents for entry " + i + " after overwrite.", contents[i], cache.get(new TestKey(i, i)));
+        }
+
+        // Remove everything.
+        for (int i = 0; i < lengths.length; i++) {
+            cache.remove(new TestKey(i, i));
+        }
+
+        Assert.assertEquals("Unexpected entry count after removal.", 0, cache.getEntryCount());
+        Assert.assertEquals("Unexpected stored bytes after removal.", 0, cache.getStoredBytes());
+        Assert.assertEquals("Unexpected used bytes after removal.", 0, this.factory.get().getUsedBytes());
+    }
+
+    /**
+     * Tests that inserting into a full cache fails, and that memory released by removals (or by closing other caches)
+     * can be reused.
+     */
+    @Test
+    public void testCacheFull() {
+        @Cleanup
+        OffHeapCacheFactory factory = new OffHeapCacheFactory(createConfig(SLAB_SIZE));
+        Cache cache1 = factory.getCache("cache1");
+        @Cleanup
+        Cache cache2 = factory.getCache("cache2");
+        byte[] data = new byte[SLAB_SIZE / 2];
+        cache1.insert(new TestKey(1, 0), data);
+        cache2.insert(new TestKey(2, 0), data);
+        Assert.assertEquals("Unexpected allocated bytes.", SLAB_SIZE, factory.getAllocatedBytes());
+
+        AssertExtensions.assertThrows(
+                "insert() succeeded on a full cache.",
+                () -> cache2.insert(new TestKey(2, 1), new byte[1]),
+                ex -> ex instanceof CacheException);
+        Assert.assertArrayEquals("Failed insert modified the cache.", data, cache2.get(new TestKey(2, 0)));
+        Assert.assertNull("Failed insert created an entry.", cache2.get(new TestKey(2, 1)));
+
+        cache1.close();
+        cache2.insert(new TestKey(2, 1), data);
+        Assert.assertArrayEquals("Unexpected contents after reusing memory.", data, cache2.get(new TestKey(2, 1)));
+        Assert.assertEquals("Memory was not reused.", SLAB_SIZE, factory.getAllocatedBytes());
+
+        cache2.remove(new TestKey(2, 0));
+        cache2.insert(new TestKey(2, 2), data);
+        Assert.assertEquals("Memory was not reused.", SLAB_SIZE, factory.getAllocatedBytes());
+    }
+
+    /**
+     * Tests that Views remain valid after their entries are replaced or removed, and that the memory backing them is only
+     * released once all of them are closed.
+     */
+    @Test
+    public void testViews() {
+        @Cleanup
+        OffHeapCache cache = (OffHeapCache) createCache("cache");
+        Random rnd = new Random(0);
+        byte[] data1 = new byte[3 * BLOCK_SIZE + 1];
+        byte[] data2 = new byte[BLOCK_SIZE];
+        rnd.nextBytes(data1);
+        rnd.nextBytes(data2);
+        TestKey key = new TestKey(1, 1);
+        cache.insert(key, data1);
+        Cache.View view1 = cache.getView(key);
+        Cache.View view2 = cache.getView(key);
+
+        // Replacing the entry does not affect the Views of the old one, nor release its memory.
+        cache.insert(key, data2);
+        Assert.assertArrayEquals("Unexpected contents of view after overwrite.", data1, getContents(view1));
+        Assert.assertArrayEquals("Unexpected contents after overwrite.", data2, cache.get(key));
+        Assert.assertEquals("Unexpected used bytes in cache after overwrite.", BLOCK_SIZE, cache.getUsedBytes());
+        Assert.assertEquals("Memory released while views were open.", 5 * BLOCK_SIZE, this.factory.get().getUsedBytes());
+        view1.close();
+        view1.close();
+        Assert.assertEquals("Memory released while a view was open.", 5 * BLOCK_SIZE, this.factory.get().getUsedBytes());
+        Assert.assertArrayEquals("Unexpected contents of view after closing another one.", data1, getContents(view2));
+        view2.close();
+        Assert.assertEquals("Memory not released after closing all views.", BLOCK_SIZE, this.factory.get().getUsedBytes());
+        AssertExtensions.assertThrows(
+                "getBuffers() worked on a closed view.",
+                view2::getBuffers,
+                ex -> ex instanceof IllegalStateException);
+
+        // Same goes for removing the entry.
+        Cache.View view3 = cache.getView(key);
+        cache.remove(key);
+        Assert.assertNull("Entry not removed.", cache.get(key));
+        Assert.assertArrayEquals("Unexpected contents of view after removal.", data2, getContents(view3));
+        Assert.assertEquals("Memory released while a view was open.", BLOCK_SIZE, this.factory.get().getUsedBytes());
+        view3.close();
+        Assert.assertEquals("Memory not released after closing the view.", 0, this.factory.get().getUsedBytes());
+    }
+
+    /**
+     * Tests that keys which do not serialize to two longs are rejected.
+     */
+    @Test
+    public void testInvalidKey() {
+        @Cleanup
+        Cache cache = createCache("cache");
+        AssertExtensions.assertThrows(
+                "insert() accepted an invalid key.",
+                () -> cache.insert(new InvalidKey(), new byte[1]),
+                ex -> ex instanceof IllegalArgumentException);
+    }
+
+    private OffHeapCacheConfig createConfig(long maxSize) {
+        return OffHeapCacheConfig.builder()
+                                 .with(OffHeapCacheConfig.BLOCK_SIZE, BLOCK_SIZE)
+                                 .with(OffHeapCacheConfig.SLAB_SIZE, SLAB_SIZE)
+                                 .with(OffHeapCacheConfig.MAX_SIZE, maxSize)
+                                 .build();
+    }
+
+    //region Keys
+
+    @RequiredArgsConstructor
+    @EqualsAndHashCode(callSuper = false)
+    private static class TestKey extends Cache.Key {
+        private final long segmentId;
+        private final long offset;
+
+        @Override
+        public byte[] serialize() {
+            ByteBuffer bb = ByteBuffer.allocate(Long.BYTES * 2);
+            bb.putLong(this.segmentId);
+            bb.putLong(this.offset);
+            return bb.array();
+        }
+    }
+
+    @EqualsAndHashCode(callSuper = false)
+    private static class InvalidKey extends Cache.Key {
+        @Override
+        public byte[] serialize() {
+            return new byte[Long.BYTES];
+        }
+    }
+
+    //endregion
+}
@@ -16,6 +16,10 @@
 package io.pravega.service.storage;
 
 import io.pravega.common.util.ByteArraySegment;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Defines a Cache that can be used by the ReadIndex.
@@ -43,13 +47,76 @@ public interface Cache extends AutoCloseable {
     void insert(Key key, ByteArraySegment data);
 
     /**
-     * Retrieves a cache entry with given key.
+     * Retrieves a cache entry with given key. The returned array may be the one held by the cache (no copy is made by
+     * in-memory implementations), so it must not be modified by the caller.
      *
      * @param key The key to search by.
      * @return The payload associated with the key, or null if no such entry exists.
      */
     byte[] get(Key key);
 
+    /**
+     * Retrieves the cache entries with the given keys. This is equivalent to invoking get() for each key, but
+     * implementations may do it more efficiently (for example, with a single lock acquisition or native call).
+     *
+     * @param keys The keys to search by.
+     * @return A List containing, for each key (in the same order), the payload associated with it, or null if no such
+     * entry exists.
+     */
+    default List<byte[]> getAll(List<? extends Key> keys) {
+        ArrayList<byte[]> result = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            result.add(get(key));
+        }
+
+        return result;
+    }
+
+    /**
+     * Retrieves a read-only View of the cache entry with given key, without copying its payload (unless the implementation
+     * cannot avoid doing so). The View remains valid until it is closed, even if the entry is removed or replaced in the
+     * meantime; it must not be used after that. Every View must be closed, since the Cache may not be able to reuse the
+     * memory backing it until then.
+     *
+     * @param key The key to search by.
+     * @return A View of the payload associated with the key, or null if no such entry exists.
+     */
+    default View getView(Key key) {
+        byte[] data = get(key);
+        if (data == null) {
+            return null;
+        }
+
+        return new View() {
+            @Override
+            public int getLength() {
+                return data.length;
+            }
+
+            @Override
+            public List<ByteBuffer> getBuffers() {
+                return Collections.singletonList(ByteBuffer.wrap(data).asReadOnlyBuffer());
+            }
+
+            @Override
+            public void close() {
+                // Nothing is held on to; the array is garbage collected once no longer referenced.
+            }
+        };
+    }
+
+    /**
+     * Gets the number of bytes of memory that this Cache uses to store an entry with a payload of the given length. This
+     * may exceed the length itself (for example, if memory is allocated in fixed-size blocks), and it is what needs to
+     * be accounted for when determining how full the Cache is.
+     *
+     * @param length The length of the payload.
+     * @return The number of bytes.
+     */
+    default long getEntrySize(int length) {
+        return length;
+    }
+
     /**
      * Removes any cache entry that is associated with the given key.
      *
@@ -89,4 +156,30 @@ public interface Cache extends AutoCloseable {
     }
 
     //endregion
+
+    //region View
+
+    /**
+     * A read-only View of the payload of a Cache entry. See {@link #getView(Key)}.
+     */
+    interface View extends AutoCloseable {
+        /**
+         * Gets the length of the payload.
+         */
+        int getLength();
+
+        /**
+         * Gets read-only ByteBuffers which make up the payload, in order. Each invocation returns new ByteBuffers, whose
+         * positions and limits may be changed freely, but their contents must not be accessed once this View is closed.
+         */
+        List<ByteBuffer> getBuffers();
+
+        /**
+         * Releases this View.
+         */
+        @Override
+        void close();
+    }
+
+    //endregion
 }
@@ -48,6 +48,13 @@ public interface DurableDataLog extends AutoCloseable {
      * <li>WriteTooLongException - When a write that is greater than getMaxAppendLength() is given.
      * </ul>
      *
+     * Implementations must not access the given data after the returned CompletableFuture has completed successfully,
+     * as the caller may reuse the underlying buffer at that point.
+     *
+     * Callers may have multiple appends in flight at the same time. Implementations must write these entries to the log
+     * in the order in which append() was invoked, and must complete the returned CompletableFutures in the same order.
+     * An append that is retried internally must not be written after any append that was invoked after it.
+     *
      * @param data    An ArrayView representing the data to append.
      * @param timeout Timeout for the operation.
      * @return A CompletableFuture that, when completed, will contain the LogAddress within the log for the entry. If the entry
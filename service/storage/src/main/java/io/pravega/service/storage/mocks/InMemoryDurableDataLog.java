@@ -53,6 +53,9 @@ class InMemoryDurableDataLog implements DurableDataLog {
     private final String clientId;
     private final ScheduledExecutorService executorService;
     private final Supplier<Duration> appendDelayProvider;
+    private final Object appendLock = new Object();
+    @GuardedBy("appendLock")
+    private CompletableFuture<LogAddress> lastAppend;
     @GuardedBy("entries")
     private long offset;
     @GuardedBy("entries")
@@ -76,6 +79,7 @@ class InMemoryDurableDataLog implements DurableDataLog {
         this.lastAppendSequence = Long.MIN_VALUE;
         this.epoch = Long.MIN_VALUE;
         this.clientId = UUID.randomUUID().toString();
+        this.lastAppend = CompletableFuture.completedFuture(null);
     }
 
     //region DurableDataLog Implementation
@@ -141,12 +145,22 @@ class InMemoryDurableDataLog implements DurableDataLog {
     public CompletableFuture<LogAddress> append(ArrayView data, Duration timeout) {
         ensurePreconditions();
         Duration delay = this.appendDelayProvider.get();
-        if (delay.compareTo(Duration.ZERO) <= 0) {
-            // No delay, execute right away.
-            return CompletableFuture.supplyAsync(() -> appendInternal(data), this.executorService);
-        } else {
-            // Schedule the append after the given delay.
-            return FutureHelpers.delayedTask(() -> appendInternal(data), delay, this.executorService);
+        synchronized (this.appendLock) {
+            // Appends must be written and acknowledged in the order in which they were received, so we only execute
+            // each one after the previous one has completed (successfully or not).
+            CompletableFuture<LogAddress> result = this.lastAppend
+                    .handle((address, ex) -> (Void) null)
+                    .thenCompose(v -> {
+                        if (delay.compareTo(Duration.ZERO) <= 0) {
+                            // No delay, execute right away.
+                            return CompletableFuture.supplyAsync(() -> appendInternal(data), this.executorService);
+                        } else {
+                            // Schedule the append after the given delay.
+                            return FutureHelpers.delayedTask(() -> appendInternal(data), delay, this.executorService);
+                        }
+                    });
+            this.lastAppend = result;
+            return result;
         }
     }
 
@@ -16,6 +16,8 @@
 package io.pravega.service.storage;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 import lombok.Cleanup;
 import lombok.EqualsAndHashCode;
@@ -53,6 +55,58 @@ public abstract class CacheTestBase {
         });
     }
 
+    /**
+     * Tests the bulk GetAll functionality, including for keys that are not in the cache.
+     */
+    @Test
+    public void testGetAll() {
+        @Cleanup
+        Cache cache = createCache(CACHE_ID);
+
+        // Populate the cache, skipping every other key.
+        ArrayList<CacheKey> keys = new ArrayList<>();
+        forAllCombinations(keys::add);
+        for (int i = 0; i < keys.size(); i += 2) {
+            cache.insert(keys.get(i), getData(keys.get(i)));
+        }
+
+        // Retrieve from the cache, in batches.
+        for (int batchStart = 0; batchStart < keys.size(); batchStart += OFFSET_COUNT) {
+            List<CacheKey> batch = keys.subList(batchStart, Math.min(keys.size(), batchStart + OFFSET_COUNT));
+            List<byte[]> result = cache.getAll(batch);
+            Assert.assertEquals("Unexpected number of results.", batch.size(), result.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if ((batchStart + i) % 2 == 0) {
+                    Assert.assertArrayEquals("Unexpected cache contents from getAll.", getData(batch.get(i)), result.get(i));
+                } else {
+                    Assert.assertNull("Unexpected result from getAll for missing key.", result.get(i));
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the GetView functionality, including for keys that are not in the cache.
+     */
+    @Test
+    public void testGetView() {
+        @Cleanup
+        Cache cache = createCache(CACHE_ID);
+
+        // Populate the cache.
+        forAllCombinations(key -> cache.insert(key, getData(key)));
+
+        // Retrieve views from the cache.
+        forAllCombinations(key -> {
+            try (Cache.View view = cache.getView(key)) {
+                Assert.assertEquals("Unexpected view length.", getData(key).length, view.getLength());
+                Assert.assertArrayEquals("Unexpected cache contents from getView.", getData(key), getContents(view));
+            }
+        });
+
+        Assert.assertNull("Unexpected result from getView for missing key.", cache.getView(new CacheKey(SEGMENT_COUNT, 0)));
+    }
+
     /**
      * Verifies that Remove actually removes from the cache.
      */
@@ -97,6 +151,16 @@ public abstract class CacheTestBase {
         }
     }
 
+    /**
+     * Copies the contents of the given View into a new array.
+     */
+    protected static byte[] getContents(Cache.View view) {
+        ByteBuffer result = ByteBuffer.allocate(view.getLength());
+        view.getBuffers().forEach(result::put);
+        Assert.assertEquals("View buffers do not add up to its length.", 0, result.remaining());
+        return result.array();
+    }
+
     private byte[] getData(CacheKey key) {
         return key.serialize();
     }
@@ -15,6 +15,7 @@
  */
 package io.pravega.service.storage;
 
+import io.pravega.common.concurrent.FutureHelpers;
 import io.pravega.common.io.StreamHelpers;
 import io.pravega.common.util.ByteArraySegment;
 import io.pravega.common.util.CloseableIterator;
@@ -27,6 +28,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Random;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import lombok.Cleanup;
 import lombok.val;
 import org.junit.Assert;
@@ -75,6 +78,46 @@ public abstract class DurableDataLogTestBase extends ThreadPooledTestSuite {
         }
     }
 
+    /**
+     * Tests the ability to have multiple appends in flight at the same time, and that they are written and acknowledged
+     * in the order in which they were issued.
+     *
+     * @throws Exception If one got thrown.
+     */
+    @Test(timeout = TIMEOUT_MILLIS)
+    public void testConcurrentAppend() throws Exception {
+        try (DurableDataLog log = createDurableDataLog()) {
+            log.initialize(TIMEOUT);
+
+            val appendFutures = new ArrayList<CompletableFuture<LogAddress>>();
+            val outOfOrderCount = new AtomicInteger();
+            int writeCount = getWriteCount();
+            for (int i = 0; i < writeCount; i++) {
+                val previousFuture = i == 0 ? null : appendFutures.get(i - 1);
+                val appendFuture = log.append(new ByteArraySegment(getWriteData()), TIMEOUT);
+                appendFuture.thenRun(() -> {
+                    if (previousFuture != null && !previousFuture.isDone()) {
+                        outOfOrderCount.incrementAndGet();
+                    }
+                });
+                appendFutures.add(appendFuture);
+            }
+
+            FutureHelpers.allOf(appendFutures).join();
+            LogAddress prevAddress = null;
+            for (int i = 0; i < writeCount; i++) {
+                LogAddress address = appendFutures.get(i).join();
+                if (prevAddress != null) {
+                    AssertExtensions.assertGreaterThan("Sequence Number is not monotonically increasing.", prevAddress.getSequence(), address.getSequence());
+                }
+
+                prevAddress = address;
+            }
+
+            Assert.assertEquals("Appends were not acknowledged in order.", 0, outOfOrderCount.get());
+        }
+    }
+
     /**
      * Tests the ability to read from a DurableDataLog.
      *
@@ -23,6 +23,7 @@ public final class MetricsNames {
     public static final String SEGMENT_WRITE_LATENCY = "segment_write_latency_ms";   // Timer
     public static final String SEGMENT_READ_BYTES = "segment_read_bytes";            // Dynamic Counter
     public static final String SEGMENT_WRITE_BYTES = "segment_write_bytes";          // Dynamic Counter
+    public static final String SEGMENT_READ_COPIED_BYTES = "segment_read_copied_bytes"; // Counter
 
     //hdfs stats
     public static final String HDFS_READ_LATENCY = "hdfs_read_latency_ms";   // Timer
@@ -31,6 +31,7 @@ import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import static io.pravega.shared.protocol.netty.WireCommands.TYPE_PLUS_LENGTH_SIZE;
@@ -71,17 +72,41 @@ import lombok.extern.slf4j.Slf4j;
  * 
  */
 @NotThreadSafe
-@RequiredArgsConstructor
 @Slf4j
 public class CommandEncoder extends MessageToByteEncoder<Object> {
     private static final byte[] LENGTH_PLACEHOLDER = new byte[4];
 
-    private final AppendBatchSizeTracker blockSizeSupplier;
+    private final Function<UUID, AppendBatchSizeTracker> blockSizeSuppliers;
     private final HashMap<String, Session> setupSegments = new HashMap<>();
     private String segmentBeingAppendedTo;
     private int currentBlockSize;
     private int bytesLeftInBlock;
     
+    /**
+     * Creates a new instance of the CommandEncoder class which uses the same AppendBatchSizeTracker for all writers.
+     *
+     * @param blockSizeSupplier The AppendBatchSizeTracker to use. May be null if this encoder never sends appends
+     *                          (for example on the server side).
+     */
+    public CommandEncoder(AppendBatchSizeTracker blockSizeSupplier) {
+        this.blockSizeSuppliers = writerId -> blockSizeSupplier;
+    }
+
+    private CommandEncoder(Function<UUID, AppendBatchSizeTracker> blockSizeSuppliers) {
+        this.blockSizeSuppliers = Preconditions.checkNotNull(blockSizeSuppliers, "blockSizeSuppliers");
+    }
+
+    /**
+     * Creates a new instance of the CommandEncoder class which uses a separate AppendBatchSizeTracker for each writer.
+     * This is needed when appends from multiple writers are sent over the same connection.
+     *
+     * @param blockSizeSuppliers A Function that returns the AppendBatchSizeTracker for a writer (given its connection id).
+     * @return A new CommandEncoder.
+     */
+    public static CommandEncoder perWriter(Function<UUID, AppendBatchSizeTracker> blockSizeSuppliers) {
+        return new CommandEncoder(blockSizeSuppliers);
+    }
+
     @Data
     private static final class Session {
         private final UUID id;
@@ -115,6 +140,7 @@ public class CommandEncoder extends MessageToByteEncoder<Object> {
                     breakFromAppend(out);
                 }
                 if (bytesLeftInBlock == 0) {
+                    AppendBatchSizeTracker blockSizeSupplier = blockSizeSuppliers.apply(session.id);
                     currentBlockSize = Math.max(TYPE_PLUS_LENGTH_SIZE, blockSizeSupplier.getAppendBlockSize());
                     bytesLeftInBlock = currentBlockSize;
                     segmentBeingAppendedTo = append.segment;
@@ -16,8 +16,11 @@
 package io.pravega.shared.protocol.netty;
 
 import io.pravega.shared.protocol.netty.WireCommands.AbortTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.AbortTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CommitTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.CommitTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CreateSegment;
+import io.pravega.shared.protocol.netty.WireCommands.CreateSegments;
 import io.pravega.shared.protocol.netty.WireCommands.CreateTransaction;
 import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
@@ -87,6 +90,21 @@ public abstract class DelegatingRequestProcessor implements RequestProcessor {
         getNextRequestProcessor().abortTransaction(abortTransaction);
     }
     
+    @Override
+    public void createSegments(CreateSegments createSegments) {
+        getNextRequestProcessor().createSegments(createSegments);
+    }
+
+    @Override
+    public void commitTransactions(CommitTransactions commitTransactions) {
+        getNextRequestProcessor().commitTransactions(commitTransactions);
+    }
+
+    @Override
+    public void abortTransactions(AbortTransactions abortTransactions) {
+        getNextRequestProcessor().abortTransactions(abortTransactions);
+    }
+
     @Override
     public void sealSegment(SealSegment sealSegment) {
         getNextRequestProcessor().sealSegment(sealSegment);
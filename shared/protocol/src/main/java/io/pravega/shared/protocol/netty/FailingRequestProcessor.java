@@ -16,8 +16,11 @@
 package io.pravega.shared.protocol.netty;
 
 import io.pravega.shared.protocol.netty.WireCommands.AbortTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.AbortTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CommitTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.CommitTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CreateSegment;
+import io.pravega.shared.protocol.netty.WireCommands.CreateSegments;
 import io.pravega.shared.protocol.netty.WireCommands.CreateTransaction;
 import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
@@ -92,6 +95,21 @@ public class FailingRequestProcessor implements RequestProcessor {
         throw new IllegalStateException("Unexpected operation");
     }
     
+    @Override
+    public void createSegments(CreateSegments createSegments) {
+        throw new IllegalStateException("Unexpected operation");
+    }
+
+    @Override
+    public void commitTransactions(CommitTransactions commitTransactions) {
+        throw new IllegalStateException("Unexpected operation");
+    }
+
+    @Override
+    public void abortTransactions(AbortTransactions abortTransactions) {
+        throw new IllegalStateException("Unexpected operation");
+    }
+
     @Override
     public void sealSegment(SealSegment sealSegment) {
         throw new IllegalStateException("Unexpected operation");
@@ -16,8 +16,11 @@
 package io.pravega.shared.protocol.netty;
 
 import io.pravega.shared.protocol.netty.WireCommands.AbortTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.AbortTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CommitTransaction;
+import io.pravega.shared.protocol.netty.WireCommands.CommitTransactions;
 import io.pravega.shared.protocol.netty.WireCommands.CreateSegment;
+import io.pravega.shared.protocol.netty.WireCommands.CreateSegments;
 import io.pravega.shared.protocol.netty.WireCommands.CreateTransaction;
 import io.pravega.shared.protocol.netty.WireCommands.DeleteSegment;
 import io.pravega.shared.protocol.netty.WireCommands.GetStreamSegmentInfo;
@@ -47,12 +50,18 @@ public interface RequestProcessor {
 
     void createSegment(CreateSegment createSegment);
 
+    void createSegments(CreateSegments createSegments);
+
     void createTransaction(CreateTransaction createTransaction);
 
     void commitTransaction(CommitTransaction commitTransaction);
     
     void abortTransaction(AbortTransaction abortTransaction);
 
+    void commitTransactions(CommitTransactions commitTransactions);
+
+    void abortTransactions(AbortTransactions abortTransactions);
+
     void sealSegment(SealSegment sealSegment);
 
     void deleteSegment(DeleteSegment deleteSegment);
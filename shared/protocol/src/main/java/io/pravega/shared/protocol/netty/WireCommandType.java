@@ -76,6 +76,11 @@ public enum WireCommandType {
     UPDATE_SEGMENT_POLICY(32, WireCommands.UpdateSegmentPolicy::readFrom),
     SEGMENT_POLICY_UPDATED(33, WireCommands.SegmentPolicyUpdated::readFrom),
 
+    // Batched requests. These are replied to with one of the replies above for each segment they refer to.
+    CREATE_SEGMENTS(34, WireCommands.CreateSegments::readFrom),
+    COMMIT_TRANSACTIONS(35, WireCommands.CommitTransactions::readFrom),
+    ABORT_TRANSACTIONS(36, WireCommands.AbortTransactions::readFrom),
+
     WRONG_HOST(50, WireCommands.WrongHost::readFrom),
     SEGMENT_IS_SEALED(51, WireCommands.SegmentIsSealed::readFrom),
     SEGMENT_ALREADY_EXISTS(52, WireCommands.SegmentAlreadyExists::readFrom),
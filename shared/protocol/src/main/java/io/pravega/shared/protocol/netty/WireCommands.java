@@ -21,14 +21,17 @@ import java.io.DataOutput;
 import java.io.IOException;
 import java.nio.BufferOverflowException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
 import com.google.common.base.Preconditions;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.CorruptedFrameException;
 import lombok.Data;
@@ -556,7 +559,23 @@ public final class WireCommands {
         final long offset;
         final boolean atTail; //TODO: Is sometimes false when actual state is unknown.
         final boolean endOfSegment;
-        final ByteBuffer data;
+        /**
+         * The data that was read. On the sending side this may be a composite ByteBuf over the buffers the data was
+         * read from, so that it does not need to be copied into a single buffer before being written out.
+         */
+        final ByteBuf data;
+
+        public SegmentRead(String segment, long offset, boolean atTail, boolean endOfSegment, ByteBuf data) {
+            this.segment = segment;
+            this.offset = offset;
+            this.atTail = atTail;
+            this.endOfSegment = endOfSegment;
+            this.data = data;
+        }
+
+        public SegmentRead(String segment, long offset, boolean atTail, boolean endOfSegment, ByteBuffer data) {
+            this(segment, offset, atTail, endOfSegment, wrappedBuffer(data));
+        }
 
         @Override
         public void process(ReplyProcessor cp) {
@@ -569,9 +588,16 @@ public final class WireCommands {
             out.writeLong(offset);
             out.writeBoolean(atTail);
             out.writeBoolean(endOfSegment);
-            int dataLength = data.remaining();
+            int dataLength = data.readableBytes();
             out.writeInt(dataLength);
-            out.write(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            if (out instanceof ByteBufOutputStream) {
+                // Copy straight from the (possibly composite) buffer into the one being written to.
+                ((ByteBufOutputStream) out).buffer().writeBytes(data, data.readerIndex(), dataLength);
+            } else {
+                byte[] bytes = new byte[dataLength];
+                data.getBytes(data.readerIndex(), bytes);
+                out.write(bytes);
+            }
         }
 
         public static WireCommand readFrom(DataInput in, int length) throws IOException {
@@ -585,7 +611,7 @@ public final class WireCommands {
             }
             byte[] data = new byte[dataLength];
             in.readFully(data);
-            return new SegmentRead(segment, offset, atTail, endOfSegment, ByteBuffer.wrap(data));
+            return new SegmentRead(segment, offset, atTail, endOfSegment, wrappedBuffer(data));
         }
     }
 
@@ -1103,6 +1129,123 @@ public final class WireCommands {
             return new SegmentDeleted(requestId, segment);
         }
     }
+
+    /**
+     * Creates several segments at once. The server replies to it with one SegmentCreated (or SegmentAlreadyExists,
+     * WrongHost, etc.) per segment, all of which carry this command's requestId.
+     */
+    @Data
+    public static final class CreateSegments implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.CREATE_SEGMENTS;
+        final long requestId;
+        final List<String> segments;
+        final byte scaleType;
+        final int targetRate;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.createSegments(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeLong(requestId);
+            writeSegments(out, segments);
+            out.writeInt(targetRate);
+            out.writeByte(scaleType);
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            long requestId = in.readLong();
+            List<String> segments = readSegments(in);
+            int desiredRate = in.readInt();
+            byte scaleType = in.readByte();
+            return new CreateSegments(requestId, segments, scaleType, desiredRate);
+        }
+    }
+
+    /**
+     * Commits the given transaction on several segments at once. The server replies to it with one TransactionCommitted
+     * (or WrongHost, etc.) per segment, all of which carry this command's requestId.
+     */
+    @Data
+    public static final class CommitTransactions implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.COMMIT_TRANSACTIONS;
+        final long requestId;
+        final List<String> segments;
+        final UUID txid;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.commitTransactions(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeLong(requestId);
+            writeSegments(out, segments);
+            out.writeLong(txid.getMostSignificantBits());
+            out.writeLong(txid.getLeastSignificantBits());
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            long requestId = in.readLong();
+            List<String> segments = readSegments(in);
+            UUID txid = new UUID(in.readLong(), in.readLong());
+            return new CommitTransactions(requestId, segments, txid);
+        }
+    }
+
+    /**
+     * Aborts the given transaction on several segments at once. The server replies to it with one TransactionAborted
+     * (or WrongHost, etc.) per segment, all of which carry this command's requestId.
+     */
+    @Data
+    public static final class AbortTransactions implements Request, WireCommand {
+        final WireCommandType type = WireCommandType.ABORT_TRANSACTIONS;
+        final long requestId;
+        final List<String> segments;
+        final UUID txid;
+
+        @Override
+        public void process(RequestProcessor cp) {
+            cp.abortTransactions(this);
+        }
+
+        @Override
+        public void writeFields(DataOutput out) throws IOException {
+            out.writeLong(requestId);
+            writeSegments(out, segments);
+            out.writeLong(txid.getMostSignificantBits());
+            out.writeLong(txid.getLeastSignificantBits());
+        }
+
+        public static WireCommand readFrom(DataInput in, int length) throws IOException {
+            long requestId = in.readLong();
+            List<String> segments = readSegments(in);
+            UUID txid = new UUID(in.readLong(), in.readLong());
+            return new AbortTransactions(requestId, segments, txid);
+        }
+    }
+
+    private static void writeSegments(DataOutput out, List<String> segments) throws IOException {
+        out.writeInt(segments.size());
+        for (String segment : segments) {
+            out.writeUTF(segment);
+        }
+    }
+
+    private static List<String> readSegments(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0) {
+            throw new InvalidMessageException("Invalid segment count: " + count);
+        }
+        List<String> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            segments.add(in.readUTF());
+        }
+        return segments;
+    }
     
     @Data
     public static final class KeepAlive implements Request, Reply, WireCommand {
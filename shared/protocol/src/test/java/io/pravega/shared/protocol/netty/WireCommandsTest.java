@@ -16,6 +16,7 @@
 package io.pravega.shared.protocol.netty;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import io.netty.buffer.Unpooled;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -23,6 +24,8 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.UUID;
 import org.junit.Test;
 
@@ -32,6 +35,7 @@ public class WireCommandsTest {
 
     private final UUID uuid = UUID.randomUUID();
     private final String testString1 = "testString1";
+    private final String testString2 = "testString2";
     private final ByteBuffer buffer = ByteBuffer.wrap(new byte[] { 1, 2, 3, 4, 5 });
     private final ByteBuf buf = Unpooled.wrappedBuffer(buffer);
     private final byte b = -1;
@@ -94,6 +98,22 @@ public class WireCommandsTest {
         testCommand(new WireCommands.SegmentRead(testString1, l, true, false, buffer));
     }
 
+    @Test
+    public void testSegmentReadComposite() throws IOException {
+        ByteBuf data = Unpooled.wrappedBuffer(new byte[] { 1, 2, 3 }, new byte[] { 4, 5 });
+        WireCommands.SegmentRead command = new WireCommands.SegmentRead(testString1, l, true, false, data);
+        testCommand(command);
+
+        // Serializing into a ByteBuf copies straight from the composite buffer.
+        ByteBuf out = Unpooled.buffer();
+        command.writeFields(new ByteBufOutputStream(out));
+        byte[] array = new byte[out.readableBytes()];
+        out.readBytes(array);
+        WireCommand read = command.getType().readFrom(new DataInputStream(new ByteArrayInputStream(array)), array.length);
+        assertEquals(command, read);
+        assertEquals(new WireCommands.SegmentRead(testString1, l, true, false, buffer), read);
+    }
+
     @Test
     public void testGetStreamSegmentInfo() throws IOException {
         testCommand(new WireCommands.GetStreamSegmentInfo(l, testString1));
@@ -119,6 +139,12 @@ public class WireCommandsTest {
         testCommand(new WireCommands.CreateSegment(l, testString1, b, i));
     }
 
+    @Test
+    public void testCreateSegments() throws IOException {
+        testCommand(new WireCommands.CreateSegments(l, Arrays.asList(testString1, testString2), b, i));
+        testCommand(new WireCommands.CreateSegments(l, Collections.emptyList(), b, i));
+    }
+
     @Test
     public void testSegmentCreated() throws IOException {
         testCommand(new WireCommands.SegmentCreated(l, testString1));
@@ -139,6 +165,16 @@ public class WireCommandsTest {
         testCommand(new WireCommands.CommitTransaction(l, testString1, uuid));
     }
 
+    @Test
+    public void testCommitTransactions() throws IOException {
+        testCommand(new WireCommands.CommitTransactions(l, Arrays.asList(testString1, testString2), uuid));
+    }
+
+    @Test
+    public void testAbortTransactions() throws IOException {
+        testCommand(new WireCommands.AbortTransactions(l, Arrays.asList(testString1, testString2), uuid));
+    }
+
     @Test
     public void testTransactionCommitted() throws IOException {
         testCommand(new WireCommands.TransactionCommitted(l, testString1, uuid));
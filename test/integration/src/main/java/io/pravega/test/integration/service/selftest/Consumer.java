@@ -39,6 +39,7 @@ import java.util.concurrent.CompletionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -582,6 +583,13 @@ public class Consumer extends Actor {
         @Override
         public void processError(Throwable cause) {
             cause = ExceptionHelpers.getRealException(cause);
+            if (cause instanceof TimeoutException) {
+                // A tail read that waited too long for new data; this is not a failure. Let the caller re-issue the read
+                // from where we left off.
+                this.completed.complete(this.readLength.get());
+                return;
+            }
+
             this.completed.completeExceptionally(cause);
             if (!(cause instanceof StreamSegmentSealedException)) {
                 CallbackHelpers.invokeSafely(this.failureHandler, cause, null);
@@ -153,7 +153,7 @@ public class ReadTest {
             expected.put(data);
         }
         expected.rewind();
-        assertEquals(expected, result.getData());
+        assertEquals(expected, result.getData().nioBuffer());
     }
 
     @Test